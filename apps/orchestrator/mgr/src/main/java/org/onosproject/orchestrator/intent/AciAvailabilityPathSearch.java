@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.google.common.collect.ImmutableList;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.DisjointPath;
+import org.onosproject.net.ElementId;
+import org.onosproject.net.Path;
+import org.onosproject.net.intent.Constraint;
+import org.onosproject.net.intent.constraint.AvailabilityConstraint;
+import org.onosproject.net.topology.AvailabilityLinkWeigher;
+import org.onosproject.net.topology.LinkWeigher;
+import org.onosproject.net.topology.PathService;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyService;
+import org.onosproject.orchestrator.intent.AciSearches.MaskingWeigher;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+import static org.onosproject.net.topology.HopCountLinkWeigher.DEFAULT_HOP_COUNT_WEIGHER;
+import static org.onosproject.orchestrator.intent.AciSearches.MAX_CANDIDATES;
+
+/**
+ * Finds the cheapest path meeting an availability target, and resorts to a
+ * protected path pair only when no single path can meet it.
+ * <p>
+ * The most available path, found on log-unavailability weights, first tells
+ * whether a single path can meet the target at all. If so, paths are streamed
+ * by hop count, leaving out the links less available than the target, and
+ * the first one meeting the target is kept. Otherwise the disjoint pairs of
+ * lowest hop count and of highest availability are considered.
+ */
+final class AciAvailabilityPathSearch {
+
+    private final PathService pathService;
+    private final TopologyService topologyService;
+    private final ToDoubleFunction<DeviceId> devices;
+
+    private Topology topology;
+    private AvailabilityLinkWeigher weigher;
+
+    /**
+     * Creates an availability path search.
+     *
+     * @param pathService     path service searching the paths
+     * @param topologyService topology service, each topology getting its own
+     *                        cached link weights
+     * @param devices         availability of a device, between 0 and 1
+     */
+    AciAvailabilityPathSearch(PathService pathService, TopologyService topologyService,
+                              ToDoubleFunction<DeviceId> devices) {
+        this.pathService = pathService;
+        this.topologyService = topologyService;
+        this.devices = devices;
+    }
+
+    /**
+     * Returns the availability target among the given constraints.
+     *
+     * @param constraints intent constraints
+     * @return availability constraint, if any
+     */
+    static Optional<AvailabilityConstraint> target(List<Constraint> constraints) {
+        return constraints.stream()
+                .filter(constraint -> constraint instanceof AvailabilityConstraint)
+                .map(AvailabilityConstraint.class::cast)
+                .filter(constraint -> constraint.availability() != null)
+                .findFirst();
+    }
+
+    /**
+     * Returns the cheapest path between two elements meeting an availability
+     * target and accepted by the filter, or the cheapest disjoint path pair
+     * meeting it if no single path does.
+     *
+     * @param one    source element
+     * @param two    destination element
+     * @param target availability target, between 0 and 1
+     * @param filter final check of the paths found
+     * @return path or disjoint path pair found, if any
+     */
+    Optional<Path> getPath(ElementId one, ElementId two, double target, Predicate<Path> filter) {
+        AvailabilityLinkWeigher logWeigher = weigher();
+        Predicate<Path> admissible = path -> path.weight().isViable()
+                && AvailabilityConstraint.availability(path, logWeigher::availability, devices) >= target
+                && filter.test(path);
+
+        Set<Path> mostAvailable = pathService.getPaths(one, two, logWeigher);
+        if (mostAvailable.stream().anyMatch(path -> path.weight().isViable()
+                && AvailabilityConstraint.availability(path, logWeigher::availability, devices) >= target)) {
+            LinkWeigher hops = MaskingWeigher.hopCount(link -> logWeigher.availability(link) >= target);
+            Optional<Path> path = pathService.getKShortestPaths(one, two, hops)
+                    .limit(MAX_CANDIDATES)
+                    .filter(admissible)
+                    .findFirst();
+            if (!path.isPresent()) {
+                path = mostAvailable.stream().filter(admissible).findFirst();
+            }
+            if (path.isPresent()) {
+                return path;
+            }
+        }
+
+        return ImmutableList.of(DEFAULT_HOP_COUNT_WEIGHER, logWeigher).stream()
+                .flatMap(pairWeigher -> pathService.getDisjointPaths(one, two, pairWeigher).stream())
+                .filter(pair -> pair.backup() != null)
+                .filter(admissible)
+                .min(Comparator.comparingInt(AciAvailabilityPathSearch::hops))
+                .map(Path.class::cast);
+    }
+
+    // Total number of links of a disjoint path pair
+    private static int hops(DisjointPath pair) {
+        return pair.primary().links().size() + pair.backup().links().size();
+    }
+
+    // Link weights are cached until the topology changes
+    private synchronized AvailabilityLinkWeigher weigher() {
+        Topology current = topologyService.currentTopology();
+        if (weigher == null || current != topology) {
+            topology = current;
+            weigher = new AvailabilityLinkWeigher(devices);
+        }
+        return weigher;
+    }
+}
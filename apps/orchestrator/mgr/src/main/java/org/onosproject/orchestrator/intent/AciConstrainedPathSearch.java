@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.google.common.collect.ImmutableList;
+import org.onlab.graph.DijkstraGraphSearch;
+import org.onlab.graph.LazyKShortestPathsSearch;
+import org.onlab.graph.ScalarWeight;
+import org.onlab.graph.Weight;
+import org.onlab.util.Bandwidth;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultPath;
+import org.onosproject.net.ElementId;
+import org.onosproject.net.Link;
+import org.onosproject.net.Path;
+import org.onosproject.net.host.HostService;
+import org.onosproject.net.intent.Constraint;
+import org.onosproject.net.intent.ResourceContext;
+import org.onosproject.net.intent.constraint.BooleanConstraint;
+import org.onosproject.net.intent.constraint.LatencyConstraint;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.net.resource.ContinuousResource;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyService;
+import org.onosproject.net.topology.TopologyVertex;
+import org.onosproject.orchestrator.intent.AciSearches.MaskingWeigher;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.onosproject.orchestrator.intent.AciSearches.MAX_CANDIDATES;
+
+/**
+ * Constrained shortest path search for the ACI compilers.
+ * <p>
+ * Constraints judged link by link, such as bandwidth or obstacles, leave the
+ * links they reject out of the searches. Links are judged against a residual
+ * bandwidth snapshot rather than the resource store. Each latency budget is
+ * first checked against the lowest latency admissible path, so a request
+ * which cannot be met fails after one search per budget; otherwise paths are
+ * streamed by hop count with the budgets checked on every path prefix, so
+ * the paths over budget are never searched, and the first ones accepted by
+ * the filter are kept.
+ */
+final class AciConstrainedPathSearch {
+
+    private static final ProviderId PID = new ProviderId("core", "org.onosproject.core", true);
+
+    private final TopologyService topologyService;
+    private final HostService hostService;
+    private final ResourceContext resources;
+
+    /**
+     * Creates a constrained path search.
+     *
+     * @param topologyService topology service giving the graph searched
+     * @param hostService     host service locating the host endpoints
+     * @param resources       resource context for the resources missing from
+     *                        the snapshots, typically the resource service
+     */
+    AciConstrainedPathSearch(TopologyService topologyService, HostService hostService,
+                             ResourceContext resources) {
+        this.topologyService = topologyService;
+        this.hostService = hostService;
+        this.resources = resources;
+    }
+
+    /**
+     * Returns whether some of the given constraints can be checked during
+     * the search.
+     *
+     * @param constraints intent constraints
+     * @return true if a constraint is judged per link or is a latency budget
+     */
+    static boolean appliesTo(List<Constraint> constraints) {
+        return constraints.stream().anyMatch(constraint -> constraint instanceof BooleanConstraint
+                || constraint instanceof LatencyConstraint);
+    }
+
+    /**
+     * Returns the shortest paths, by hop count, between two elements meeting
+     * the link constraints and latency budgets among the given constraints,
+     * and accepted by the filter.
+     *
+     * @param one         source element
+     * @param two         destination element
+     * @param constraints intent constraints
+     * @param snapshot    residual bandwidth to judge the links against
+     * @param filter      final check of the paths found
+     * @return admissible paths of the lowest hop count found, empty if none
+     */
+    List<Path> getPaths(ElementId one, ElementId two, List<Constraint> constraints,
+                        ResidualBandwidth snapshot, Predicate<Path> filter) {
+        Optional<AciSearchGraph> searchGraph = AciSearchGraph.between(topologyService, hostService, one, two);
+        if (!searchGraph.isPresent()) {
+            return ImmutableList.of();
+        }
+        AciSearchGraph graph = searchGraph.get();
+
+        ResourceContext context = snapshotContext(snapshot);
+        List<BooleanConstraint> linkConstraints = constraints.stream()
+                .filter(constraint -> constraint instanceof BooleanConstraint)
+                .map(BooleanConstraint.class::cast)
+                .collect(Collectors.toList());
+        List<LatencyConstraint> budgets = constraints.stream()
+                .filter(constraint -> constraint instanceof LatencyConstraint)
+                .map(LatencyConstraint.class::cast)
+                .collect(Collectors.toList());
+
+        // All searches weigh the same links, judge each of them once
+        Map<Link, Boolean> verdicts = new ConcurrentHashMap<>();
+        Predicate<Link> admissible = link -> verdicts.computeIfAbsent(
+                link, l -> linkConstraints.stream().allMatch(c -> c.isValid(l, context)));
+        Predicate<Path> withinBudget = path -> budgets.stream().allMatch(c -> c.validate(path, context));
+
+        if (graph.src().equals(graph.dst())) {
+            Path path = graph.path(ImmutableList.of());
+            return path != null && withinBudget.test(path) && filter.test(path)
+                    ? ImmutableList.of(path) : ImmutableList.of();
+        }
+
+        // A budget not met by its own lowest latency path cannot be met at all
+        Set<Path> fastest = new LinkedHashSet<>();
+        for (LatencyConstraint budget : budgets) {
+            Optional<Path> path = new DijkstraGraphSearch<TopologyVertex, TopologyEdge>()
+                    .search(graph.graph(), graph.src(), graph.dst(),
+                            MaskingWeigher.byCost(admissible, link -> budget.cost(link, context)), 1)
+                    .paths().stream()
+                    .findFirst()
+                    .map(p -> graph.path(p.edges()));
+            if (!path.isPresent() || !budget.validate(path.get(), context)) {
+                return ImmutableList.of();
+            }
+            fastest.add(path.get());
+        }
+
+        // Latencies only add up, a prefix over budget has no path extending it within budget
+        Predicate<List<TopologyEdge>> prefixWithinBudget = edges -> budgets.isEmpty()
+                || withinBudget.test(new DefaultPath(PID, graph.prefix(edges), new ScalarWeight(0)));
+
+        ImmutableList.Builder<Path> found = ImmutableList.builder();
+        Weight shortest = null;
+        int rejected = 0;
+        Iterator<Path> candidates = new LazyKShortestPathsSearch<TopologyVertex, TopologyEdge>()
+                .lazyPathSearch(graph.graph(), graph.src(), graph.dst(), MaskingWeigher.byCost(admissible, link -> 1),
+                                edge -> admissible.test(edge.link()), prefixWithinBudget)
+                .map(path -> graph.path(path.edges()))
+                .iterator();
+        while (candidates.hasNext() && rejected < MAX_CANDIDATES) {
+            Path path = candidates.next();
+            if (shortest != null && path.weight().compareTo(shortest) > 0) {
+                break;
+            }
+            if (withinBudget.test(path) && filter.test(path)) {
+                shortest = path.weight();
+                found.add(path);
+            } else {
+                rejected++;
+            }
+        }
+        List<Path> paths = found.build();
+        if (paths.isEmpty()) {
+            // The filter only accepts paths far from the shortest ones
+            return fastest.stream()
+                    .filter(path -> withinBudget.test(path) && filter.test(path))
+                    .collect(ImmutableList.toImmutableList());
+        }
+        return paths;
+    }
+
+    // Judges bandwidth on the ports known to the snapshot, everything else on the resource context
+    private ResourceContext snapshotContext(ResidualBandwidth snapshot) {
+        return resource -> {
+            if (resource instanceof ContinuousResource && resource.isTypeOf(Bandwidth.class)) {
+                Optional<ConnectPoint> point = resource.parent()
+                        .flatMap(ResidualBandwidthManager::connectPoint);
+                if (point.isPresent() && snapshot.residuals().containsKey(point.get())) {
+                    return snapshot.residual(point.get()) >= ((ContinuousResource) resource).value();
+                }
+            }
+            return resources.isAvailable(resource);
+        };
+    }
+}
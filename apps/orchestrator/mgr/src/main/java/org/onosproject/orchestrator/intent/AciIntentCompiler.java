@@ -28,6 +28,9 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.onlab.graph.ScalarWeight;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.packet.Ethernet;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpPrefix;
@@ -48,11 +51,12 @@ import org.onosproject.net.Host;
 import org.onosproject.net.Link;
 import org.onosproject.net.Path;
 import org.onosproject.net.Port;
-import org.onosproject.net.PortNumber;
 import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
 import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.host.HostEvent;
+import org.onosproject.net.host.HostListener;
 import org.onosproject.net.host.HostService;
 import org.onosproject.net.intent.AciIntent;
 import org.onosproject.net.intent.AciPathIntent;
@@ -69,6 +73,7 @@ import org.onosproject.net.intent.IntentService;
 import org.onosproject.net.intent.IntentState;
 import org.onosproject.net.intent.LinkCollectionIntent;
 import org.onosproject.net.intent.constraint.AsymmetricPathConstraint;
+import org.onosproject.net.intent.constraint.AvailabilityConstraint;
 import org.onosproject.net.intent.constraint.BandwidthConstraint;
 import org.onosproject.net.intent.constraint.EncryptionConstraint;
 import org.onosproject.net.intent.constraint.LatencyConstraint;
@@ -77,8 +82,6 @@ import org.onosproject.net.intent.constraint.NegotiableConstraint;
 import org.onosproject.net.intent.constraint.ObstacleConstraint;
 import org.onosproject.net.intent.constraint.RestorationConstraint;
 import org.onosproject.net.link.LinkService;
-import org.onosproject.net.resource.ContinuousResource;
-import org.onosproject.net.resource.DiscreteResource;
 import org.onosproject.net.resource.Resource;
 import org.onosproject.net.resource.ResourceAllocation;
 import org.onosproject.net.resource.ResourceConsumer;
@@ -86,6 +89,7 @@ import org.onosproject.net.resource.ResourceId;
 import org.onosproject.net.resource.ResourceService;
 import org.onosproject.net.resource.Resources;
 import org.onosproject.net.topology.PathService;
+import org.onosproject.net.topology.TopologyService;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -95,18 +99,18 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.AnnotationKeys.getAnnotatedValue;
 import static org.onosproject.net.Link.Type.EDGE;
 
@@ -118,9 +122,13 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
 
     private static final Bandwidth DEFAULT_OPTICAL_BW = Bandwidth.gbps(1);
     private static final Bandwidth DEFAULT_MACSEC_BW = Bandwidth.mbps(10);
+    private static final int DEFAULT_MAX_ALTERNATIVES = 5;
+    private static final long DEFAULT_NEGOTIATION_TIMEOUT = 2_000;
     // tag for nodes and ports that indicates encryption capabilities
     private static final String ENCRYPTION = "encryption";
     private static final String DEVICE_ID_NOT_FOUND = "Didn't find device id in the link";
+    private static final String METRICS_COMPONENT = "AciIntentCompiler";
+    private static final String METRICS_FEATURE = "pathCache";
     private final Logger log = LoggerFactory.getLogger(getClass());
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected PathService pathService;
@@ -138,6 +146,14 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
     protected LinkService linkService;
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ResourceService resourceService;
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected TopologyService topologyService;
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ResidualBandwidthService residualBandwidthService;
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected AciPortPolicyService portPolicyService;
     @Property(label = "Bandwidth threshold in Mbps to applied Optical encryption ",
             name = "opticalBw",
             longValue = 1_000)
@@ -146,9 +162,21 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
             name = "macSecBw",
             longValue = 10)
     private Bandwidth macSecBw = DEFAULT_MACSEC_BW;
-    private Map<ConnectPoint, Set<ConnectPoint>> allowedPorts = new HashMap<>();
-    private ConnectPoint j1p230;
-    //private ConnectPoint sa2;
+    @Property(label = "Maximum number of alternatives offered when negotiating an ACI intent",
+            name = "maxAlternatives",
+            intValue = DEFAULT_MAX_ALTERNATIVES)
+    private int maxAlternatives = DEFAULT_MAX_ALTERNATIVES;
+    @Property(label = "Time budget in milliseconds for evaluating the alternatives of a negotiation",
+            name = "negotiationTimeout",
+            longValue = DEFAULT_NEGOTIATION_TIMEOUT)
+    private long negotiationTimeout = DEFAULT_NEGOTIATION_TIMEOUT;
+    private AciPathCache pathCache;
+    private AciConstrainedPathSearch constrainedSearch;
+    private AciParetoPathSearch paretoSearch;
+    private AciAvailabilityPathSearch availabilitySearch;
+    private ExecutorService negotiationExecutor;
+    private volatile NegotiationAlternatives negotiation;
+    private final HostListener hostListener = new InternalHostListener();
 
     @Activate
     public void activate() {
@@ -156,111 +184,29 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
 
         configService.registerProperties(getClass());
 
-        //BLUE
-        // J1 <--> J3
-        ConnectPoint j1p209 = new ConnectPoint(
-                DeviceId.deviceId("netconf:10.95.86.132:830"),
-                PortNumber.portNumber(516));
-        ConnectPoint j3p208 = new ConnectPoint(
-                DeviceId.deviceId("netconf:10.95.86.134:830"),
-                PortNumber.portNumber(517));
-        // J1 <--> J2
-        ConnectPoint j2p208 = new ConnectPoint(
-                DeviceId.deviceId("netconf:10.95.86.133:830"),
-                PortNumber.portNumber(518));
-        Set<ConnectPoint> j1 = new HashSet<>();
-        j1.add(j3p208);
-        j1.add(j2p208);
-        allowedPorts.put(j1p209, j1);
-        allowedPorts.put(j3p208, Collections.singleton(j1p209));
-        allowedPorts.put(j2p208, Collections.singleton(j1p209));
-        //ORANGE
-        //J1 <--> J3
-        j1p230 = new ConnectPoint(
-                DeviceId.deviceId("netconf:10.95.86.132:830"),
-                PortNumber.portNumber(549));
-        ConnectPoint j3p220 = new ConnectPoint(
-                DeviceId.deviceId("netconf:10.95.86.134:830"),
-                PortNumber.portNumber(547));
-        allowedPorts.put(j1p230, Collections.singleton(j3p220));
-        allowedPorts.put(j3p220, Collections.singleton(j1p230));
-
-        // GREEN
-        ConnectPoint j2p209 = new ConnectPoint(
-                DeviceId.deviceId("netconf:10.95.86.133:830"),
-                PortNumber.portNumber(519));
-        ConnectPoint j3p209 = new ConnectPoint(
-                DeviceId.deviceId("netconf:10.95.86.134:830"),
-                PortNumber.portNumber(518));
-        allowedPorts.put(j2p209, Collections.singleton(j3p209));
-        allowedPorts.put(j3p209, Collections.singleton(j2p209));
-
-        //ENCRYPTED PORTs
-        ConnectPoint j1p207 = new ConnectPoint(
-                DeviceId.deviceId("netconf:10.95.86.132:830"),
-                PortNumber.portNumber(514));
-        ConnectPoint j3p207 = new ConnectPoint(
-                DeviceId.deviceId("netconf:10.95.86.134:830"),
-                PortNumber.portNumber(516));
-        allowedPorts.put(j1p207, Collections.singleton(j3p207));
-        allowedPorts.put(j3p207, Collections.singleton(j1p207));
-
-        //ADVA Testbed
-
-
-        //TODO: to be removed! only for testing in Mininet
-        //ORANGE
-        ConnectPoint sa2 = new ConnectPoint(
-                DeviceId.deviceId("of:000000000000000a"),
-                PortNumber.portNumber(2));
-        ConnectPoint sb2 = new ConnectPoint(
-                DeviceId.deviceId("of:000000000000000b"),
-                PortNumber.portNumber(2));
-        allowedPorts.put(sa2, Collections.singleton(sb2));
-        allowedPorts.put(sb2, Collections.singleton(sa2));
-        //BLUE
-        ConnectPoint sa3 = new ConnectPoint(
-                DeviceId.deviceId("of:000000000000000a"),
-                PortNumber.portNumber(3));
-        ConnectPoint sb3 = new ConnectPoint(
-                DeviceId.deviceId("of:000000000000000b"),
-                PortNumber.portNumber(3));
-        ConnectPoint sc2 = new ConnectPoint(
-                DeviceId.deviceId("of:000000000000000c"),
-                PortNumber.portNumber(2));
-        Set<ConnectPoint> sa = new HashSet<>();
-        sa.add(sb3);
-        sa.add(sc2);
-        allowedPorts.put(sa3, sa);
-        allowedPorts.put(sb2, Collections.singleton(sb3));
-        allowedPorts.put(sc2, Collections.singleton(sa3));
-
-        //GREEN
-        ConnectPoint sc3 = new ConnectPoint(
-                DeviceId.deviceId("of:000000000000000c"),
-                PortNumber.portNumber(3));
-        ConnectPoint sb4 = new ConnectPoint(
-                DeviceId.deviceId("of:000000000000000b"),
-                PortNumber.portNumber(4));
-        allowedPorts.put(sc3, Collections.singleton(sb4));
-        allowedPorts.put(sb4, Collections.singleton(sc3));
-        log.debug("allowedPorts {}", allowedPorts);
-
-
-        ConnectPoint s114 = new ConnectPoint(
-                DeviceId.deviceId("of:0000000000000001"),
-                PortNumber.portNumber(14));
-        ConnectPoint s214 = new ConnectPoint(
-                DeviceId.deviceId("of:0000000000000002"),
-                PortNumber.portNumber(14));
-        allowedPorts.put(s114, Collections.singleton(s214));
-        allowedPorts.put(s214, Collections.singleton(s114));
+        MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+        MetricsFeature feature = component.registerFeature(METRICS_FEATURE);
+        pathCache = new AciPathCache(pathService, topologyService,
+                                     metricsService.createCounter(component, feature, "hits"),
+                                     metricsService.createCounter(component, feature, "misses"));
+        constrainedSearch = new AciConstrainedPathSearch(topologyService, hostService, resourceService::isAvailable);
+        paretoSearch = new AciParetoPathSearch(topologyService, hostService);
+        availabilitySearch = new AciAvailabilityPathSearch(pathService, topologyService, this::availability);
+        hostService.addListener(hostListener);
+        negotiationExecutor = newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                                                 groupedThreads("onos/orchestrator", "aci-negotiation-%d", log));
+        negotiation = new NegotiationAlternatives(negotiationExecutor, maxAlternatives, negotiationTimeout);
     }
 
     @Deactivate
     public void deactivate() {
         intentManager.unregisterCompiler(AciIntent.class);
-        allowedPorts.clear();
+        hostService.removeListener(hostListener);
+        MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+        MetricsFeature feature = component.registerFeature(METRICS_FEATURE);
+        metricsService.removeMetric(component, feature, "hits");
+        metricsService.removeMetric(component, feature, "misses");
+        negotiationExecutor.shutdownNow();
     }
 
     @Modified
@@ -272,6 +218,8 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
                     "Optical Bandwidth Threshold reconfigured to default {} Mbps and " +
                             "MacSec Bandwidth Threshold reconfigured to default {} Mbps",
                     opticalBw.bps() / 1_000_000L, macSecBw.bps() / 1_000_000L);
+            maxAlternatives = DEFAULT_MAX_ALTERNATIVES;
+            negotiationTimeout = DEFAULT_NEGOTIATION_TIMEOUT;
         } else {
             String optical = Tools.get(context.getProperties(), "opticalBw");
             Bandwidth newOpticalBw =
@@ -290,7 +238,22 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
                 log.info("MacSec Bandwidth Threshold reconfigured to {} Mbps",
                          macSecBw.bps() / 1_000_000L);
             }
+            // Missing or malformed values keep the current setting
+            Integer alternatives = Tools.getIntegerProperty(context.getProperties(), "maxAlternatives");
+            int newMaxAlternatives = alternatives == null ? maxAlternatives : alternatives;
+            Long timeout = Tools.getLongProperty(context.getProperties(), "negotiationTimeout");
+            long newNegotiationTimeout = timeout == null ? negotiationTimeout : timeout;
+            if (newMaxAlternatives > 0 && newNegotiationTimeout > 0) {
+                maxAlternatives = newMaxAlternatives;
+                negotiationTimeout = newNegotiationTimeout;
+            } else {
+                log.warn("Ignoring non positive negotiation alternatives {} or timeout {} ms",
+                         newMaxAlternatives, newNegotiationTimeout);
+            }
         }
+        negotiation = new NegotiationAlternatives(negotiationExecutor, maxAlternatives, negotiationTimeout);
+        log.info("Negotiation offers up to {} alternatives evaluated within {} ms",
+                 maxAlternatives, negotiationTimeout);
     }
 
     @Override
@@ -310,40 +273,49 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
     protected List<Path> getPaths(AciIntent intent,
                                   ElementId one, ElementId two) {
 
-        Set<Path> paths = pathService.getPaths(one, two);
+        Set<Path> paths = pathCache.getPaths(one, two);
         if (paths.isEmpty()) {
             throw new IntentException("Cannot find a path between " + one + " and " + two);
         }
 
         final List<Constraint> initialConstraints = intent.constraints();
 
-        ImmutableList<Path> filtered = paths.stream()
-                .filter(path -> checkPath(path, initialConstraints))
-                .filter(path -> portCheck(path))
-                .collect(ImmutableList.toImmutableList());
+        Optional<AvailabilityConstraint> availability = AciAvailabilityPathSearch.target(initialConstraints);
+        if (availability.isPresent()) {
+            // A protected pair is only computed when no single path is available enough
+            Optional<Path> path = availabilitySearch.getPath(
+                    one, two, availability.get().availability() / 100,
+                    p -> checkPath(p, initialConstraints) && portCheck(p));
+            if (path.isPresent()) {
+                return ImmutableList.of(path.get());
+            }
+            if (NegotiableConstraint.negotiationAllowed(intent)) {
+                throw new IntentNegotiationException(intent, alternativeIntents(
+                        intent, one, two, ImmutableList.copyOf(paths)));
+            }
+            throw new IntentException("The ACI intent " + intent.key() + " constraints cannot be satisfied");
+        }
+
+        List<Path> filtered;
+        if (AciConstrainedPathSearch.appliesTo(initialConstraints)) {
+            // Inadmissible links are pruned during the search instead of filtering all the paths
+            filtered = constrainedSearch.getPaths(one, two, initialConstraints,
+                                                  residualBandwidthService.snapshot(),
+                                                  path -> checkPath(path, initialConstraints) && portCheck(path));
+        } else {
+            filtered = paths.stream()
+                    .filter(path -> checkPath(path, initialConstraints))
+                    .filter(path -> portCheck(path))
+                    .collect(ImmutableList.toImmutableList());
+        }
         if (filtered.isEmpty()) {
             //Try with disjoint path
-            Set<DisjointPath> disjointPaths = pathService.getDisjointPaths(one, two);
+            Set<DisjointPath> disjointPaths = pathCache.getDisjointPaths(one, two);
             if (disjointPaths.isEmpty()) {
                 if (paths.size() >= 1 && NegotiableConstraint.negotiationAllowed(intent)) {
                     //Disjoint doesn't work if the topology does not have multiple paths
-                    List<Intent> alternativeIntents = Lists.newArrayList();
-                    for (Path path : paths) {
-                        List<Constraint> pathConstraints = supportedPathConstraints(path, initialConstraints);
-
-                        AciIntent alternativeACIintent = AciIntent.builder()
-                                .key(intent.key())
-                                .appId(intent.appId())
-                                .one(intent.one())
-                                .two(intent.two())
-                                .priority(intent.priority())
-                                .treatment(intent.treatment())
-                                .selector(intent.selector())
-                                .constraints(pathConstraints)
-                                .build();
-                        alternativeIntents.add(alternativeACIintent);
-                    }
-                    throw new IntentNegotiationException(intent, alternativeIntents);
+                    throw new IntentNegotiationException(intent, alternativeIntents(
+                            intent, one, two, ImmutableList.copyOf(paths)));
                 } else {
                     throw new IntentException("Cannot find a path between " + one + " and " + two);
                 }
@@ -358,45 +330,14 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
                 if (!NegotiableConstraint.negotiationAllowed(intent)) {
                     throw new IntentException("The ACI intent " + intent.key() + " constraints cannot be satisfied");
                 }
-                List<Intent> alternativeIntents = Lists.newArrayList();
-
+                List<Path> candidates = Lists.newArrayList();
                 for (DisjointPath path : disjointPaths) {
-                    List<Constraint> pathConstraints = supportedPathConstraints(path.primary(), initialConstraints);
-
-                    //Only for NetSoft demo:
-                    // we add the same intent with HighAvailability
-                    AciIntent alternativeACIintent = AciIntent.builder()
-                            .key(intent.key())
-                            .appId(intent.appId())
-                            .one(intent.one())
-                            .two(intent.two())
-                            .priority(intent.priority())
-                            .treatment(intent.treatment())
-                            .selector(intent.selector())
-                            .constraints(pathConstraints)
-                            .build();
-                    alternativeIntents.add(alternativeACIintent);
-
+                    candidates.add(path.primary());
                     if (path.backup() != null) {
-
-                        List<Constraint> backupPathConstraints = supportedPathConstraints(path.backup(), initialConstraints);
-                        //Only for NetSoft demo:
-                        // we add the same intent with HighAvailability
-                        AciIntent alternativeACIintentBackup = AciIntent.builder()
-                                .key(intent.key())
-                                .appId(intent.appId())
-                                .one(intent.one())
-                                .two(intent.two())
-                                .priority(intent.priority())
-                                .treatment(intent.treatment())
-                                .selector(intent.selector())
-                                .constraints(backupPathConstraints)
-                                .build();
-                        alternativeIntents.add(alternativeACIintentBackup);
+                        candidates.add(path.backup());
                     }
                 }
-
-                throw new IntentNegotiationException(intent, alternativeIntents);
+                throw new IntentNegotiationException(intent, alternativeIntents(intent, one, two, candidates));
             }
             return disjointFiltered;
         }
@@ -405,21 +346,41 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
     }
 
 
-    private boolean portCheck(Path path) {
+    /**
+     * Returns the best alternatives to the given intent, each asking for the
+     * constraints its path can support. The paths offered are the Pareto
+     * frontier of latency, residual bandwidth and availability between the
+     * two elements, or the candidate paths if the frontier cannot be searched.
+     *
+     * @param intent     intent whose constraints cannot be satisfied
+     * @param one        source element
+     * @param two        destination element
+     * @param candidates candidate paths, in order of preference
+     * @return alternative intents, best first
+     */
+    private List<Intent> alternativeIntents(AciIntent intent, ElementId one, ElementId two,
+                                            List<Path> candidates) {
+        final List<Constraint> initialConstraints = intent.constraints();
+        final ResidualBandwidth residual = residualBandwidthService.snapshot();
+
+        List<Path> frontier = paretoSearch.getPaths(one, two, residual);
+        return negotiation.best(frontier.isEmpty() ? candidates : frontier,
+                                path -> alternative(path, initialConstraints, residual)).stream()
+                .map(constraints -> AciIntent.builder()
+                        .key(intent.key())
+                        .appId(intent.appId())
+                        .one(intent.one())
+                        .two(intent.two())
+                        .priority(intent.priority())
+                        .treatment(intent.treatment())
+                        .selector(intent.selector())
+                        .constraints(constraints)
+                        .build())
+                .collect(Collectors.toList());
+    }
 
-        Iterator<Link> iter = path.links().iterator();
-        while (iter.hasNext()) {
-            Set<ConnectPoint> dstCP = allowedPorts.get(iter.next().src());
-            if (dstCP != null && !dstCP.isEmpty()) {
-                while (iter.hasNext()) {
-                    if (dstCP.contains(iter.next().dst())) {
-                        return true;
-                    }
-                }
-                return false;
-            }
-        }
-        return true;
+    private boolean portCheck(Path path) {
+        return portPolicyService.packetPolicy().admits(path);
     }
 
     private boolean portCheck(Path path, ConnectPoint one, ConnectPoint two) {
@@ -669,16 +630,7 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
             filtered = FluentIterable
                     .from(getPaths(intent, intent.one(), intent.two()))
                     //.filter(path -> checkPath(path, constraints))
-                    .filter(path -> {
-                        for (Link link : path.links()) {
-                            if (link.src().equals(j1p230) || link.dst()
-                                    .equals(j1p230)) {
-                                return true;
-                            }
-                        }
-                        return false;
-
-                    })
+                    .filter(portPolicyService.packetPolicy()::isPreferred)
                     .toList();
             if (filtered.isEmpty()) {
                 filtered = getPaths(intent, intent.one(), intent.two()).stream()
@@ -763,7 +715,7 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
                 }
 
                 //filter the path to use the tunnel ports
-                filtered = FluentIterable.from(pathService.getPaths(
+                filtered = FluentIterable.from(pathCache.getPaths(
                         intent.one(), intent.two()))
                         .filter(path -> portCheck(path,
                                                   new ConnectPoint(
@@ -918,7 +870,7 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
                 }
             }
         }
-        Set<Path> paths = pathService.getPaths(deviceOne.id(), deviceTwo.id());
+        Set<Path> paths = pathCache.getPaths(deviceOne.id(), deviceTwo.id());
         if (paths.isEmpty()) {
             log.error("Optical path not found");
         }
@@ -1008,42 +960,34 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
         return true;
     }
 
-    private List<Constraint> supportedPathConstraints(Path path, List<Constraint> initialConstraints) {
+    private NegotiationAlternatives.Alternative alternative(Path path, List<Constraint> initialConstraints,
+                                                           ResidualBandwidth residual) {
         List<ConnectPoint> pathCPs =
                 path.links().stream()
                         .flatMap(l -> Stream.of(l.src(), l.dst()))
                         .collect(Collectors.toList());
 
-        double bandwidthLeft = 0;
-        double currentBandwidth = 0;
-
-        for (ConnectPoint point : pathCPs) {
-            if (point.elementId() instanceof DeviceId) {
-                currentBandwidth = leftResources(point);
-
-                if (currentBandwidth == 0) {
-                    bandwidthLeft = 0;
-                    break;
-                }
-
-                if (bandwidthLeft == 0) {
-                    bandwidthLeft = currentBandwidth;
-                }
+        double bandwidthLeft = residual.bottleneck(pathCPs);
+        double pathLatency = path.links().stream().mapToDouble(this::cost).sum();
+        double pathAvailability = AvailabilityConstraint.availability(path);
 
-                if (currentBandwidth < bandwidthLeft) {
-                    bandwidthLeft = currentBandwidth;
-                }
-            }
-        }
+        return new NegotiationAlternatives.Alternative(
+                supportedPathConstraints(bandwidthLeft, pathLatency, pathAvailability, initialConstraints),
+                bandwidthLeft, pathLatency, pathAvailability);
+    }
 
+    private List<Constraint> supportedPathConstraints(double bandwidthLeft, double pathLatency,
+                                                      double pathAvailability,
+                                                      List<Constraint> initialConstraints) {
         Bandwidth bw = Bandwidth.bps(bandwidthLeft);
         BandwidthConstraint bwConstraint = new BandwidthConstraint(bw);
 
-        double pathLatency = path.links().stream().mapToDouble(this::cost).sum();
-
         LatencyConstraint latencyConstraint = new LatencyConstraint(Duration.of((long) pathLatency, ChronoUnit.NANOS));
 
-        List<Constraint> pathConstraints = Lists.newArrayList(bwConstraint, latencyConstraint);
+        AvailabilityConstraint availabilityConstraint = new AvailabilityConstraint(pathAvailability * 100);
+
+        List<Constraint> pathConstraints = Lists.newArrayList(bwConstraint, latencyConstraint,
+                                                              availabilityConstraint);
 
         return pathConstraints.stream()
                 .filter(pathConstraint -> {
@@ -1056,6 +1000,10 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
                                 (c instanceof LatencyConstraint)) {
                             return true;
                         }
+                        if ((pathConstraint instanceof AvailabilityConstraint) &&
+                                (c instanceof AvailabilityConstraint)) {
+                            return true;
+                        }
                     }
                     return false;
                 })
@@ -1072,12 +1020,25 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
                                 (initialConst instanceof LatencyConstraint)) {
                             return pathConstraint;
                         }
+                        if ((pathConstraint instanceof AvailabilityConstraint) &&
+                                (initialConst instanceof AvailabilityConstraint)) {
+                            Double offered = ((AvailabilityConstraint) pathConstraint).availability();
+                            Double required = ((AvailabilityConstraint) initialConst).availability();
+                            if (required == null || offered != null && offered >= required) {
+                                return initialConst;
+                            }
+                        }
                     }
                     return pathConstraint;
                 })
                 .collect(Collectors.toList());
     }
 
+    private double availability(DeviceId deviceId) {
+        Device device = deviceService.getDevice(deviceId);
+        return device == null ? 1 : AvailabilityConstraint.availability(device);
+    }
+
     private double cost(Link link) {
         //Check only links, not EdgeLinks
         if (link.type() != Link.Type.EDGE) {
@@ -1088,37 +1049,6 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
         }
     }
 
-    /**
-     * Returns the amount of resources left with respect to the current allocation
-     *
-     * @param connectPoint requested resource
-     * @return true if there is enough resource volume. Otherwise, false.
-     */
-    // computational complexity: O(n) where n is the number of allocations
-    private double leftResources(ConnectPoint connectPoint) {
-
-        DiscreteResource resource = Resources.discrete(connectPoint.deviceId(), connectPoint.port()).resource();
-
-        Set<Resource> resourceValues = resourceService.getRegisteredResources(resource.id());
-
-        double original = resourceValues.stream()
-                .filter(x -> x instanceof ContinuousResource)
-                .map(x -> (ContinuousResource) x)
-                .mapToDouble(ContinuousResource::value)
-                .sum();
-
-        Collection<ResourceAllocation> resourceAllocations =
-                resourceService.getResourceAllocations(resource.id(), Bandwidth.class);
-
-        double allocated = resourceAllocations.stream()
-                .filter(x -> x.resource() instanceof ContinuousResource)
-                .map(x -> (ContinuousResource) x.resource())
-                .mapToDouble(ContinuousResource::value)
-                .sum();
-
-        return original - allocated;
-    }
-
     /**
      * Allocates the bandwidth specified as intent constraint on each link
      * composing the intent, if a bandwidth constraint is specified.
@@ -1222,6 +1152,7 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
         if (allocations.isEmpty()) {
             log.debug("No resources allocated for intent {}", newResourceConsumer);
         }
+        residualBandwidthService.refresh(connectPoints);
 
         log.debug("Done allocating bandwidth for intent {}", newResourceConsumer);
     }
@@ -1384,4 +1315,14 @@ public class AciIntentCompiler implements IntentCompiler<AciIntent> {
 //        return intents;
 //    }
 
+    // Host paths depend on host locations, which are not part of the topology
+    private class InternalHostListener implements HostListener {
+        @Override
+        public void event(HostEvent event) {
+            if (event.type() == HostEvent.Type.HOST_MOVED
+                    || event.type() == HostEvent.Type.HOST_REMOVED) {
+                pathCache.invalidate();
+            }
+        }
+    }
 }
@@ -23,13 +23,10 @@ import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
-import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultPath;
-import org.onosproject.net.DeviceId;
 import org.onosproject.net.ElementId;
 import org.onosproject.net.Link;
 import org.onosproject.net.Path;
-import org.onosproject.net.PortNumber;
 import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.TrafficSelector;
 import org.onosproject.net.intent.AciIntent;
@@ -48,11 +45,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import static org.onosproject.net.DefaultEdgeLink.createEdgeLink;
@@ -68,7 +61,8 @@ public class AciOpticalIntentCompiler implements IntentCompiler<AciOpticalIntent
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected PathService pathService;
 
-    private Map<ConnectPoint, Set<ConnectPoint>> allowedPorts = new HashMap<ConnectPoint, Set<ConnectPoint>>();
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected AciPortPolicyService portPolicyService;
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     private IntentExtensionService intentManager;
@@ -79,91 +73,11 @@ public class AciOpticalIntentCompiler implements IntentCompiler<AciOpticalIntent
     @Activate
     public void activate() {
         intentManager.registerCompiler(AciOpticalIntent.class, this);
-        //BLUE
-        // A196 <--> A197
-        ConnectPoint a6p2 = new ConnectPoint(
-                DeviceId.deviceId("restproxy:10.95.86.196"),
-                PortNumber.portNumber(2));
-        ConnectPoint a7p4 = new ConnectPoint(
-                DeviceId.deviceId("restproxy:10.95.86.197"),
-                PortNumber.portNumber(4));
-        // A196 <--> A198
-        ConnectPoint a8p4 = new ConnectPoint(
-                DeviceId.deviceId("restproxy:10.95.86.198"),
-                PortNumber.portNumber(208));
-        Set<ConnectPoint> j1 = new HashSet<ConnectPoint>();
-        j1.add(a7p4);
-        j1.add(a8p4);
-        allowedPorts.put(a6p2, j1);
-        allowedPorts.put(a7p4, Collections.singleton(a6p2));
-        allowedPorts.put(a8p4, Collections.singleton(a6p2));
-        //ORANGE
-        //A196 <--> A197
-        ConnectPoint a6p1 = new ConnectPoint(
-                DeviceId.deviceId("restproxy:10.95.86.196"),
-                PortNumber.portNumber(1));
-        ConnectPoint a7p1 = new ConnectPoint(
-                DeviceId.deviceId("restproxy:10.95.86.197"),
-                PortNumber.portNumber(2));
-        allowedPorts.put(a6p1, Collections.singleton(a7p1));
-        allowedPorts.put(a7p1, Collections.singleton(a6p1));
-
-        // GREEN
-        //A198 <--> A197
-        ConnectPoint a8p3 = new ConnectPoint(
-                DeviceId.deviceId("restproxy:10.95.86.198"),
-                PortNumber.portNumber(3));
-        ConnectPoint a7p3 = new ConnectPoint(
-                DeviceId.deviceId("restproxy:10.95.86.197"),
-                PortNumber.portNumber(3));
-        allowedPorts.put(a8p3, Collections.singleton(a7p3));
-        allowedPorts.put(a7p3, Collections.singleton(a8p3));
-
-
-        //TODO: to be removed! only for testing in Mininet
-        //ORANGE
-        ConnectPoint sd1 = new ConnectPoint(
-                DeviceId.deviceId("of:000000000000000d"),
-                PortNumber.portNumber(1));
-        ConnectPoint se1 = new ConnectPoint(
-                DeviceId.deviceId("of:000000000000000e"),
-                PortNumber.portNumber(1));
-        allowedPorts.put(sd1, Collections.singleton(se1));
-        allowedPorts.put(se1, Collections.singleton(sd1));
-        //BLUE
-        ConnectPoint sd2 = new ConnectPoint(
-                DeviceId.deviceId("of:000000000000000d"),
-                PortNumber.portNumber(2));
-        ConnectPoint se2 = new ConnectPoint(
-                DeviceId.deviceId("of:000000000000000e"),
-                PortNumber.portNumber(2));
-        ConnectPoint sf1 = new ConnectPoint(
-                DeviceId.deviceId("of:000000000000000f"),
-                PortNumber.portNumber(1));
-        Set<ConnectPoint> sa = new HashSet<ConnectPoint>();
-        sa.add(se2);
-        sa.add(sf1);
-        allowedPorts.put(sd2, sa);
-        allowedPorts.put(sd2, Collections.singleton(se2));
-        allowedPorts.put(sf1, Collections.singleton(sd2));
-
-        //GREEN
-        ConnectPoint sf3 = new ConnectPoint(
-                DeviceId.deviceId("of:000000000000000f"),
-                PortNumber.portNumber(3));
-        ConnectPoint se3 = new ConnectPoint(
-                DeviceId.deviceId("of:000000000000000e"),
-                PortNumber.portNumber(3));
-        allowedPorts.put(sf3, Collections.singleton(se3));
-        allowedPorts.put(se3, Collections.singleton(sf3));
-        log.info("allowedPorts {}", allowedPorts);
-
     }
 
     @Deactivate
     public void deactivate() {
         intentManager.unregisterCompiler(AciIntent.class);
-        allowedPorts.clear();
     }
 
     @Override
@@ -197,20 +111,7 @@ public class AciOpticalIntentCompiler implements IntentCompiler<AciOpticalIntent
     }
 
     private boolean portCheck(Path path) {
-
-        Iterator<Link> iter = path.links().iterator();
-        while (iter.hasNext()) {
-            Set<ConnectPoint> dstCP = allowedPorts.get(iter.next().src());
-            if (dstCP != null && !dstCP.isEmpty()) {
-                while (iter.hasNext()) {
-                    if (dstCP.contains(iter.next().dst())) {
-                        return true;
-                    }
-                }
-                return false;
-            }
-        }
-        return true;
+        return portPolicyService.opticalPolicy().admits(path);
     }
 
     // Creates a path intent from the specified path and original connectivity intent.
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.google.common.collect.ImmutableList;
+import org.onlab.graph.ParetoGraphSearch;
+import org.onlab.graph.ParetoGraphSearch.Criterion;
+import org.onlab.graph.ParetoGraphSearch.Label;
+import org.onosproject.net.AnnotationKeys;
+import org.onosproject.net.ElementId;
+import org.onosproject.net.Link;
+import org.onosproject.net.Path;
+import org.onosproject.net.host.HostService;
+import org.onosproject.net.intent.constraint.AvailabilityConstraint;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyService;
+import org.onosproject.net.topology.TopologyVertex;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.onosproject.net.AnnotationKeys.getAnnotatedValue;
+
+/**
+ * Searches the paths offered when negotiating an ACI intent.
+ * <p>
+ * A single multi-criteria search over the current topology returns one path
+ * for each non-dominated combination of latency, residual bandwidth and
+ * availability between two elements, so every alternative offered is better
+ * than the others on at least one of them.
+ */
+final class AciParetoPathSearch {
+
+    private final TopologyService topologyService;
+    private final HostService hostService;
+
+    /**
+     * Creates a Pareto path search.
+     *
+     * @param topologyService topology service giving the graph searched
+     * @param hostService     host service locating the host endpoints
+     */
+    AciParetoPathSearch(TopologyService topologyService, HostService hostService) {
+        this.topologyService = topologyService;
+        this.hostService = hostService;
+    }
+
+    /**
+     * Returns the paths between two elements whose latency, residual
+     * bandwidth and availability are not all bettered by another path.
+     *
+     * @param one      source element
+     * @param two      destination element
+     * @param snapshot residual bandwidth of the links
+     * @return non-dominated paths, lowest latency first; empty if none
+     */
+    List<Path> getPaths(ElementId one, ElementId two, ResidualBandwidth snapshot) {
+        Optional<AciSearchGraph> searchGraph = AciSearchGraph.between(topologyService, hostService, one, two);
+        if (!searchGraph.isPresent()) {
+            return ImmutableList.of();
+        }
+        AciSearchGraph graph = searchGraph.get();
+
+        List<Label<TopologyVertex, TopologyEdge>> frontier =
+                new ParetoGraphSearch<TopologyVertex, TopologyEdge>(ImmutableList.of(
+                        Criterion.additive(edge -> latency(edge.link())),
+                        Criterion.bottleneck(edge -> snapshot.bottleneck(
+                                ImmutableList.of(edge.link().src(), edge.link().dst()))),
+                        Criterion.multiplicative(edge -> AvailabilityConstraint.availability(edge.link()))))
+                        .search(graph.graph(), graph.src(), graph.dst());
+
+        ImmutableList.Builder<Path> paths = ImmutableList.builder();
+        for (Label<TopologyVertex, TopologyEdge> label : frontier) {
+            Path path = graph.path(label.edges());
+            if (path != null) {
+                paths.add(path);
+            }
+        }
+        return paths.build();
+    }
+
+    /**
+     * Returns the latency of a link, 0 for edge links or links with no
+     * latency annotation.
+     *
+     * @param link link
+     * @return link latency
+     */
+    static double latency(Link link) {
+        if (link.type() == Link.Type.EDGE || link.annotations().value(AnnotationKeys.LATENCY) == null) {
+            return 0;
+        }
+        return Math.max(0, getAnnotatedValue(link, AnnotationKeys.LATENCY));
+    }
+}
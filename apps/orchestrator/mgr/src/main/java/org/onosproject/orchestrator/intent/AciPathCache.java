@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.codahale.metrics.Counter;
+import com.google.common.collect.ImmutableSet;
+import org.onosproject.net.DisjointPath;
+import org.onosproject.net.ElementId;
+import org.onosproject.net.Path;
+import org.onosproject.net.topology.LinkWeigher;
+import org.onosproject.net.topology.PathService;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyService;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the candidate paths between two elements, valid for one
+ * topology epoch.
+ * <p>
+ * Only the raw path sets returned by the path service are cached; the
+ * constraint, port and resource checks still run on every compilation.
+ * The cache is dropped as soon as the current topology changes, and can be
+ * dropped explicitly when host locations change.
+ */
+final class AciPathCache {
+
+    private final PathService pathService;
+    private final TopologyService topologyService;
+    private final Counter hits;
+    private final Counter misses;
+
+    private volatile Epoch epoch = new Epoch(null);
+
+    /**
+     * Creates a path cache.
+     *
+     * @param pathService     path service to fall back to
+     * @param topologyService topology service giving the current epoch
+     * @param hits            counter of cache hits, may be null
+     * @param misses          counter of cache misses, may be null
+     */
+    AciPathCache(PathService pathService, TopologyService topologyService,
+                 Counter hits, Counter misses) {
+        this.pathService = pathService;
+        this.topologyService = topologyService;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * Returns the shortest paths between two elements using the default weigher.
+     *
+     * @param one source element
+     * @param two destination element
+     * @return set of paths
+     */
+    Set<Path> getPaths(ElementId one, ElementId two) {
+        return getPaths(one, two, null);
+    }
+
+    /**
+     * Returns the shortest paths between two elements.
+     *
+     * @param one     source element
+     * @param two     destination element
+     * @param weigher link weigher, null for the default one
+     * @return set of paths
+     */
+    Set<Path> getPaths(ElementId one, ElementId two, LinkWeigher weigher) {
+        return lookup(currentEpoch().paths, new PairKey(one, two, weigher),
+                      () -> weigher == null ? pathService.getPaths(one, two)
+                              : pathService.getPaths(one, two, weigher));
+    }
+
+    /**
+     * Returns the disjoint paths between two elements using the default weigher.
+     *
+     * @param one source element
+     * @param two destination element
+     * @return set of disjoint paths
+     */
+    Set<DisjointPath> getDisjointPaths(ElementId one, ElementId two) {
+        return getDisjointPaths(one, two, null);
+    }
+
+    /**
+     * Returns the disjoint paths between two elements.
+     *
+     * @param one     source element
+     * @param two     destination element
+     * @param weigher link weigher, null for the default one
+     * @return set of disjoint paths
+     */
+    Set<DisjointPath> getDisjointPaths(ElementId one, ElementId two, LinkWeigher weigher) {
+        return lookup(currentEpoch().disjointPaths, new PairKey(one, two, weigher),
+                      () -> weigher == null ? pathService.getDisjointPaths(one, two)
+                              : pathService.getDisjointPaths(one, two, weigher));
+    }
+
+    /**
+     * Drops all cached paths.
+     */
+    void invalidate() {
+        epoch = new Epoch(null);
+    }
+
+    private <P extends Path> Set<P> lookup(Map<PairKey, Set<P>> cache, PairKey key,
+                                           Supplier<Set<P>> compute) {
+        Set<P> paths = cache.get(key);
+        if (paths != null) {
+            inc(hits);
+            return paths;
+        }
+        inc(misses);
+        paths = ImmutableSet.copyOf(compute.get());
+        // Unknown or unreachable end points may show up later without a topology change
+        if (!paths.isEmpty()) {
+            cache.put(key, paths);
+        }
+        return paths;
+    }
+
+    private Epoch currentEpoch() {
+        Topology topology = topologyService.currentTopology();
+        Epoch current = epoch;
+        if (current.topology != topology) {
+            synchronized (this) {
+                current = epoch;
+                if (current.topology != topology) {
+                    current = new Epoch(topology);
+                    epoch = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static void inc(Counter counter) {
+        if (counter != null) {
+            counter.inc();
+        }
+    }
+
+    // Paths computed against one topology instance
+    private static final class Epoch {
+        private final Topology topology;
+        private final Map<PairKey, Set<Path>> paths = new ConcurrentHashMap<>();
+        private final Map<PairKey, Set<DisjointPath>> disjointPaths = new ConcurrentHashMap<>();
+
+        private Epoch(Topology topology) {
+            this.topology = topology;
+        }
+    }
+
+    private static final class PairKey {
+        private final ElementId one;
+        private final ElementId two;
+        private final LinkWeigher weigher;
+
+        private PairKey(ElementId one, ElementId two, LinkWeigher weigher) {
+            this.one = one;
+            this.two = two;
+            this.weigher = weigher;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PairKey)) {
+                return false;
+            }
+            PairKey that = (PairKey) o;
+            return Objects.equals(one, that.one) && Objects.equals(two, that.two)
+                    && Objects.equals(weigher, that.weigher);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(one, two, weigher);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.Link;
+import org.onosproject.net.Path;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the port policies of one layer.
+ * <p>
+ * Policies are kept per port so that they can be updated one at a time,
+ * and a path is checked in a single pass over its links whatever the
+ * number of policies.
+ */
+public final class AciPortPolicy {
+
+    private final Map<ConnectPoint, Set<ConnectPoint>> allowedPeers = new ConcurrentHashMap<>();
+    private final Set<ConnectPoint> preferred = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Sets the policy of a port, replacing any previous one.
+     *
+     * @param port              port
+     * @param peers             ports a path crossing the port must reach,
+     *                          empty for none
+     * @param preferUnencrypted whether unencrypted traffic should preferably
+     *                          cross the port
+     */
+    public void update(ConnectPoint port, Set<ConnectPoint> peers, boolean preferUnencrypted) {
+        if (peers.isEmpty()) {
+            allowedPeers.remove(port);
+        } else {
+            allowedPeers.put(port, ImmutableSet.copyOf(peers));
+        }
+        if (preferUnencrypted) {
+            preferred.add(port);
+        } else {
+            preferred.remove(port);
+        }
+    }
+
+    /**
+     * Removes the policy of a port.
+     *
+     * @param port port
+     */
+    public void remove(ConnectPoint port) {
+        allowedPeers.remove(port);
+        preferred.remove(port);
+    }
+
+    /**
+     * Removes all policies.
+     */
+    public void clear() {
+        allowedPeers.clear();
+        preferred.clear();
+    }
+
+    /**
+     * Returns whether a path complies with the policy: once the path leaves
+     * a policy port, a later link must end on one of its allowed peers.
+     *
+     * @param path path to check
+     * @return true if the path is admitted
+     */
+    public boolean admits(Path path) {
+        Set<ConnectPoint> peers = null;
+        for (Link link : path.links()) {
+            if (peers == null) {
+                peers = allowedPeers.get(link.src());
+            } else if (peers.contains(link.dst())) {
+                return true;
+            }
+        }
+        return peers == null;
+    }
+
+    /**
+     * Returns whether a path crosses a port preferred for unencrypted traffic.
+     *
+     * @param path path to check
+     * @return true if the path crosses a preferred port
+     */
+    public boolean isPreferred(Path path) {
+        if (preferred.isEmpty()) {
+            return false;
+        }
+        for (Link link : path.links()) {
+            if (preferred.contains(link.src()) || preferred.contains(link.dst())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the allowed peers of every port with a policy.
+     *
+     * @return copy of the allowed peers by port
+     */
+    public Map<ConnectPoint, Set<ConnectPoint>> allowedPeers() {
+        return ImmutableMap.copyOf(allowedPeers);
+    }
+}
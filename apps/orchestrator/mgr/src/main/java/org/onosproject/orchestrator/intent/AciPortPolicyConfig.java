@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableSet;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.config.Config;
+
+import java.util.Set;
+
+/**
+ * Port policy applied by the ACI compilers to a port.
+ * <p>
+ * A path crossing the port as the source of a link is only admitted if a
+ * later link of the path ends on one of the allowed peers.
+ */
+public class AciPortPolicyConfig extends Config<ConnectPoint> {
+
+    /**
+     * Configuration key of the port policy.
+     */
+    public static final String CONFIG_KEY = "aciPortPolicy";
+
+    private static final String ALLOWED_PEERS = "allowedPeers";
+    private static final String OPTICAL = "optical";
+    private static final String PREFER_UNENCRYPTED = "preferUnencrypted";
+
+    @Override
+    public boolean isValid() {
+        if (!hasOnlyFields(ALLOWED_PEERS, OPTICAL, PREFER_UNENCRYPTED)) {
+            return false;
+        }
+        try {
+            allowedPeers();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the ports a path crossing this port must reach.
+     *
+     * @return allowed peer ports, empty if the port is unrestricted
+     */
+    public Set<ConnectPoint> allowedPeers() {
+        ImmutableSet.Builder<ConnectPoint> peers = ImmutableSet.builder();
+        for (JsonNode peer : node.path(ALLOWED_PEERS)) {
+            peers.add(ConnectPoint.deviceConnectPoint(peer.asText()));
+        }
+        return peers.build();
+    }
+
+    /**
+     * Returns whether the policy applies to the optical compiler rather than
+     * the packet one.
+     *
+     * @return true for an optical port
+     */
+    public boolean optical() {
+        return node.path(OPTICAL).asBoolean(false);
+    }
+
+    /**
+     * Returns whether paths of unencrypted traffic should preferably cross
+     * this port.
+     *
+     * @return true if the port is preferred for unencrypted traffic
+     */
+    public boolean preferUnencrypted() {
+        return node.path(PREFER_UNENCRYPTED).asBoolean(false);
+    }
+}
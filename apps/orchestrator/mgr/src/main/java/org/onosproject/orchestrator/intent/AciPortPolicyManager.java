@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.Service;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.config.ConfigFactory;
+import org.onosproject.net.config.NetworkConfigEvent;
+import org.onosproject.net.config.NetworkConfigListener;
+import org.onosproject.net.config.NetworkConfigRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.onosproject.net.config.basics.SubjectFactories.CONNECT_POINT_SUBJECT_FACTORY;
+
+/**
+ * Maintains the ACI port policies from the network configuration, e.g.
+ * <pre>
+ * "ports": {
+ *   "of:000000000000000a/2": {
+ *     "aciPortPolicy": { "allowedPeers": ["of:000000000000000b/2"] }
+ *   }
+ * }
+ * </pre>
+ */
+@Component(immediate = true)
+@Service
+public class AciPortPolicyManager implements AciPortPolicyService {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected NetworkConfigRegistry configRegistry;
+
+    private final ConfigFactory<ConnectPoint, AciPortPolicyConfig> configFactory =
+            new ConfigFactory<ConnectPoint, AciPortPolicyConfig>(
+                    CONNECT_POINT_SUBJECT_FACTORY, AciPortPolicyConfig.class, AciPortPolicyConfig.CONFIG_KEY) {
+                @Override
+                public AciPortPolicyConfig createConfig() {
+                    return new AciPortPolicyConfig();
+                }
+            };
+
+    private final NetworkConfigListener configListener = new InternalConfigListener();
+    private final AciPortPolicy packetPolicy = new AciPortPolicy();
+    private final AciPortPolicy opticalPolicy = new AciPortPolicy();
+
+    @Activate
+    public void activate() {
+        configRegistry.registerConfigFactory(configFactory);
+        configRegistry.addListener(configListener);
+        for (ConnectPoint port : configRegistry.getSubjects(ConnectPoint.class, AciPortPolicyConfig.class)) {
+            update(port);
+        }
+        log.info("Started");
+    }
+
+    @Deactivate
+    public void deactivate() {
+        configRegistry.removeListener(configListener);
+        configRegistry.unregisterConfigFactory(configFactory);
+        packetPolicy.clear();
+        opticalPolicy.clear();
+        log.info("Stopped");
+    }
+
+    @Override
+    public AciPortPolicy packetPolicy() {
+        return packetPolicy;
+    }
+
+    @Override
+    public AciPortPolicy opticalPolicy() {
+        return opticalPolicy;
+    }
+
+    private void update(ConnectPoint port) {
+        AciPortPolicyConfig config = configRegistry.getConfig(port, AciPortPolicyConfig.class);
+        if (config == null) {
+            remove(port);
+            return;
+        }
+        if (!config.isValid()) {
+            log.warn("Ignoring invalid ACI port policy of {}", port);
+            remove(port);
+            return;
+        }
+        AciPortPolicy policy = config.optical() ? opticalPolicy : packetPolicy;
+        AciPortPolicy other = config.optical() ? packetPolicy : opticalPolicy;
+        other.remove(port);
+        policy.update(port, config.allowedPeers(), config.preferUnencrypted());
+        log.debug("ACI port policy of {} updated", port);
+    }
+
+    private void remove(ConnectPoint port) {
+        packetPolicy.remove(port);
+        opticalPolicy.remove(port);
+    }
+
+    private class InternalConfigListener implements NetworkConfigListener {
+        @Override
+        public boolean isRelevant(NetworkConfigEvent event) {
+            return event.configClass() == AciPortPolicyConfig.class
+                    && event.subject() instanceof ConnectPoint;
+        }
+
+        @Override
+        public void event(NetworkConfigEvent event) {
+            switch (event.type()) {
+                case CONFIG_ADDED:
+                case CONFIG_UPDATED:
+                case CONFIG_REMOVED:
+                    update((ConnectPoint) event.subject());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+/**
+ * Service giving the port policies configured for the ACI compilers.
+ */
+public interface AciPortPolicyService {
+
+    /**
+     * Returns the port policy of the packet layer.
+     *
+     * @return packet port policy
+     */
+    AciPortPolicy packetPolicy();
+
+    /**
+     * Returns the port policy of the optical layer.
+     *
+     * @return optical port policy
+     */
+    AciPortPolicy opticalPolicy();
+}
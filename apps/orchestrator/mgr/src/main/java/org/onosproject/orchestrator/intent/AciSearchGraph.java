@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import org.onlab.graph.ScalarWeight;
+import org.onosproject.net.DefaultPath;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.ElementId;
+import org.onosproject.net.Host;
+import org.onosproject.net.HostId;
+import org.onosproject.net.Link;
+import org.onosproject.net.Path;
+import org.onosproject.net.host.HostService;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.net.topology.DefaultTopologyVertex;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyGraph;
+import org.onosproject.net.topology.TopologyService;
+import org.onosproject.net.topology.TopologyVertex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.onosproject.net.DefaultEdgeLink.createEdgeLink;
+
+/**
+ * Current topology graph searched between two elements.
+ * <p>
+ * Host endpoints are reached through their edge links, which are added
+ * around the edges of the paths found in the graph.
+ */
+final class AciSearchGraph {
+
+    private static final ProviderId PID = new ProviderId("core", "org.onosproject.core", true);
+
+    private final TopologyGraph graph;
+    private final TopologyVertex src;
+    private final TopologyVertex dst;
+    private final Link ingress;
+    private final Link egress;
+
+    private AciSearchGraph(TopologyGraph graph, TopologyVertex src, TopologyVertex dst,
+                           Link ingress, Link egress) {
+        this.graph = graph;
+        this.src = src;
+        this.dst = dst;
+        this.ingress = ingress;
+        this.egress = egress;
+    }
+
+    /**
+     * Returns the current topology graph between two elements.
+     *
+     * @param topologyService topology service giving the graph
+     * @param hostService     host service locating the host endpoints
+     * @param one             source element
+     * @param two             destination element
+     * @return graph, empty if an element is not in the topology
+     */
+    static Optional<AciSearchGraph> between(TopologyService topologyService, HostService hostService,
+                                            ElementId one, ElementId two) {
+        Link ingress = edgeLink(hostService, one, true);
+        Link egress = edgeLink(hostService, two, false);
+        DeviceId srcId = ingress != null ? ingress.dst().deviceId() : deviceId(one);
+        DeviceId dstId = egress != null ? egress.src().deviceId() : deviceId(two);
+        if (srcId == null || dstId == null) {
+            return Optional.empty();
+        }
+
+        TopologyGraph graph = topologyService.getGraph(topologyService.currentTopology());
+        TopologyVertex src = new DefaultTopologyVertex(srcId);
+        TopologyVertex dst = new DefaultTopologyVertex(dstId);
+        if (!graph.getVertexes().contains(src) || !graph.getVertexes().contains(dst)) {
+            return Optional.empty();
+        }
+        return Optional.of(new AciSearchGraph(graph, src, dst, ingress, egress));
+    }
+
+    /**
+     * Returns the topology graph.
+     *
+     * @return graph
+     */
+    TopologyGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Returns the vertex of the source device.
+     *
+     * @return source vertex
+     */
+    TopologyVertex src() {
+        return src;
+    }
+
+    /**
+     * Returns the vertex of the destination device.
+     *
+     * @return destination vertex
+     */
+    TopologyVertex dst() {
+        return dst;
+    }
+
+    /**
+     * Returns the path between the two elements following the given edges,
+     * weighed by its number of links.
+     *
+     * @param edges edges from the source to the destination vertex
+     * @return path, null if it would have no link
+     */
+    Path path(List<TopologyEdge> edges) {
+        List<Link> links = prefix(edges);
+        if (egress != null) {
+            links.add(egress);
+        }
+        return links.isEmpty() ? null : new DefaultPath(PID, links, new ScalarWeight(links.size()));
+    }
+
+    /**
+     * Returns the links from the source element along the given edges.
+     *
+     * @param edges edges leaving the source vertex
+     * @return ingress edge link, if any, followed by the links of the edges
+     */
+    List<Link> prefix(List<TopologyEdge> edges) {
+        List<Link> links = new ArrayList<>(edges.size() + 2);
+        if (ingress != null) {
+            links.add(ingress);
+        }
+        edges.forEach(edge -> links.add(edge.link()));
+        return links;
+    }
+
+    private static Link edgeLink(HostService hostService, ElementId id, boolean ingress) {
+        if (!(id instanceof HostId)) {
+            return null;
+        }
+        Host host = hostService.getHost((HostId) id);
+        return host == null ? null : createEdgeLink(host, ingress);
+    }
+
+    private static DeviceId deviceId(ElementId id) {
+        return id instanceof DeviceId ? (DeviceId) id : null;
+    }
+}
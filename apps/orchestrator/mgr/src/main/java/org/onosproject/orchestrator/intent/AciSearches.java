@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import org.onlab.graph.ScalarWeight;
+import org.onlab.graph.Weight;
+import org.onosproject.net.Link;
+import org.onosproject.net.topology.LinkWeigher;
+import org.onosproject.net.topology.TopologyEdge;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+import static org.onosproject.net.topology.HopCountLinkWeigher.DEFAULT_HOP_COUNT_WEIGHER;
+
+/**
+ * Parts shared by the ACI path searches.
+ */
+final class AciSearches {
+
+    /**
+     * Maximum number of candidate paths rejected by a search before it falls
+     * back to the paths of its preliminary search.
+     */
+    static final int MAX_CANDIDATES = 32;
+
+    private AciSearches() {
+    }
+
+    /**
+     * Link weigher giving the inadmissible links a non-viable weight.
+     */
+    static final class MaskingWeigher implements LinkWeigher {
+
+        private final Predicate<Link> admissible;
+        private final Function<TopologyEdge, Weight> weight;
+
+        private MaskingWeigher(Predicate<Link> admissible, Function<TopologyEdge, Weight> weight) {
+            this.admissible = admissible;
+            this.weight = weight;
+        }
+
+        /**
+         * Returns a weigher of the admissible links by the given cost.
+         *
+         * @param admissible predicate on the links which may be used
+         * @param cost       cost of an admissible link
+         * @return cost weigher
+         */
+        static MaskingWeigher byCost(Predicate<Link> admissible, ToDoubleFunction<Link> cost) {
+            return new MaskingWeigher(admissible, edge -> new ScalarWeight(cost.applyAsDouble(edge.link())));
+        }
+
+        /**
+         * Returns a weigher of the admissible links by hop count.
+         *
+         * @param admissible predicate on the links which may be used
+         * @return hop count weigher
+         */
+        static MaskingWeigher hopCount(Predicate<Link> admissible) {
+            return new MaskingWeigher(admissible, DEFAULT_HOP_COUNT_WEIGHER::weight);
+        }
+
+        @Override
+        public Weight weight(TopologyEdge edge) {
+            if (edge.link().state() == Link.State.INACTIVE || !admissible.test(edge.link())) {
+                return ScalarWeight.NON_VIABLE_WEIGHT;
+            }
+            return weight.apply(edge);
+        }
+
+        @Override
+        public Weight getInitialWeight() {
+            return new ScalarWeight(0.0);
+        }
+
+        @Override
+        public Weight getNonViableWeight() {
+            return ScalarWeight.NON_VIABLE_WEIGHT;
+        }
+    }
+}
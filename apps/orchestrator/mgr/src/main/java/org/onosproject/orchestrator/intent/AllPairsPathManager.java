@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableSet;
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.Service;
+import org.onlab.graph.DijkstraGraphSearch;
+import org.onlab.graph.GraphPathSearch;
+import org.onlab.graph.Weight;
+import org.onosproject.net.DefaultPath;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Path;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.net.topology.DefaultTopologyVertex;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyEvent;
+import org.onosproject.net.topology.TopologyGraph;
+import org.onosproject.net.topology.TopologyListener;
+import org.onosproject.net.topology.TopologyService;
+import org.onosproject.net.topology.TopologyVertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.onlab.graph.GraphPathSearch.ALL_PATHS;
+import static org.onlab.util.Tools.groupedThreads;
+import static org.onosproject.net.topology.HopCountLinkWeigher.DEFAULT_HOP_COUNT_WEIGHER;
+
+/**
+ * Computes the shortest paths between many devices at once, one
+ * shortest-path tree per source on a pool of threads.
+ * <p>
+ * Trees are cached per topology graph. When the graph changes, a tree is
+ * kept unless one of its edges went away or changed weight, or a new edge
+ * could shorten or add one of its paths; the dropped trees are recomputed in
+ * the background for the sources asked for before.
+ */
+@Component(immediate = true)
+@Service
+public class AllPairsPathManager implements AllPairsPathService {
+
+    private static final ProviderId PID = new ProviderId("core", "org.onosproject.core", true);
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected TopologyService topologyService;
+
+    private final TopologyListener topologyListener = new InternalTopologyListener();
+    private final AtomicLong computations = new AtomicLong();
+    private volatile Generation generation;
+    private ExecutorService executor;
+
+    @Activate
+    public void activate() {
+        executor = newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                                      groupedThreads("onos/orchestrator", "all-pairs-%d", log));
+        topologyService.addListener(topologyListener);
+        log.info("Started");
+    }
+
+    @Deactivate
+    public void deactivate() {
+        topologyService.removeListener(topologyListener);
+        executor.shutdownNow();
+        generation = null;
+        log.info("Stopped");
+    }
+
+    @Override
+    public Stream<Path> getPaths(Set<DeviceId> sources, Set<DeviceId> destinations) {
+        checkNotNull(sources, "Sources cannot be null");
+        checkNotNull(destinations, "Destinations cannot be null");
+        return getPaths(current(), sources, destinations);
+    }
+
+    @Override
+    public Stream<Path> getAllPaths() {
+        Generation current = current();
+        Set<DeviceId> devices = current.graph.getVertexes().stream()
+                .map(TopologyVertex::deviceId)
+                .collect(Collectors.toSet());
+        return getPaths(current, devices, devices);
+    }
+
+    /**
+     * Returns the number of shortest-path trees computed so far.
+     *
+     * @return number of trees computed
+     */
+    long computations() {
+        return computations.get();
+    }
+
+    private Stream<Path> getPaths(Generation current, Set<DeviceId> sources, Set<DeviceId> destinations) {
+        Set<DeviceId> targets = ImmutableSet.copyOf(destinations);
+        CompletionService<Collection<Path>> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Collection<Path>>> futures = new ArrayList<>();
+        for (DeviceId source : ImmutableSet.copyOf(sources)) {
+            Callable<Collection<Path>> task = () -> current.tree(source).paths(targets);
+            futures.add(completion.submit(task));
+        }
+
+        Iterator<Collection<Path>> trees = new AbstractIterator<Collection<Path>>() {
+            private int remaining = futures.size();
+
+            @Override
+            protected Collection<Path> computeNext() {
+                if (remaining == 0) {
+                    return endOfData();
+                }
+                remaining--;
+                try {
+                    return completion.take().get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return endOfData();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Unable to compute shortest paths", e.getCause());
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliterator(trees, futures.size(), Spliterator.NONNULL), false)
+                .flatMap(Collection::stream)
+                .onClose(() -> futures.forEach(future -> future.cancel(true)));
+    }
+
+    // Moves on to the current topology graph, keeping the unaffected trees
+    private synchronized Generation current() {
+        TopologyGraph graph = topologyService.getGraph(topologyService.currentTopology());
+        Generation previous = generation;
+        if (previous == null || previous.graph != graph) {
+            generation = previous == null ? new Generation(graph) : previous.next(graph);
+        }
+        return generation;
+    }
+
+    private SourceTree compute(TopologyGraph graph, DeviceId source) {
+        computations.incrementAndGet();
+        TopologyVertex vertex = new DefaultTopologyVertex(source);
+        if (!graph.getVertexes().contains(vertex)) {
+            return SourceTree.EMPTY;
+        }
+        return new SourceTree(new DijkstraGraphSearch<TopologyVertex, TopologyEdge>()
+                                      .search(graph, vertex, null, DEFAULT_HOP_COUNT_WEIGHER, ALL_PATHS));
+    }
+
+    /**
+     * Shortest-path trees computed on one topology graph.
+     */
+    private final class Generation {
+
+        private final TopologyGraph graph;
+        private final Map<TopologyEdge, Weight> weights = new HashMap<>();
+        private final Map<DeviceId, SourceTree> trees = new ConcurrentHashMap<>();
+
+        private Generation(TopologyGraph graph) {
+            this.graph = graph;
+            graph.getEdges().forEach(edge -> weights.put(edge, DEFAULT_HOP_COUNT_WEIGHER.weight(edge)));
+        }
+
+        // Generation of the given graph, with the trees the change cannot affect
+        private Generation next(TopologyGraph nextGraph) {
+            Generation next = new Generation(nextGraph);
+            Set<TopologyEdge> removed = new HashSet<>();
+            weights.forEach((edge, weight) -> {
+                if (!weight.equals(next.weights.get(edge))) {
+                    removed.add(edge);
+                }
+            });
+            Map<TopologyEdge, Weight> added = new HashMap<>();
+            next.weights.forEach((edge, weight) -> {
+                if (!weight.equals(weights.get(edge))) {
+                    added.put(edge, weight);
+                }
+            });
+            trees.forEach((source, tree) -> {
+                if (tree.survives(removed, added)
+                        && nextGraph.getVertexes().contains(new DefaultTopologyVertex(source))) {
+                    next.trees.put(source, tree);
+                }
+            });
+            return next;
+        }
+
+        // Concurrent requests for the same source may both compute its tree
+        private SourceTree tree(DeviceId source) {
+            SourceTree tree = trees.get(source);
+            if (tree == null) {
+                tree = compute(graph, source);
+                SourceTree previous = trees.putIfAbsent(source, tree);
+                if (previous != null) {
+                    tree = previous;
+                }
+            }
+            return tree;
+        }
+    }
+
+    /**
+     * Shortest paths from one source to every device it reaches.
+     */
+    private static final class SourceTree {
+
+        private static final SourceTree EMPTY = new SourceTree();
+
+        private final Map<TopologyVertex, Weight> costs;
+        private final Set<TopologyEdge> edges;
+        private final Map<DeviceId, Set<Path>> paths;
+
+        private SourceTree() {
+            costs = Collections.emptyMap();
+            edges = Collections.emptySet();
+            paths = Collections.emptyMap();
+        }
+
+        private SourceTree(GraphPathSearch.Result<TopologyVertex, TopologyEdge> result) {
+            costs = new HashMap<>(result.costs());
+            edges = new HashSet<>();
+            result.parents().values().forEach(edges::addAll);
+            paths = new HashMap<>();
+            result.paths().stream()
+                    .filter(path -> !path.edges().isEmpty())
+                    .forEach(path -> paths.computeIfAbsent(path.dst().deviceId(), dst -> new HashSet<>())
+                            .add(new DefaultPath(PID, path.edges().stream()
+                                    .map(TopologyEdge::link)
+                                    .collect(Collectors.toList()), path.cost())));
+        }
+
+        private Collection<Path> paths(Set<DeviceId> destinations) {
+            List<Path> found = new ArrayList<>();
+            destinations.forEach(dst -> found.addAll(paths.getOrDefault(dst, Collections.emptySet())));
+            return found;
+        }
+
+        /*
+         * The tree still holds the shortest paths if none of its edges went
+         * away and no new edge reaches a device more cheaply, or equally so,
+         * from one the tree reaches.
+         */
+        private boolean survives(Set<TopologyEdge> removed, Map<TopologyEdge, Weight> added) {
+            if (removed.stream().anyMatch(edges::contains)) {
+                return false;
+            }
+            for (Map.Entry<TopologyEdge, Weight> entry : added.entrySet()) {
+                Weight weight = entry.getValue();
+                Weight src = costs.get(entry.getKey().src());
+                if (src == null || !weight.isViable()) {
+                    continue;
+                }
+                Weight dst = costs.get(entry.getKey().dst());
+                if (dst == null || src.merge(weight).compareTo(dst) <= 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Recomputes in the background the trees dropped by a topology change
+    private class InternalTopologyListener implements TopologyListener {
+        @Override
+        public void event(TopologyEvent event) {
+            executor.execute(() -> {
+                Generation previous = generation;
+                Generation next = current();
+                if (previous != null && next != previous) {
+                    previous.trees.keySet().stream()
+                            .filter(source -> !next.trees.containsKey(source))
+                            .forEach(source -> executor.execute(() -> next.tree(source)));
+                }
+            });
+        }
+    }
+}
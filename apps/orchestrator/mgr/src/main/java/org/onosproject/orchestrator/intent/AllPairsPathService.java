@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Path;
+
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Bulk computation of the shortest paths, by hop count, between many
+ * devices of the current topology at once, for planning tools which would
+ * otherwise ask the path service for every pair.
+ * <p>
+ * One shortest-path tree is computed per source, the sources in parallel,
+ * and the trees are kept across topology changes as long as the change
+ * cannot affect them. Paths are streamed as the trees become available;
+ * closing the stream cancels the trees not computed yet.
+ */
+public interface AllPairsPathService {
+
+    /**
+     * Returns the shortest paths from each of the sources to each of the
+     * destinations, including the equal cost ones. Pairs with no path, or
+     * whose source is the destination, are left out.
+     *
+     * @param sources      source devices
+     * @param destinations destination devices
+     * @return stream of paths, grouped by source in no particular order
+     */
+    Stream<Path> getPaths(Set<DeviceId> sources, Set<DeviceId> destinations);
+
+    /**
+     * Returns the shortest paths between all pairs of devices.
+     *
+     * @return stream of paths, grouped by source in no particular order
+     */
+    Stream<Path> getAllPaths();
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import org.onosproject.net.Path;
+import org.onosproject.net.intent.Constraint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Evaluates the candidate paths of a negotiation in parallel and keeps the
+ * best few alternatives.
+ * <p>
+ * Alternatives are ranked by bandwidth headroom, then by latency, then by
+ * availability, then by the order of the candidate paths. Candidates not
+ * evaluated within the negotiation time budget are dropped.
+ */
+final class NegotiationAlternatives {
+
+    private static final Logger log = LoggerFactory.getLogger(NegotiationAlternatives.class);
+
+    private static final Comparator<Alternative> RANKING =
+            Comparator.comparingDouble((Alternative a) -> -a.bandwidth)
+                    .thenComparingDouble(a -> a.latency)
+                    .thenComparingDouble(a -> -a.availability)
+                    .thenComparingInt(a -> a.index);
+
+    private final ExecutorService executor;
+    private final int maxAlternatives;
+    private final long timeoutMillis;
+
+    /**
+     * Creates a negotiation alternatives evaluator.
+     *
+     * @param executor        executor evaluating the candidates
+     * @param maxAlternatives maximum number of alternatives returned
+     * @param timeoutMillis   time budget of one negotiation in milliseconds
+     */
+    NegotiationAlternatives(ExecutorService executor, int maxAlternatives, long timeoutMillis) {
+        this.executor = executor;
+        this.maxAlternatives = maxAlternatives;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Returns the constraints of the best alternatives to the given paths,
+     * without duplicates.
+     *
+     * @param paths     candidate paths, in order of preference
+     * @param evaluator evaluation of one candidate path
+     * @return constraints of the best alternatives, best first
+     */
+    List<List<Constraint>> best(List<Path> paths, Function<Path, Alternative> evaluator) {
+        List<Callable<Alternative>> tasks = new ArrayList<>(paths.size());
+        for (int i = 0; i < paths.size(); i++) {
+            Path path = paths.get(i);
+            int index = i;
+            tasks.add(() -> evaluator.apply(path).index(index));
+        }
+
+        List<Future<Alternative>> futures;
+        try {
+            futures = executor.invokeAll(tasks, timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ImmutableList.of();
+        }
+
+        List<Alternative> evaluated = new ArrayList<>(futures.size());
+        int expired = 0;
+        for (Future<Alternative> future : futures) {
+            try {
+                evaluated.add(future.get());
+            } catch (CancellationException e) {
+                expired++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.warn("Unable to evaluate negotiation alternative", e.getCause());
+            }
+        }
+        if (expired > 0) {
+            log.warn("{} of {} negotiation alternatives not evaluated within {} ms",
+                     expired, paths.size(), timeoutMillis);
+        }
+
+        // Equivalent paths give the same constraints; offer each only once
+        Map<List<Constraint>, Alternative> distinct = new HashMap<>();
+        for (Alternative alternative : evaluated) {
+            distinct.merge(alternative.constraints, alternative,
+                           (a, b) -> RANKING.compare(a, b) <= 0 ? a : b);
+        }
+        return Ordering.from(RANKING).leastOf(distinct.values(), maxAlternatives).stream()
+                .map(alternative -> alternative.constraints)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Constraints a candidate path can support, with the figures used to
+     * rank it.
+     */
+    static final class Alternative {
+        private final List<Constraint> constraints;
+        private final double bandwidth;
+        private final double latency;
+        private final double availability;
+        private int index;
+
+        /**
+         * Creates an alternative along an always available path.
+         *
+         * @param constraints constraints supported by the path
+         * @param bandwidth   bandwidth left along the path in bps
+         * @param latency     latency of the path
+         */
+        Alternative(List<Constraint> constraints, double bandwidth, double latency) {
+            this(constraints, bandwidth, latency, 1);
+        }
+
+        /**
+         * Creates an alternative.
+         *
+         * @param constraints  constraints supported by the path
+         * @param bandwidth    bandwidth left along the path in bps
+         * @param latency      latency of the path
+         * @param availability availability of the path, between 0 and 1
+         */
+        Alternative(List<Constraint> constraints, double bandwidth, double latency, double availability) {
+            this.constraints = constraints;
+            this.bandwidth = bandwidth;
+            this.latency = latency;
+            this.availability = availability;
+        }
+
+        private Alternative index(int index) {
+            this.index = index;
+            return this;
+        }
+    }
+}
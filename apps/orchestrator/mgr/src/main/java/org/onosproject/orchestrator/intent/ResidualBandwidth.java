@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the bandwidth, in bps, left on each port.
+ */
+public final class ResidualBandwidth {
+
+    private static final ResidualBandwidth EMPTY = new ResidualBandwidth(-1, ImmutableMap.of());
+
+    private final long version;
+    private final Map<ConnectPoint, Double> residuals;
+
+    ResidualBandwidth(long version, Map<ConnectPoint, Double> residuals) {
+        this.version = version;
+        this.residuals = ImmutableMap.copyOf(residuals);
+    }
+
+    /**
+     * Returns an empty snapshot.
+     *
+     * @return empty snapshot
+     */
+    public static ResidualBandwidth empty() {
+        return EMPTY;
+    }
+
+    long version() {
+        return version;
+    }
+
+    /**
+     * Returns the bandwidth left on a port; ports without registered
+     * bandwidth have none left.
+     *
+     * @param connectPoint port
+     * @return residual bandwidth in bps
+     */
+    public double residual(ConnectPoint connectPoint) {
+        return residuals.getOrDefault(connectPoint, 0.0);
+    }
+
+    /**
+     * Returns the bandwidth left along the given ports, that is the smallest
+     * residual bandwidth among the device ports, or 0 if any of them is
+     * exhausted.
+     *
+     * @param connectPoints ports along a path
+     * @return residual bandwidth in bps
+     */
+    public double bottleneck(Iterable<ConnectPoint> connectPoints) {
+        double bandwidthLeft = 0;
+        for (ConnectPoint point : connectPoints) {
+            if (point.elementId() instanceof DeviceId) {
+                double currentBandwidth = residual(point);
+                if (currentBandwidth <= 0) {
+                    return 0;
+                }
+                if (bandwidthLeft == 0 || currentBandwidth < bandwidthLeft) {
+                    bandwidthLeft = currentBandwidth;
+                }
+            }
+        }
+        return bandwidthLeft;
+    }
+
+    /**
+     * Returns the residual bandwidth of every known port.
+     *
+     * @return immutable map of port to residual bandwidth in bps
+     */
+    public Map<ConnectPoint, Double> residuals() {
+        return residuals;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("version", version)
+                .add("ports", residuals.size())
+                .toString();
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.Service;
+import org.onlab.util.Bandwidth;
+import org.onosproject.cfg.ComponentConfigService;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.resource.ContinuousResource;
+import org.onosproject.net.resource.DiscreteResource;
+import org.onosproject.net.resource.DiscreteResourceId;
+import org.onosproject.net.resource.Resource;
+import org.onosproject.net.resource.ResourceEvent;
+import org.onosproject.net.resource.ResourceListener;
+import org.onosproject.net.resource.ResourceService;
+import org.onosproject.net.resource.Resources;
+import org.osgi.service.component.ComponentContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Dictionary;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.onlab.util.Tools.get;
+import static org.onlab.util.Tools.groupedThreads;
+
+/**
+ * Keeps the residual bandwidth of every port registering a bandwidth
+ * resource.
+ * <p>
+ * Capacities follow the resource events. Allocations do not raise events,
+ * so ports are refreshed by the compilers allocating on them and the whole
+ * index is reconciled periodically to catch allocations made elsewhere.
+ */
+@Component(immediate = true)
+@Service
+public class ResidualBandwidthManager implements ResidualBandwidthService {
+
+    private static final int DEFAULT_RECONCILE_PERIOD = 5;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ResourceService resourceService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService configService;
+
+    @Property(name = "reconcilePeriod", intValue = DEFAULT_RECONCILE_PERIOD,
+            label = "Seconds between full reloads of the residual bandwidth index, 0 to disable")
+    private int reconcilePeriod = DEFAULT_RECONCILE_PERIOD;
+
+    private final Map<ConnectPoint, Double> residuals = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final ResourceListener resourceListener = new InternalResourceListener();
+    private volatile ResidualBandwidth snapshot = ResidualBandwidth.empty();
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> reconcileTask;
+
+    @Activate
+    public void activate(ComponentContext context) {
+        configService.registerProperties(getClass());
+        executor = newSingleThreadScheduledExecutor(
+                groupedThreads("onos/orchestrator", "residual-bw-%d", log));
+        resourceService.addListener(resourceListener);
+        readComponentConfiguration(context);
+        reload();
+        scheduleReconcile();
+        log.info("Started");
+    }
+
+    @Deactivate
+    public void deactivate() {
+        configService.unregisterProperties(getClass(), false);
+        resourceService.removeListener(resourceListener);
+        executor.shutdownNow();
+        residuals.clear();
+        snapshot = ResidualBandwidth.empty();
+        log.info("Stopped");
+    }
+
+    @Modified
+    public void modified(ComponentContext context) {
+        int previous = reconcilePeriod;
+        readComponentConfiguration(context);
+        if (previous != reconcilePeriod) {
+            scheduleReconcile();
+            log.info("Residual bandwidth reconciled every {} seconds", reconcilePeriod);
+        }
+    }
+
+    private void readComponentConfiguration(ComponentContext context) {
+        Dictionary<?, ?> properties = context != null ? context.getProperties() : new java.util.Properties();
+        try {
+            String s = get(properties, "reconcilePeriod");
+            int period = isNullOrEmpty(s) ? reconcilePeriod : Integer.parseInt(s.trim());
+            if (period >= 0) {
+                reconcilePeriod = period;
+            } else {
+                log.warn("Ignoring negative reconcile period {}", period);
+            }
+        } catch (NumberFormatException e) {
+            log.warn(e.getMessage());
+        }
+    }
+
+    private synchronized void scheduleReconcile() {
+        if (reconcileTask != null) {
+            reconcileTask.cancel(false);
+            reconcileTask = null;
+        }
+        if (reconcilePeriod > 0) {
+            reconcileTask = executor.scheduleWithFixedDelay(this::safeReload, reconcilePeriod,
+                                                            reconcilePeriod, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public ResidualBandwidth snapshot() {
+        ResidualBandwidth current = snapshot;
+        long latest = version.get();
+        if (current.version() == latest) {
+            return current;
+        }
+        // Changes landing while copying bump the version again and get picked up next time
+        current = new ResidualBandwidth(latest, residuals);
+        snapshot = current;
+        return current;
+    }
+
+    @Override
+    public void refresh(Collection<ConnectPoint> connectPoints) {
+        connectPoints.stream()
+                .filter(point -> point.elementId() instanceof DeviceId)
+                .distinct()
+                .forEach(this::update);
+    }
+
+    /**
+     * Reloads the residual bandwidth of every port from the resource store.
+     */
+    void reload() {
+        Map<ConnectPoint, Double> loaded = new ConcurrentHashMap<>();
+        for (Resource device : resourceService.getRegisteredResources(Resource.ROOT.id())) {
+            if (!(device instanceof DiscreteResource) || !device.valueAs(DeviceId.class).isPresent()) {
+                continue;
+            }
+            DiscreteResource deviceResource = (DiscreteResource) device;
+            for (Resource port : resourceService.getRegisteredResources(deviceResource.id())) {
+                if (port instanceof DiscreteResource) {
+                    Optional<ConnectPoint> point = connectPoint((DiscreteResource) port);
+                    point.ifPresent(p -> residual(p).ifPresent(value -> loaded.put(p, value)));
+                }
+            }
+        }
+        // An unchanged store keeps the current snapshot valid
+        if (loaded.equals(residuals)) {
+            return;
+        }
+        residuals.keySet().retainAll(loaded.keySet());
+        residuals.putAll(loaded);
+        version.incrementAndGet();
+    }
+
+    private void safeReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Unable to reload residual bandwidth", e);
+        }
+    }
+
+    private void update(ConnectPoint connectPoint) {
+        Optional<Double> value = residual(connectPoint);
+        if (value.isPresent()) {
+            residuals.put(connectPoint, value.get());
+        } else {
+            residuals.remove(connectPoint);
+        }
+        version.incrementAndGet();
+    }
+
+    // Registered bandwidth minus the bandwidth allocated on the port, if any is registered
+    private Optional<Double> residual(ConnectPoint connectPoint) {
+        DiscreteResourceId id = Resources.discrete(connectPoint.deviceId(), connectPoint.port()).id();
+
+        double original = 0;
+        boolean registered = false;
+        for (Resource resource : resourceService.getRegisteredResources(id)) {
+            if (resource instanceof ContinuousResource && resource.isTypeOf(Bandwidth.class)) {
+                original += ((ContinuousResource) resource).value();
+                registered = true;
+            }
+        }
+        if (!registered) {
+            return Optional.empty();
+        }
+
+        double allocated = resourceService.getResourceAllocations(id, Bandwidth.class).stream()
+                .filter(x -> x.resource() instanceof ContinuousResource)
+                .mapToDouble(x -> ((ContinuousResource) x.resource()).value())
+                .sum();
+
+        return Optional.of(original - allocated);
+    }
+
+    static Optional<ConnectPoint> connectPoint(DiscreteResource port) {
+        Optional<PortNumber> number = port.valueAs(PortNumber.class);
+        Optional<DeviceId> device = port.parent().flatMap(parent -> parent.valueAs(DeviceId.class));
+        if (number.isPresent() && device.isPresent()) {
+            return Optional.of(new ConnectPoint(device.get(), number.get()));
+        }
+        return Optional.empty();
+    }
+
+    private class InternalResourceListener implements ResourceListener {
+        @Override
+        public void event(ResourceEvent event) {
+            Resource resource = event.subject();
+            Optional<ConnectPoint> point;
+            if (resource.isTypeOf(Bandwidth.class)) {
+                point = resource.parent().flatMap(ResidualBandwidthManager::connectPoint);
+            } else if (resource instanceof DiscreteResource) {
+                point = connectPoint((DiscreteResource) resource);
+            } else {
+                point = Optional.empty();
+            }
+            point.ifPresent(p -> executor.execute(() -> update(p)));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import org.onosproject.net.ConnectPoint;
+
+import java.util.Collection;
+
+/**
+ * Index of the bandwidth left on each port, kept up to date from the
+ * resource service so that compilers do not have to query the resource
+ * store for every candidate path.
+ */
+public interface ResidualBandwidthService {
+
+    /**
+     * Returns an immutable view of the residual bandwidth of all known ports.
+     *
+     * @return residual bandwidth snapshot
+     */
+    ResidualBandwidth snapshot();
+
+    /**
+     * Re-reads the residual bandwidth of the given ports from the resource
+     * store, e.g. after allocating or releasing bandwidth on them.
+     *
+     * @param connectPoints ports to refresh
+     */
+    void refresh(Collection<ConnectPoint> connectPoints);
+}
@@ -137,10 +137,8 @@ public class SDWANProviderOneIntentCompiler extends ServiceProviderIntentCompile
 
         final List<Constraint> initialConstraints = intent.constraints();
 
-        ImmutableList<Path> filtered = paths.stream()
-                .filter(path -> portCheck(path, allowedPorts))
-                .filter(path -> checkPath(path, initialConstraints))
-                .collect(ImmutableList.toImmutableList());
+        List<Path> filtered = admissiblePaths(hostService, paths, one, two, initialConstraints,
+                                              path -> portCheck(path, allowedPorts));
         if (filtered.isEmpty()) {
             //Try with disjoint path
             Set<DisjointPath> disjointPaths = pathService.getDisjointPaths(one, two);
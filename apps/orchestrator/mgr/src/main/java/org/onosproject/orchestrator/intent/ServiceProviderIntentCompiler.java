@@ -16,6 +16,7 @@
 
 package org.onosproject.orchestrator.intent;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Reference;
@@ -24,21 +25,22 @@ import org.onlab.util.Bandwidth;
 import org.onosproject.net.AnnotationKeys;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.ElementId;
 import org.onosproject.net.Link;
 import org.onosproject.net.Path;
+import org.onosproject.net.host.HostService;
 import org.onosproject.net.intent.ConnectivityIntent;
 import org.onosproject.net.intent.Constraint;
 import org.onosproject.net.intent.IntentCompiler;
 import org.onosproject.net.intent.constraint.BandwidthConstraint;
 import org.onosproject.net.intent.constraint.LatencyConstraint;
-import org.onosproject.net.resource.ContinuousResource;
-import org.onosproject.net.resource.DiscreteResource;
 import org.onosproject.net.resource.Resource;
 import org.onosproject.net.resource.ResourceAllocation;
 import org.onosproject.net.resource.ResourceConsumer;
 import org.onosproject.net.resource.ResourceId;
 import org.onosproject.net.resource.ResourceService;
 import org.onosproject.net.resource.Resources;
+import org.onosproject.net.topology.TopologyService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,6 +50,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -60,6 +63,12 @@ public abstract class ServiceProviderIntentCompiler<T extends ConnectivityIntent
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ResourceService resourceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ResidualBandwidthService residualBandwidthService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected TopologyService topologyService;
+
     private static final Logger log = LoggerFactory.getLogger(ServiceProviderIntentCompiler.class);
 
     protected boolean portCheck(Path path, List<ConnectPoint> allowedPorts) {
@@ -85,33 +94,41 @@ public abstract class ServiceProviderIntentCompiler<T extends ConnectivityIntent
         return true;
     }
 
+    /**
+     * Returns the paths between two elements passing the given constraints
+     * and filter. Constraints which can be checked link by link or as a
+     * latency budget are applied during the path search; otherwise the
+     * given shortest paths are filtered.
+     *
+     * @param hostService host service locating the host endpoints
+     * @param paths       shortest paths between the elements
+     * @param one         source element
+     * @param two         destination element
+     * @param constraints path constraints
+     * @param filter      additional check of the paths
+     * @return admissible paths
+     */
+    protected List<Path> admissiblePaths(HostService hostService, Set<Path> paths,
+                                         ElementId one, ElementId two,
+                                         List<Constraint> constraints, Predicate<Path> filter) {
+        if (AciConstrainedPathSearch.appliesTo(constraints)) {
+            return new AciConstrainedPathSearch(topologyService, hostService, resourceService::isAvailable)
+                    .getPaths(one, two, constraints, residualBandwidthService.snapshot(),
+                              path -> filter.test(path) && checkPath(path, constraints));
+        }
+        return paths.stream()
+                .filter(filter)
+                .filter(path -> checkPath(path, constraints))
+                .collect(ImmutableList.toImmutableList());
+    }
+
     protected List<Constraint> supportedPathConstraints(Path path, List<Constraint> initialConstraints) {
         List<ConnectPoint> pathCPs =
                 path.links().stream()
                         .flatMap(l -> Stream.of(l.src(), l.dst()))
                         .collect(Collectors.toList());
 
-        double bandwidthLeft = 0;
-        double currentBandwidth = 0;
-
-        for (ConnectPoint point : pathCPs) {
-            if (point.elementId() instanceof DeviceId) {
-                currentBandwidth = leftResources(point);
-
-                if (currentBandwidth == 0) {
-                    bandwidthLeft = 0;
-                    break;
-                }
-
-                if (bandwidthLeft == 0) {
-                    bandwidthLeft = currentBandwidth;
-                }
-
-                if (currentBandwidth < bandwidthLeft) {
-                    bandwidthLeft = currentBandwidth;
-                }
-            }
-        }
+        double bandwidthLeft = residualBandwidthService.snapshot().bottleneck(pathCPs);
 
         Bandwidth bw = Bandwidth.bps(bandwidthLeft);
         BandwidthConstraint bwConstraint = new BandwidthConstraint(bw);
@@ -168,37 +185,6 @@ public abstract class ServiceProviderIntentCompiler<T extends ConnectivityIntent
         }
     }
 
-    /**
-     * Returns the amount of resources left with respect to the current allocation
-     *
-     * @param connectPoint requested resource
-     * @return true if there is enough resource volume. Otherwise, false.
-     */
-    // computational complexity: O(n) where n is the number of allocations
-    private double leftResources(ConnectPoint connectPoint) {
-
-        DiscreteResource resource = Resources.discrete(connectPoint.deviceId(), connectPoint.port()).resource();
-
-        Set<Resource> resourceValues = resourceService.getRegisteredResources(resource.id());
-
-        double original = resourceValues.stream()
-                .filter(x -> x instanceof ContinuousResource)
-                .map(x -> (ContinuousResource) x)
-                .mapToDouble(ContinuousResource::value)
-                .sum();
-
-        Collection<ResourceAllocation> resourceAllocations =
-                resourceService.getResourceAllocations(resource.id(), Bandwidth.class);
-
-        double allocated = resourceAllocations.stream()
-                .filter(x -> x.resource() instanceof ContinuousResource)
-                .map(x -> (ContinuousResource) x.resource())
-                .mapToDouble(ContinuousResource::value)
-                .sum();
-
-        return original - allocated;
-    }
-
     /**
      * Allocates the bandwidth specified as intent constraint on each link
      * composing the intent, if a bandwidth constraint is specified.
@@ -302,6 +288,7 @@ public abstract class ServiceProviderIntentCompiler<T extends ConnectivityIntent
         if (allocations.isEmpty()) {
             log.debug("No resources allocated for intent {}", newResourceConsumer);
         }
+        residualBandwidthService.refresh(connectPoints);
 
         log.debug("Done allocating bandwidth for intent {}", newResourceConsumer);
     }
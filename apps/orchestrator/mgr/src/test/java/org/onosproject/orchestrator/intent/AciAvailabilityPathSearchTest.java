@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.graph.AdjacencyListsGraph;
+import org.onlab.graph.DijkstraGraphSearch;
+import org.onlab.graph.DisjointPathPair;
+import org.onlab.graph.Graph;
+import org.onlab.graph.LazyKShortestPathsSearch;
+import org.onlab.graph.SuurballeGraphSearch;
+import org.onosproject.net.AnnotationKeys;
+import org.onosproject.net.DefaultAnnotations;
+import org.onosproject.net.DefaultDisjointPath;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.DefaultPath;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.DisjointPath;
+import org.onosproject.net.ElementId;
+import org.onosproject.net.Host;
+import org.onosproject.net.HostId;
+import org.onosproject.net.Link;
+import org.onosproject.net.Path;
+import org.onosproject.net.host.HostServiceAdapter;
+import org.onosproject.net.intent.constraint.AvailabilityConstraint;
+import org.onosproject.net.intent.constraint.EncryptionConstraint;
+import org.onosproject.net.topology.AbstractPathService;
+import org.onosproject.net.topology.DefaultTopologyEdge;
+import org.onosproject.net.topology.DefaultTopologyVertex;
+import org.onosproject.net.topology.LinkWeigher;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyService;
+import org.onosproject.net.topology.TopologyServiceAdapter;
+import org.onosproject.net.topology.TopologyVertex;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.easymock.EasyMock.createMock;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onlab.graph.GraphPathSearch.ALL_PATHS;
+import static org.onosproject.net.NetTestTools.PID;
+import static org.onosproject.net.NetTestTools.connectPoint;
+import static org.onosproject.net.NetTestTools.did;
+import static org.onosproject.net.NetTestTools.host;
+
+public class AciAvailabilityPathSearchTest {
+
+    // Two fairly available hops through switch 2, three highly available hops
+    // through switches 3 and 5, and two poorly available hops through switch 6
+    private static final Link S1S2 = link("switch:1", 1, "switch:2", 1, 0.99);
+    private static final Link S2S4 = link("switch:2", 2, "switch:4", 1, 0.99);
+    private static final Link S1S3 = link("switch:1", 2, "switch:3", 1, 0.999);
+    private static final Link S3S5 = link("switch:3", 2, "switch:5", 1, 0.999);
+    private static final Link S5S4 = link("switch:5", 2, "switch:4", 2, 0.999);
+    private static final Link S1S6 = link("switch:1", 3, "switch:6", 1, 0.95);
+    private static final Link S6S4 = link("switch:6", 2, "switch:4", 3, 0.95);
+
+    private static final ImmutableList<Link> SHORT = ImmutableList.of(S1S2, S2S4);
+    private static final ImmutableList<Link> RELIABLE = ImmutableList.of(S1S3, S3S5, S5S4);
+
+    private static final Host H1 = host("00:00:00:00:00:01/-1", "switch:1", 9);
+    private static final Host H4 = host("00:00:00:00:00:04/-1", "switch:4", 9);
+
+    private double switch2 = 1;
+    private AciAvailabilityPathSearch search;
+
+    @Before
+    public void setUp() {
+        TestTopologyService topologyService =
+                new TestTopologyService(ImmutableSet.of(S1S2, S2S4, S1S3, S3S5, S5S4, S1S6, S6S4));
+        search = new AciAvailabilityPathSearch(
+                new TestPathService(topologyService, ImmutableSet.of(H1, H4)),
+                topologyService,
+                device -> device.equals(did("switch:2")) ? switch2 : 1);
+    }
+
+    private static Link link(String src, long srcPort, String dst, long dstPort, double availability) {
+        return DefaultLink.builder()
+                .providerId(PID)
+                .src(connectPoint(src, (int) srcPort))
+                .dst(connectPoint(dst, (int) dstPort))
+                .type(Link.Type.DIRECT)
+                .annotations(DefaultAnnotations.builder()
+                                     .set(AnnotationKeys.AVAILABILITY, Double.toString(availability))
+                                     .build())
+                .build();
+    }
+
+    private Optional<Path> path(double target) {
+        return search.getPath(did("switch:1"), did("switch:4"), target, path -> true);
+    }
+
+    @Test
+    public void target() {
+        assertFalse(AciAvailabilityPathSearch.target(ImmutableList.of(new EncryptionConstraint())).isPresent());
+        assertEquals(99.9, AciAvailabilityPathSearch.target(ImmutableList.of(
+                new EncryptionConstraint(), new AvailabilityConstraint(99.9))).get().availability(), 0);
+    }
+
+    @Test
+    public void cheapestPathMeetingTarget() {
+        assertEquals(SHORT, path(0.95).get().links());
+        assertEquals(RELIABLE, path(0.99).get().links());
+    }
+
+    @Test
+    public void deviceAvailability() {
+        switch2 = 0.9;
+        assertEquals(RELIABLE, path(0.95).get().links());
+    }
+
+    @Test
+    public void protectedPairOnlyWhenNeeded() {
+        Path path = path(0.9999).get();
+        assertTrue(path instanceof DisjointPath);
+        DisjointPath pair = (DisjointPath) path;
+        assertEquals(ImmutableSet.of(SHORT, RELIABLE),
+                     ImmutableSet.of(pair.primary().links(), pair.backup().links()));
+        assertTrue(AvailabilityConstraint.availability(pair) >= 0.9999);
+
+        assertFalse(path(0.99999).isPresent());
+    }
+
+    @Test
+    public void hostEndpoints() {
+        Path path = search.getPath(H1.id(), H4.id(), 0.95, p -> true).get();
+        assertEquals(SHORT, path.links().subList(1, 3));
+        assertEquals(Link.Type.EDGE, path.links().get(0).type());
+        assertEquals(Link.Type.EDGE, path.links().get(3).type());
+
+        DisjointPath pair = (DisjointPath) search.getPath(H1.id(), H4.id(), 0.9999, p -> true).get();
+        assertEquals(ImmutableSet.of(SHORT, RELIABLE),
+                     ImmutableSet.of(inner(pair.primary()), inner(pair.backup())));
+    }
+
+    // Links of a path between hosts, without its edge links
+    private static List<Link> inner(Path path) {
+        return path.links().subList(1, path.links().size() - 1);
+    }
+
+    @Test
+    public void filter() {
+        Optional<Path> path = search.getPath(did("switch:1"), did("switch:4"), 0.95,
+                                             p -> !p.links().contains(S2S4));
+        assertEquals(RELIABLE, path.get().links());
+    }
+
+    /**
+     * Path service of the core, locating hosts among a fixed set.
+     */
+    private static class TestPathService extends AbstractPathService {
+
+        TestPathService(TopologyService topologyService, Set<Host> hosts) {
+            this.topologyService = topologyService;
+            this.hostService = new HostServiceAdapter() {
+                @Override
+                public Host getHost(HostId hostId) {
+                    return hosts.stream().filter(host -> host.id().equals(hostId)).findFirst().orElse(null);
+                }
+            };
+        }
+
+        @Override
+        public Set<Path> getPaths(ElementId src, ElementId dst) {
+            return getPaths(src, dst, DEFAULT_WEIGHER);
+        }
+
+        @Override
+        public Set<DisjointPath> getDisjointPaths(ElementId src, ElementId dst) {
+            return getDisjointPaths(src, dst, DEFAULT_WEIGHER);
+        }
+
+        @Override
+        public Set<DisjointPath> getDisjointPaths(ElementId src, ElementId dst, Map<Link, Object> riskProfile) {
+            return getDisjointPaths(src, dst, DEFAULT_WEIGHER, riskProfile);
+        }
+    }
+
+    /**
+     * Topology service searching a fixed set of links between devices.
+     */
+    private static class TestTopologyService extends TopologyServiceAdapter {
+
+        private final Topology topology = createMock(Topology.class);
+        private final Graph<TopologyVertex, TopologyEdge> graph;
+
+        TestTopologyService(Set<Link> links) {
+            Set<TopologyVertex> vertexes = links.stream()
+                    .flatMap(link -> Stream.of(link.src().deviceId(), link.dst().deviceId()))
+                    .map(DefaultTopologyVertex::new)
+                    .collect(Collectors.toSet());
+            Set<TopologyEdge> edges = links.stream()
+                    .map(link -> new DefaultTopologyEdge(vertex(link.src().deviceId()),
+                                                         vertex(link.dst().deviceId()), link))
+                    .collect(Collectors.toSet());
+            graph = new AdjacencyListsGraph<>(vertexes, edges);
+        }
+
+        private static TopologyVertex vertex(DeviceId id) {
+            return new DefaultTopologyVertex(id);
+        }
+
+        private static DefaultPath path(org.onlab.graph.Path<TopologyVertex, TopologyEdge> path) {
+            return new DefaultPath(PID, path.edges().stream().map(TopologyEdge::link)
+                    .collect(Collectors.toList()), path.cost());
+        }
+
+        @Override
+        public Topology currentTopology() {
+            return topology;
+        }
+
+        @Override
+        public Set<Path> getPaths(Topology topology, DeviceId src, DeviceId dst, LinkWeigher weigher) {
+            return new DijkstraGraphSearch<TopologyVertex, TopologyEdge>()
+                    .search(graph, vertex(src), vertex(dst), weigher, ALL_PATHS).paths().stream()
+                    .map(TestTopologyService::path)
+                    .collect(Collectors.toSet());
+        }
+
+        @Override
+        public Stream<Path> getKShortestPaths(Topology topology, DeviceId src, DeviceId dst,
+                                              LinkWeigher weigher) {
+            return new LazyKShortestPathsSearch<TopologyVertex, TopologyEdge>()
+                    .lazyPathSearch(graph, vertex(src), vertex(dst), weigher)
+                    .map(TestTopologyService::path);
+        }
+
+        @Override
+        public Set<DisjointPath> getDisjointPaths(Topology topology, DeviceId src, DeviceId dst,
+                                                  LinkWeigher weigher) {
+            return new SuurballeGraphSearch<TopologyVertex, TopologyEdge>()
+                    .search(graph, vertex(src), vertex(dst), weigher, ALL_PATHS).paths().stream()
+                    .map(pair -> (DisjointPathPair<TopologyVertex, TopologyEdge>) pair)
+                    .map(pair -> new DefaultDisjointPath(PID, path(pair.primary()),
+                                                         pair.hasBackup() ? path(pair.secondary()) : null))
+                    .collect(Collectors.toSet());
+        }
+    }
+}
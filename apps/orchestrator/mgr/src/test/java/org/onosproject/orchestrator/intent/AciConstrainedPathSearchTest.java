@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.util.Bandwidth;
+import org.onosproject.net.AnnotationKeys;
+import org.onosproject.net.DefaultAnnotations;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.Host;
+import org.onosproject.net.HostId;
+import org.onosproject.net.Link;
+import org.onosproject.net.Path;
+import org.onosproject.net.host.HostServiceAdapter;
+import org.onosproject.net.intent.Constraint;
+import org.onosproject.net.intent.constraint.BandwidthConstraint;
+import org.onosproject.net.intent.constraint.EncryptionConstraint;
+import org.onosproject.net.intent.constraint.LatencyConstraint;
+import org.onosproject.net.intent.constraint.ObstacleConstraint;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.Link.Type.EDGE;
+import static org.onosproject.net.NetTestTools.PID;
+import static org.onosproject.net.NetTestTools.connectPoint;
+import static org.onosproject.net.NetTestTools.did;
+import static org.onosproject.net.NetTestTools.host;
+
+public class AciConstrainedPathSearchTest {
+
+    // Two hops with a high latency through switch 2, three low latency hops through switches 3 and 5
+    private static final Link S1S2 = link("switch:1", 1, "switch:2", 1, 100);
+    private static final Link S2S4 = link("switch:2", 2, "switch:4", 1, 100);
+    private static final Link S1S3 = link("switch:1", 2, "switch:3", 1, 10);
+    private static final Link S3S5 = link("switch:3", 2, "switch:5", 1, 10);
+    private static final Link S5S4 = link("switch:5", 2, "switch:4", 2, 10);
+
+    private static final List<Link> SHORT = ImmutableList.of(S1S2, S2S4);
+    private static final List<Link> FAST = ImmutableList.of(S1S3, S3S5, S5S4);
+
+    private static final Host H1 = host("00:00:00:00:00:01/-1", "switch:1", 10);
+    private static final Host H2 = host("00:00:00:00:00:02/-1", "switch:4", 10);
+
+    private AciConstrainedPathSearch search;
+
+    @Before
+    public void setUp() {
+        search = new AciConstrainedPathSearch(
+                new FixedTopologyService(ImmutableSet.of(S1S2, S2S4, S1S3, S3S5, S5S4)),
+                new TestHostService(), resource -> true);
+    }
+
+    private static Link link(String src, long srcPort, String dst, long dstPort, long latency) {
+        return DefaultLink.builder()
+                .providerId(PID)
+                .src(connectPoint(src, (int) srcPort))
+                .dst(connectPoint(dst, (int) dstPort))
+                .type(Link.Type.DIRECT)
+                .annotations(DefaultAnnotations.builder()
+                                     .set(AnnotationKeys.LATENCY, Long.toString(latency))
+                                     .build())
+                .build();
+    }
+
+    private List<Path> paths(Constraint... constraints) {
+        return paths(ResidualBandwidth.empty(), constraints);
+    }
+
+    private List<Path> paths(ResidualBandwidth snapshot, Constraint... constraints) {
+        return search.getPaths(did("switch:1"), did("switch:4"), ImmutableList.copyOf(constraints),
+                               snapshot, path -> true);
+    }
+
+    @Test
+    public void appliesTo() {
+        assertFalse(AciConstrainedPathSearch.appliesTo(ImmutableList.of(new EncryptionConstraint())));
+        assertTrue(AciConstrainedPathSearch.appliesTo(
+                ImmutableList.of(new LatencyConstraint(Duration.ofNanos(10)))));
+        assertTrue(AciConstrainedPathSearch.appliesTo(
+                ImmutableList.of(new ObstacleConstraint(did("switch:2")))));
+    }
+
+    @Test
+    public void shortestPathWithinBudget() {
+        List<Path> paths = paths(new LatencyConstraint(Duration.ofNanos(1000)));
+        assertEquals(1, paths.size());
+        assertEquals(SHORT, paths.get(0).links());
+    }
+
+    @Test
+    public void latencyBudget() {
+        List<Path> paths = paths(new LatencyConstraint(Duration.ofNanos(50)));
+        assertEquals(1, paths.size());
+        assertEquals(FAST, paths.get(0).links());
+    }
+
+    @Test
+    public void unreachableBudgetFailsFast() {
+        assertTrue(paths(new LatencyConstraint(Duration.ofNanos(20))).isEmpty());
+    }
+
+    @Test
+    public void obstacle() {
+        List<Path> paths = paths(new ObstacleConstraint(did("switch:2")));
+        assertEquals(1, paths.size());
+        assertEquals(FAST, paths.get(0).links());
+    }
+
+    @Test
+    public void bandwidthOnSnapshot() {
+        ResidualBandwidth snapshot = new ResidualBandwidth(1, ImmutableMap.of(
+                S1S2.src(), 1e6, S1S3.src(), 1e7));
+        List<Path> paths = paths(snapshot, new BandwidthConstraint(Bandwidth.mbps(5)));
+        assertEquals(1, paths.size());
+        assertEquals(FAST, paths.get(0).links());
+
+        assertTrue(paths(snapshot, new BandwidthConstraint(Bandwidth.mbps(50))).isEmpty());
+    }
+
+    @Test
+    public void filter() {
+        List<Path> paths = search.getPaths(did("switch:1"), did("switch:4"),
+                                           ImmutableList.of(new LatencyConstraint(Duration.ofNanos(1000))),
+                                           ResidualBandwidth.empty(), path -> !path.links().contains(S2S4));
+        assertEquals(1, paths.size());
+        assertEquals(FAST, paths.get(0).links());
+    }
+
+    @Test
+    public void everyBudgetFailsFast() {
+        assertTrue(paths(new LatencyConstraint(Duration.ofNanos(1000)),
+                         new LatencyConstraint(Duration.ofNanos(20))).isEmpty());
+        assertTrue(paths(new LatencyConstraint(Duration.ofNanos(20)),
+                         new LatencyConstraint(Duration.ofNanos(1000))).isEmpty());
+        List<Path> paths = paths(new LatencyConstraint(Duration.ofNanos(1000)),
+                                 new LatencyConstraint(Duration.ofNanos(50)));
+        assertEquals(1, paths.size());
+        assertEquals(FAST, paths.get(0).links());
+    }
+
+    @Test
+    public void budgetPrunesManyShorterPaths() {
+        // More two hop paths over budget than candidates, a three hop path within it,
+        // and a faster four hop path
+        ImmutableSet.Builder<Link> links = ImmutableSet.builder();
+        for (int i = 0; i < AciSearches.MAX_CANDIDATES + 8; i++) {
+            String via = "switch:" + (100 + i);
+            links.add(link("switch:1", 10 + i, via, 1, 100));
+            links.add(link(via, 2, "switch:4", 10 + i, 100));
+        }
+        List<Link> within = ImmutableList.of(link("switch:1", 2, "switch:3", 1, 30),
+                                             link("switch:3", 2, "switch:5", 1, 30),
+                                             link("switch:5", 2, "switch:4", 2, 30));
+        List<Link> fastest = ImmutableList.of(link("switch:1", 3, "switch:6", 1, 10),
+                                              link("switch:6", 2, "switch:7", 1, 10),
+                                              link("switch:7", 2, "switch:8", 1, 10),
+                                              link("switch:8", 2, "switch:4", 3, 10));
+        search = new AciConstrainedPathSearch(
+                new FixedTopologyService(links.addAll(within).addAll(fastest).build()),
+                new TestHostService(), resource -> true);
+
+        List<Path> paths = paths(new LatencyConstraint(Duration.ofNanos(100)));
+        assertEquals(1, paths.size());
+        assertEquals(within, paths.get(0).links());
+    }
+
+    @Test
+    public void hostEndpoints() {
+        List<Path> paths = search.getPaths(H1.id(), H2.id(),
+                                           ImmutableList.of(new LatencyConstraint(Duration.ofNanos(50))),
+                                           ResidualBandwidth.empty(), path -> true);
+        assertEquals(1, paths.size());
+        List<Link> links = paths.get(0).links();
+        assertEquals(EDGE, links.get(0).type());
+        assertEquals(H1.location(), links.get(0).dst());
+        assertEquals(FAST, links.subList(1, 4));
+        assertEquals(EDGE, links.get(4).type());
+        assertEquals(H2.location(), links.get(4).src());
+    }
+
+    @Test
+    public void unknownEndpoints() {
+        assertTrue(search.getPaths(did("switch:1"), did("switch:9"),
+                                   ImmutableList.of(new LatencyConstraint(Duration.ofNanos(1000))),
+                                   ResidualBandwidth.empty(), path -> true).isEmpty());
+    }
+
+    private static class TestHostService extends HostServiceAdapter {
+        @Override
+        public Host getHost(HostId hostId) {
+            return Stream.of(H1, H2).filter(host -> host.id().equals(hostId)).findFirst().orElse(null);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.net.AnnotationKeys;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultAnnotations;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.Host;
+import org.onosproject.net.HostId;
+import org.onosproject.net.Link;
+import org.onosproject.net.Path;
+import org.onosproject.net.host.HostServiceAdapter;
+import org.onosproject.net.intent.constraint.AvailabilityConstraint;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.Link.Type.EDGE;
+import static org.onosproject.net.NetTestTools.PID;
+import static org.onosproject.net.NetTestTools.connectPoint;
+import static org.onosproject.net.NetTestTools.did;
+import static org.onosproject.net.NetTestTools.host;
+
+public class AciParetoPathSearchTest {
+
+    // Slow but roomy through switch 2, fast but narrow through switches 3 and 5,
+    // direct and highly available, and a dominated detour through switch 6
+    private static final Link S1S2 = link("switch:1", 1, "switch:2", 1, 100, 0.9);
+    private static final Link S2S4 = link("switch:2", 2, "switch:4", 1, 100, 0.9);
+    private static final Link S1S3 = link("switch:1", 2, "switch:3", 1, 10, 0.9);
+    private static final Link S3S5 = link("switch:3", 2, "switch:5", 1, 10, 1);
+    private static final Link S5S4 = link("switch:5", 2, "switch:4", 2, 10, 0.9);
+    private static final Link S1S4 = link("switch:1", 3, "switch:4", 3, 300, 0.999);
+    private static final Link S1S6 = link("switch:1", 4, "switch:6", 1, 200, 0.5);
+    private static final Link S6S4 = link("switch:6", 2, "switch:4", 4, 200, 1);
+
+    private static final List<Link> SLOW = ImmutableList.of(S1S2, S2S4);
+    private static final List<Link> FAST = ImmutableList.of(S1S3, S3S5, S5S4);
+    private static final List<Link> DIRECT = ImmutableList.of(S1S4);
+
+    private static final Host H1 = host("00:00:00:00:00:01/-1", "switch:1", 10);
+    private static final Host H2 = host("00:00:00:00:00:02/-1", "switch:4", 10);
+
+    private ResidualBandwidth snapshot;
+    private AciParetoPathSearch search;
+
+    @Before
+    public void setUp() {
+        Map<ConnectPoint, Double> residuals = new HashMap<>();
+        Stream.of(SLOW, FAST, DIRECT, ImmutableList.of(S1S6, S6S4)).forEach(links -> {
+            double bandwidth = links == SLOW ? 1e9 : 1e6;
+            links.forEach(link -> {
+                residuals.put(link.src(), bandwidth);
+                residuals.put(link.dst(), bandwidth);
+            });
+        });
+        snapshot = new ResidualBandwidth(1, residuals);
+        search = new AciParetoPathSearch(
+                new FixedTopologyService(ImmutableSet.of(S1S2, S2S4, S1S3, S3S5, S5S4, S1S4, S1S6, S6S4)),
+                new TestHostService());
+    }
+
+    private static Link link(String src, long srcPort, String dst, long dstPort,
+                             long latency, double availability) {
+        return DefaultLink.builder()
+                .providerId(PID)
+                .src(connectPoint(src, (int) srcPort))
+                .dst(connectPoint(dst, (int) dstPort))
+                .type(Link.Type.DIRECT)
+                .annotations(DefaultAnnotations.builder()
+                                     .set(AnnotationKeys.LATENCY, Long.toString(latency))
+                                     .set(AnnotationKeys.AVAILABILITY, Double.toString(availability))
+                                     .build())
+                .build();
+    }
+
+    @Test
+    public void frontier() {
+        List<Path> paths = search.getPaths(did("switch:1"), did("switch:4"), snapshot);
+        assertEquals(ImmutableList.of(FAST, SLOW, DIRECT),
+                     paths.stream().map(Path::links).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void hostEndpoints() {
+        List<Path> paths = search.getPaths(H1.id(), H2.id(), snapshot);
+        assertEquals(3, paths.size());
+        for (Path path : paths) {
+            List<Link> links = path.links();
+            assertEquals(EDGE, links.get(0).type());
+            assertEquals(H1.location(), links.get(0).dst());
+            assertEquals(EDGE, links.get(links.size() - 1).type());
+            assertEquals(H2.location(), links.get(links.size() - 1).src());
+        }
+        assertEquals(FAST, paths.get(0).links().subList(1, 4));
+    }
+
+    @Test
+    public void unknownEndpoints() {
+        assertTrue(search.getPaths(did("switch:1"), did("switch:9"), snapshot).isEmpty());
+        assertTrue(search.getPaths(HostId.hostId("00:00:00:00:00:09/-1"), H2.id(), snapshot).isEmpty());
+    }
+
+    @Test
+    public void linkFigures() {
+        assertEquals(100, AciParetoPathSearch.latency(S1S2), 0);
+        assertEquals(0.999, AvailabilityConstraint.availability(S1S4), 0);
+        assertEquals(1, AvailabilityConstraint.availability(
+                DefaultLink.builder().providerId(PID).src(S1S2.src()).dst(S1S2.dst())
+                        .type(Link.Type.DIRECT).build()), 0);
+    }
+
+    private static class TestHostService extends HostServiceAdapter {
+        @Override
+        public Host getHost(HostId hostId) {
+            return Stream.of(H1, H2).filter(host -> host.id().equals(hostId)).findFirst().orElse(null);
+        }
+    }
+}
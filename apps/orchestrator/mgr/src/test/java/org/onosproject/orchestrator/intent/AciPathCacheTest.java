@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.codahale.metrics.Counter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.graph.ScalarWeight;
+import org.onosproject.net.DefaultPath;
+import org.onosproject.net.ElementId;
+import org.onosproject.net.Path;
+import org.onosproject.net.topology.PathServiceAdapter;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyServiceAdapter;
+
+import java.util.Set;
+
+import static org.easymock.EasyMock.createMock;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.NetTestTools.PID;
+import static org.onosproject.net.NetTestTools.connectPoint;
+import static org.onosproject.net.NetTestTools.did;
+import static org.onosproject.net.NetTestTools.link;
+
+public class AciPathCacheTest {
+
+    private static final Path PATH = new DefaultPath(
+            PID, ImmutableList.of(link(connectPoint("switch:1", 1), connectPoint("switch:2", 1))),
+            new ScalarWeight(1));
+
+    private final Counter hits = new Counter();
+    private final Counter misses = new Counter();
+    private Topology topology;
+    private Set<Path> paths;
+    private int computations;
+    private AciPathCache cache;
+
+    @Before
+    public void setUp() {
+        topology = createMock(Topology.class);
+        paths = ImmutableSet.of(PATH);
+        computations = 0;
+        cache = new AciPathCache(new TestPathService(), new TestTopologyService(), hits, misses);
+    }
+
+    @Test
+    public void pathsAreCachedWithinEpoch() {
+        assertEquals(paths, cache.getPaths(did("switch:1"), did("switch:2")));
+        assertEquals(paths, cache.getPaths(did("switch:1"), did("switch:2")));
+        assertEquals(1, computations);
+        assertEquals(1, hits.getCount());
+        assertEquals(1, misses.getCount());
+
+        cache.getPaths(did("switch:2"), did("switch:1"));
+        assertEquals(2, computations);
+    }
+
+    @Test
+    public void topologyChangeStartsNewEpoch() {
+        cache.getPaths(did("switch:1"), did("switch:2"));
+        topology = createMock(Topology.class);
+        cache.getPaths(did("switch:1"), did("switch:2"));
+        assertEquals(2, computations);
+        assertEquals(0, hits.getCount());
+    }
+
+    @Test
+    public void invalidateDropsPaths() {
+        cache.getPaths(did("switch:1"), did("switch:2"));
+        cache.invalidate();
+        cache.getPaths(did("switch:1"), did("switch:2"));
+        assertEquals(2, computations);
+    }
+
+    @Test
+    public void emptyResultsAreNotCached() {
+        paths = ImmutableSet.of();
+        assertTrue(cache.getPaths(did("switch:1"), did("switch:2")).isEmpty());
+        paths = ImmutableSet.of(PATH);
+        assertEquals(paths, cache.getPaths(did("switch:1"), did("switch:2")));
+        assertEquals(2, computations);
+    }
+
+    private class TestPathService extends PathServiceAdapter {
+        @Override
+        public Set<Path> getPaths(ElementId src, ElementId dst) {
+            computations++;
+            return paths;
+        }
+    }
+
+    private class TestTopologyService extends TopologyServiceAdapter {
+        @Override
+        public Topology currentTopology() {
+            return topology;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.graph.ScalarWeight;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultPath;
+import org.onosproject.net.Path;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.NetTestTools.PID;
+import static org.onosproject.net.NetTestTools.connectPoint;
+import static org.onosproject.net.NetTestTools.link;
+
+public class AciPortPolicyTest {
+
+    private static final ConnectPoint A1 = connectPoint("a", 1);
+    private static final ConnectPoint B1 = connectPoint("b", 1);
+    private static final ConnectPoint B2 = connectPoint("b", 2);
+    private static final ConnectPoint C1 = connectPoint("c", 1);
+    private static final ConnectPoint C2 = connectPoint("c", 2);
+    private static final ConnectPoint D1 = connectPoint("d", 1);
+
+    // a/1 -> b/1, b/2 -> c/1, c/2 -> d/1
+    private static final Path PATH = new DefaultPath(
+            PID, ImmutableList.of(link(A1, B1), link(B2, C1), link(C2, D1)), new ScalarWeight(3));
+
+    private AciPortPolicy policy;
+
+    @Before
+    public void setUp() {
+        policy = new AciPortPolicy();
+    }
+
+    @Test
+    public void unrestrictedPathsAreAdmitted() {
+        assertTrue(policy.admits(PATH));
+        policy.update(D1, ImmutableSet.of(A1), false);
+        assertTrue(policy.admits(PATH));
+    }
+
+    @Test
+    public void pathMustReachAllowedPeer() {
+        policy.update(A1, ImmutableSet.of(C1), false);
+        assertTrue(policy.admits(PATH));
+
+        policy.update(A1, ImmutableSet.of(A1, B1), false);
+        assertFalse(policy.admits(PATH));
+
+        policy.remove(A1);
+        assertTrue(policy.admits(PATH));
+    }
+
+    @Test
+    public void preferredPortsAreUpdatedIncrementally() {
+        assertFalse(policy.isPreferred(PATH));
+        policy.update(C1, ImmutableSet.of(), true);
+        assertTrue(policy.isPreferred(PATH));
+        assertTrue(policy.admits(PATH));
+        policy.update(C1, ImmutableSet.of(), false);
+        assertFalse(policy.isPreferred(PATH));
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.graph.AdjacencyListsGraph;
+import org.onlab.graph.DijkstraGraphSearch;
+import org.onlab.graph.Graph;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.Path;
+import org.onosproject.net.topology.DefaultTopologyEdge;
+import org.onosproject.net.topology.DefaultTopologyVertex;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyEvent;
+import org.onosproject.net.topology.TopologyGraph;
+import org.onosproject.net.topology.TopologyListener;
+import org.onosproject.net.topology.TopologyServiceAdapter;
+import org.onosproject.net.topology.TopologyVertex;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.onlab.graph.GraphPathSearch.ALL_PATHS;
+import static org.onlab.junit.TestTools.assertAfter;
+import static org.onosproject.net.NetTestTools.PID;
+import static org.onosproject.net.NetTestTools.connectPoint;
+import static org.onosproject.net.NetTestTools.did;
+import static org.onosproject.net.topology.HopCountLinkWeigher.DEFAULT_HOP_COUNT_WEIGHER;
+
+public class AllPairsPathManagerTest {
+
+    // A ring of four switches with a spur to switch 5
+    private static final Link S1S2 = link("switch:1", 1, "switch:2", 1);
+    private static final Link S2S1 = link("switch:2", 1, "switch:1", 1);
+    private static final Link S2S3 = link("switch:2", 2, "switch:3", 1);
+    private static final Link S3S2 = link("switch:3", 1, "switch:2", 2);
+    private static final Link S3S4 = link("switch:3", 2, "switch:4", 1);
+    private static final Link S4S3 = link("switch:4", 1, "switch:3", 2);
+    private static final Link S4S1 = link("switch:4", 2, "switch:1", 2);
+    private static final Link S1S4 = link("switch:1", 2, "switch:4", 2);
+    private static final Link S4S5 = link("switch:4", 3, "switch:5", 1);
+    private static final Link S5S4 = link("switch:5", 1, "switch:4", 3);
+    private static final Link S1S3 = link("switch:1", 3, "switch:3", 3);
+
+    private static final Set<Link> RING = ImmutableSet.of(S1S2, S2S1, S2S3, S3S2, S3S4, S4S3,
+                                                          S4S1, S1S4, S4S5, S5S4);
+
+    private TestTopologyService topologyService;
+    private AllPairsPathManager manager;
+
+    @Before
+    public void setUp() {
+        topologyService = new TestTopologyService(RING);
+        manager = new AllPairsPathManager();
+        manager.topologyService = topologyService;
+        manager.activate();
+    }
+
+    @After
+    public void tearDown() {
+        manager.deactivate();
+    }
+
+    private static Link link(String src, long srcPort, String dst, long dstPort) {
+        return DefaultLink.builder()
+                .providerId(PID)
+                .src(connectPoint(src, (int) srcPort))
+                .dst(connectPoint(dst, (int) dstPort))
+                .type(Link.Type.DIRECT)
+                .build();
+    }
+
+    // Paths between all pairs found one pair at a time
+    private Set<List<Link>> expected() {
+        TopologyGraph graph = topologyService.getGraph(null);
+        Set<List<Link>> paths = Sets.newHashSet();
+        for (TopologyVertex src : graph.getVertexes()) {
+            for (TopologyVertex dst : graph.getVertexes()) {
+                if (!src.equals(dst)) {
+                    new DijkstraGraphSearch<TopologyVertex, TopologyEdge>()
+                            .search(graph, src, dst, DEFAULT_HOP_COUNT_WEIGHER, ALL_PATHS).paths()
+                            .forEach(path -> paths.add(path.edges().stream().map(TopologyEdge::link)
+                                                               .collect(Collectors.toList())));
+                }
+            }
+        }
+        return paths;
+    }
+
+    private static Set<List<Link>> links(Stream<Path> paths) {
+        try (Stream<Path> closing = paths) {
+            return closing.map(Path::links).collect(Collectors.toSet());
+        }
+    }
+
+    @Test
+    public void allPairs() {
+        Set<List<Link>> paths = links(manager.getAllPaths());
+        assertEquals(expected(), paths);
+        // Two equal cost paths each way between the opposite switches 1 and 3
+        assertTrue(paths.contains(ImmutableList.of(S1S2, S2S3)));
+        assertTrue(paths.contains(ImmutableList.of(S1S4, S4S3)));
+    }
+
+    @Test
+    public void someSources() {
+        Set<List<Link>> paths = links(manager.getPaths(ImmutableSet.of(did("switch:5"), did("switch:9")),
+                                                       ImmutableSet.of(did("switch:2"), did("switch:5"))));
+        assertEquals(ImmutableSet.of(ImmutableList.of(S5S4, S4S1, S1S2), ImmutableList.of(S5S4, S4S3, S3S2)),
+                     paths);
+    }
+
+    @Test
+    public void unaffectedTreesKept() {
+        links(manager.getAllPaths());
+        assertEquals(5, manager.computations());
+
+        // Only the trees using the removed link are computed again
+        topologyService.setLinks(Sets.difference(RING, ImmutableSet.of(S5S4)));
+        assertEquals(expected(), links(manager.getAllPaths()));
+        assertEquals(6, manager.computations());
+    }
+
+    @Test
+    public void shortcutInvalidatesTrees() {
+        links(manager.getAllPaths());
+
+        topologyService.setLinks(Sets.union(RING, ImmutableSet.of(S1S3)));
+        Set<List<Link>> paths = links(manager.getAllPaths());
+        assertEquals(expected(), paths);
+        assertTrue(paths.contains(ImmutableList.of(S1S3)));
+        // Only switch 1 reaches switch 3 sooner through the shortcut
+        assertEquals(6, manager.computations());
+    }
+
+    @Test
+    public void precomputedOnTopologyChange() {
+        links(manager.getAllPaths());
+
+        topologyService.setLinks(Sets.union(RING, ImmutableSet.of(S1S3)));
+        topologyService.listener.event(new TopologyEvent(TopologyEvent.Type.TOPOLOGY_CHANGED, null, null));
+        assertAfter(1000, () -> assertEquals(6, manager.computations()));
+
+        links(manager.getAllPaths());
+        assertEquals(6, manager.computations());
+    }
+
+    /**
+     * Topology service giving a graph of a changing set of links.
+     */
+    private static class TestTopologyService extends TopologyServiceAdapter {
+
+        private volatile TopologyGraph graph;
+        private TopologyListener listener;
+
+        TestTopologyService(Set<Link> links) {
+            setLinks(links);
+        }
+
+        void setLinks(Set<Link> links) {
+            Set<TopologyVertex> vertexes = links.stream()
+                    .flatMap(link -> Stream.of(link.src().deviceId(), link.dst().deviceId()))
+                    .map(DefaultTopologyVertex::new)
+                    .collect(Collectors.toSet());
+            Set<TopologyEdge> edges = links.stream()
+                    .map(link -> new DefaultTopologyEdge(vertex(link.src().deviceId()),
+                                                         vertex(link.dst().deviceId()), link))
+                    .collect(Collectors.toSet());
+            graph = new TestTopologyGraph(new AdjacencyListsGraph<>(vertexes, edges));
+        }
+
+        private static TopologyVertex vertex(DeviceId device) {
+            return new DefaultTopologyVertex(device);
+        }
+
+        @Override
+        public Topology currentTopology() {
+            return null;
+        }
+
+        @Override
+        public TopologyGraph getGraph(Topology topology) {
+            return graph;
+        }
+
+        @Override
+        public void addListener(TopologyListener listener) {
+            this.listener = listener;
+        }
+    }
+
+    private static class TestTopologyGraph implements TopologyGraph {
+
+        private final Graph<TopologyVertex, TopologyEdge> graph;
+
+        TestTopologyGraph(Graph<TopologyVertex, TopologyEdge> graph) {
+            this.graph = graph;
+        }
+
+        @Override
+        public Set<TopologyVertex> getVertexes() {
+            return graph.getVertexes();
+        }
+
+        @Override
+        public Set<TopologyEdge> getEdges() {
+            return graph.getEdges();
+        }
+
+        @Override
+        public Set<TopologyEdge> getEdgesFrom(TopologyVertex src) {
+            return graph.getEdgesFrom(src);
+        }
+
+        @Override
+        public Set<TopologyEdge> getEdgesTo(TopologyVertex dst) {
+            return graph.getEdgesTo(dst);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import org.onlab.graph.AdjacencyListsGraph;
+import org.onlab.graph.Graph;
+import org.onosproject.net.Link;
+import org.onosproject.net.topology.DefaultTopologyEdge;
+import org.onosproject.net.topology.DefaultTopologyVertex;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyGraph;
+import org.onosproject.net.topology.TopologyServiceAdapter;
+import org.onosproject.net.topology.TopologyVertex;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Topology service giving a graph of a fixed set of links.
+ */
+class FixedTopologyService extends TopologyServiceAdapter {
+
+    private final TopologyGraph graph;
+
+    FixedTopologyService(Set<Link> links) {
+        Set<TopologyVertex> vertexes = links.stream()
+                .flatMap(link -> Stream.of(link.src().deviceId(), link.dst().deviceId()))
+                .map(DefaultTopologyVertex::new)
+                .collect(Collectors.toSet());
+        Set<TopologyEdge> edges = links.stream()
+                .map(link -> new DefaultTopologyEdge(new DefaultTopologyVertex(link.src().deviceId()),
+                                                     new DefaultTopologyVertex(link.dst().deviceId()),
+                                                     link))
+                .collect(Collectors.toSet());
+        graph = new FixedTopologyGraph(new AdjacencyListsGraph<>(vertexes, edges));
+    }
+
+    @Override
+    public Topology currentTopology() {
+        return null;
+    }
+
+    @Override
+    public TopologyGraph getGraph(Topology topology) {
+        return graph;
+    }
+
+    private static class FixedTopologyGraph implements TopologyGraph {
+
+        private final Graph<TopologyVertex, TopologyEdge> graph;
+
+        FixedTopologyGraph(Graph<TopologyVertex, TopologyEdge> graph) {
+            this.graph = graph;
+        }
+
+        @Override
+        public Set<TopologyVertex> getVertexes() {
+            return graph.getVertexes();
+        }
+
+        @Override
+        public Set<TopologyEdge> getEdges() {
+            return graph.getEdges();
+        }
+
+        @Override
+        public Set<TopologyEdge> getEdgesFrom(TopologyVertex src) {
+            return graph.getEdgesFrom(src);
+        }
+
+        @Override
+        public Set<TopologyEdge> getEdgesTo(TopologyVertex dst) {
+            return graph.getEdgesTo(dst);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.graph.ScalarWeight;
+import org.onlab.util.Bandwidth;
+import org.onosproject.net.DefaultPath;
+import org.onosproject.net.Path;
+import org.onosproject.net.intent.Constraint;
+import org.onosproject.net.intent.constraint.BandwidthConstraint;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.onosproject.net.NetTestTools.PID;
+import static org.onosproject.net.NetTestTools.connectPoint;
+import static org.onosproject.net.NetTestTools.link;
+
+public class NegotiationAlternativesTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static Path path(int port) {
+        return new DefaultPath(PID, ImmutableList.of(link(connectPoint("switch:1", port),
+                                                          connectPoint("switch:2", port))),
+                               new ScalarWeight(1));
+    }
+
+    private static List<Constraint> constraints(long mbps) {
+        return ImmutableList.of(new BandwidthConstraint(Bandwidth.mbps(mbps)));
+    }
+
+    @Test
+    public void bestAlternativesComeFirst() {
+        // port -> bandwidth, latency
+        Map<Long, double[]> figures = ImmutableMap.of(1L, new double[]{10, 5},
+                                                      2L, new double[]{30, 9},
+                                                      3L, new double[]{30, 1},
+                                                      4L, new double[]{20, 1});
+        NegotiationAlternatives negotiation = new NegotiationAlternatives(executor, 3, 1_000);
+
+        List<List<Constraint>> best = negotiation.best(
+                ImmutableList.of(path(1), path(2), path(3), path(4)),
+                p -> {
+                    long port = p.src().port().toLong();
+                    double[] f = figures.get(port);
+                    return new NegotiationAlternatives.Alternative(constraints(port), f[0], f[1]);
+                });
+
+        assertEquals(ImmutableList.of(constraints(3), constraints(2), constraints(4)), best);
+    }
+
+    @Test
+    public void equivalentAlternativesAreOfferedOnce() {
+        NegotiationAlternatives negotiation = new NegotiationAlternatives(executor, 5, 1_000);
+
+        List<List<Constraint>> best = negotiation.best(
+                ImmutableList.of(path(1), path(2), path(3)),
+                p -> new NegotiationAlternatives.Alternative(constraints(p.src().port().toLong() % 2),
+                                                             10, 1));
+
+        assertEquals(ImmutableList.of(constraints(1), constraints(0)), best);
+    }
+
+    @Test
+    public void slowAlternativesAreDropped() {
+        NegotiationAlternatives negotiation = new NegotiationAlternatives(executor, 5, 200);
+
+        List<List<Constraint>> best = negotiation.best(
+                ImmutableList.of(path(1), path(2)),
+                p -> {
+                    if (p.src().port().toLong() == 2) {
+                        try {
+                            Thread.sleep(10_000);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return new NegotiationAlternatives.Alternative(constraints(p.src().port().toLong()), 10, 1);
+                });
+
+        assertEquals(ImmutableList.of(constraints(1)), best);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.intent;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.util.Bandwidth;
+import org.onosproject.cfg.ComponentConfigAdapter;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.intent.IntentId;
+import org.onosproject.net.resource.ContinuousResource;
+import org.onosproject.net.resource.DiscreteResource;
+import org.onosproject.net.resource.DiscreteResourceId;
+import org.onosproject.net.resource.MockResourceService;
+import org.onosproject.net.resource.Resource;
+import org.onosproject.net.resource.ResourceEvent;
+import org.onosproject.net.resource.ResourceListener;
+import org.onosproject.net.resource.Resources;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.onlab.junit.TestTools.assertAfter;
+import static org.onosproject.net.NetTestTools.connectPoint;
+
+public class ResidualBandwidthManagerTest {
+
+    private static final ConnectPoint CP1 = connectPoint("switch:1", 1);
+    private static final ConnectPoint CP2 = connectPoint("switch:2", 1);
+    private static final ConnectPoint CP3 = connectPoint("switch:3", 1);
+
+    private final Map<DiscreteResourceId, Set<Resource>> registered = new HashMap<>();
+    private TestResourceService resourceService;
+    private ResidualBandwidthManager manager;
+
+    @Before
+    public void setUp() {
+        resourceService = new TestResourceService();
+        register(CP1, 1000);
+        register(CP2, 500);
+        manager = new ResidualBandwidthManager();
+        manager.resourceService = resourceService;
+        manager.configService = new ComponentConfigAdapter();
+        manager.activate(null);
+    }
+
+    @After
+    public void tearDown() {
+        manager.deactivate();
+    }
+
+    @Test
+    public void residualIsCapacityMinusAllocations() {
+        resourceService.allocate(IntentId.valueOf(1), bandwidth(CP1, 300));
+        manager.refresh(ImmutableList.of(CP1));
+
+        ResidualBandwidth snapshot = manager.snapshot();
+        assertEquals(700, snapshot.residual(CP1), 0);
+        assertEquals(500, snapshot.residual(CP2), 0);
+        assertEquals(0, snapshot.residual(CP3), 0);
+        assertEquals(500, snapshot.bottleneck(ImmutableList.of(CP1, CP2)), 0);
+        assertEquals(0, snapshot.bottleneck(ImmutableList.of(CP1, CP3)), 0);
+    }
+
+    @Test
+    public void snapshotsAreImmutable() {
+        ResidualBandwidth before = manager.snapshot();
+        assertEquals(before, manager.snapshot());
+
+        resourceService.allocate(IntentId.valueOf(1), bandwidth(CP2, 500));
+        manager.refresh(ImmutableList.of(CP2));
+
+        assertEquals(500, before.residual(CP2), 0);
+        assertEquals(0, manager.snapshot().residual(CP2), 0);
+    }
+
+    @Test
+    public void unchangedReloadKeepsSnapshot() {
+        ResidualBandwidth before = manager.snapshot();
+        manager.reload();
+        assertSame(before, manager.snapshot());
+
+        resourceService.allocate(IntentId.valueOf(1), bandwidth(CP1, 300));
+        manager.reload();
+        ResidualBandwidth after = manager.snapshot();
+        assertNotSame(before, after);
+        assertEquals(700, after.residual(CP1), 0);
+    }
+
+    @Test
+    public void resourceEventsUpdateIndex() {
+        register(CP3, 100);
+        resourceService.listener.event(new ResourceEvent(ResourceEvent.Type.RESOURCE_ADDED, bandwidth(CP3, 100)));
+        assertAfter(1000, () -> assertEquals(100, manager.snapshot().residual(CP3), 0));
+
+        Resource removed = bandwidth(CP1, 1000);
+        registered.get(removed.parent().get().id()).remove(removed);
+        resourceService.listener.event(new ResourceEvent(ResourceEvent.Type.RESOURCE_REMOVED, removed));
+        assertAfter(1000, () -> assertEquals(ImmutableSet.of(CP2, CP3),
+                                             manager.snapshot().residuals().keySet()));
+    }
+
+    private static ContinuousResource bandwidth(ConnectPoint cp, double bps) {
+        return Resources.continuous(cp.deviceId(), cp.port(), Bandwidth.class).resource(bps);
+    }
+
+    private void register(ConnectPoint cp, double bps) {
+        DiscreteResource device = Resources.discrete(cp.deviceId()).resource();
+        DiscreteResource port = Resources.discrete(cp.deviceId(), cp.port()).resource();
+        registered.computeIfAbsent(Resource.ROOT.id(), k -> new HashSet<>()).add(device);
+        registered.computeIfAbsent(device.id(), k -> new HashSet<>()).add(port);
+        registered.computeIfAbsent(port.id(), k -> new HashSet<>()).add(bandwidth(cp, bps));
+    }
+
+    private class TestResourceService extends MockResourceService {
+        private ResourceListener listener;
+
+        @Override
+        public Set<Resource> getRegisteredResources(DiscreteResourceId parent) {
+            return ImmutableSet.copyOf(registered.getOrDefault(parent, ImmutableSet.of()));
+        }
+
+        @Override
+        public void addListener(ResourceListener listener) {
+            this.listener = listener;
+        }
+    }
+}
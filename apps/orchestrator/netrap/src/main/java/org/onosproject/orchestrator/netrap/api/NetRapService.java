@@ -21,12 +21,74 @@ import com.wpl.xrapc.XrapRequest;
 import com.wpl.xrapc.XrapResource;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public interface NetRapService {
     XrapReply sendOne(ByteBuffer address, XrapRequest message);
 
+    /**
+     * Sends a request to the least loaded registered Net2Plan instance and
+     * waits for the reply. Only for requests that do not depend on state
+     * held by an instance; see sendPrimary.
+     *
+     * @param message request
+     * @return reply, null on error, timeout or if no instance is registered
+     */
     XrapReply sendAny(XrapRequest message);
 
+    /**
+     * Sends a request to the primary Net2Plan instance and waits for the
+     * reply. The instances do not share their state, so requests which
+     * depend on the topology or on earlier demands go there.
+     *
+     * @param message request
+     * @return reply, null on error, timeout or if no instance is registered
+     */
+    XrapReply sendPrimary(XrapRequest message);
+
+    /**
+     * Returns the primary Net2Plan instance, the one the topology and the
+     * demands are sent to.
+     *
+     * @return route id of the instance, null if no instance is registered
+     */
+    ByteBuffer primaryAddress();
+
+    /**
+     * Sends a request to the given Net2Plan instance without waiting for
+     * the reply.
+     *
+     * @param address route id of the instance
+     * @param message request
+     * @return future reply, failed on error or timeout
+     */
+    CompletableFuture<XrapReply> sendOneAsync(ByteBuffer address, XrapRequest message);
+
+    /**
+     * Sends a request to the given Net2Plan instance without waiting for
+     * the reply, failing it after the given timeout instead of the
+     * configured one.
+     *
+     * @param address route id of the instance
+     * @param message request
+     * @param timeout time after which the request fails
+     * @param unit    unit of the timeout
+     * @return future reply, failed on error or timeout
+     */
+    CompletableFuture<XrapReply> sendOneAsync(ByteBuffer address, XrapRequest message,
+                                              long timeout, TimeUnit unit);
+
+    /**
+     * Sends a request to the least loaded registered Net2Plan instance
+     * without waiting for the reply. Only for requests that do not depend
+     * on state held by an instance, such as the topology or earlier demands.
+     *
+     * @param message request
+     * @return future reply, failed on error, timeout or if no instance is registered
+     */
+    CompletableFuture<XrapReply> sendAnyAsync(XrapRequest message);
+
     //void sendAll(XrapRequest message);
 
     void addHandler(XrapResource resource);
@@ -17,13 +17,23 @@
 package org.onosproject.orchestrator.netrap.api;
 
 import com.wpl.xrapc.XrapResourceService;
+import org.onosproject.event.Event;
 import org.onosproject.orchestrator.netrap.model.NetRapTopology;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 
 public interface NetRapTopoService extends XrapResourceService {
     void updateTopology();
 
+    /**
+     * Records the devices and links which changed, so that the next
+     * topology update only revisits those.
+     *
+     * @param reasons device and link events behind a topology change
+     */
+    void recordChanges(List<Event> reasons);
+
     NetRapTopology getTopology();
 
     boolean sendTopology(ByteBuffer address);
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.netrap.impl;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.wpl.xrapc.XrapException;
+import com.wpl.xrapc.XrapReply;
+import com.wpl.xrapc.XrapRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
+import static org.onlab.util.Tools.groupedThreads;
+
+/**
+ * Asynchronous XRAP client keeping several requests in flight.
+ * <p>
+ * The peer only offers a blocking exchange, so requests are handed to a
+ * bounded pool of senders: up to maxOutstanding requests wait for their
+ * reply at the same time and at most {@link #MAX_QUEUED} more wait for a
+ * sender, further requests fail right away. The underlying peer matches
+ * replies to requests by request id, but only hands them to a caller blocked
+ * on its request; each request in flight thus holds a sender until its reply
+ * arrives, rather than being pipelined over the connection by this client.
+ * Each request completes exceptionally once its timeout expires.
+ */
+public class NetRapClient {
+
+    /**
+     * Blocking request/reply exchange with a peer.
+     */
+    @FunctionalInterface
+    public interface Transport {
+        /**
+         * Sends a request and waits for its reply.
+         *
+         * @param address route id of the peer
+         * @param request request
+         * @return reply
+         * @throws XrapException        if the exchange fails
+         * @throws InterruptedException if interrupted while waiting
+         */
+        XrapReply send(ByteBuffer address, XrapRequest request) throws XrapException, InterruptedException;
+    }
+
+    /**
+     * Maximum number of requests waiting for a sender.
+     */
+    public static final int MAX_QUEUED = 1024;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Transport transport;
+    private final long timeoutMillis;
+    private final Timer latency;
+    private final Counter timeouts;
+    private final ExecutorService senders;
+    private final ScheduledExecutorService timer;
+    private final Map<Integer, CompletableFuture<XrapReply>> pending = new ConcurrentHashMap<>();
+    private final Map<ByteBuffer, AtomicInteger> outstanding = new ConcurrentHashMap<>();
+    private final AtomicInteger nextPeer = new AtomicInteger();
+
+    /**
+     * Creates a client.
+     *
+     * @param transport      exchange with the peers
+     * @param maxOutstanding maximum number of requests waiting for a reply
+     * @param timeoutMillis  default time after which a request fails, in millis
+     * @param latency        timer of the request latencies, may be null
+     * @param timeouts       counter of the expired requests, may be null
+     */
+    public NetRapClient(Transport transport, int maxOutstanding, long timeoutMillis,
+                        Timer latency, Counter timeouts) {
+        this.transport = transport;
+        this.timeoutMillis = timeoutMillis;
+        this.latency = latency;
+        this.timeouts = timeouts;
+        this.senders = new ThreadPoolExecutor(maxOutstanding, maxOutstanding, 0L, TimeUnit.MILLISECONDS,
+                                              new ArrayBlockingQueue<>(MAX_QUEUED),
+                                              groupedThreads("onos/orchestrator", "netrap-sender-%d", log));
+        this.timer = newSingleThreadScheduledExecutor(
+                groupedThreads("onos/orchestrator", "netrap-timeout", log));
+    }
+
+    /**
+     * Sends a request to a peer with the default timeout.
+     *
+     * @param address route id of the peer
+     * @param request request
+     * @return future reply
+     */
+    public CompletableFuture<XrapReply> send(ByteBuffer address, XrapRequest request) {
+        return send(address, request, timeoutMillis);
+    }
+
+    /**
+     * Sends a request to a peer. The timeout only applies to this request,
+     * the peer still gives up on a reply after its own receive timeout.
+     *
+     * @param address       route id of the peer
+     * @param request       request
+     * @param timeoutMillis time after which the request fails, in millis
+     * @return future reply, failed right away if too many requests wait
+     */
+    public CompletableFuture<XrapReply> send(ByteBuffer address, XrapRequest request, long timeoutMillis) {
+        CompletableFuture<XrapReply> reply = new CompletableFuture<>();
+        int requestId = request.getRequestId();
+        ByteBuffer peer = address.duplicate();
+        AtomicInteger inFlight = outstanding.computeIfAbsent(peer, k -> new AtomicInteger());
+        inFlight.incrementAndGet();
+        pending.put(requestId, reply);
+        Timer.Context context = startTimer(latency);
+
+        Future<?> exchange;
+        try {
+            exchange = senders.submit(() -> {
+                try {
+                    XrapReply response = transport.send(address.duplicate(), request);
+                    if (response != null && response.getRequestId() != requestId) {
+                        reply.completeExceptionally(new XrapException(
+                                "Reply " + response.getRequestId() + " does not match request " + requestId));
+                    } else {
+                        reply.complete(response);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    reply.completeExceptionally(e);
+                } catch (Exception e) {
+                    reply.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(requestId, reply);
+            inFlight.decrementAndGet();
+            reply.completeExceptionally(e);
+            return reply;
+        }
+        ScheduledFuture<?> expiry = timer.schedule(() -> {
+            if (reply.completeExceptionally(new TimeoutException(
+                    "No reply to request " + requestId + " within " + timeoutMillis + " ms"))) {
+                if (timeouts != null) {
+                    timeouts.inc();
+                }
+                exchange.cancel(true);
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+        reply.whenComplete((r, e) -> {
+            expiry.cancel(false);
+            stopTimer(context);
+            pending.remove(requestId, reply);
+            inFlight.decrementAndGet();
+        });
+        return reply;
+    }
+
+    /**
+     * Sends a request to the peer with the fewest requests in flight.
+     *
+     * @param peers   route ids of the candidate peers
+     * @param request request
+     * @return future reply, failed if there is no peer
+     */
+    public CompletableFuture<XrapReply> sendAny(List<ByteBuffer> peers, XrapRequest request) {
+        if (peers.isEmpty()) {
+            CompletableFuture<XrapReply> reply = new CompletableFuture<>();
+            reply.completeExceptionally(new XrapException("No registered peer"));
+            return reply;
+        }
+        // Start from a rotating offset so that idle peers share the load
+        int start = Math.floorMod(nextPeer.getAndIncrement(), peers.size());
+        ByteBuffer best = null;
+        int bestLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < peers.size(); i++) {
+            ByteBuffer peer = peers.get((start + i) % peers.size());
+            AtomicInteger inFlight = outstanding.get(peer);
+            int load = inFlight == null ? 0 : inFlight.get();
+            if (load < bestLoad) {
+                best = peer;
+                bestLoad = load;
+            }
+        }
+        return send(best, request);
+    }
+
+    /**
+     * Returns the number of requests waiting for a reply or a sender.
+     *
+     * @return number of pending requests
+     */
+    public int pending() {
+        return pending.size();
+    }
+
+    /**
+     * Fails the pending requests and stops the senders.
+     */
+    public void shutdown() {
+        pending.values().forEach(reply -> reply.completeExceptionally(new XrapException("Client stopped")));
+        senders.shutdownNow();
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.netrap.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.onlab.util.AbstractAccumulator;
+import org.onosproject.net.intent.ACIPPIntent;
+import org.onosproject.net.intent.Key;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.function.Consumer;
+
+/**
+ * An accumulator coalescing installed or failed ACI intents into a single
+ * demand list sent to Net2Plan.
+ * <p>
+ * Only the latest version of an intent is sent, in the position of its
+ * first appearance. Intents taken by {@link #flush()} are not sent again
+ * when the timer processes the batch they were part of.
+ */
+public class NetRapDemandAccumulator extends AbstractAccumulator<ACIPPIntent> {
+
+    private final Consumer<List<ACIPPIntent>> delegate;
+    // Latest version of the intents not sent yet, guarded by itself
+    private final Map<Key, ACIPPIntent> pending = Maps.newLinkedHashMap();
+
+    /**
+     * Creates a demand accumulator.
+     *
+     * @param timer          timer triggering the batches
+     * @param maxItems       maximum number of intents in a batch
+     * @param maxBatchMillis maximum age of a batch in millis
+     * @param maxIdleMillis  maximum millis between intents before a batch is sent
+     * @param delegate       consumer of the batches
+     */
+    public NetRapDemandAccumulator(Timer timer, int maxItems, int maxBatchMillis,
+                                   int maxIdleMillis, Consumer<List<ACIPPIntent>> delegate) {
+        super(timer, maxItems, maxBatchMillis, maxIdleMillis);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void add(ACIPPIntent intent) {
+        synchronized (pending) {
+            pending.put(intent.key(), intent);
+        }
+        super.add(intent);
+    }
+
+    @Override
+    public void processItems(List<ACIPPIntent> items) {
+        List<ACIPPIntent> batch = Lists.newArrayList();
+        synchronized (pending) {
+            for (ACIPPIntent intent : items) {
+                ACIPPIntent latest = pending.remove(intent.key());
+                if (latest != null) {
+                    batch.add(latest);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            delegate.accept(batch);
+        }
+    }
+
+    /**
+     * Sends the pending intents right away, without waiting for the timer.
+     */
+    public void flush() {
+        List<ACIPPIntent> batch;
+        synchronized (pending) {
+            batch = Lists.newArrayList(pending.values());
+            pending.clear();
+        }
+        if (!batch.isEmpty()) {
+            delegate.accept(batch);
+        }
+    }
+}
@@ -113,6 +113,7 @@ public class NetRapEventHandler {
                 return;
             }
 
+            netRapTopoService.recordChanges(event.reasons());
             if (event.reasons() != null && !event.reasons().isEmpty()) {
                 for (Event reason : event.reasons()) {
                     if (reason instanceof LinkEvent) {
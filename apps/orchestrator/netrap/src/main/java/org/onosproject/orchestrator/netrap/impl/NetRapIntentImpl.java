@@ -16,6 +16,9 @@
 
 package org.onosproject.orchestrator.netrap.impl;
 
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.gson.Gson;
@@ -33,12 +36,15 @@ import org.apache.commons.codec.binary.Hex;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
 import org.onlab.osgi.DefaultServiceDirectory;
 import org.onlab.util.Bandwidth;
 import org.onlab.util.KryoNamespace;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.core.DefaultApplicationId;
@@ -56,6 +62,7 @@ import org.onosproject.net.flow.DefaultTrafficTreatment;
 import org.onosproject.net.intent.ACIPPIntent;
 import org.onosproject.net.intent.Constraint;
 import org.onosproject.net.intent.Intent;
+import org.onosproject.net.intent.IntentId;
 import org.onosproject.net.intent.IntentService;
 import org.onosproject.net.intent.IntentState;
 import org.onosproject.net.intent.Key;
@@ -83,20 +90,26 @@ import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.ConsistentMap;
 import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.StorageService;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.Dictionary;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Timer;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
+import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.onlab.util.Tools.get;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.Device.Type.OTN;
 import static org.onosproject.net.intent.IntentState.*;
@@ -118,6 +131,14 @@ public class NetRapIntentImpl extends XrapResource implements NetRapIntentServic
                            .register(PortId.class)
                            .nextId(KryoNamespaces.BEGIN_USER_CUSTOM_ID)
                            .build("OrchestratorStore"));
+    private static final Gson GSON = new Gson();
+
+    private static final int DEFAULT_DEMAND_BATCH_SIZE = 100;
+    private static final int DEFAULT_DEMAND_BATCH_MS = 50;
+    private static final int DEFAULT_DEMAND_IDLE_MS = 10;
+    private static final int DEFAULT_HANDLED_INTENTS_MAX = 100000;
+    private static final int DEFAULT_HANDLED_INTENTS_EXPIRY_MIN = 60;
+
     private final Logger log = getLogger(NetRapIntentImpl.class);
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -138,16 +159,42 @@ public class NetRapIntentImpl extends XrapResource implements NetRapIntentServic
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceService deviceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService configService;
+
+    @Property(name = "demandBatchSize", intValue = DEFAULT_DEMAND_BATCH_SIZE,
+            label = "Maximum number of intents sent to Net2Plan in one demand list")
+    private int demandBatchSize = DEFAULT_DEMAND_BATCH_SIZE;
+
+    @Property(name = "demandBatchMs", intValue = DEFAULT_DEMAND_BATCH_MS,
+            label = "Maximum time in ms an intent waits before its demand list is sent")
+    private int demandBatchMs = DEFAULT_DEMAND_BATCH_MS;
+
+    @Property(name = "demandIdleMs", intValue = DEFAULT_DEMAND_IDLE_MS,
+            label = "Time in ms without new intents after which the demand list is sent")
+    private int demandIdleMs = DEFAULT_DEMAND_IDLE_MS;
+
+    @Property(name = "handledIntentsMax", intValue = DEFAULT_HANDLED_INTENTS_MAX,
+            label = "Maximum number of intents remembered as already sent to Net2Plan")
+    private int handledIntentsMax = DEFAULT_HANDLED_INTENTS_MAX;
+
+    @Property(name = "handledIntentsExpiryMin", intValue = DEFAULT_HANDLED_INTENTS_EXPIRY_MIN,
+            label = "Time in minutes after which an intent sent to Net2Plan is forgotten")
+    private int handledIntentsExpiryMin = DEFAULT_HANDLED_INTENTS_EXPIRY_MIN;
+
     private Map<Key, NetRapRoute> keyNetRapRouteMap;
     private Map<Key, NetRapRoute> keyNetRapBackupRouteMap;
-    private LinkedList<Key> handled = new LinkedList<>();
+    // Last intent id, i.e. submission, sent to Net2Plan for each key
+    Cache<Key, IntentId> handled;
     private ExecutorService batchExecutor;
+    private Timer demandTimer;
+    private volatile NetRapDemandAccumulator demandAccumulator;
     // Creates a dependecy loop if resolved using @Reference
     private NetRapService netRapService = null;
     private ApplicationId appId;
 
     @Activate
-    protected void activate() {
+    protected void activate(ComponentContext context) {
         log.info("Starting NetRapIntentService..");
         setRoute("/intents/");
         if (storageService == null) {
@@ -167,6 +214,9 @@ public class NetRapIntentImpl extends XrapResource implements NetRapIntentServic
                 .build();
 
         batchExecutor = newSingleThreadExecutor(groupedThreads("netrap/intent", "batch", log));
+        demandTimer = new Timer("netrap-demand-batching");
+        configService.registerProperties(getClass());
+        modified(context);
 
         keyNetRapRouteMap = keyNetRapRouteConsistentMap.asJavaMap();
         keyNetRapBackupRouteMap = keyNetRapBackupRouteConsistentMap.asJavaMap();
@@ -222,10 +272,71 @@ public class NetRapIntentImpl extends XrapResource implements NetRapIntentServic
 
     @Deactivate
     protected void deactivate() {
+        configService.unregisterProperties(getClass(), false);
+        demandTimer.cancel();
+        demandAccumulator.flush();
         batchExecutor.shutdown();
         log.info("Stopping NetRapIntentService...");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        Dictionary<?, ?> properties = context != null ? context.getProperties() : new java.util.Properties();
+        int newBatchSize = getIntProperty(properties, "demandBatchSize", demandBatchSize);
+        int newBatchMs = getIntProperty(properties, "demandBatchMs", demandBatchMs);
+        int newIdleMs = getIntProperty(properties, "demandIdleMs", demandIdleMs);
+
+        if (newBatchSize < 2 || newBatchMs <= 0 || newIdleMs <= 0) {
+            log.warn("Ignoring invalid demand batching settings size={} batchMs={} idleMs={}",
+                     newBatchSize, newBatchMs, newIdleMs);
+        } else {
+            demandBatchSize = newBatchSize;
+            demandBatchMs = newBatchMs;
+            demandIdleMs = newIdleMs;
+        }
+
+        NetRapDemandAccumulator previous = demandAccumulator;
+        if (previous == null || previous.maxItems() != demandBatchSize
+                || previous.maxBatchMillis() != demandBatchMs || previous.maxIdleMillis() != demandIdleMs) {
+            demandAccumulator = new NetRapDemandAccumulator(demandTimer, demandBatchSize, demandBatchMs,
+                                                            demandIdleMs, this::submitDemandBatch);
+            // Intents added to the old accumulator after the flush are still sent by its timer
+            if (previous != null) {
+                previous.flush();
+            }
+            log.info("Batching Net2Plan demands, size={} batchMs={} idleMs={}",
+                     demandBatchSize, demandBatchMs, demandIdleMs);
+        }
+
+        int newHandledMax = getIntProperty(properties, "handledIntentsMax", handledIntentsMax);
+        int newHandledExpiry = getIntProperty(properties, "handledIntentsExpiryMin", handledIntentsExpiryMin);
+        boolean handledChanged = false;
+        if (newHandledMax <= 0 || newHandledExpiry <= 0) {
+            log.warn("Ignoring invalid handled intent settings max={} expiryMin={}",
+                     newHandledMax, newHandledExpiry);
+        } else if (newHandledMax != handledIntentsMax || newHandledExpiry != handledIntentsExpiryMin) {
+            handledIntentsMax = newHandledMax;
+            handledIntentsExpiryMin = newHandledExpiry;
+            handledChanged = true;
+        }
+
+        if (handled == null || handledChanged) {
+            handled = handledCache(handledIntentsMax, handledIntentsExpiryMin, Ticker.systemTicker(), handled);
+            log.info("Remembering up to {} handled intents for {} minutes",
+                     handledIntentsMax, handledIntentsExpiryMin);
+        }
+    }
+
+    private int getIntProperty(Dictionary<?, ?> properties, String name, int defaultValue) {
+        try {
+            String s = get(properties, name);
+            return isNullOrEmpty(s) ? defaultValue : Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            log.warn(e.getMessage());
+            return defaultValue;
+        }
+    }
+
     public XrapReply GET(XrapGetRequest request) {
 
         try {
@@ -309,8 +420,8 @@ public class NetRapIntentImpl extends XrapResource implements NetRapIntentServic
             String jsonDmdList = gson.toJson(demands);
             byte[] body = jsonDmdList.getBytes();
             XrapPostRequest req = new XrapPostRequest("/demand/list", new String(body));
-            log.trace("Posting demand list " + req + " to ALL");
-            XrapReply response = netRapService.sendAny(req);
+            log.trace("Posting demand list " + req + " to the primary instance");
+            XrapReply response = netRapService.sendPrimary(req);
             if (response == null) {
                 log.error("No reply was received from Net2Plan regarding the list of demands.");
             } else {
@@ -341,8 +452,8 @@ public class NetRapIntentImpl extends XrapResource implements NetRapIntentServic
 
         try {
             XrapPostRequest req = new XrapPostRequest("/demand/reopt", "");
-            log.trace("Posting call to reopt " + req + " to ALL");
-            XrapReply response = netRapService.sendAny(req);
+            log.trace("Posting call to reopt " + req + " to the primary instance");
+            XrapReply response = netRapService.sendPrimary(req);
             if (response == null) {
                 log.error("No reply was received from Net2Plan regarding network reoptimization!");
             } else {
@@ -476,8 +587,17 @@ public class NetRapIntentImpl extends XrapResource implements NetRapIntentServic
 
 
     private void handleIntentResponse(ACIPPIntent intent, XrapPostReply response) {
-        Gson gson = new Gson();
-        NetRapAction[] nrdArray = gson.fromJson(new String(response.getBody()), NetRapAction[].class);
+        handleIntentResponse(response, nrd -> intent);
+    }
+
+    /**
+     * Applies the actions of a Net2Plan reply.
+     *
+     * @param response  reply from Net2Plan
+     * @param refIntent resolves the intent an action was requested for, may return null
+     */
+    private void handleIntentResponse(XrapPostReply response, Function<NetRapAction, ACIPPIntent> refIntent) {
+        NetRapAction[] nrdArray = GSON.fromJson(new String(response.getBody()), NetRapAction[].class);
         if (nrdArray != null) {
             List<NetRapAction> netRapDemandList = new ArrayList<>(Arrays.asList(nrdArray));
 //            log.info("handleIntentResponse - Got List of netRapDemands back:  " + netRapDemandList);
@@ -492,22 +612,22 @@ public class NetRapIntentImpl extends XrapResource implements NetRapIntentServic
 
             for (NetRapAction nrd : netRapDemandList) {
                 if (nrd.getAction().equals("NEW")) {
-                    handleNewNetRapAction(nrd, intent);
+                    handleNewNetRapAction(nrd, refIntent.apply(nrd));
                 }
             }
             for (NetRapAction nrd : netRapDemandList) {
                 if (nrd.getAction().equals("MOVE")) {
-                    handleMoveNetRapAction(nrd, intent);
+                    handleMoveNetRapAction(nrd, refIntent.apply(nrd));
                 }
             }
             for (NetRapAction nrd : netRapDemandList) {
                 if (nrd.getAction().equals("ROUTE")) {
-                    handleRouteNetRapAction(nrd, intent);
+                    handleRouteNetRapAction(nrd, refIntent.apply(nrd));
                 }
             }
             for (NetRapAction nrd : netRapDemandList) {
                 if (nrd.getAction().equals("FAIL")) {
-                    handleFailNetRapAction(nrd, intent);
+                    handleFailNetRapAction(nrd, refIntent.apply(nrd));
                 }
             }
         } else {
@@ -642,7 +762,7 @@ public class NetRapIntentImpl extends XrapResource implements NetRapIntentServic
                 intentKey = Key.of(intentStringKey, searchAppId);
             }
 
-            handled.remove(intentKey);
+            handled.invalidate(intentKey);
 
             //log.info("handleIntentResponse, looking up intent with key: " + intentKey);
             Intent lookupIntent = intentService.getIntent(intentKey);
@@ -656,10 +776,10 @@ public class NetRapIntentImpl extends XrapResource implements NetRapIntentServic
 
         }
         if (intent == null) {
-            log.error("handleIntentResponse, could not find ACIPPIntent for key: " + intentStringKey + " appid: " + appid + " appname: " + appname + " id: " + id + " !");
-            if (refintent != null) {
-                return;
-            }
+            // Batched requests may leave no reference intent either, nothing to check then
+            log.error("handleIntentResponse, could not find ACIPPIntent for key: " + intentStringKey
+                              + " appid: " + appid + " appname: " + appname + " id: " + id + " !");
+            return;
         }
         // TODO better error handling here ..
         if (!intent.appId().name().equals(appname)) {
@@ -940,14 +1060,34 @@ public class NetRapIntentImpl extends XrapResource implements NetRapIntentServic
         return linkList;
     }
 
-    private boolean handledIntent(ACIPPIntent intent) {
-
-        if (handled.contains(intent.key())) {
-            return true;
-        } else {
-            handled.add(intent.key());
-            return false;
+    /**
+     * Builds the cache of intents already sent to Net2Plan, carrying over the
+     * entries of the cache it replaces so a reconfiguration does not resend
+     * them.
+     *
+     * @param maxSize   maximum number of remembered intents
+     * @param expiryMin minutes after which an intent is forgotten
+     * @param ticker    time source of the expiry
+     * @param previous  cache being replaced, may be null
+     * @return cache of handled intents
+     */
+    static Cache<Key, IntentId> handledCache(int maxSize, int expiryMin, Ticker ticker,
+                                             Cache<Key, IntentId> previous) {
+        Cache<Key, IntentId> cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expiryMin, TimeUnit.MINUTES)
+                .ticker(ticker)
+                .build();
+        if (previous != null) {
+            cache.putAll(previous.asMap());
         }
+        return cache;
+    }
+
+    boolean handledIntent(ACIPPIntent intent) {
+        // A resubmitted intent keeps its key but gets a new id
+        IntentId previous = handled.asMap().put(intent.key(), intent.id());
+        return intent.id().equals(previous);
     }
 
     @Override
@@ -962,78 +1102,129 @@ public class NetRapIntentImpl extends XrapResource implements NetRapIntentServic
             ACIPPIntent aciIntent = (ACIPPIntent) intent;
 
             if (!handledIntent(aciIntent)) {
-                batchExecutor.execute(new Net2PlanRequestHandler(aciIntent, false));
+                demandAccumulator.add(aciIntent);
             }
 
         }
     }
 
-    private class Net2PlanRequestHandler implements Runnable {
+    private void submitDemandBatch(List<ACIPPIntent> intents) {
+        batchExecutor.execute(new Net2PlanBatchHandler(intents));
+    }
+
+    private boolean isWithdrawn(ACIPPIntent intent) {
+        IntentState state = intentService.getIntentState(intent.key());
+        return state == null || state == WITHDRAW_REQ || state == WITHDRAWING
+                || state == WITHDRAWN || state == PURGE_REQ;
+    }
+
+    /**
+     * Resolves the intent of a batch that an action of the Net2Plan reply was
+     * requested for, through the key attribute of the action's demand.
+     * Actions not naming a demand of the batch, such as new lightpaths, only
+     * have a reference intent when the batch holds a single one.
+     *
+     * @param intentsByKey intents of the batch by the string form of their key
+     * @return resolver of the reference intent of an action, may return null
+     */
+    static Function<NetRapAction, ACIPPIntent> batchIntents(Map<String, ACIPPIntent> intentsByKey) {
+        ACIPPIntent fallback = intentsByKey.size() == 1 ? intentsByKey.values().iterator().next() : null;
+        return nrd -> intentsByKey.getOrDefault(demandKey(nrd), fallback);
+    }
+
+    private static String demandKey(NetRapAction netRapAction) {
+        NetRapDemand netRapDemand = netRapAction.getDemand();
+        if (netRapDemand == null || netRapDemand.getAttributes() == null) {
+            return null;
+        }
+        return (String) netRapDemand.getAttributes().get("key");
+    }
+
+    /**
+     * Sends the demands of a batch of intents to Net2Plan as one demand list.
+     */
+    private class Net2PlanBatchHandler implements Runnable {
 
-        ACIPPIntent intentToProcess;
-        boolean removeIntent;
+        List<ACIPPIntent> intentsToProcess;
 
-        public Net2PlanRequestHandler(ACIPPIntent intentToProcess, boolean removeIntent) {
-            this.intentToProcess = intentToProcess;
-            this.removeIntent = removeIntent;
+        public Net2PlanBatchHandler(List<ACIPPIntent> intentsToProcess) {
+            this.intentsToProcess = intentsToProcess;
         }
 
         @Override
         public void run() {
+            List<NetRapDemand> demands = Lists.newArrayList();
+            Map<String, ACIPPIntent> intentsByKey = new HashMap<>();
 
-            XrapReply response = null;
-
-            if (removeIntent) {
-                String intentKey = intentToProcess.key().toString();
-                //Remove the intent from the queue
-                transactionService.removeRouteIntent(intentToProcess.key());
+            for (ACIPPIntent intent : intentsToProcess) {
+                // Withdrawn while waiting for the batch, its delete is already queued
+                if (isWithdrawn(intent)) {
+                    handled.invalidate(intent.key());
+                    continue;
+                }
+                demands.add(aciPathIntentToDemand(intent));
+                if (intent.appId().equals(appId)) {
+                    transactionService.notifyInstalledOpticalIntent(intent.key());
+                    log.info("Sending to N2P the optical intent {} information", intent.key());
+                    demands.add(aciPathIntentToRevDemand(intent));
+                }
+                intentsByKey.put(intent.key().toString(), intent);
+            }
 
-                XrapDeleteRequest req = new XrapDeleteRequest("/demand/" + intentKey);
+            if (demands.isEmpty()) {
+                return;
+            }
 
-                log.info("DELETING intent with key=" + intentKey);
-                response = netRapService.sendAny(req);
+            XrapPostRequest req = new XrapPostRequest("/demand/list", GSON.toJson(demands));
+            log.debug("SENDING {} demands for {} intents TO N2P, {}",
+                      demands.size(), intentsByKey.size(), System.currentTimeMillis());
+            XrapReply response = netRapService.sendPrimary(req);
 
+            if (response instanceof XrapPostReply) {
+                log.debug("Handling the response for intents {}, {}", intentsByKey.keySet(),
+                          System.currentTimeMillis());
+                handleIntentResponse((XrapPostReply) response, batchIntents(intentsByKey));
             } else {
-                NetRapDemand netRapDemand = aciPathIntentToDemand(intentToProcess);
-                if (intentToProcess.appId().equals(appId)) {
-                    transactionService.notifyInstalledOpticalIntent(intentToProcess.key());
-                    log.info("Sending to N2P the optical intent {} information", intentToProcess.key());
-                    NetRapDemand revnetRapDemand = aciPathIntentToRevDemand(intentToProcess);
-                    List<NetRapDemand> demands = Lists.newArrayList();
-                    demands.add(netRapDemand);
-                    demands.add(revnetRapDemand);
-                    sendIntents(demands);
+                if (response == null) {
+                    log.error("No reply was received from Net2Plan regarding intents {}", intentsByKey.keySet());
                 } else {
-                    Gson gson = new Gson();
-                    String jsonDmdList = gson.toJson(netRapDemand);
-                    byte[] body = jsonDmdList.getBytes();
-                    XrapPostRequest req = new XrapPostRequest("/demand", new String(body));
-                    //log.info("Posting demand " + req + " to ALL");
-                    log.debug("SENDING intent key " + intentToProcess.key()
-                                      + " src=" + intentToProcess.src() + " dst=" + intentToProcess.dst() + " TO N2P, "
-                                      + System.currentTimeMillis());
-                    response = netRapService.sendAny(req);
+                    log.error("Response is not a XrapPostReply!");
+                }
+                for (ACIPPIntent intent : intentsByKey.values()) {
+                    handled.invalidate(intent.key());
                 }
             }
+        }
+    }
+
+    private class Net2PlanDeleteHandler implements Runnable {
+
+        ACIPPIntent intentToProcess;
+
+        public Net2PlanDeleteHandler(ACIPPIntent intentToProcess) {
+            this.intentToProcess = intentToProcess;
+        }
+
+        @Override
+        public void run() {
+            String intentKey = intentToProcess.key().toString();
+            //Remove the intent from the queue
+            transactionService.removeRouteIntent(intentToProcess.key());
+
+            XrapDeleteRequest req = new XrapDeleteRequest("/demand/" + intentKey);
+
+            log.info("DELETING intent with key=" + intentKey);
+            XrapReply response = netRapService.sendPrimary(req);
 
             if (response == null) {
                 log.error("No reply was received from Net2Plan regarding intent {}", intentToProcess.key());
-                handled.remove(intentToProcess.key());
+                handled.invalidate(intentToProcess.key());
+            } else if (response instanceof XrapDeleteReply) {
+                log.info("Removed N2P demand: " + response.toString());
+                keyNetRapRouteMap.remove(intentToProcess.key());
+                keyNetRapBackupRouteMap.remove(intentToProcess.key());
             } else {
-                //log.info("On demand req,  got reply: " + response.toString());
-                if (response instanceof XrapPostReply) {
-                    log.debug("Handling the response for intent {}, {}", intentToProcess.key(), +System.currentTimeMillis());
-                    handleIntentResponse(intentToProcess, (XrapPostReply) response);
-                } else if (response instanceof XrapDeleteReply) {
-                    log.info("Removed N2P demand: " + response.toString());
-                    keyNetRapRouteMap.remove(intentToProcess.key());
-                    keyNetRapBackupRouteMap.remove(intentToProcess.key());
-                } else {
-                    log.error("Response is not a XrapPostReply/Remove reply!");
-                    if (!removeIntent) {
-                        handled.remove(intentToProcess.key());
-                    }
-                }
+                log.error("Response is not a XrapPostReply/Remove reply!");
             }
         }
     }
@@ -1045,7 +1236,8 @@ public class NetRapIntentImpl extends XrapResource implements NetRapIntentServic
         }
 
         if (intent instanceof ACIPPIntent) {
-            batchExecutor.execute(new Net2PlanRequestHandler((ACIPPIntent) intent, true));
+            handled.invalidate(intent.key());
+            batchExecutor.execute(new Net2PlanDeleteHandler((ACIPPIntent) intent));
         }
     }
 
@@ -16,7 +16,6 @@
 
 package org.onosproject.orchestrator.netrap.impl;
 
-import com.wpl.xrapc.XrapException;
 import com.wpl.xrapc.XrapPeer;
 import com.wpl.xrapc.XrapReply;
 import com.wpl.xrapc.XrapRequest;
@@ -24,19 +23,33 @@ import com.wpl.xrapc.XrapResource;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.osgi.DefaultServiceDirectory;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.orchestrator.netrap.api.NetRapIntentService;
 import org.onosproject.orchestrator.netrap.api.NetRapService;
 import org.onosproject.orchestrator.netrap.api.NetRapTopoService;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
 import java.nio.ByteBuffer;
+import java.util.Dictionary;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.util.Tools.get;
 import static org.slf4j.LoggerFactory.getLogger;
 /* Implements the NetRapService */
 
@@ -45,6 +58,10 @@ import static org.slf4j.LoggerFactory.getLogger;
 public class NetRapServiceImpl implements NetRapService {
 
     private static final int CORE_POOL_SIZE = 2;
+    private static final int DEFAULT_MAX_OUTSTANDING = 16;
+    private static final int DEFAULT_REQUEST_TIMEOUT_MS = 10_000;
+    private static final String METRICS_COMPONENT = "NetRap";
+    private static final String METRICS_FEATURE = "xrap";
     private final Logger log = getLogger(NetRapServiceImpl.class);
     /* Definera dependencies till andra services */
     protected ScheduledExecutorService ipLinksExectuor;
@@ -54,11 +71,25 @@ public class NetRapServiceImpl implements NetRapService {
     private NetRapTopoService netRapTopoService;
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     private NetRapIntentService netRapIntentService;
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService configService;
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
     private Thread xrapClient;
+    private volatile NetRapClient asyncClient;
+
+    @Property(name = "maxOutstanding", intValue = DEFAULT_MAX_OUTSTANDING,
+            label = "Maximum number of requests to Net2Plan waiting for a reply")
+    private int maxOutstanding = DEFAULT_MAX_OUTSTANDING;
+
+    @Property(name = "requestTimeoutMs", intValue = DEFAULT_REQUEST_TIMEOUT_MS,
+            label = "Time in ms after which a request to Net2Plan fails")
+    private int requestTimeoutMs = DEFAULT_REQUEST_TIMEOUT_MS;
 
     @Activate
-    protected void activate() {
+    protected void activate(ComponentContext context) {
         log.info("Starting NetRapService...");
+        configService.registerProperties(getClass());
         client = new XrapPeer("0.0.0.0", 7777, true);
         xrapClient = new Thread(client);
         xrapClient.start();
@@ -75,6 +106,7 @@ public class NetRapServiceImpl implements NetRapService {
         client.addHandler(netRapIntentService);
         reg = new NetRapRegistry(netRapTopoService, netRapIntentService);
         client.addHandler(reg);
+        modified(context);
         log.info("NetRapService started!");
     }
 
@@ -82,6 +114,12 @@ public class NetRapServiceImpl implements NetRapService {
     protected void deactivate() {
 
         log.info("Stopping NetRapService...");
+        configService.unregisterProperties(getClass(), false);
+        asyncClient.shutdown();
+        MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+        MetricsFeature feature = component.registerFeature(METRICS_FEATURE);
+        metricsService.removeMetric(component, feature, "latency");
+        metricsService.removeMetric(component, feature, "timeouts");
         client.terminate();
         log.info("Terminated sockets and waiting for cleanup..");
         try {
@@ -91,30 +129,104 @@ public class NetRapServiceImpl implements NetRapService {
         }
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        Dictionary<?, ?> properties = context != null ? context.getProperties() : new java.util.Properties();
+        int newMaxOutstanding = getIntProperty(properties, "maxOutstanding", maxOutstanding);
+        int newRequestTimeoutMs = getIntProperty(properties, "requestTimeoutMs", requestTimeoutMs);
+        boolean changed = false;
+        if (newMaxOutstanding <= 0 || newRequestTimeoutMs <= 0) {
+            log.warn("Ignoring invalid request settings maxOutstanding={} requestTimeoutMs={}",
+                     newMaxOutstanding, newRequestTimeoutMs);
+        } else if (newMaxOutstanding != maxOutstanding || newRequestTimeoutMs != requestTimeoutMs) {
+            maxOutstanding = newMaxOutstanding;
+            requestTimeoutMs = newRequestTimeoutMs;
+            changed = true;
+        }
+        if (asyncClient != null && !changed) {
+            return;
+        }
+
+        MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+        MetricsFeature feature = component.registerFeature(METRICS_FEATURE);
+        NetRapClient previous = asyncClient;
+        asyncClient = new NetRapClient(client::send, maxOutstanding, requestTimeoutMs,
+                                       metricsService.createTimer(component, feature, "latency"),
+                                       metricsService.createCounter(component, feature, "timeouts"));
+        if (previous != null) {
+            previous.shutdown();
+        }
+        log.info("Sending to Net2Plan with up to {} outstanding requests and a {} ms timeout",
+                 maxOutstanding, requestTimeoutMs);
+    }
+
+    private int getIntProperty(Dictionary<?, ?> properties, String name, int defaultValue) {
+        try {
+            String s = get(properties, name);
+            return isNullOrEmpty(s) ? defaultValue : Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            log.warn(e.getMessage());
+            return defaultValue;
+        }
+    }
+
     @Override
     public XrapReply sendOne(ByteBuffer address, XrapRequest message) {
-        try {
-            //  log.info("calling client.send(" + address + ", " + message + ")");
-            return client.send(address, message);
-        } catch (XrapException e) {
-            e.printStackTrace();
-            return null;
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        return await(sendOneAsync(address, message));
+    }
+
+    @Override
+    public XrapReply sendAny(XrapRequest message) {
+        return await(sendAnyAsync(message));
+    }
+
+    @Override
+    public XrapReply sendPrimary(XrapRequest message) {
+        ByteBuffer addr = primaryAddress();
+        if (addr == null) {
+            log.warn("No registered Net2Plan instance");
             return null;
         }
+        return sendOne(addr, message);
     }
 
     @Override
-    public XrapReply sendAny(XrapRequest message) {
+    public CompletableFuture<XrapReply> sendOneAsync(ByteBuffer address, XrapRequest message) {
+        return asyncClient.send(address, message);
+    }
+
+    @Override
+    public CompletableFuture<XrapReply> sendOneAsync(ByteBuffer address, XrapRequest message,
+                                                     long timeout, TimeUnit unit) {
+        return asyncClient.send(address, message, unit.toMillis(timeout));
+    }
 
+    @Override
+    public CompletableFuture<XrapReply> sendAnyAsync(XrapRequest message) {
+        List<ByteBuffer> peers = reg.getRegistered().stream()
+                .map(peer -> ByteBuffer.wrap(peer.getRouteId()))
+                .collect(Collectors.toList());
+        return asyncClient.sendAny(peers, message);
+    }
+
+    // The last registered instance is the primary one, only it follows the topology updates
+    @Override
+    public ByteBuffer primaryAddress() {
         List<RegEntry> registered = reg.getRegistered();
         if (registered.isEmpty()) {
             return null;
         }
         RegEntry peer = registered.get(registered.size() - 1);
-        ByteBuffer addr = ByteBuffer.wrap(peer.getRouteId());
-        return sendOne(addr, message);
+        return ByteBuffer.wrap(peer.getRouteId());
+    }
+
+    private XrapReply await(CompletableFuture<XrapReply> reply) {
+        try {
+            return reply.join();
+        } catch (CompletionException e) {
+            log.warn("Request to Net2Plan failed: {}", e.getCause() != null ? e.getCause().toString() : e);
+            return null;
+        }
     }
 
     @Override
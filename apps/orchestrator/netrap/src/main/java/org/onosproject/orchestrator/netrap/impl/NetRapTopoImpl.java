@@ -24,6 +24,7 @@ import com.wpl.xrapc.Constants;
 import com.wpl.xrapc.XrapErrorReply;
 import com.wpl.xrapc.XrapGetReply;
 import com.wpl.xrapc.XrapGetRequest;
+import com.wpl.xrapc.XrapPostReply;
 import com.wpl.xrapc.XrapPostRequest;
 import com.wpl.xrapc.XrapReply;
 import com.wpl.xrapc.XrapResource;
@@ -40,13 +41,17 @@ import org.onlab.osgi.DefaultServiceDirectory;
 import org.onosproject.codec.CodecContext;
 import org.onosproject.codec.CodecService;
 import org.onosproject.codec.JsonCodec;
+import org.onosproject.event.Event;
 import org.onosproject.net.Annotations;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.Link;
 import org.onosproject.net.Port;
+import org.onosproject.net.LinkKey;
 import org.onosproject.net.PortNumber;
+import org.onosproject.net.device.DeviceEvent;
 import org.onosproject.net.device.DeviceService;
+import org.onosproject.net.link.LinkEvent;
 import org.onosproject.net.link.LinkService;
 import org.onosproject.net.optical.OchPort;
 import org.onosproject.net.optical.device.OchPortHelper;
@@ -59,16 +64,23 @@ import org.onosproject.orchestrator.netrap.api.NetRapTopoService;
 import org.onosproject.orchestrator.netrap.model.NetRapLink;
 import org.onosproject.orchestrator.netrap.model.NetRapNode;
 import org.onosproject.orchestrator.netrap.model.NetRapTopology;
+import org.onosproject.orchestrator.netrap.model.NetRapTopologyDelta;
 import org.slf4j.Logger;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -79,6 +91,7 @@ public class NetRapTopoImpl extends XrapResource implements NetRapTopoService {
 
     private static final Integer OPTO_LAYER = 0;
     private static final Integer IP_LAYER = 1;
+    private static final Gson GSON = new Gson();
     private final Logger log = getLogger(NetRapTopoImpl.class);
     /* Needed by topologyResource */
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -97,6 +110,26 @@ public class NetRapTopoImpl extends XrapResource implements NetRapTopoService {
     protected NetRapService NetRapService = null;
     protected NetRapRegistryService netRapRegistryService = null;
 
+    // Topology last published to Net2Plan, deltas are computed against it
+    // and only sent to the instance that acknowledged it
+    private NetRapTopologySnapshot published = null;
+    private ByteBuffer publishedTo = null;
+    private long topologyVersion = 0;
+    // Topology to publish next, kept up to date from the devices and links
+    // which changed; the nodes and links it may differ from the published
+    // one by, and what each device and link was turned into
+    private NetRapTopologySnapshot pending = null;
+    private final Set<String> pendingNodes = new HashSet<>();
+    private final Set<String> pendingLinks = new HashSet<>();
+    private Map<DeviceId, DevicePart> deviceParts = new HashMap<>();
+    private Map<LinkKey, NetRapLink> linkParts = new HashMap<>();
+    // Devices and links which changed since the pending topology was updated
+    private final Set<DeviceId> changedDevices = ConcurrentHashMap.newKeySet();
+    private final Set<LinkKey> changedLinks = ConcurrentHashMap.newKeySet();
+    private volatile boolean changesUnknown = false;
+    // Bottom ROADM classification, only valid while a topology is being built
+    private Map<DeviceId, Boolean> bottomRoadms = null;
+
     @Activate
     protected void activate() {
         log.info("Starting NetRapTopoService ..!");
@@ -163,6 +196,13 @@ public class NetRapTopoImpl extends XrapResource implements NetRapTopoService {
     }
 
     private boolean isBottomRoadm(Device dev) {
+        if (bottomRoadms == null) {
+            return checkBottomRoadm(dev);
+        }
+        return bottomRoadms.computeIfAbsent(dev.id(), id -> checkBottomRoadm(dev));
+    }
+
+    private boolean checkBottomRoadm(Device dev) {
         // ROADM devices with only OMS port neighbours
         // Should be a node per port
         Set<Link> nodeLinks = linkService.getDeviceLinks(dev.id());
@@ -514,13 +554,25 @@ public class NetRapTopoImpl extends XrapResource implements NetRapTopoService {
         }
     }
 
-    private byte[] buildJsonTopology() throws RuntimeException {
-        Gson gson = new Gson();
-        NetRapTopology n2ptopo = buildNetRapTopology();
-        return gson.toJson(n2ptopo).getBytes();
+    private NetRapTopology buildNetRapTopology() throws RuntimeException {
+        return buildNetRapTopology(new HashMap<>(), new HashMap<>());
     }
 
-    private NetRapTopology buildNetRapTopology() throws RuntimeException {
+    // Builds the topology, recording what each device and link was turned into
+    private NetRapTopology buildNetRapTopology(Map<DeviceId, DevicePart> deviceParts,
+                                               Map<LinkKey, NetRapLink> linkParts) throws RuntimeException {
+        synchronized (this) {
+            bottomRoadms = new HashMap<>();
+            try {
+                return buildNetRapTopologyOnce(deviceParts, linkParts);
+            } finally {
+                bottomRoadms = null;
+            }
+        }
+    }
+
+    private NetRapTopology buildNetRapTopologyOnce(Map<DeviceId, DevicePart> deviceParts,
+                                                   Map<LinkKey, NetRapLink> linkParts) throws RuntimeException {
         String errormsg = "";
         NetRapTopology n2ptopo = new NetRapTopology();
 
@@ -542,46 +594,10 @@ public class NetRapTopoImpl extends XrapResource implements NetRapTopoService {
 
 
             for (Device dev : deviceList) {
-                switch (dev.type()) {
-                    case ROADM:
-                        if (isBottomRoadm(dev)) {
-                            // Create a node per port
-                            // IPNode = false
-                            // name = null:0000000000a/1, etc
-
-                            // A bit weird since bottom roadms are split into multiple links and nodes ..
-                            Pair<List<NetRapNode>, List<NetRapLink>> nodeslinks = createBottomRoadms(dev);
-                            if (nodeslinks != null) {
-                                nodeslinks.getLeft().forEach(n2ptopo::addNodesItem);
-                                nodeslinks.getRight().forEach(n2ptopo::addLinksItem);
-                            }
-                        } else {
-                            //log.info("Creating top ROADM node");
-                            // Create a single node
-                            // IPNode = False
-                            // name = null:0000000000a
-                            NetRapNode newnode = createTopRoadm(dev);
-                            //  log.info("Created node " + newnode);
-                            n2ptopo.addNodesItem(newnode);
-                        }
-                        break;
-                    case OTN:
-                        //log.info("Found OTN device");
-                        // create a single node
-                        // IPNode = True
-                        NetRapNode newnode = createOtn(dev);
-                        n2ptopo.addNodesItem(newnode);
-                        break;
-                    case SWITCH:
-                    case ROUTER:
-                        //log.info("Found SWITCH/ROUTER device");
-                        newnode = createSwitch(dev);
-                        n2ptopo.addNodesItem(newnode);
-                        break;
-                    default:
-                        log.warn("Found unknown device");
-                        break;
-                }
+                DevicePart part = createDevicePart(dev);
+                deviceParts.put(dev.id(), part);
+                part.nodes.forEach(n2ptopo::addNodesItem);
+                part.links.forEach(n2ptopo::addLinksItem);
             }
 
 
@@ -592,25 +608,10 @@ public class NetRapTopoImpl extends XrapResource implements NetRapTopoService {
                 break buildTopo;
             }
             for (Link link : linkList) {
-                // ignore links tagged with netRap
-                Set<String> keys = link.annotations().keys();
-                if (keys.contains("netRap") == false) {
-                    NetRapLink netRapLink = createLink(link);
-
-                    if (netRapLink == null) {
-                        continue;
-                    }
-                    if (link.state() == Link.State.ACTIVE) {
-                        netRapLink.setActive(true);
-                    } else {
-                        netRapLink.setActive(false);
-                    }
+                NetRapLink netRapLink = createLinkPart(link);
+                if (netRapLink != null) {
+                    linkParts.put(LinkKey.linkKey(link), netRapLink);
                     n2ptopo.addLinksItem(netRapLink);
-
-                } else {
-                    log.error("################################");
-                    log.error("FOUND LINK TAGGED WITH NETRAP!!");
-                    log.error("################################");
                 }
             }
             return n2ptopo;
@@ -618,9 +619,197 @@ public class NetRapTopoImpl extends XrapResource implements NetRapTopoService {
         throw new RuntimeException(errormsg);
     }
 
-    public XrapReply GET(XrapGetRequest request) {
+    // Nodes, and for bottom ROADMs internal links, a device is turned into
+    private DevicePart createDevicePart(Device dev) {
+        List<NetRapNode> nodes = new ArrayList<>();
+        List<NetRapLink> links = new ArrayList<>();
+        boolean bottomRoadm = false;
+        switch (dev.type()) {
+            case ROADM:
+                if (isBottomRoadm(dev)) {
+                    // Create a node per port
+                    // IPNode = false
+                    // name = null:0000000000a/1, etc
+
+                    // A bit weird since bottom roadms are split into multiple links and nodes ..
+                    bottomRoadm = true;
+                    Pair<List<NetRapNode>, List<NetRapLink>> nodeslinks = createBottomRoadms(dev);
+                    if (nodeslinks != null) {
+                        nodes.addAll(nodeslinks.getLeft());
+                        links.addAll(nodeslinks.getRight());
+                    }
+                } else {
+                    //log.info("Creating top ROADM node");
+                    // Create a single node
+                    // IPNode = False
+                    // name = null:0000000000a
+                    NetRapNode newnode = createTopRoadm(dev);
+                    //  log.info("Created node " + newnode);
+                    nodes.add(newnode);
+                }
+                break;
+            case OTN:
+                //log.info("Found OTN device");
+                // create a single node
+                // IPNode = True
+                nodes.add(createOtn(dev));
+                break;
+            case SWITCH:
+            case ROUTER:
+                //log.info("Found SWITCH/ROUTER device");
+                nodes.add(createSwitch(dev));
+                break;
+            default:
+                log.warn("Found unknown device");
+                break;
+        }
+        return new DevicePart(bottomRoadm, nodes, links);
+    }
+
+    // Link a link is turned into, null if it is left out
+    private NetRapLink createLinkPart(Link link) {
+        // ignore links tagged with netRap
+        Set<String> keys = link.annotations().keys();
+        if (keys.contains("netRap")) {
+            log.error("################################");
+            log.error("FOUND LINK TAGGED WITH NETRAP!!");
+            log.error("################################");
+            return null;
+        }
+        NetRapLink netRapLink = createLink(link);
+        if (netRapLink != null) {
+            netRapLink.setActive(link.state() == Link.State.ACTIVE);
+        }
+        return netRapLink;
+    }
+
+    /**
+     * Builds the current topology under the next version.
+     *
+     * @return versioned topology
+     */
+    private NetRapTopology nextFullTopology() throws RuntimeException {
+        // Changes recorded from now on are on top of this topology
+        changesUnknown = false;
+        changedDevices.clear();
+        changedLinks.clear();
+        Map<DeviceId, DevicePart> nextDeviceParts = new HashMap<>();
+        Map<LinkKey, NetRapLink> nextLinkParts = new HashMap<>();
+        NetRapTopology topology = buildNetRapTopology(nextDeviceParts, nextLinkParts);
+        topology.setVersion(topologyVersion + 1);
+        deviceParts = nextDeviceParts;
+        linkParts = nextLinkParts;
+        pending = new NetRapTopologySnapshot(topology.getVersion(), topology);
+        pendingNodes.clear();
+        pendingLinks.clear();
+        return topology;
+    }
+
+    /**
+     * Brings the pending topology in line with the devices and links which
+     * changed since it was last updated, recording the nodes and links which
+     * changed along.
+     */
+    private void updatePending() throws RuntimeException {
+        Set<DeviceId> devices = new HashSet<>();
+        Set<LinkKey> links = new HashSet<>();
+        drain(changedDevices, devices);
+        drain(changedLinks, links);
+        // The end points of a link are classified by their links
+        links.forEach(key -> {
+            devices.add(key.src().deviceId());
+            devices.add(key.dst().deviceId());
+        });
+
+        bottomRoadms = new HashMap<>();
+        try {
+            Set<DeviceId> done = new HashSet<>();
+            Deque<DeviceId> queue = new ArrayDeque<>(devices);
+            while (!queue.isEmpty()) {
+                DeviceId id = queue.remove();
+                if (!done.add(id)) {
+                    continue;
+                }
+                Device dev = deviceService.isAvailable(id) ? deviceService.getDevice(id) : null;
+                DevicePart part = (dev == null) ? null : createDevicePart(dev);
+                DevicePart previous = (part == null) ? deviceParts.remove(id) : deviceParts.put(id, part);
+                replace(previous, part);
+
+                // Links are named after their end points and sized after their ports
+                for (Link link : linkService.getDeviceLinks(id)) {
+                    links.add(LinkKey.linkKey(link));
+                    // A ROADM turning into a bottom one or back changes its neighbours
+                    if ((previous != null) && (part != null) && (previous.bottomRoadm != part.bottomRoadm)) {
+                        queue.add(link.src().deviceId().equals(id) ? link.dst().deviceId() : link.src().deviceId());
+                    }
+                }
+            }
+
+            for (LinkKey key : links) {
+                Link link = linkService.getLink(key.src(), key.dst());
+                NetRapLink part = (link == null) ? null : createLinkPart(link);
+                NetRapLink previous = (part == null) ? linkParts.remove(key) : linkParts.put(key, part);
+                replace(previous, part);
+            }
+        } finally {
+            bottomRoadms = null;
+        }
+    }
+
+    private static <T> void drain(Set<T> from, Set<T> to) {
+        for (Iterator<T> it = from.iterator(); it.hasNext();) {
+            to.add(it.next());
+            it.remove();
+        }
+    }
+
+    private void replace(DevicePart previous, DevicePart part) {
+        if (previous != null) {
+            previous.nodes.forEach(node -> {
+                pending.remove(node);
+                pendingNodes.add(NetRapTopologySnapshot.nodeId(node));
+            });
+            previous.links.forEach(link -> replace(link, null));
+        }
+        if (part != null) {
+            part.nodes.forEach(node -> {
+                pending.put(node);
+                pendingNodes.add(NetRapTopologySnapshot.nodeId(node));
+            });
+            part.links.forEach(link -> replace(null, link));
+        }
+    }
+
+    private void replace(NetRapLink previous, NetRapLink link) {
+        if (previous != null) {
+            pending.remove(previous);
+            pendingLinks.add(NetRapTopologySnapshot.linkId(previous));
+        }
+        if (link != null) {
+            pending.put(link);
+            pendingLinks.add(NetRapTopologySnapshot.linkId(link));
+        }
+    }
+
+    /**
+     * Makes a topology received by a Net2Plan instance the baseline of the
+     * following deltas.
+     *
+     * @param topology versioned topology
+     * @param address  route id of the instance
+     */
+    private void published(NetRapTopology topology, ByteBuffer address) {
+        topologyVersion = topology.getVersion();
+        published = new NetRapTopologySnapshot(topologyVersion, topology);
+        publishedTo = address;
+    }
+
+    public synchronized XrapReply GET(XrapGetRequest request) {
         try {
-            byte[] body = buildJsonTopology();
+            NetRapTopology topology = nextFullTopology();
+            byte[] body = GSON.toJson(topology).getBytes();
+            // No acknowledgement follows a reply, the requester holds the topology from now on
+            published(topology, request.getRouteid());
             XrapGetReply rep = new XrapGetReply();
             rep.setContentType("application/json");
             rep.setEtag("*");
@@ -645,6 +834,22 @@ public class NetRapTopoImpl extends XrapResource implements NetRapTopoService {
         sendTopology();
     }
 
+    @Override
+    public void recordChanges(List<Event> reasons) {
+        if (reasons == null || reasons.isEmpty()) {
+            // Only a full topology is sure to cover the change
+            changesUnknown = true;
+            return;
+        }
+        for (Event reason : reasons) {
+            if (reason instanceof DeviceEvent) {
+                changedDevices.add(((DeviceEvent) reason).subject().id());
+            } else if (reason instanceof LinkEvent) {
+                changedLinks.add(LinkKey.linkKey(((LinkEvent) reason).subject()));
+            }
+        }
+    }
+
     @Override
     public NetRapTopology getTopology() {
         try {
@@ -657,7 +862,7 @@ public class NetRapTopoImpl extends XrapResource implements NetRapTopoService {
     }
 
     @Override
-    public boolean sendTopology(ByteBuffer address) {
+    public synchronized boolean sendTopology(ByteBuffer address) {
         if (NetRapService == null) {
             NetRapService = DefaultServiceDirectory.getService(NetRapService.class);
             log.info("Found netrap service:" + NetRapService);
@@ -669,12 +874,19 @@ public class NetRapTopoImpl extends XrapResource implements NetRapTopoService {
         }
 
         try {
-            byte[] body = buildJsonTopology();
+            NetRapTopology topology = nextFullTopology();
+            byte[] body = GSON.toJson(topology).getBytes();
             XrapPostRequest req = new XrapPostRequest("/topology", new String(body));
             req.setRouteid(address);
             log.trace("Posting topology " + req + " to " + Arrays.toString(Hex.encodeHex(address.array())));
             XrapReply rep = NetRapService.sendOne(address, req);
             //log.info("Got reply : " + rep);
+            if (rep instanceof XrapPostReply) {
+                published(topology, address);
+            } else {
+                // The pending topology was rebuilt, deltas against the previous baseline no longer apply
+                published = null;
+            }
         } catch (RuntimeException e) {
             log.info("Error building topology: " + e.getMessage());
             return false;
@@ -688,7 +900,7 @@ public class NetRapTopoImpl extends XrapResource implements NetRapTopoService {
         return true;
     }
 
-    public boolean sendTopology() {
+    public synchronized boolean sendTopology() {
         if (NetRapService == null) {
             NetRapService = DefaultServiceDirectory.getService(NetRapService.class);
             log.info("Found netrap service:" + NetRapService);
@@ -699,11 +911,74 @@ public class NetRapTopoImpl extends XrapResource implements NetRapTopoService {
             return false;
         }
 
+        // Deltas only apply on the instance holding the baseline
+        ByteBuffer address = NetRapService.primaryAddress();
+        if (address == null) {
+            log.error("No Net2Plan instance registered!");
+            return false;
+        }
+        if (published == null || changesUnknown || !address.equals(publishedTo)) {
+            return sendFullTopology(address);
+        }
+
+        NetRapTopologyDelta delta;
+        long nextVersion = topologyVersion + 1;
         try {
-            byte[] body = buildJsonTopology();
+            updatePending();
+            delta = published.delta(pending, nextVersion, pendingNodes, pendingLinks);
+        } catch (RuntimeException e) {
+            // The pending topology may be half updated, start again from a full one
+            log.info("Error building topology: " + e.getMessage());
+            published = null;
+            return false;
+        }
+
+        if (delta.isEmpty()) {
+            log.debug("Topology unchanged since version {}, nothing to send", published.version());
+            pendingNodes.clear();
+            pendingLinks.clear();
+            return true;
+        }
+
+        XrapPostRequest req = new XrapPostRequest("/topology/delta", GSON.toJson(delta));
+        req.setRouteid(address);
+        log.debug("Posting topology delta {} -> {} to {}", delta.getBaseVersion(), delta.getVersion(),
+                  Arrays.toString(Hex.encodeHex(address.array())));
+        XrapReply reply = NetRapService.sendOne(address, req);
+        if (reply == null) {
+            // Keep the baseline, the changes will be part of the next delta
+            log.error("No reply was received from Net2Plan regarding topology version {}", delta.getVersion());
+            return false;
+        }
+        if (reply instanceof XrapPostReply) {
+            published.advance(pending, nextVersion, pendingNodes, pendingLinks);
+            topologyVersion = nextVersion;
+            pendingNodes.clear();
+            pendingLinks.clear();
+            return true;
+        }
+
+        // Net2Plan does not hold the base version, e.g. it restarted or missed a delta
+        log.info("Topology delta rejected with status {}, sending full topology", reply.getStatusCode());
+        return sendFullTopology(address);
+    }
+
+    private boolean sendFullTopology(ByteBuffer address) {
+        try {
+            NetRapTopology topology = nextFullTopology();
+            byte[] body = GSON.toJson(topology).getBytes();
             XrapPostRequest req = new XrapPostRequest("/topology", new String(body));
-            log.debug("Posting topology " + req + " to ALL");
-            NetRapService.sendAny(req);
+            req.setRouteid(address);
+            log.debug("Posting topology " + req + " to " + Arrays.toString(Hex.encodeHex(address.array())));
+            XrapReply reply = NetRapService.sendOne(address, req);
+            if (!(reply instanceof XrapPostReply)) {
+                // Drop the baseline, the next trigger sends the full topology again
+                log.error("Net2Plan did not accept topology version {}: {}", topology.getVersion(),
+                          reply == null ? "no reply" : reply.getStatusCode());
+                published = null;
+                return false;
+            }
+            published(topology, address);
         } catch (RuntimeException e) {
             log.info("Error building topology: " + e.getMessage());
             return false;
@@ -713,11 +988,24 @@ public class NetRapTopoImpl extends XrapResource implements NetRapTopoService {
         // PONTUS: October 24, trying to fix duplicate demands in Net2Plan
         log.info("sending all intents!");
         NetRapIntentService netRapIntentService = DefaultServiceDirectory.getService(NetRapIntentService.class);
-        netRapIntentService.sendIntents();
+        netRapIntentService.sendIntents(address);
         return true;
     }
 
     // wtf?
+    // NetRap nodes and links a device is turned into
+    private static final class DevicePart {
+        private final boolean bottomRoadm;
+        private final List<NetRapNode> nodes;
+        private final List<NetRapLink> links;
+
+        private DevicePart(boolean bottomRoadm, List<NetRapNode> nodes, List<NetRapLink> links) {
+            this.bottomRoadm = bottomRoadm;
+            this.nodes = nodes;
+            this.links = links;
+        }
+    }
+
     private class TestContext implements CodecContext {
         private ObjectMapper mapper = new ObjectMapper();
         private CodecService codecService;
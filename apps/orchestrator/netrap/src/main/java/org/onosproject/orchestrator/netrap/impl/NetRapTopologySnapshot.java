@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.netrap.impl;
+
+import org.onosproject.orchestrator.netrap.model.NetRapLink;
+import org.onosproject.orchestrator.netrap.model.NetRapNode;
+import org.onosproject.orchestrator.netrap.model.NetRapSRG;
+import org.onosproject.orchestrator.netrap.model.NetRapTopology;
+import org.onosproject.orchestrator.netrap.model.NetRapTopologyDelta;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Versioned copy of the topology last published to Net2Plan.
+ * <p>
+ * Nodes and shared risk groups are identified by name, links by layer, end
+ * points and ports, so a newer topology can be turned into a delta against
+ * this one. A snapshot can also be changed node by node and link by link,
+ * the delta then only being computed over the nodes and links which changed.
+ */
+public final class NetRapTopologySnapshot {
+
+    private long version;
+    private final Map<String, NetRapNode> nodes = new LinkedHashMap<>();
+    private final Map<String, NetRapLink> links = new LinkedHashMap<>();
+    private final Map<String, NetRapSRG> srgs = new LinkedHashMap<>();
+
+    /**
+     * Creates a snapshot of a topology.
+     *
+     * @param version  version of the topology
+     * @param topology topology
+     */
+    public NetRapTopologySnapshot(long version, NetRapTopology topology) {
+        this.version = version;
+        for (NetRapNode node : topology.getNodes()) {
+            nodes.put(nodeId(node), node);
+        }
+        for (NetRapLink link : topology.getLinks()) {
+            links.put(linkId(link), link);
+        }
+        for (NetRapSRG srg : topology.getSrgs()) {
+            srgs.put(srg.getName(), srg);
+        }
+    }
+
+    /**
+     * Returns the version of the snapshot.
+     *
+     * @return version
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Adds a node, replacing the one of the same name.
+     *
+     * @param node node
+     */
+    public void put(NetRapNode node) {
+        nodes.put(nodeId(node), node);
+    }
+
+    /**
+     * Removes a node, unless it was replaced by another one in the meantime.
+     *
+     * @param node node
+     */
+    public void remove(NetRapNode node) {
+        nodes.remove(nodeId(node), node);
+    }
+
+    /**
+     * Adds a link, replacing the one between the same ports.
+     *
+     * @param link link
+     */
+    public void put(NetRapLink link) {
+        links.put(linkId(link), link);
+    }
+
+    /**
+     * Removes a link, unless it was replaced by another one in the meantime.
+     *
+     * @param link link
+     */
+    public void remove(NetRapLink link) {
+        links.remove(linkId(link), link);
+    }
+
+    /**
+     * Returns the changes turning this snapshot into the given one, looking
+     * only at the given nodes and links. Shared risk groups are not built
+     * from nodes and links and are left out.
+     *
+     * @param next        newer snapshot
+     * @param nextVersion version of the newer snapshot
+     * @param nodeIds     names of the nodes which may have changed
+     * @param linkIds     ids of the links which may have changed
+     * @return topology delta, empty if nothing changed
+     */
+    public NetRapTopologyDelta delta(NetRapTopologySnapshot next, long nextVersion,
+                                     Set<String> nodeIds, Set<String> linkIds) {
+        NetRapTopologyDelta delta = new NetRapTopologyDelta()
+                .baseVersion(version)
+                .version(nextVersion);
+        for (String name : nodeIds) {
+            NetRapNode previous = nodes.get(name);
+            NetRapNode node = next.nodes.get(name);
+            if (previous == null && node != null) {
+                delta.addAddedNodesItem(node);
+            } else if (previous != null && node == null) {
+                delta.addRemovedNodesItem(previous);
+            } else if (!Objects.equals(previous, node)) {
+                delta.addUpdatedNodesItem(node);
+            }
+        }
+        for (String id : linkIds) {
+            NetRapLink previous = links.get(id);
+            NetRapLink link = next.links.get(id);
+            if (previous == null && link != null) {
+                delta.addAddedLinksItem(link);
+            } else if (previous != null && link == null) {
+                delta.addRemovedLinksItem(previous);
+            } else if (!Objects.equals(previous, link)) {
+                delta.addUpdatedLinksItem(link);
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Brings the given nodes and links in line with a newer snapshot, which
+     * this one then stands for.
+     *
+     * @param next        newer snapshot
+     * @param nextVersion version of the newer snapshot
+     * @param nodeIds     names of the nodes which may have changed
+     * @param linkIds     ids of the links which may have changed
+     */
+    public void advance(NetRapTopologySnapshot next, long nextVersion,
+                        Set<String> nodeIds, Set<String> linkIds) {
+        for (String name : nodeIds) {
+            NetRapNode node = next.nodes.get(name);
+            if (node == null) {
+                nodes.remove(name);
+            } else {
+                nodes.put(name, node);
+            }
+        }
+        for (String id : linkIds) {
+            NetRapLink link = next.links.get(id);
+            if (link == null) {
+                links.remove(id);
+            } else {
+                links.put(id, link);
+            }
+        }
+        version = nextVersion;
+    }
+
+    /**
+     * Returns the changes turning this snapshot into the given one.
+     *
+     * @param next newer snapshot
+     * @return topology delta, empty if nothing changed
+     */
+    public NetRapTopologyDelta delta(NetRapTopologySnapshot next) {
+        NetRapTopologyDelta delta = new NetRapTopologyDelta()
+                .baseVersion(version)
+                .version(next.version);
+
+        next.nodes.forEach((name, node) -> {
+            NetRapNode previous = nodes.get(name);
+            if (previous == null) {
+                delta.addAddedNodesItem(node);
+            } else if (!Objects.equals(previous, node)) {
+                delta.addUpdatedNodesItem(node);
+            }
+        });
+        nodes.forEach((name, node) -> {
+            if (!next.nodes.containsKey(name)) {
+                delta.addRemovedNodesItem(node);
+            }
+        });
+
+        next.links.forEach((id, link) -> {
+            NetRapLink previous = links.get(id);
+            if (previous == null) {
+                delta.addAddedLinksItem(link);
+            } else if (!Objects.equals(previous, link)) {
+                delta.addUpdatedLinksItem(link);
+            }
+        });
+        links.forEach((id, link) -> {
+            if (!next.links.containsKey(id)) {
+                delta.addRemovedLinksItem(link);
+            }
+        });
+
+        // The delta has no updated groups, a changed group is replaced
+        srgs.forEach((name, srg) -> {
+            if (!Objects.equals(srg, next.srgs.get(name))) {
+                delta.addRemovedSrgsItem(srg);
+            }
+        });
+        next.srgs.forEach((name, srg) -> {
+            if (!Objects.equals(srgs.get(name), srg)) {
+                delta.addAddedSrgsItem(srg);
+            }
+        });
+
+        return delta;
+    }
+
+    /**
+     * Returns the id of a node in a snapshot.
+     *
+     * @param node node
+     * @return node id
+     */
+    public static String nodeId(NetRapNode node) {
+        return node.getName();
+    }
+
+    /**
+     * Returns the id of a link in a snapshot.
+     *
+     * @param link link
+     * @return link id
+     */
+    public static String linkId(NetRapLink link) {
+        Map<?, ?> attributes = link.getAttributes();
+        Object srcPort = attributes != null ? attributes.get("srcPort") : null;
+        Object dstPort = attributes != null ? attributes.get("dstPort") : null;
+        return link.getLayer() + "|" + link.getSrc() + "/" + srcPort + "|" + link.getDst() + "/" + dstPort;
+    }
+}
@@ -59,6 +59,7 @@ public class NetRapTopology {
     private List<NetRapLink> links = new ArrayList<NetRapLink>();
     private List<NetRapNode> nodes = new ArrayList<NetRapNode>();
     private List<NetRapSRG> srgs = new ArrayList<NetRapSRG>();
+    private Long version = null;
 
     /**
      **/
@@ -121,6 +122,23 @@ public class NetRapTopology {
         this.srgs = srgs;
     }
 
+    /**
+     * Version of the topology, topology deltas are applied on top of it
+     **/
+    public NetRapTopology version(Long version) {
+        this.version = version;
+        return this;
+    }
+
+    @ApiModelProperty(example = "null", value = "Version of the topology, topology deltas are applied on top of it")
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
 
     @Override
     public boolean equals(Object o) {
@@ -133,12 +151,13 @@ public class NetRapTopology {
         NetRapTopology netRapTopology = (NetRapTopology) o;
         return Objects.equals(links, netRapTopology.links) &&
                 Objects.equals(nodes, netRapTopology.nodes) &&
-                Objects.equals(srgs, netRapTopology.srgs);
+                Objects.equals(srgs, netRapTopology.srgs) &&
+                Objects.equals(version, netRapTopology.version);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(links, nodes, srgs);
+        return Objects.hash(links, nodes, srgs, version);
     }
 
     @Override
@@ -149,6 +168,7 @@ public class NetRapTopology {
         sb.append("    links: ").append(toIndentedString(links)).append("\n");
         sb.append("    nodes: ").append(toIndentedString(nodes)).append("\n");
         sb.append("    srgs: ").append(toIndentedString(srgs)).append("\n");
+        sb.append("    version: ").append(toIndentedString(version)).append("\n");
         sb.append("}");
         return sb.toString();
     }
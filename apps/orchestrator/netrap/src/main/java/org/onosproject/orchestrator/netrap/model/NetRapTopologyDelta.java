@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.netrap.model;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+
+/**
+ * Changes turning one topology version into the next.
+ */
+@ApiModel(description = "Changes turning one topology version into the next")
+
+public class NetRapTopologyDelta {
+
+    private Long baseVersion = null;
+    private Long version = null;
+    private List<NetRapNode> addedNodes = new ArrayList<NetRapNode>();
+    private List<NetRapNode> updatedNodes = new ArrayList<NetRapNode>();
+    private List<NetRapNode> removedNodes = new ArrayList<NetRapNode>();
+    private List<NetRapLink> addedLinks = new ArrayList<NetRapLink>();
+    private List<NetRapLink> updatedLinks = new ArrayList<NetRapLink>();
+    private List<NetRapLink> removedLinks = new ArrayList<NetRapLink>();
+    private List<NetRapSRG> addedSrgs = new ArrayList<NetRapSRG>();
+    private List<NetRapSRG> removedSrgs = new ArrayList<NetRapSRG>();
+
+    /**
+     * Sets the version the delta applies to.
+     *
+     * @param baseVersion base version
+     * @return this delta
+     **/
+    public NetRapTopologyDelta baseVersion(Long baseVersion) {
+        this.baseVersion = baseVersion;
+        return this;
+    }
+
+    @ApiModelProperty(example = "null", required = true, value = "Version the delta applies to")
+    public Long getBaseVersion() {
+        return baseVersion;
+    }
+
+    public void setBaseVersion(Long baseVersion) {
+        this.baseVersion = baseVersion;
+    }
+
+    /**
+     * Sets the version of the topology once the delta is applied.
+     *
+     * @param version new version
+     * @return this delta
+     **/
+    public NetRapTopologyDelta version(Long version) {
+        this.version = version;
+        return this;
+    }
+
+    @ApiModelProperty(example = "null", required = true, value = "Version of the topology once the delta is applied")
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public NetRapTopologyDelta addAddedNodesItem(NetRapNode node) {
+        this.addedNodes.add(node);
+        return this;
+    }
+
+    @ApiModelProperty(example = "null", value = "Nodes not present in the base version")
+    public List<NetRapNode> getAddedNodes() {
+        return addedNodes;
+    }
+
+    public void setAddedNodes(List<NetRapNode> addedNodes) {
+        this.addedNodes = addedNodes;
+    }
+
+    public NetRapTopologyDelta addUpdatedNodesItem(NetRapNode node) {
+        this.updatedNodes.add(node);
+        return this;
+    }
+
+    @ApiModelProperty(example = "null", value = "Nodes whose attributes changed, identified by name")
+    public List<NetRapNode> getUpdatedNodes() {
+        return updatedNodes;
+    }
+
+    public void setUpdatedNodes(List<NetRapNode> updatedNodes) {
+        this.updatedNodes = updatedNodes;
+    }
+
+    public NetRapTopologyDelta addRemovedNodesItem(NetRapNode node) {
+        this.removedNodes.add(node);
+        return this;
+    }
+
+    @ApiModelProperty(example = "null", value = "Nodes no longer present, as they were in the base version")
+    public List<NetRapNode> getRemovedNodes() {
+        return removedNodes;
+    }
+
+    public void setRemovedNodes(List<NetRapNode> removedNodes) {
+        this.removedNodes = removedNodes;
+    }
+
+    public NetRapTopologyDelta addAddedLinksItem(NetRapLink link) {
+        this.addedLinks.add(link);
+        return this;
+    }
+
+    @ApiModelProperty(example = "null", value = "Links not present in the base version")
+    public List<NetRapLink> getAddedLinks() {
+        return addedLinks;
+    }
+
+    public void setAddedLinks(List<NetRapLink> addedLinks) {
+        this.addedLinks = addedLinks;
+    }
+
+    public NetRapTopologyDelta addUpdatedLinksItem(NetRapLink link) {
+        this.updatedLinks.add(link);
+        return this;
+    }
+
+    @ApiModelProperty(example = "null", value = "Links whose state or attributes changed, identified by layer, "
+            + "src, dst, srcPort and dstPort")
+    public List<NetRapLink> getUpdatedLinks() {
+        return updatedLinks;
+    }
+
+    public void setUpdatedLinks(List<NetRapLink> updatedLinks) {
+        this.updatedLinks = updatedLinks;
+    }
+
+    public NetRapTopologyDelta addRemovedLinksItem(NetRapLink link) {
+        this.removedLinks.add(link);
+        return this;
+    }
+
+    @ApiModelProperty(example = "null", value = "Links no longer present, as they were in the base version")
+    public List<NetRapLink> getRemovedLinks() {
+        return removedLinks;
+    }
+
+    public void setRemovedLinks(List<NetRapLink> removedLinks) {
+        this.removedLinks = removedLinks;
+    }
+
+    public NetRapTopologyDelta addAddedSrgsItem(NetRapSRG srg) {
+        this.addedSrgs.add(srg);
+        return this;
+    }
+
+    @ApiModelProperty(example = "null", value = "Shared risk groups not present in the base version, "
+            + "a changed group is removed and added again")
+    public List<NetRapSRG> getAddedSrgs() {
+        return addedSrgs;
+    }
+
+    public void setAddedSrgs(List<NetRapSRG> addedSrgs) {
+        this.addedSrgs = addedSrgs;
+    }
+
+    public NetRapTopologyDelta addRemovedSrgsItem(NetRapSRG srg) {
+        this.removedSrgs.add(srg);
+        return this;
+    }
+
+    @ApiModelProperty(example = "null",
+            value = "Shared risk groups no longer present, as they were in the base version")
+    public List<NetRapSRG> getRemovedSrgs() {
+        return removedSrgs;
+    }
+
+    public void setRemovedSrgs(List<NetRapSRG> removedSrgs) {
+        this.removedSrgs = removedSrgs;
+    }
+
+    /**
+     * Returns true if the delta carries no change.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return addedNodes.isEmpty() && updatedNodes.isEmpty() && removedNodes.isEmpty()
+                && addedLinks.isEmpty() && updatedLinks.isEmpty() && removedLinks.isEmpty()
+                && addedSrgs.isEmpty() && removedSrgs.isEmpty();
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        NetRapTopologyDelta delta = (NetRapTopologyDelta) o;
+        return Objects.equals(baseVersion, delta.baseVersion) &&
+                Objects.equals(version, delta.version) &&
+                Objects.equals(addedNodes, delta.addedNodes) &&
+                Objects.equals(updatedNodes, delta.updatedNodes) &&
+                Objects.equals(removedNodes, delta.removedNodes) &&
+                Objects.equals(addedLinks, delta.addedLinks) &&
+                Objects.equals(updatedLinks, delta.updatedLinks) &&
+                Objects.equals(removedLinks, delta.removedLinks) &&
+                Objects.equals(addedSrgs, delta.addedSrgs) &&
+                Objects.equals(removedSrgs, delta.removedSrgs);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(baseVersion, version, addedNodes, updatedNodes, removedNodes,
+                            addedLinks, updatedLinks, removedLinks, addedSrgs, removedSrgs);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("class NetRapTopologyDelta {\n");
+
+        sb.append("    baseVersion: ").append(toIndentedString(baseVersion)).append("\n");
+        sb.append("    version: ").append(toIndentedString(version)).append("\n");
+        sb.append("    addedNodes: ").append(toIndentedString(addedNodes)).append("\n");
+        sb.append("    updatedNodes: ").append(toIndentedString(updatedNodes)).append("\n");
+        sb.append("    removedNodes: ").append(toIndentedString(removedNodes)).append("\n");
+        sb.append("    addedLinks: ").append(toIndentedString(addedLinks)).append("\n");
+        sb.append("    updatedLinks: ").append(toIndentedString(updatedLinks)).append("\n");
+        sb.append("    removedLinks: ").append(toIndentedString(removedLinks)).append("\n");
+        sb.append("    addedSrgs: ").append(toIndentedString(addedSrgs)).append("\n");
+        sb.append("    removedSrgs: ").append(toIndentedString(removedSrgs)).append("\n");
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * Convert the given object to string with each line indented by 4 spaces
+     * (except the first line).
+     */
+    private String toIndentedString(Object o) {
+        if (o == null) {
+            return "null";
+        }
+        return o.toString().replace("\n", "\n    ");
+    }
+}
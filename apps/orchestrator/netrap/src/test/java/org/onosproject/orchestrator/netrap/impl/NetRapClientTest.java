@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.netrap.impl;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableList;
+import com.wpl.xrapc.XrapPostReply;
+import com.wpl.xrapc.XrapPostRequest;
+import com.wpl.xrapc.XrapReply;
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.onlab.junit.TestTools.assertAfter;
+
+public class NetRapClientTest {
+
+    private static final ByteBuffer PEER_A = ByteBuffer.wrap(new byte[]{1});
+    private static final ByteBuffer PEER_B = ByteBuffer.wrap(new byte[]{2});
+
+    private final Timer latency = new Timer();
+    private final Counter timeouts = new Counter();
+    private NetRapClient client;
+
+    @After
+    public void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    private static XrapReply replyTo(XrapPostRequest request) {
+        XrapPostReply reply = new XrapPostReply();
+        reply.setRequestId(request.getRequestId());
+        return reply;
+    }
+
+    @Test
+    public void requestsArePipelined() throws Exception {
+        CountDownLatch allInFlight = new CountDownLatch(4);
+        client = new NetRapClient((address, request) -> {
+            allInFlight.countDown();
+            allInFlight.await(5, TimeUnit.SECONDS);
+            return replyTo((XrapPostRequest) request);
+        }, 4, 5_000, latency, timeouts);
+
+        List<XrapPostRequest> requests = IntStream.range(0, 4)
+                .mapToObj(i -> new XrapPostRequest("/demand/list", "[]"))
+                .collect(Collectors.toList());
+        List<CompletableFuture<XrapReply>> replies = requests.stream()
+                .map(request -> client.send(PEER_A, request))
+                .collect(Collectors.toList());
+
+        for (int i = 0; i < requests.size(); i++) {
+            assertEquals(requests.get(i).getRequestId(), replies.get(i).get(5, TimeUnit.SECONDS).getRequestId());
+        }
+        assertAfter(1_000, () -> {
+            assertEquals(4, latency.getCount());
+            assertEquals(0, client.pending());
+        });
+    }
+
+    @Test
+    public void requestsTimeOut() throws Exception {
+        client = new NetRapClient((address, request) -> {
+            Thread.sleep(10_000);
+            return null;
+        }, 1, 100, latency, timeouts);
+
+        try {
+            client.send(PEER_A, new XrapPostRequest("/demand/list", "[]")).get(5, TimeUnit.SECONDS);
+            fail("Request should have timed out");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertAfter(1_000, () -> assertEquals(1, timeouts.getCount()));
+    }
+
+    @Test
+    public void loadIsSpreadOverPeers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Set<ByteBuffer> targets = ConcurrentHashMap.newKeySet();
+        client = new NetRapClient((address, request) -> {
+            targets.add(address);
+            release.await(5, TimeUnit.SECONDS);
+            return replyTo((XrapPostRequest) request);
+        }, 4, 5_000, latency, timeouts);
+
+        List<ByteBuffer> peers = ImmutableList.of(PEER_A, PEER_B);
+        CompletableFuture<XrapReply> first = client.sendAny(peers, new XrapPostRequest("/demand/list", "[]"));
+        CompletableFuture<XrapReply> second = client.sendAny(peers, new XrapPostRequest("/demand/list", "[]"));
+        release.countDown();
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, targets.size());
+    }
+
+    @Test
+    public void timeoutIsPerRequest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        client = new NetRapClient((address, request) -> {
+            release.await(5, TimeUnit.SECONDS);
+            return replyTo((XrapPostRequest) request);
+        }, 2, 5_000, latency, timeouts);
+
+        CompletableFuture<XrapReply> patient = client.send(PEER_A, new XrapPostRequest("/demand/list", "[]"));
+        CompletableFuture<XrapReply> hasty = client.send(PEER_A, new XrapPostRequest("/demand/list", "[]"), 100);
+        try {
+            hasty.get(5, TimeUnit.SECONDS);
+            fail("Request should have timed out");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        release.countDown();
+        assertTrue(patient.get(5, TimeUnit.SECONDS) != null);
+    }
+
+    @Test
+    public void waitingRequestsAreBounded() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        client = new NetRapClient((address, request) -> {
+            release.await(5, TimeUnit.SECONDS);
+            return replyTo((XrapPostRequest) request);
+        }, 1, 5_000, latency, timeouts);
+
+        List<CompletableFuture<XrapReply>> accepted = IntStream.range(0, NetRapClient.MAX_QUEUED + 1)
+                .mapToObj(i -> client.send(PEER_A, new XrapPostRequest("/demand/list", "[]")))
+                .collect(Collectors.toList());
+        CompletableFuture<XrapReply> rejected = client.send(PEER_A, new XrapPostRequest("/demand/list", "[]"));
+        try {
+            rejected.getNow(null);
+            fail("Request should have been rejected");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        release.countDown();
+        CompletableFuture.allOf(accepted.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertAfter(1_000, () -> assertEquals(0, client.pending()));
+    }
+}
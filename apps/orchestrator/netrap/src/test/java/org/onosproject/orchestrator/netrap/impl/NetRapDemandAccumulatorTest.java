@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.netrap.impl;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.net.intent.ACIPPIntent;
+import org.onosproject.net.intent.Key;
+import org.onosproject.net.intent.MockIdGenerator;
+
+import java.util.List;
+import java.util.Timer;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.onlab.junit.TestTools.assertAfter;
+import static org.onlab.junit.TestTools.delay;
+import static org.onosproject.net.NetTestTools.APP_ID;
+import static org.onosproject.net.NetTestTools.connectPoint;
+
+public class NetRapDemandAccumulatorTest {
+
+    private static final int LONG_MS = 60_000;
+
+    private final List<List<ACIPPIntent>> batches = new CopyOnWriteArrayList<>();
+    private Timer timer;
+
+    @Before
+    public void setUp() {
+        MockIdGenerator.cleanBind();
+        timer = new Timer("netrap-demand-test");
+    }
+
+    @After
+    public void tearDown() {
+        timer.cancel();
+        MockIdGenerator.unbind();
+    }
+
+    private static ACIPPIntent intent(String key) {
+        return ACIPPIntent.builder()
+                .appId(APP_ID)
+                .key(Key.of(key, APP_ID))
+                .src(connectPoint("of:1", 1))
+                .dst(connectPoint("of:2", 1))
+                .build();
+    }
+
+    @Test
+    public void fullBatchIsSent() {
+        NetRapDemandAccumulator accumulator = new NetRapDemandAccumulator(timer, 3, LONG_MS, LONG_MS,
+                                                                          batches::add);
+        ACIPPIntent one = intent("one");
+        ACIPPIntent two = intent("two");
+        ACIPPIntent three = intent("three");
+        accumulator.add(one);
+        accumulator.add(two);
+        assertTrue(batches.isEmpty());
+
+        accumulator.add(three);
+        assertAfter(1000, () -> assertEquals(ImmutableList.of(ImmutableList.of(one, two, three)), batches));
+    }
+
+    @Test
+    public void idleBatchIsSent() {
+        NetRapDemandAccumulator accumulator = new NetRapDemandAccumulator(timer, 100, LONG_MS, 20,
+                                                                          batches::add);
+        ACIPPIntent one = intent("one");
+        ACIPPIntent two = intent("two");
+        accumulator.add(one);
+        accumulator.add(two);
+
+        assertAfter(1000, () -> assertEquals(ImmutableList.of(ImmutableList.of(one, two)), batches));
+    }
+
+    @Test
+    public void latestVersionIsSent() {
+        NetRapDemandAccumulator accumulator = new NetRapDemandAccumulator(timer, 3, LONG_MS, LONG_MS,
+                                                                          batches::add);
+        ACIPPIntent first = intent("one");
+        ACIPPIntent other = intent("two");
+        ACIPPIntent resubmitted = intent("one");
+        accumulator.add(first);
+        accumulator.add(other);
+        accumulator.add(resubmitted);
+
+        assertAfter(1000, () -> assertEquals(ImmutableList.of(ImmutableList.of(resubmitted, other)), batches));
+    }
+
+    @Test
+    public void flushedIntentsAreSentOnce() {
+        NetRapDemandAccumulator accumulator = new NetRapDemandAccumulator(timer, 100, 50, 20, batches::add);
+        ACIPPIntent one = intent("one");
+        accumulator.add(one);
+        accumulator.flush();
+        assertEquals(ImmutableList.of(ImmutableList.of(one)), batches);
+
+        // The timer finds nothing left to send
+        delay(200);
+        assertEquals(1, batches.size());
+    }
+}
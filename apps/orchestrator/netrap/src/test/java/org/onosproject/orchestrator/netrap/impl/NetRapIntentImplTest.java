@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.netrap.impl;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.collect.ImmutableMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.net.intent.ACIPPIntent;
+import org.onosproject.net.intent.IntentId;
+import org.onosproject.net.intent.Key;
+import org.onosproject.net.intent.MockIdGenerator;
+import org.onosproject.orchestrator.netrap.model.NetRapAction;
+import org.onosproject.orchestrator.netrap.model.NetRapDemand;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.NetTestTools.APP_ID;
+import static org.onosproject.net.NetTestTools.connectPoint;
+
+public class NetRapIntentImplTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+
+    @Before
+    public void setUp() {
+        MockIdGenerator.cleanBind();
+    }
+
+    @After
+    public void tearDown() {
+        MockIdGenerator.unbind();
+    }
+
+    private static ACIPPIntent intent(String key) {
+        return ACIPPIntent.builder()
+                .appId(APP_ID)
+                .key(Key.of(key, APP_ID))
+                .src(connectPoint("of:1", 1))
+                .dst(connectPoint("of:2", 1))
+                .build();
+    }
+
+    private static NetRapAction action(String key) {
+        HashMap<String, String> attributes = new HashMap<>();
+        if (key != null) {
+            attributes.put("key", key);
+        }
+        NetRapDemand demand = new NetRapDemand();
+        demand.setAttributes(attributes);
+        return new NetRapAction().action("ROUTE").demand(demand);
+    }
+
+    private static Map<String, ACIPPIntent> byKey(ACIPPIntent... intents) {
+        ImmutableMap.Builder<String, ACIPPIntent> builder = ImmutableMap.builder();
+        for (ACIPPIntent intent : intents) {
+            builder.put(intent.key().toString(), intent);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void actionsResolveToTheirIntent() {
+        ACIPPIntent one = intent("one");
+        ACIPPIntent two = intent("two");
+        Function<NetRapAction, ACIPPIntent> intents = NetRapIntentImpl.batchIntents(byKey(one, two));
+
+        assertEquals(one, intents.apply(action(one.key().toString())));
+        assertEquals(two, intents.apply(action(two.key().toString())));
+        assertNull(intents.apply(action("unknown")));
+        assertNull(intents.apply(action(null)));
+    }
+
+    @Test
+    public void singleIntentIsTheReferenceOfEveryAction() {
+        ACIPPIntent one = intent("one");
+        Function<NetRapAction, ACIPPIntent> intents = NetRapIntentImpl.batchIntents(byKey(one));
+
+        assertEquals(one, intents.apply(action(one.key().toString())));
+        assertEquals(one, intents.apply(action("lightpath")));
+        assertEquals(one, intents.apply(new NetRapAction().action("NEW")));
+    }
+
+    @Test
+    public void handledIntentIsNotResent() {
+        NetRapIntentImpl impl = new NetRapIntentImpl();
+        impl.handled = NetRapIntentImpl.handledCache(10, 1, ticker, null);
+        ACIPPIntent one = intent("one");
+
+        assertFalse(impl.handledIntent(one));
+        assertTrue(impl.handledIntent(one));
+
+        // A resubmission under the same key is a new intent
+        ACIPPIntent resubmitted = intent("one");
+        assertFalse(impl.handledIntent(resubmitted));
+        assertTrue(impl.handledIntent(resubmitted));
+    }
+
+    @Test
+    public void handledIntentExpires() {
+        NetRapIntentImpl impl = new NetRapIntentImpl();
+        impl.handled = NetRapIntentImpl.handledCache(10, 1, ticker, null);
+        ACIPPIntent one = intent("one");
+        assertFalse(impl.handledIntent(one));
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        assertFalse(impl.handledIntent(one));
+    }
+
+    @Test
+    public void handledIntentsSurviveReconfiguration() {
+        NetRapIntentImpl impl = new NetRapIntentImpl();
+        impl.handled = NetRapIntentImpl.handledCache(10, 1, ticker, null);
+        ACIPPIntent one = intent("one");
+        assertFalse(impl.handledIntent(one));
+
+        Cache<Key, IntentId> previous = impl.handled;
+        impl.handled = NetRapIntentImpl.handledCache(20, 5, ticker, previous);
+        assertTrue(impl.handledIntent(one));
+    }
+}
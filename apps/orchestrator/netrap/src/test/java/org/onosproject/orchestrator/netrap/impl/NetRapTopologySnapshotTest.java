@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.netrap.impl;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.onosproject.orchestrator.netrap.model.NetRapLink;
+import org.onosproject.orchestrator.netrap.model.NetRapNode;
+import org.onosproject.orchestrator.netrap.model.NetRapSRG;
+import org.onosproject.orchestrator.netrap.model.NetRapTopology;
+import org.onosproject.orchestrator.netrap.model.NetRapTopologyDelta;
+
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NetRapTopologySnapshotTest {
+
+    private static NetRapNode node(String name, double latitude) {
+        NetRapNode node = new NetRapNode();
+        node.setName(name);
+        node.setLatitude(latitude);
+        return node;
+    }
+
+    private static NetRapLink link(String src, String dst, long srcPort, long dstPort, boolean active) {
+        NetRapLink link = new NetRapLink();
+        HashMap<String, String> attributes = new HashMap<>();
+        attributes.put("srcPort", Long.toString(srcPort));
+        attributes.put("dstPort", Long.toString(dstPort));
+        link.setSrc(src);
+        link.setDst(dst);
+        link.setLayer(1);
+        link.setActive(active);
+        link.setAttributes(attributes);
+        return link;
+    }
+
+    private static NetRapTopology topology(NetRapNode[] nodes, NetRapLink... links) {
+        NetRapTopology topology = new NetRapTopology();
+        for (NetRapNode node : nodes) {
+            topology.addNodesItem(node);
+        }
+        for (NetRapLink link : links) {
+            topology.addLinksItem(link);
+        }
+        return topology;
+    }
+
+    @Test
+    public void unchangedTopologyGivesEmptyDelta() {
+        NetRapNode[] nodes = {node("of:1", 1.0), node("of:2", 2.0)};
+        NetRapTopologySnapshot first = new NetRapTopologySnapshot(1, topology(nodes, link("of:1", "of:2", 1, 2, true)));
+        NetRapTopologySnapshot second = new NetRapTopologySnapshot(2, topology(nodes,
+                                                                              link("of:1", "of:2", 1, 2, true)));
+
+        NetRapTopologyDelta delta = first.delta(second);
+        assertTrue(delta.isEmpty());
+        assertEquals(Long.valueOf(1), delta.getBaseVersion());
+        assertEquals(Long.valueOf(2), delta.getVersion());
+    }
+
+    @Test
+    public void deltaCarriesChanges() {
+        NetRapTopologySnapshot first = new NetRapTopologySnapshot(1, topology(
+                new NetRapNode[]{node("of:1", 1.0), node("of:2", 2.0), node("of:3", 3.0)},
+                link("of:1", "of:2", 1, 2, true),
+                link("of:2", "of:3", 2, 3, true)));
+        NetRapTopologySnapshot second = new NetRapTopologySnapshot(2, topology(
+                new NetRapNode[]{node("of:1", 1.0), node("of:2", 5.0), node("of:4", 4.0)},
+                link("of:1", "of:2", 1, 2, false),
+                link("of:1", "of:2", 3, 4, true)));
+
+        NetRapTopologyDelta delta = first.delta(second);
+        assertEquals("of:4", delta.getAddedNodes().get(0).getName());
+        assertEquals("of:2", delta.getUpdatedNodes().get(0).getName());
+        assertEquals("of:3", delta.getRemovedNodes().get(0).getName());
+        assertEquals(1, delta.getAddedLinks().size());
+        assertEquals("3", delta.getAddedLinks().get(0).getAttributes().get("srcPort"));
+        assertEquals(1, delta.getUpdatedLinks().size());
+        assertEquals(false, delta.getUpdatedLinks().get(0).getActive());
+        assertEquals(1, delta.getRemovedLinks().size());
+        assertEquals("of:3", delta.getRemovedLinks().get(0).getDst());
+    }
+
+    private static NetRapSRG srg(String name, double mtbf) {
+        return new NetRapSRG().name(name).MTBF(mtbf).MTTR(12.0);
+    }
+
+    @Test
+    public void deltaCarriesSrgChanges() {
+        NetRapNode[] nodes = {node("of:1", 1.0)};
+        NetRapTopology before = topology(nodes);
+        before.addSrgsItem(srg("duct-1", 1000.0));
+        before.addSrgsItem(srg("duct-2", 2000.0));
+        before.addSrgsItem(srg("duct-3", 3000.0));
+        NetRapTopology after = topology(nodes);
+        after.addSrgsItem(srg("duct-1", 1000.0));
+        after.addSrgsItem(srg("duct-2", 500.0));
+        after.addSrgsItem(srg("duct-4", 4000.0));
+
+        NetRapTopologyDelta delta = new NetRapTopologySnapshot(1, before)
+                .delta(new NetRapTopologySnapshot(2, after));
+        assertEquals(2, delta.getRemovedSrgs().size());
+        assertEquals(Double.valueOf(2000.0), delta.getRemovedSrgs().get(0).getMTBF());
+        assertEquals("duct-3", delta.getRemovedSrgs().get(1).getName());
+        assertEquals(2, delta.getAddedSrgs().size());
+        assertEquals(Double.valueOf(500.0), delta.getAddedSrgs().get(0).getMTBF());
+        assertEquals("duct-4", delta.getAddedSrgs().get(1).getName());
+        assertTrue(delta.getAddedNodes().isEmpty());
+    }
+
+    @Test
+    public void restrictedDeltaLooksOnlyAtChangedIds() {
+        NetRapNode[] nodes = {node("of:1", 1.0), node("of:2", 2.0), node("of:3", 3.0)};
+        NetRapLink stale = link("of:1", "of:2", 1, 2, true);
+        NetRapLink removed = link("of:2", "of:3", 2, 3, true);
+        NetRapTopologySnapshot published = new NetRapTopologySnapshot(1, topology(nodes, stale, removed));
+        NetRapTopologySnapshot pending = new NetRapTopologySnapshot(1, topology(nodes, stale, removed));
+
+        pending.remove(removed);
+        pending.put(node("of:3", 7.0));
+        pending.put(node("of:1", 9.0));
+
+        NetRapTopologyDelta delta = published.delta(pending, 2,
+                                                    ImmutableSet.of("of:3"),
+                                                    ImmutableSet.of(NetRapTopologySnapshot.linkId(removed)));
+        assertTrue(delta.getAddedNodes().isEmpty());
+        assertEquals(1, delta.getUpdatedNodes().size());
+        assertEquals("of:3", delta.getUpdatedNodes().get(0).getName());
+        assertEquals(1, delta.getRemovedLinks().size());
+        assertEquals("of:3", delta.getRemovedLinks().get(0).getDst());
+        assertTrue(delta.getUpdatedLinks().isEmpty());
+
+        published.advance(pending, 2, ImmutableSet.of("of:3"),
+                          ImmutableSet.of(NetRapTopologySnapshot.linkId(removed)));
+        assertEquals(2, published.version());
+        assertTrue(published.delta(pending, 3, ImmutableSet.of("of:3"),
+                                   ImmutableSet.of(NetRapTopologySnapshot.linkId(removed))).isEmpty());
+        assertFalse(published.delta(pending, 3, ImmutableSet.of("of:1"), ImmutableSet.of()).isEmpty());
+    }
+}
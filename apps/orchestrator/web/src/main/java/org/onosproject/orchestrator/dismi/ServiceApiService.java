@@ -21,7 +21,9 @@ import org.onosproject.orchestrator.dismi.primitives.Intent;
 import org.onosproject.orchestrator.dismi.primitives.Service;
 
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.core.Response;
+import java.util.List;
 
 /**
  * Created by aghafoor on 2016-11-16.
@@ -31,12 +33,18 @@ import javax.ws.rs.core.Response;
         date = "2016-03-22T15:29:51.886Z")
 public interface ServiceApiService {
 
-    public abstract Response serviceGet()
+    public abstract Response serviceGet(String after, int limit, String fields)
+            throws NotFoundException;
+
+    public abstract void serviceEventsGet(String feed, long after, int timeout, AsyncResponse response)
             throws NotFoundException;
 
     public abstract Response servicePost(Service service)
             throws NotFoundException;
 
+    public abstract Response servicesPost(List<Service> services)
+            throws NotFoundException;
+
     public abstract Response serviceServiceIdDelete(String serviceId)
             throws NotFoundException;
 
@@ -24,19 +24,25 @@ import org.onosproject.orchestrator.dismi.primitives.Intent;
 import org.onosproject.orchestrator.dismi.primitives.Resource;
 import org.onosproject.orchestrator.dismi.primitives.Service;
 import org.onosproject.orchestrator.dismi.primitives.extended.IntentList;
+import org.onosproject.orchestrator.dismi.store.DismiStatusFeed;
 import org.onosproject.orchestrator.dismi.store.DismiStoreIface;
 import org.onosproject.orchestrator.dismi.utils.JsonMapper;
 import org.onosproject.orchestrator.dismi.validation.DismiValidationServiceIface;
+import org.onosproject.orchestrator.dismi.validation.ValidationRejectedException;
 import org.onosproject.rest.AbstractWebResource;
 import org.slf4j.Logger;
 
 import javax.ws.rs.InternalServerErrorException;
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static org.onosproject.orchestrator.dismi.primitives.DismiIntentState.PROCESSING;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -44,26 +50,100 @@ import static org.slf4j.LoggerFactory.getLogger;
 @javax.annotation.Generated(value = "class io.swagger.codegen.languages.JavaJerseyServerCodegen",
         date = "2016-03-22T15:29:51.886Z")
 public class ServiceApiServiceImpl extends AbstractWebResource implements ServiceApiService {
+    // Seconds a client is asked to wait when the validation queue is full
+    private static final String RETRY_AFTER_SECONDS = "5";
+    // Largest page of services returned by a single GET
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String FIELDS_FULL = "full";
+    private static final String FIELDS_STATUS = "status";
+    // Longest a GET of the status feed waits for a change, in seconds
+    private static final int MAX_EVENTS_TIMEOUT = 60;
+
     private final Logger log = getLogger(getClass());
 
     /**
-     * serviceGet returns a list of all known services
+     * serviceGet returns a list of the known services, a page at a time if asked to
      *
+     * @param after:  service id the page starts after, null for the first page
+     * @param limit:  number of services in the page, 0 for all of them
+     * @param fields: "full" for the services with their intents, "status" for their status only
      * @throws InternalServerErrorException if DismiStoreIface can't be reached
-     * @return: a ServiceList object if found, a ApiResponseMessage object in case of trouble (http 404)
+     * @return: the services streamed as JSON, a ApiResponseMessage object in case of trouble (http 400)
      */
     @Override
-    public Response serviceGet() throws InternalServerErrorException {
+    public Response serviceGet(String after, int limit, String fields) throws InternalServerErrorException {
         //log.info("Request to GET service received at REST serviceGet() endpoint !");
         DismiStoreIface store = get(DismiStoreIface.class);
         if (null == store) {
             throw (new InternalServerErrorException("Can't reach the store service"));
         }
 
-        //Get a list of services
-        List<Service> list = store.getServicesAsList();
+        if (limit < 0 || limit > MAX_PAGE_SIZE) {
+            return returnInvalid("limit must be between 0 and " + MAX_PAGE_SIZE);
+        }
+        if (!FIELDS_FULL.equals(fields) && !FIELDS_STATUS.equals(fields)) {
+            return returnInvalid("fields must be either " + FIELDS_FULL + " or " + FIELDS_STATUS);
+        }
+        if (null != after && !new Resource().resource(after).isServiceId()) {
+            return returnInvalid("after must be a service id");
+        }
+
+        //Read the whole page before answering, so that a failure is reported with an error status instead of
+        //cutting the JSON short; only its serialization is streamed to the client
+        boolean withIntents = FIELDS_FULL.equals(fields);
+        List<Service> services = store.getServices(after, limit, withIntents);
+        StreamingOutput output = out -> JsonMapper.writeServices(services, withIntents, limit, out);
         //log.info("Request to GET service 'serviceGet()' processed !");
-        return returnJson(list, "", "Failed to retrieve data", "Failed to retrieve services's data");
+        return Response.ok(output).build();
+    }
+
+    /**
+     * serviceEventsGet long-polls the status changes of the intents, to be called again with the feed and revision
+     * returned. The request waits for a change without holding a thread, and is answered through the response.
+     *
+     * @param feed:     feed the revision comes from, null at first
+     * @param after:    revision of the last change known to the client, 0 at first
+     * @param timeout:  seconds to wait for a change if there are none after the given revision
+     * @param response: suspended response, resumed with the changes and the cursor to poll after next, possibly
+     *                  no changes if the wait timed out
+     * @throws InternalServerErrorException if DismiStoreIface can't be reached
+     */
+    @Override
+    public void serviceEventsGet(String feed, long after, int timeout, AsyncResponse response)
+            throws InternalServerErrorException {
+        DismiStoreIface store = get(DismiStoreIface.class);
+        if (null == store) {
+            throw (new InternalServerErrorException("Can't reach the store service"));
+        }
+
+        if (after < 0) {
+            response.resume(returnInvalid("after must not be negative"));
+            return;
+        }
+        if (timeout < 0 || timeout > MAX_EVENTS_TIMEOUT) {
+            response.resume(returnInvalid("timeout must be between 0 and " + MAX_EVENTS_TIMEOUT));
+            return;
+        }
+
+        DismiStatusFeed statusFeed = store.getStatusFeed();
+        if (timeout == 0) {
+            response.resume(returnStatusChanges(statusFeed.changes(feed, after)));
+            return;
+        }
+
+        //Set the timeout before polling, as a callback may resume the response right away
+        Consumer<DismiStatusFeed.StatusChanges> callback = changes -> response.resume(returnStatusChanges(changes));
+        response.setTimeoutHandler(timedOut -> {
+            if (statusFeed.cancel(callback)) {
+                timedOut.resume(returnStatusChanges(statusFeed.changes(feed, after)));
+            }
+        });
+        response.setTimeout(timeout, TimeUnit.SECONDS);
+        statusFeed.poll(feed, after, callback);
+    }
+
+    private Response returnStatusChanges(DismiStatusFeed.StatusChanges changes) {
+        return returnJson(changes, "", "Failed to retrieve status changes", "Failed to retrieve status changes");
     }
 
     /**
@@ -142,7 +222,12 @@ public class ServiceApiServiceImpl extends AbstractWebResource implements Servic
         if (null == dismiValidationServiceIface) {
             throw (new InternalServerErrorException("Can't reach the Dismi Validation service"));
         }
-        Resource resource = dismiValidationServiceIface.submitNewService(service);
+        Resource resource;
+        try {
+            resource = dismiValidationServiceIface.submitNewService(service);
+        } catch (ValidationRejectedException e) {
+            return returnBusy(e);
+        }
         String errorFailure = "Failed to register service";
         String errorException = "Failed to serialize resource";
         String errorNoResponse = "Failed to receive a Response to the request";
@@ -151,6 +236,35 @@ public class ServiceApiServiceImpl extends AbstractWebResource implements Servic
         return returnJson(resource, errorFailure, errorException, errorNoResponse);
     }
 
+    /**
+     * servicesPost creates a batch of new services, returning a Resource object per service, in the same order
+     *
+     * @param services: descriptions of the Services to create
+     * @throws InternalServerErrorException if DismiValidationServiceIface can't be reached
+     * @return: the Resource objects in case of successful request submission, a ApiResponseMessage object if the
+     * batch is refused, in which case none of its services is registered
+     */
+    @Override
+    public Response servicesPost(List<Service> services)
+            throws InternalServerErrorException {
+        DismiValidationServiceIface dismiValidationServiceIface = get(DismiValidationServiceIface.class);
+        if (null == dismiValidationServiceIface) {
+            throw (new InternalServerErrorException("Can't reach the Dismi Validation service"));
+        }
+        List<Resource> resources;
+        try {
+            resources = dismiValidationServiceIface.submitNewServices(services);
+        } catch (ValidationRejectedException e) {
+            return returnBusy(e);
+        } catch (IllegalArgumentException e) {
+            return returnInvalid(e.getMessage());
+        }
+        String errorFailure = "Failed to register services";
+        String errorException = "Failed to serialize resources";
+        String errorNoResponse = "Failed to receive a Response to the request";
+        return returnJson(resources, errorFailure, errorException, errorNoResponse);
+    }
+
     /**
      * serviceServiceIdPut updates a service and returns a resource
      *
@@ -178,7 +292,12 @@ public class ServiceApiServiceImpl extends AbstractWebResource implements Servic
         if (null == dismiValidationServiceIface) {
             throw (new InternalServerErrorException("Can't reach the Dismi validation service"));
         }
-        Resource resource = dismiValidationServiceIface.submitServiceUpdate(serviceId, service);
+        Resource resource;
+        try {
+            resource = dismiValidationServiceIface.submitServiceUpdate(serviceId, service);
+        } catch (ValidationRejectedException e) {
+            return returnBusy(e);
+        }
 
         String errorFailure = "Failed to receive a resource";
         String errorException = "Failed to serialize resource";
@@ -206,7 +325,12 @@ public class ServiceApiServiceImpl extends AbstractWebResource implements Servic
             throw (new InternalServerErrorException("Can't reach the Dismi validation service"));
         }
 
-        Resource resource = dismiValidationServiceIface.submitIntentUpdate(serviceId, intentId, intent);
+        Resource resource;
+        try {
+            resource = dismiValidationServiceIface.submitIntentUpdate(serviceId, intentId, intent);
+        } catch (ValidationRejectedException e) {
+            return returnBusy(e);
+        }
 
         String errorFailure = "Failed to receive a resource";
         String errorException = "Failed to serialize resource";
@@ -236,7 +360,11 @@ public class ServiceApiServiceImpl extends AbstractWebResource implements Servic
         }
         String excuseMessage = "Error processing the service deletion";
         log.info("Request to DELETE Service 'serviceServiceIdDelete(serviceId)' processed !");
-        return returnBoolean(dismiValidationServiceIface.deleteService(serviceId), excuseMessage);
+        try {
+            return returnBoolean(dismiValidationServiceIface.deleteService(serviceId), excuseMessage);
+        } catch (ValidationRejectedException e) {
+            return returnBusy(e);
+        }
     }
 
     /**
@@ -260,7 +388,11 @@ public class ServiceApiServiceImpl extends AbstractWebResource implements Servic
         String excuseMessage = "Error processing the intent deletion";
         log.info("Request to DELETE Service-Intent 'serviceServiceIdIntentIdDelete(serviceId, intentId)' processed " +
                          "serviceServiceIdIntentIdDelete(serviceId, intentId) !");
-        return returnBoolean(dismiValidationServiceIface.deleteIntent(serviceId, intentId), excuseMessage);
+        try {
+            return returnBoolean(dismiValidationServiceIface.deleteIntent(serviceId, intentId), excuseMessage);
+        } catch (ValidationRejectedException e) {
+            return returnBusy(e);
+        }
     }
 
     /*
@@ -306,6 +438,27 @@ public class ServiceApiServiceImpl extends AbstractWebResource implements Servic
         }
     }
 
+    /*
+        Function to return a 503 asking the client to retry once the validation queue drained
+     */
+    private Response returnBusy(ValidationRejectedException e) {
+        log.warn("Request rejected: " + e.getMessage());
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", RETRY_AFTER_SECONDS)
+                .entity(new ApiResponseMessage(ApiResponseMessage.ErrorCode.SERVICE_BUSY,
+                                               e.getMessage()).toJson()).build();
+    }
+
+    /*
+        Function to return a 400 for a request parameter out of bounds
+     */
+    private Response returnInvalid(String excuseMessage) {
+        log.warn("Invalid request: " + excuseMessage);
+        return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ApiResponseMessage(ApiResponseMessage.ErrorCode.INVALID_PARAMETER,
+                                               excuseMessage).toJson()).build();
+    }
+
     /**
      * @param serviceId Provide service id to construct fullyqualified id of Itents
      * @param intentId  itent id
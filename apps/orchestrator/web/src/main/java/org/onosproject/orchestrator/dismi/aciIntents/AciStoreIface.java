@@ -34,6 +34,14 @@ public interface AciStoreIface {
 
     Set<DismiIntentId> listDismiIntentId();
 
+    /**
+     * Returns the DISMI intent owning the given ACI intent key.
+     *
+     * @param intentKey ACI intent key
+     * @return owning DISMI intent id, or null if the key is not managed by DISMI
+     */
+    DismiIntentId getDismiIntentId(Key intentKey);
+
     void addKeyIntent(Key intentKey, Intent onosIntent);
 
     Intent removeIntentKey(Key intentKey);
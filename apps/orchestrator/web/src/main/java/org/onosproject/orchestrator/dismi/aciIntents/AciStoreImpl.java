@@ -83,6 +83,9 @@ public class AciStoreImpl implements AciStoreIface {
 
     private Map<DismiIntentId, Set<AciIntentKeyStatus>> storeMap;
 
+    // Reverse index of storeMap, ACI intent key -> owning DISMI intent
+    private Map<Key, DismiIntentId> keyIndex;
+
     private Map<Key, Intent> intentDatabase;
 
     @Activate
@@ -95,6 +98,14 @@ public class AciStoreImpl implements AciStoreIface {
                 .build()
                 .asJavaMap();
 
+        keyIndex = storageService.<Key, DismiIntentId>consistentMapBuilder()
+                .withSerializer(SERIALIZER)
+                .withName("consistent-map-aci-key-index")
+                .withRelaxedReadConsistency()
+                .build()
+                .asJavaMap();
+        backfillKeyIndex();
+
         intentDatabase = storageService.<Key, Intent>consistentMapBuilder()
                 .withSerializer(SERIALIZER)
                 .withName("consistent-map-database-intent-store")
@@ -127,12 +138,20 @@ public class AciStoreImpl implements AciStoreIface {
 
         //  Retrieve the set for this dismiID
         Set<AciIntentKeyStatus> set = storeMap.remove(dismiID);
-        return set != null;
+        if (set == null) {
+            return false;
+        }
+        unindexKeys(dismiID, set, ImmutableSet.of());
+        return true;
     }
 
     @Override
     public void put(DismiIntentId dismiID, Set<AciIntentKeyStatus> keys) {
-        storeMap.put(dismiID, keys);
+        Set<AciIntentKeyStatus> previous = storeMap.put(dismiID, keys);
+        if (previous != null) {
+            unindexKeys(dismiID, previous, keys);
+        }
+        keys.forEach(keyStatus -> indexKey(dismiID, keyStatus));
     }
 
     @Override
@@ -144,6 +163,8 @@ public class AciStoreImpl implements AciStoreIface {
             aciIntentKeyStatuses.add(key);
             return aciIntentKeyStatuses;
         });
+
+        indexKey(dismiID, key);
     }
 
     @Override
@@ -151,6 +172,55 @@ public class AciStoreImpl implements AciStoreIface {
         return ImmutableSet.copyOf(storeMap.keySet());
     }
 
+    @Override
+    public DismiIntentId getDismiIntentId(Key intentKey) {
+        if (intentKey == null) {
+            return null;
+        }
+        return keyIndex.get(intentKey);
+    }
+
+    /**
+     * Indexes the keys stored before the index existed, such as those of a
+     * store written by an earlier version. Keys indexed meanwhile are kept.
+     */
+    private void backfillKeyIndex() {
+        int indexed = 0;
+        for (Map.Entry<DismiIntentId, Set<AciIntentKeyStatus>> entry : storeMap.entrySet()) {
+            for (AciIntentKeyStatus keyStatus : entry.getValue()) {
+                Key key = keyStatus.getIntentKey();
+                if (key != null && keyIndex.putIfAbsent(key, entry.getKey()) == null) {
+                    indexed++;
+                }
+            }
+        }
+        if (indexed > 0) {
+            log.info("Indexed {} ACI intent keys already in the store", indexed);
+        }
+    }
+
+    private void indexKey(DismiIntentId dismiID, AciIntentKeyStatus keyStatus) {
+        if (keyStatus.getIntentKey() != null) {
+            keyIndex.put(keyStatus.getIntentKey(), dismiID);
+        }
+    }
+
+    /**
+     * Drops the index entries of the keys in previous that are no longer part of current.
+     * Entries already re-assigned to another DISMI intent are left untouched.
+     */
+    private void unindexKeys(DismiIntentId dismiID, Set<AciIntentKeyStatus> previous,
+                             Set<AciIntentKeyStatus> current) {
+        Set<Key> retained = new HashSet<>();
+        current.forEach(keyStatus -> retained.add(keyStatus.getIntentKey()));
+        for (AciIntentKeyStatus keyStatus : previous) {
+            Key key = keyStatus.getIntentKey();
+            if (key != null && !retained.contains(key)) {
+                keyIndex.remove(key, dismiID);
+            }
+        }
+    }
+
     @Override
     public void addKeyIntent(Key intentKey, Intent onosIntent) {
         intentDatabase.put(intentKey, onosIntent);
@@ -73,7 +73,9 @@ public class ApiResponseMessage {
         EMPTY_PARAMETER(-2, "A parameter is null or empty"),
         PROCESSING_ERROR(-3, "Error while processing the request"),
         OBJECT_ALREADY_EXISTS(-4, "Object already exists"),
-        OBJECT_NOT_FOUND(-5, "Requested object not found");
+        OBJECT_NOT_FOUND(-5, "Requested object not found"),
+        SERVICE_BUSY(-6, "Too many pending requests, retry later"),
+        INVALID_PARAMETER(-7, "A parameter has an invalid value");
 
         private int value;
         private String reasonPhrase;
@@ -59,7 +59,6 @@ import org.onosproject.orchestrator.dismi.primitives.extended.IntentExtended;
 import org.onosproject.orchestrator.dismi.primitives.extended.ServiceExtended;
 import org.onosproject.orchestrator.dismi.store.DismiStoreIface;
 import org.onosproject.orchestrator.dismi.store.IntentFsmEvent;
-import org.onosproject.orchestrator.dismi.store.ServiceId;
 import org.onosproject.orchestrator.dismi.validation.DismiValidationServiceImpl;
 import org.slf4j.Logger;
 
@@ -619,25 +618,12 @@ public class IntentDecomposerManager implements IntentDecomposer {
     }
 
     private boolean setResolvedIntentStatus(String serviceId, String intentId, IntentFsmEvent status) {
-        ServiceId id = ServiceId.getId(serviceId);
-
-        ServiceExtended resolvedService = (ServiceExtended) dismiStore.getResolvedService(serviceId);
-        ServiceExtended serviceWithUpdatedStatus = new ServiceExtended();
-        List<IntentExtended> intentExtendeds = resolvedService.getIntentsExtended();
-        List<IntentExtended> intentExtendedUpdatedStatus = new ArrayList<IntentExtended>();
-        for (IntentExtended intentExtended : intentExtendeds) {
-            if (intentExtended.getIntentId().equalsIgnoreCase(intentId)) {
-                intentExtended.getStateMachine().changeState(status);
-            }
-            intentExtendedUpdatedStatus.add(intentExtended);
+        IntentExtended intentExtended = dismiStore.getResolvedIntent(serviceId, intentId);
+        if (intentExtended == null) {
+            return false;
         }
-        serviceWithUpdatedStatus.setServerInfo(resolvedService.getServerInfo());
-        serviceWithUpdatedStatus.setServiceStatus(resolvedService.getServiceStatus());
-        serviceWithUpdatedStatus.setDisplayName(resolvedService.getDisplayName());
-        serviceWithUpdatedStatus.setServiceId(resolvedService.getServiceId());
-        serviceWithUpdatedStatus.setIntentsExtended(intentExtendedUpdatedStatus);
-        dismiStore.setResolvedService(serviceId, serviceWithUpdatedStatus, new Tracker());
-        return true;
+        intentExtended.getStateMachine().changeState(status);
+        return dismiStore.setResolvedIntent(serviceId, intentExtended);
     }
 
     public IntentExtended arrangeConstraints(IntentExtended intent) {
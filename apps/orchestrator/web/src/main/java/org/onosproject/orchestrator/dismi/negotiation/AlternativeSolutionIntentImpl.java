@@ -68,7 +68,7 @@ import org.onosproject.orchestrator.dismi.store.CpId;
 import org.onosproject.orchestrator.dismi.store.IntentFiniteStateMachine;
 import org.onosproject.orchestrator.dismi.store.InternalIntentState;
 import org.onosproject.orchestrator.dismi.store.ServiceId;
-import org.onosproject.orchestrator.dismi.utils.InputAssertion;
+import org.onosproject.orchestrator.dismi.validation.InputAssertion;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.StorageService;
@@ -16,8 +16,6 @@
 
 package org.onosproject.orchestrator.dismi.primitives.extended;
 
-import org.onosproject.orchestrator.dismi.utils.InputAssertion;
-
 /**
  * Created by stephane on 10/13/16.
  */
@@ -190,7 +188,6 @@ public class IPAddress {
         }
 
         public boolean setAddress(String ip) {
-            InputAssertion inputAssertion = new InputAssertion();
             if (null == ip) {
                 return false;
             }
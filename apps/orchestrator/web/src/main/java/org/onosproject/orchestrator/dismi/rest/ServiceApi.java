@@ -20,6 +20,7 @@ import io.swagger.annotations.ApiParam;
 import org.onosproject.orchestrator.dismi.ServiceApiService;
 import org.onosproject.orchestrator.dismi.ServiceApiServiceFactory;
 import org.onosproject.orchestrator.dismi.aciIntents.DismiIntentId;
+import org.onosproject.orchestrator.dismi.api.ApiResponseMessage;
 import org.onosproject.orchestrator.dismi.api.NotFoundException;
 import org.onosproject.orchestrator.dismi.negotiation.NegoUtils;
 import org.onosproject.orchestrator.dismi.primitives.Intent;
@@ -29,12 +30,16 @@ import org.onosproject.orchestrator.dismi.utils.JsonMapper;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Response;
 
 @Path("service")
@@ -49,7 +54,9 @@ public class ServiceApi {
     @GET
     @Produces({"application/json"})
     @io.swagger.annotations.ApiOperation(value = "Get the list of services currently run by the customer",
-            notes = "ACINO provides a list of services that the customer has started or scheduled.",
+            notes = "ACINO provides a list of services that the customer has started or scheduled. " +
+                    "When a limit is given, the services are returned a page at a time, in an object " +
+                    "with the next cursor to pass as after to get the following page.",
             response = Service.class,
             responseContainer = "List",
             tags = {"Services",})
@@ -60,10 +67,44 @@ public class ServiceApi {
             @io.swagger.annotations.ApiResponse(code = 400, message = "Unexpected error",
                     response = Service.class, responseContainer = "List")})
 
-    public Response serviceGet()
+    public Response serviceGet(
+            @ApiParam(value = "Service ID the page starts after, the first page if not given.")
+            @QueryParam("after") String after,
+            @ApiParam(value = "Number of services in the page, all of them if 0.", defaultValue = "0")
+            @QueryParam("limit") @DefaultValue("0") int limit,
+            @ApiParam(value = "Fields returned per service: full, or status only.", defaultValue = "full",
+                    allowableValues = "full,status")
+            @QueryParam("fields") @DefaultValue("full") String fields)
             throws NotFoundException {
 
-        return delegate.serviceGet();
+        return delegate.serviceGet(after, limit, fields);
+    }
+
+    @GET
+    @Path("/events")
+    @Produces({"application/json"})
+    @io.swagger.annotations.ApiOperation(value = "Wait for status changes of the intents",
+            notes = "Returns the latest status of the intents which changed after the given revision, waiting " +
+                    "for a change up to the given timeout if there are none yet; a removed intent is reported " +
+                    "with removed set. Poll again with the feed and revision returned. If reset is true, " +
+                    "changes were missed, e.g. the feed was served by another node, and the services should be " +
+                    "read again.",
+            tags = {"Services",})
+    @io.swagger.annotations.ApiResponses(value = {
+            @io.swagger.annotations.ApiResponse(code = 200, message = "The status changes and the next revision."),
+
+            @io.swagger.annotations.ApiResponse(code = 400, message = "Invalid revision or timeout")})
+
+    public void serviceEventsGet(
+            @ApiParam(value = "Feed the revision comes from, as returned with it.")
+            @QueryParam("feed") String feed,
+            @ApiParam(value = "Revision of the last change known, 0 at first.", defaultValue = "0")
+            @QueryParam("after") @DefaultValue("0") long after,
+            @ApiParam(value = "Seconds to wait for a change, at most 60.", defaultValue = "30")
+            @QueryParam("timeout") @DefaultValue("30") int timeout,
+            @Suspended AsyncResponse response)
+            throws NotFoundException {
+        delegate.serviceEventsGet(feed, after, timeout, response);
     }
 
     @GET
@@ -142,7 +183,10 @@ public class ServiceApi {
                     code = 202, message = "The request to create a new service has been accepted for processing.",
                     response = Resource.class),
 
-            @io.swagger.annotations.ApiResponse(code = 400, message = "Unexpected error", response = Resource.class)})
+            @io.swagger.annotations.ApiResponse(code = 400, message = "Unexpected error", response = Resource.class),
+
+            @io.swagger.annotations.ApiResponse(code = 503, message = "Too many pending requests, retry later",
+                    response = ApiResponseMessage.class)})
 
     public Response servicePost(
             @ApiParam(value = "Definition of the service to be created.",
@@ -169,7 +213,10 @@ public class ServiceApi {
                     code = 202, message = "The request to update the servive has been accepted for processing.",
                     response = Resource.class),
 
-            @io.swagger.annotations.ApiResponse(code = 400, message = "Unexpected error", response = Resource.class)})
+            @io.swagger.annotations.ApiResponse(code = 400, message = "Unexpected error", response = Resource.class),
+
+            @io.swagger.annotations.ApiResponse(code = 503, message = "Too many pending requests, retry later",
+                    response = ApiResponseMessage.class)})
 
     public Response serviceServiceIdPut(
             @ApiParam(value = "ID of the service to update. FIXME: Why do we need the ID? It is contained" +
@@ -200,7 +247,10 @@ public class ServiceApi {
                     code = 202, message = "The request to update the intent has been accepted for processing.",
                     response = Resource.class),
 
-            @io.swagger.annotations.ApiResponse(code = 400, message = "Unexpected error", response = Resource.class)})
+            @io.swagger.annotations.ApiResponse(code = 400, message = "Unexpected error", response = Resource.class),
+
+            @io.swagger.annotations.ApiResponse(code = 503, message = "Too many pending requests, retry later",
+                    response = ApiResponseMessage.class)})
 
     public Response serviceServiceIdIntentIdPut(
             @ApiParam(value = "Service Unique ID of the service containinf the Intent of interest.", required = true)
@@ -232,7 +282,10 @@ public class ServiceApi {
                     code = 202, message = "The request to update the intent has been accepted for processing.",
                     response = Resource.class),
 
-            @io.swagger.annotations.ApiResponse(code = 400, message = "Unexpected error", response = Resource.class)})
+            @io.swagger.annotations.ApiResponse(code = 400, message = "Unexpected error", response = Resource.class),
+
+            @io.swagger.annotations.ApiResponse(code = 503, message = "Too many pending requests, retry later",
+                    response = ApiResponseMessage.class)})
 
     public Response serviceIntentIdUpdateintentIdPut(
             @ApiParam(value = "Intent Unique ID of the intent for which the overview is requested.", required = true)
@@ -268,7 +321,10 @@ public class ServiceApi {
                     code = 202, message = "The request to delete the service has been accepted for processing.",
                     response = Resource.class),
 
-            @io.swagger.annotations.ApiResponse(code = 400, message = "Unexpected error", response = Resource.class)})
+            @io.swagger.annotations.ApiResponse(code = 400, message = "Unexpected error", response = Resource.class),
+
+            @io.swagger.annotations.ApiResponse(code = 503, message = "Too many pending requests, retry later",
+                    response = ApiResponseMessage.class)})
 
     public Response serviceServiceIdDelete(
             @ApiParam(value = "Service Unique ID of the service for which the deletion is requested.", required = true)
@@ -289,7 +345,10 @@ public class ServiceApi {
                     code = 200, message = "Confirming the deletion of the Intent.",
                     response = void.class),
 
-            @io.swagger.annotations.ApiResponse(code = 400, message = "Unexpected error", response = void.class)})
+            @io.swagger.annotations.ApiResponse(code = 400, message = "Unexpected error", response = void.class),
+
+            @io.swagger.annotations.ApiResponse(code = 503, message = "Too many pending requests, retry later",
+                    response = ApiResponseMessage.class)})
 
     public Response serviceServiceIdIntentIdDelete(
             @ApiParam(value = "Service Unique ID of the service containinf the Intent of interest.", required = true)
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.orchestrator.dismi.rest;
+
+import io.swagger.annotations.ApiParam;
+import org.onosproject.orchestrator.dismi.ServiceApiService;
+import org.onosproject.orchestrator.dismi.ServiceApiServiceFactory;
+import org.onosproject.orchestrator.dismi.api.ApiResponseMessage;
+import org.onosproject.orchestrator.dismi.api.NotFoundException;
+import org.onosproject.orchestrator.dismi.primitives.Resource;
+import org.onosproject.orchestrator.dismi.primitives.Service;
+import org.onosproject.orchestrator.dismi.utils.JsonMapper;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+import java.util.List;
+
+/**
+ * Bulk operations on services, for clients provisioning many services at once.
+ */
+@Path("services")
+
+@Produces({"application/json"})
+@io.swagger.annotations.Api(description = "the bulk service API")
+public class ServicesApi {
+    private final ServiceApiService delegate = ServiceApiServiceFactory.getServiceApi();
+
+    @POST
+    @Produces({"application/json"})
+    @Consumes({"application/json"})
+    @io.swagger.annotations.ApiOperation(
+            value = "Create a batch of new services",
+            notes = "Request the creation or scheduling of several services at once. The services of the batch " +
+                    "are validated in parallel. Either the whole batch is accepted, or none of it: if a " +
+                    "service is refused, no service of the batch is created.",
+            response = Resource.class, responseContainer = "List", tags = {"Services",})
+    @io.swagger.annotations.ApiResponses(value = {
+            @io.swagger.annotations.ApiResponse(
+                    code = 202, message = "The request to create the services has been accepted for processing. " +
+                    "A resource is returned per service, in the order of the request.",
+                    response = Resource.class, responseContainer = "List"),
+
+            @io.swagger.annotations.ApiResponse(code = 400,
+                    message = "Unexpected error, a service refused, or a batch too large",
+                    response = ApiResponseMessage.class),
+
+            @io.swagger.annotations.ApiResponse(code = 503, message = "Too many pending requests, retry later",
+                    response = ApiResponseMessage.class)})
+
+    public Response servicesPost(
+            @ApiParam(value = "Array of the definitions of the services to be created.",
+                    required = true) String servicesData)
+            throws NotFoundException {
+        List<Service> services;
+        try {
+            services = JsonMapper.jsonToServices(servicesData);
+        } catch (Exception e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ApiResponseMessage(ApiResponseMessage.ErrorCode.INVALID_PARAMETER,
+                                                   e.getMessage()).toJson()).build();
+        }
+        return delegate.servicesPost(services);
+    }
+}
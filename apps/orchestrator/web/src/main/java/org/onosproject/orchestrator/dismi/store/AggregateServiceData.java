@@ -16,6 +16,7 @@
 
 package org.onosproject.orchestrator.dismi.store;
 
+import org.onosproject.orchestrator.dismi.primitives.DismiIntentState;
 import org.onosproject.orchestrator.dismi.primitives.Intent;
 import org.onosproject.orchestrator.dismi.primitives.Service;
 import org.onosproject.orchestrator.dismi.primitives.Tracker;
@@ -24,7 +25,11 @@ import org.onosproject.orchestrator.dismi.primitives.extended.ServiceExtended;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 import static org.onosproject.orchestrator.dismi.primitives.DismiIntentState.*;
 //import org.slf4j.Logger;
@@ -53,6 +58,88 @@ public class AggregateServiceData implements Serializable {
         updateRequest = null;
     }
 
+    /*
+        This function rebuilds a Service from its stored header and the records of its intents.
+        Records missing from the store are skipped.
+     */
+    public static AggregateServiceData assemble(ServiceHeader header, Function<String, IntentRecord> records) {
+        AggregateServiceData data = new AggregateServiceData();
+        data.serviceId = header.getServiceId();
+        data.displayName = header.getDisplayName();
+        data.tracker = header.getTracker();
+        data.updateRequest = header.getUpdateRequest();
+
+        Map<String, IntentRecord> byId = new HashMap<>();
+        for (String id : header.getIntentIds()) {
+            IntentRecord record = records.apply(id);
+            if (null != record) {
+                byId.put(id, record);
+            }
+        }
+
+        for (String id : header.getOriginalIntentIds()) {
+            IntentRecord record = byId.get(id);
+            if ((null != record) && (null != record.getOriginal())) {
+                data.originalIntentList.add(record.getOriginal());
+            }
+        }
+        if (null != header.getResolvedIntentIds()) {
+            data.resolvedIntentList = new ArrayList<>();
+            for (String id : header.getResolvedIntentIds()) {
+                IntentRecord record = byId.get(id);
+                if ((null != record) && (null != record.getResolved())) {
+                    data.resolvedIntentList.add(record.getResolved());
+                }
+            }
+        }
+        return data;
+    }
+
+    /*
+        The header to store for this Service, the intents being stored apart (see getIntentRecords)
+     */
+    public ServiceHeader getHeader() {
+        List<String> originalIds = new ArrayList<>();
+        Map<String, DismiIntentState> states = new HashMap<>();
+        for (Intent intent : originalIntentList) {
+            originalIds.add(intent.getIntentId());
+            IntentExtended resolved = getResolvedIntent(intent.getIntentId());
+            DismiIntentState state = (null != resolved)
+                    ? resolved.getStateMachine().getState().getUserState()
+                    : intent.getIntentStatus();
+            if (null != state) {
+                states.put(intent.getIntentId(), state);
+            }
+        }
+        List<String> resolvedIds = null;
+        if (null != resolvedIntentList) {
+            resolvedIds = new ArrayList<>();
+            for (IntentExtended intent : resolvedIntentList) {
+                resolvedIds.add(intent.getIntentId());
+            }
+        }
+        return new ServiceHeader(serviceId, displayName, originalIds, resolvedIds, tracker, updateRequest, states);
+    }
+
+    /*
+        The record to store for each intent of this Service, by intent id
+     */
+    public Map<String, IntentRecord> getIntentRecords() {
+        Map<String, IntentRecord> records = new LinkedHashMap<>();
+        for (Intent intent : originalIntentList) {
+            records.put(intent.getIntentId(),
+                        new IntentRecord(serviceId, intent, getResolvedIntent(intent.getIntentId())));
+        }
+        if (null != resolvedIntentList) {
+            for (IntentExtended intent : resolvedIntentList) {
+                if (!records.containsKey(intent.getIntentId())) {
+                    records.put(intent.getIntentId(), new IntentRecord(serviceId, null, intent));
+                }
+            }
+        }
+        return records;
+    }
+
     /*
         This function creates a Service with the list of original Intents.
         If resolved services exist, their State is used as the state of the original Intents.
@@ -86,6 +173,23 @@ public class AggregateServiceData implements Serializable {
         return service;
     }
 
+    /*
+        This function creates a Service with only the id, the display name and the status of a stored Service.
+        The status is computed as in getOriginalService, from the state of the Intents kept in the header,
+        without reading the Intents themselves.
+     */
+    public static Service summarize(ServiceHeader header) {
+        Service service = new Service();
+        service.setServiceId(header.getServiceId());
+        service.setDisplayName(header.getDisplayName());
+
+        List<DismiIntentState> list = new ArrayList<>(header.getIntentStates().values());
+        if (!list.isEmpty()) {
+            service.setServiceStatus(serviceStatus(list));
+        }
+        return service;
+    }
+
     public Service getOriginalServiceUpdate() {
         if (null == updateRequest) {
             return new Service();
@@ -276,15 +380,22 @@ public class AggregateServiceData implements Serializable {
             return;
         }
 
-        List<Intent> list = service.getIntents();
+        List<DismiIntentState> list = new ArrayList<>();
+        for (Intent intent : service.getIntents()) {
+            list.add(intent.getIntentStatus());
+        }
+        service.setServiceStatus(serviceStatus(list));
+    }
+
+    private static DismiIntentState serviceStatus(List<DismiIntentState> list) {
         boolean hasProcessing = false;
         boolean hasProcessing_failed = false;
         boolean hasInstalling = false;
         boolean hasFailed = false;
         boolean hasInstalled = false;
 
-        for (Intent intent : list) {
-            switch (intent.getIntentStatus()) {
+        for (DismiIntentState status : list) {
+            switch (status) {
                 case PROCESSING:
                     hasProcessing = true;
                     break;
@@ -308,13 +419,13 @@ public class AggregateServiceData implements Serializable {
         }
 
         if (hasProcessing_failed || hasFailed) {
-            service.setServiceStatus(FAILED);
+            return FAILED;
         } else if (hasProcessing) {
-            service.setServiceStatus(PROCESSING);
+            return PROCESSING;
         } else if (hasInstalling) {
-            service.setServiceStatus(INSTALLING);
+            return INSTALLING;
         } else {
-            service.setServiceStatus(INSTALLED);
+            return INSTALLED;
         }
     }
 
@@ -16,6 +16,7 @@
 
 package org.onosproject.orchestrator.dismi.store;
 
+import com.google.common.collect.Lists;
 import org.onlab.osgi.DefaultServiceDirectory;
 import org.onosproject.net.host.HostService;
 import org.onosproject.net.intent.ACIPPIntent;
@@ -32,12 +33,10 @@ import org.onosproject.orchestrator.dismi.compiler.ServiceCompilationUtils;
 import org.onosproject.orchestrator.dismi.negotiation.AciToDismiComposer;
 import org.onosproject.orchestrator.dismi.negotiation.AlternativeSolutionIntentIface;
 import org.onosproject.orchestrator.dismi.primitives.Intent;
-import org.onosproject.orchestrator.dismi.primitives.Tracker;
 import org.onosproject.orchestrator.dismi.primitives.extended.IntentExtended;
 import org.onosproject.orchestrator.dismi.primitives.extended.ServiceExtended;
 import org.slf4j.Logger;
 
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -79,7 +78,15 @@ public class DismiStateHandler {
             return;
         }
         String serviceId = extractServiceId(dismiIntentId.id());
-        ServiceExtended serviceExtended = (ServiceExtended) dismiStore.getResolvedService(serviceId);
+        // Only the intent the event is about is needed, not its whole service
+        IntentExtended intentExtended = dismiStore.getResolvedIntent(serviceId, dismiIntentId.id());
+        if (intentExtended == null) {
+            log.warn("Resolved DISMI intent " + dismiIntentId + " not found !");
+            return;
+        }
+        ServiceExtended serviceExtended = new ServiceExtended();
+        serviceExtended.setServiceId(serviceId);
+        serviceExtended.setIntentsExtended(Lists.newArrayList(intentExtended));
         setNewStatus(intent, serviceExtended, dismiIntentId.id(), key,
                      status);
         log.info("Managing DISMI intent state process completed !");
@@ -90,20 +97,7 @@ public class DismiStateHandler {
      * @return if founds DismiIntentId corresponding to key, returns otherwise it returns null;
      */
     public DismiIntentId findDismiIntentId(Key key) {
-
-        Set<DismiIntentId> dismiIntentIds = null;
-        synchronized (this) {
-            dismiIntentIds = aciStoreIface.listDismiIntentId();
-        }
-        for (DismiIntentId dismiIntentId : dismiIntentIds) {
-            Set<AciIntentKeyStatus> keySet = aciStoreIface.getKeys(dismiIntentId);
-            for (AciIntentKeyStatus intentKeyStatus : keySet) {
-                if (intentKeyStatus.getIntentKey().equals(key)) {
-                    return dismiIntentId;
-                }
-            }
-        }
-        return null;
+        return aciStoreIface.getDismiIntentId(key);
     }
 
     private void traceMe(String s) {
@@ -434,45 +428,26 @@ public class DismiStateHandler {
         log.info("dismiIntentId: " + dismiIntentId);
         log.info("smStatus: " + smStatus);
         String serviceId = extractServiceId(dismiIntentId.id());
-        ServiceId id = ServiceId.getId(serviceId);
         DismiStoreIface dismiStore = DefaultServiceDirectory.getService(DismiStoreIface.class);
-        ServiceExtended resolvedService = (ServiceExtended) dismiStore.getResolvedService(serviceId);
-        List<IntentExtended> intentExtendeds = resolvedService.getIntentsExtended();
-        List<IntentExtended> intentExtendedUpdatedStatus = new ArrayList<IntentExtended>();
-        ServiceExtended serviceWithUpdatedStatus = new ServiceExtended();
-        // Check first whether we are allowed to change the states of all the Intents
-        for (IntentExtended intentExtended : intentExtendeds) {
-            //log.info("intentExtended: " + intentExtended);
-            if (intentExtended.getIntentId().equalsIgnoreCase(dismiIntentId.id())) {
-                IntentFiniteStateMachine fsm = intentExtended.getStateMachine();
-                if (!fsm.canChangeState(smStatus)) {
-                    String intentId = intentExtended.getIntentId();
-                    InternalIntentState state = intentExtended.getStateMachine().getState();
-                    log.error("Intent " + intentId + ": Event " + smStatus + " can't transition from state "
-                                      + state);
-
-                    return false;
-                } else {
-                    log.info("Intent " + intentExtended.getIntentId() + " Can change state to " + smStatus);
-                }
-            }
+        IntentExtended intentExtended = dismiStore.getResolvedIntent(serviceId, dismiIntentId.id());
+        if (intentExtended == null) {
+            log.error("Resolved intent " + dismiIntentId + " not found");
+            return false;
         }
 
-        // Everything looks fine, so let's change the states
-        for (IntentExtended intentExtended : intentExtendeds) {
-            if (intentExtended.getIntentId().equalsIgnoreCase(dismiIntentId.id())) {
-                intentExtended.getStateMachine().changeState(smStatus);
-            }
-            intentExtendedUpdatedStatus.add(intentExtended);
-            //log.info("Changed state on intent " + intentExtended);
+        // Check first whether we are allowed to change the state of the Intent
+        IntentFiniteStateMachine fsm = intentExtended.getStateMachine();
+        if (!fsm.canChangeState(smStatus)) {
+            InternalIntentState state = fsm.getState();
+            log.error("Intent " + intentExtended.getIntentId() + ": Event " + smStatus
+                              + " can't transition from state " + state);
+            return false;
         }
+        log.info("Intent " + intentExtended.getIntentId() + " Can change state to " + smStatus);
 
-        serviceWithUpdatedStatus.setServerInfo(resolvedService.getServerInfo());
-        serviceWithUpdatedStatus.setServiceStatus(resolvedService.getServiceStatus());
-        serviceWithUpdatedStatus.setDisplayName(resolvedService.getDisplayName());
-        serviceWithUpdatedStatus.setServiceId(resolvedService.getServiceId());
-        serviceWithUpdatedStatus.setIntentsExtended(intentExtendedUpdatedStatus);
-        dismiStore.setResolvedService(serviceId, serviceWithUpdatedStatus, new Tracker());
+        // Everything looks fine, so let's change the state, rewriting this Intent only
+        fsm.changeState(smStatus);
+        dismiStore.setResolvedIntent(serviceId, intentExtended);
         log.info("Changed Intent Status: " + dismiIntentId + "\tto: " + smStatus);
         return true;
     }
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.dismi.store;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.onosproject.orchestrator.dismi.primitives.DismiIntentState;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Feed of the status changes of DISMI intents, numbered by a revision which
+ * clients pass back as a cursor to wait for the changes after it.
+ * <p>
+ * Changes are coalesced: only the latest status of an intent is kept, so an
+ * intent going through several states between two polls is reported once,
+ * and the removal of an intent is reported as its last change. The feed keeps
+ * the latest changes of a bounded number of intents; a client whose cursor is
+ * older than the oldest change dropped is told to reset, that is to read the
+ * services again before following the feed.
+ * <p>
+ * Revisions are numbered by the node serving the feed since it started, so a
+ * cursor is tagged with the id of its feed: a cursor from another node, or
+ * from before a restart, is as good as lost and told to reset too.
+ * <p>
+ * Clients wait for changes without holding a thread: their callback is kept
+ * until a change is published or the wait is cancelled.
+ */
+public class DismiStatusFeed {
+
+    private final String id;
+    private final int capacity;
+    // Latest change of each intent, by revision and by intent id
+    private final TreeMap<Long, StatusChange> changes = new TreeMap<>();
+    private final Map<String, StatusChange> latest = new HashMap<>();
+    // Callbacks waiting for a change, with the revision they wait after
+    private final Map<Consumer<StatusChanges>, Long> waiters = new LinkedHashMap<>();
+    private long revision;
+    private long dropped;
+
+    public DismiStatusFeed(String nodeId, int capacity) {
+        this.id = nodeId + "@" + System.currentTimeMillis();
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return : the id tagging the cursors of this feed
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @param serviceId : service the intent belongs to
+     * @param intentId  : intent whose status changed
+     * @param status    : new status of the intent
+     * @description : publish(...) records the new status of an intent, replacing its previous change if not
+     * polled yet, and calls back the clients waiting for changes. A status equal to the latest one is ignored.
+     */
+    public void publish(String serviceId, String intentId, DismiIntentState status) {
+        record(new StatusChange(0, serviceId, intentId, status, false));
+    }
+
+    /**
+     * @param serviceId : service the intent belonged to
+     * @param intentId  : intent removed
+     * @description : remove(...) records the removal of an intent, replacing its previous change if not polled
+     * yet, and calls back the clients waiting for changes.
+     */
+    public void remove(String serviceId, String intentId) {
+        record(new StatusChange(0, serviceId, intentId, null, true));
+    }
+
+    /**
+     * @param feed  : id of the feed the cursor comes from, null for the first poll
+     * @param after : revision of the last change the client knows about, 0 for the first poll
+     * @return : the changes after the given revision, in revision order, possibly none
+     */
+    public synchronized StatusChanges changes(String feed, long after) {
+        boolean reset = ((after > 0) && !id.equals(feed)) || (after < dropped) || (after > revision);
+        List<StatusChange> list = new ArrayList<>(changes.tailMap(reset ? 0 : after, false).values());
+        return new StatusChanges(id, revision, reset, list);
+    }
+
+    /**
+     * @param feed     : id of the feed the cursor comes from, null for the first poll
+     * @param after    : revision of the last change the client knows about, 0 for the first poll
+     * @param callback : called back once with the changes after the given revision
+     * @return : true if called back already, there being changes or the cursor being lost; false if the callback
+     * waits for the next change, until cancelled
+     */
+    public boolean poll(String feed, long after, Consumer<StatusChanges> callback) {
+        StatusChanges current;
+        synchronized (this) {
+            current = changes(feed, after);
+            if (!current.isReset() && current.getChanges().isEmpty()) {
+                waiters.put(callback, after);
+                return false;
+            }
+        }
+        callback.accept(current);
+        return true;
+    }
+
+    /**
+     * @param callback : callback given to poll(...)
+     * @return : true if the callback was waiting and will not be called back, false if it was called back already
+     */
+    public synchronized boolean cancel(Consumer<StatusChanges> callback) {
+        return null != waiters.remove(callback);
+    }
+
+    private void record(StatusChange update) {
+        Map<Consumer<StatusChanges>, StatusChanges> answers = new LinkedHashMap<>();
+        synchronized (this) {
+            StatusChange previous = latest.get(update.getIntentId());
+            if (null != previous) {
+                if ((previous.isRemoved() == update.isRemoved()) && (previous.getStatus() == update.getStatus())) {
+                    return;
+                }
+                changes.remove(previous.getRevision());
+            }
+
+            revision++;
+            StatusChange change = new StatusChange(revision, update.getServiceId(), update.getIntentId(),
+                                                   update.getStatus(), update.isRemoved());
+            changes.put(revision, change);
+            latest.put(change.getIntentId(), change);
+            if (changes.size() > capacity) {
+                StatusChange oldest = changes.pollFirstEntry().getValue();
+                latest.remove(oldest.getIntentId());
+                dropped = oldest.getRevision();
+            }
+
+            waiters.forEach((callback, after) -> answers.put(callback, changes(id, after)));
+            waiters.clear();
+        }
+        // Called back outside the lock, as they write the answer to the client
+        answers.forEach(Consumer::accept);
+    }
+
+    /**
+     * The latest status of an intent, at the revision it was published with.
+     */
+    public static class StatusChange {
+
+        private final long revision;
+        private final String serviceId;
+        private final String intentId;
+        private final DismiIntentState status;
+        private final boolean removed;
+
+        public StatusChange(long revision, String serviceId, String intentId, DismiIntentState status,
+                            boolean removed) {
+            this.revision = revision;
+            this.serviceId = serviceId;
+            this.intentId = intentId;
+            this.status = status;
+            this.removed = removed;
+        }
+
+        @JsonProperty("revision")
+        public long getRevision() {
+            return revision;
+        }
+
+        @JsonProperty("service_id")
+        public String getServiceId() {
+            return serviceId;
+        }
+
+        @JsonProperty("intent_id")
+        public String getIntentId() {
+            return intentId;
+        }
+
+        @JsonProperty("status")
+        public DismiIntentState getStatus() {
+            return status;
+        }
+
+        @JsonProperty("removed")
+        public boolean isRemoved() {
+            return removed;
+        }
+    }
+
+    /**
+     * Answer to a poll: the changes found and the cursor to poll after next,
+     * that is the feed and its revision.
+     */
+    public static class StatusChanges {
+
+        private final String feed;
+        private final long revision;
+        private final boolean reset;
+        private final List<StatusChange> changes;
+
+        public StatusChanges(String feed, long revision, boolean reset, List<StatusChange> changes) {
+            this.feed = feed;
+            this.revision = revision;
+            this.reset = reset;
+            this.changes = changes;
+        }
+
+        @JsonProperty("feed")
+        public String getFeed() {
+            return feed;
+        }
+
+        @JsonProperty("revision")
+        public long getRevision() {
+            return revision;
+        }
+
+        @JsonProperty("reset")
+        public boolean isReset() {
+            return reset;
+        }
+
+        @JsonProperty("changes")
+        public List<StatusChange> getChanges() {
+            return changes;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.onosproject.orchestrator.dismi.primitives.Service;
 import org.onosproject.orchestrator.dismi.primitives.Tracker;
 import org.onosproject.orchestrator.dismi.primitives.extended.ConnectionPointList;
 import org.onosproject.orchestrator.dismi.primitives.extended.EndPointList;
+import org.onosproject.orchestrator.dismi.primitives.extended.IntentExtended;
 import org.onosproject.orchestrator.dismi.primitives.extended.ServiceExtended;
 
 import java.util.List;
@@ -56,6 +57,10 @@ public interface DismiStoreIface {
     /*  Services    */
     List<Service> getServicesAsList();
 
+    /*  Services in id order, after the service with the given id (null for the first ones), at most limit of them
+        (all if 0). Without intents, only the id, the display name and the status of each Service are assembled  */
+    List<Service> getServices(String after, int limit, boolean withIntents);
+
     void removeAllServices();
 
     Resource addNewService(Service service);
@@ -81,6 +86,15 @@ public interface DismiStoreIface {
 
     /* Intents */
     Intent getOriginalIntent(String serviceId, String intentId);
+
+    /*  Reads a single resolved Intent, without assembling its Service  */
+    IntentExtended getResolvedIntent(String serviceId, String intentId);
+
+    /*  Stores a single resolved Intent, e.g. after a state change, leaving the rest of its Service untouched  */
+    boolean setResolvedIntent(String serviceId, IntentExtended intent);
+
+    /*  Feed of the status changes of the resolved Intents, including their removal  */
+    DismiStatusFeed getStatusFeed();
     //public boolean setResolvedIntentStatus(String serviceId, String intentId, IntentFsmEvent status);
 
     /*  Updating a Service  */
@@ -88,5 +102,8 @@ public interface DismiStoreIface {
 
     boolean deleteService(String id);
 
+    /*  Removes a Service and its Intents from the store, e.g. when its batch is refused  */
+    boolean removeService(String id);
+
     boolean deleteService(String id, Service service, Tracker tracker);
 }
@@ -17,13 +17,14 @@
 package org.onosproject.orchestrator.dismi.store;
 
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.onlab.util.KryoNamespace;
+import org.onosproject.cluster.ClusterService;
 import org.onosproject.net.host.HostService;
 import org.onosproject.net.intent.ACIPPIntent;
 import org.onosproject.net.intent.IntentEvent;
@@ -31,6 +32,7 @@ import org.onosproject.net.intent.IntentListener;
 import org.onosproject.net.intent.IntentService;
 import org.onosproject.net.intent.Key;
 import org.onosproject.orchestrator.dismi.aciIntents.AciStoreIface;
+import org.onosproject.orchestrator.dismi.aciIntents.DismiIntentId;
 import org.onosproject.orchestrator.dismi.aciIntents.ModelType;
 import org.onosproject.orchestrator.dismi.compiler.IntentDecomposerManager;
 import org.onosproject.orchestrator.dismi.primitives.Action;
@@ -80,16 +82,24 @@ import org.onosproject.orchestrator.dismi.primitives.extended.ServiceExtended;
 import org.onosproject.orchestrator.dismi.validation.InputAssertion;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.ConsistentMap;
+import org.onosproject.store.service.MapEvent;
+import org.onosproject.store.service.MapEventListener;
 import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.StorageService;
+import org.onosproject.store.service.Versioned;
 import org.slf4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -112,6 +122,9 @@ public class DismiStoreImpl implements DismiStoreIface {
                            //TODO: addAditionalClass
                            .register(ServiceId.class)
                            .register(AggregateServiceData.class)
+                           .register(ServiceHeader.class)
+                           .register(IntentRecord.class)
+                           .register(DismiIntentId.class)
                            //.register(AggregateServiceData.Status.class)
                            .register(Action.class)
                            .register(Aggregate.class)
@@ -166,9 +179,19 @@ public class DismiStoreImpl implements DismiStoreIface {
                            //.nextId(KryoNamespaces.BEGIN_USER_CUSTOM_ID)
                            .build("StoreTest"));
 
+    // Service ids only differ by their number, so shorter ids come first
+    private static final Comparator<String> SERVICE_ORDER =
+            Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+    // Intents whose latest status change is kept for the clients following the status feed
+    private static final int STATUS_FEED_CAPACITY = 4096;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected StorageService storageService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ClusterService clusterService;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected IntentService intentService;
 
@@ -182,32 +205,52 @@ public class DismiStoreImpl implements DismiStoreIface {
     //private Map<CpId, Set<BaseClass>> map;
     private ConsistentMap<CpId, Set<EndPoint>> connectionPointConsistentMap;
     private Map<CpId, Set<EndPoint>> connectionPointMap;
-    private ConsistentMap<ServiceId, AggregateServiceData> serviceConsistentMap;
-    private Map<ServiceId, AggregateServiceData> serviceMap;
+    // Endpoints of the connection points resolved so far, dropped as soon as the connection point changes
+    private final Map<String, Set<EndPoint>> endPointCache = new ConcurrentHashMap<>();
+    private final MapEventListener<CpId, Set<EndPoint>> connectionPointListener = new InternalConnectionPointListener();
+    // Services are stored as a header per service and a record per intent, so that a
+    // status change of one intent rewrites that intent only
+    private ConsistentMap<ServiceId, ServiceHeader> serviceConsistentMap;
+    private Map<ServiceId, ServiceHeader> serviceMap;
+    private ConsistentMap<DismiIntentId, IntentRecord> intentConsistentMap;
+    private Map<DismiIntentId, IntentRecord> intentMap;
     private int serviceCounter;
 
     private final Logger log = getLogger(getClass());
 
     private DismiStateHandler dismiStateHandler;
     private DismiInternalIntentListener internalIntentListener = new DismiInternalIntentListener();
+    private DismiStatusFeed statusFeed;
+    private final MapEventListener<DismiIntentId, IntentRecord> statusListener = new InternalStatusListener();
 
     @Activate
     public void activate() {
 
+        statusFeed = new DismiStatusFeed(clusterService.getLocalNode().id().toString(), STATUS_FEED_CAPACITY);
+
         connectionPointConsistentMap = storageService.<CpId, Set<EndPoint>>consistentMapBuilder()
                 .withSerializer(SERIALIZER)
                 .withName("consistent-map-connectionpoint")
                 .withRelaxedReadConsistency()
                 .build();
         connectionPointMap = connectionPointConsistentMap.asJavaMap();
+        connectionPointConsistentMap.addListener(connectionPointListener);
 
-        serviceConsistentMap = storageService.<ServiceId, AggregateServiceData>consistentMapBuilder()
+        serviceConsistentMap = storageService.<ServiceId, ServiceHeader>consistentMapBuilder()
                 .withSerializer(SERIALIZER)
-                .withName("consistent-map-servicetest")
+                .withName("consistent-map-dismi-service")
                 .withRelaxedReadConsistency()
                 .build();
         serviceMap = serviceConsistentMap.asJavaMap();
 
+        intentConsistentMap = storageService.<DismiIntentId, IntentRecord>consistentMapBuilder()
+                .withSerializer(SERIALIZER)
+                .withName("consistent-map-dismi-intent")
+                .withRelaxedReadConsistency()
+                .build();
+        intentMap = intentConsistentMap.asJavaMap();
+        intentConsistentMap.addListener(statusListener);
+
         serviceCounter = 1;
 
         dismiStateHandler = new DismiStateHandler(this, aciStoreIface, intentService, hostService);
@@ -224,8 +267,12 @@ public class DismiStoreImpl implements DismiStoreIface {
         intentService.removeListener(internalIntentListener);
         internalIntentListener = null;
         dismiStateHandler = null;
+        intentConsistentMap.removeListener(statusListener);
+        connectionPointConsistentMap.removeListener(connectionPointListener);
+        endPointCache.clear();
         connectionPointConsistentMap.destroy();
         serviceConsistentMap.destroy();
+        intentConsistentMap.destroy();
         log.debug("Stopped");
     }
 
@@ -257,6 +304,7 @@ public class DismiStoreImpl implements DismiStoreIface {
     private void updateCpId(CpId id, Set<EndPoint> set) {
         if ((null != id) || (null != set)) {
             connectionPointMap.put(id, set);
+            endPointCache.remove(id.id());
         }
     }
 
@@ -266,6 +314,7 @@ public class DismiStoreImpl implements DismiStoreIface {
 
         if (connectionPointMap.containsKey(id)) {
             connectionPointMap.remove(id);
+            endPointCache.remove(id.id());
             return true;
         } else {
             return false;
@@ -294,6 +343,7 @@ public class DismiStoreImpl implements DismiStoreIface {
         Set<EndPoint> set;
         if (connectionPointMap.containsKey(id)) {
             set = connectionPointMap.remove(id);
+            endPointCache.remove(id.id());
             for (EndPoint e : set) {
                 addEndPoint(cp2, e);
             }
@@ -337,18 +387,25 @@ public class DismiStoreImpl implements DismiStoreIface {
     public Set<EndPoint> getEndPoints(ConnectionPoint connectionPoint) {
         log.debug("DismiStoreImpl::getEndPoints - point " + connectionPoint);
 
-        Set<CpId> idSet = getConnectionPointIds();
         String name = connectionPoint.getName();
+        if ((null == name) || (name.length() == 0)) {
+            log.debug("Found no id for connectionPoint with name \"" + name + "\"");
+            return new HashSet<EndPoint>();
+        }
 
-        if (null != name) {
-            for (CpId id : idSet) {
-                if (id.toString().compareTo(name) == 0) {
-                    return getEndPoints(id);
-                }
-            }
+        //  Every intent of every request resolves its connection points, so keep them until they change.
+        //  Unknown names are not kept, as anybody can make them up.
+        Set<EndPoint> endPoints = endPointCache.computeIfAbsent(name, n -> {
+            Set<EndPoint> found = connectionPointMap.get(CpId.getId(n));
+            return ((null == found) || found.isEmpty()) ? null : ImmutableSet.copyOf(found);
+        });
+        if (null == endPoints) {
+            log.debug("Found no id for connectionPoint with name \"" + name + "\"");
+            return new HashSet<EndPoint>();
         }
-        log.debug("Found no id for connectionPoint with name \"" + name + "\"");
-        return new HashSet<EndPoint>();
+
+        //  The caller gets its own copy, it may add to it
+        return new HashSet<>(endPoints);
     }
 
     @Override
@@ -430,28 +487,84 @@ public class DismiStoreImpl implements DismiStoreIface {
     public List<Service> getServicesAsList() {
         log.debug("DismiStoreImpl::getServicesAsList:");
 
-        Set<ServiceId> idSet = serviceMap.keySet();
+        return getServices(null, 0, true);
+    }
 
-        if (idSet.isEmpty()) {
-            return Lists.newArrayList();
+    @Override
+    public List<Service> getServices(String after, int limit, boolean withIntents) {
+        List<ServiceHeader> headers = getServiceHeaders(after, limit);
+        if (!withIntents) {
+            // The header keeps the status of the intents, their records are not needed
+            return headers.stream().map(AggregateServiceData::summarize).collect(Collectors.toList());
         }
+        Map<String, IntentRecord> records = getIntentRecords(headers);
+        return headers.stream()
+                .map(header -> AggregateServiceData.assemble(header, records::get).getOriginalService())
+                .collect(Collectors.toList());
+    }
 
-        List<Service> serviceList = Lists.newArrayList();
-        //  idSet can have a size of zero, but it is always a valid object
-        for (ServiceId id : idSet) {
-            serviceList.add(serviceMap.get(id).getOriginalService());
+    /*
+     * Only the ids of the Services are read to find those of the page; the headers are then read
+     * one by one for that page only.
+     */
+    private List<ServiceHeader> getServiceHeaders(String after, int limit) {
+        List<ServiceId> ids = serviceConsistentMap.keySet().stream()
+                .filter(id -> (null == after) || (SERVICE_ORDER.compare(id.id(), after) > 0))
+                .collect(Collectors.toList());
+        Ordering<ServiceId> order = Ordering.from(SERVICE_ORDER).onResultOf(ServiceId::id);
+        ids = (limit > 0) ? order.leastOf(ids, limit) : order.sortedCopy(ids);
+        return ids.stream()
+                .map(serviceMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // Reads the records of the intents of the given Services, one get per intent
+    private Map<String, IntentRecord> getIntentRecords(List<ServiceHeader> headers) {
+        Map<String, IntentRecord> records = new HashMap<>();
+        for (ServiceHeader header : headers) {
+            for (String intentId : header.getIntentIds()) {
+                IntentRecord record = getIntentRecord(intentId);
+                if (null != record) {
+                    records.put(intentId, record);
+                }
+            }
         }
-        return serviceList;
+        return records;
     }
 
     private AggregateServiceData getAggregateServiceData(String id) {
         ServiceId sId = ServiceId.getId(id);
-        return serviceMap.get(sId);
+        ServiceHeader header = serviceMap.get(sId);
+        if (null == header) {
+            return null;
+        }
+        return AggregateServiceData.assemble(header, this::getIntentRecord);
+    }
+
+    private IntentRecord getIntentRecord(String intentId) {
+        return intentMap.get(DismiIntentId.getId(intentId));
     }
 
+    /*
+     * The two maps are not written atomically. The intent records are
+     * written before the header, so that a header never refers to intents
+     * not stored yet, and the records of the intents the service no longer
+     * has are dropped once the header no longer refers to them.
+     */
     private void setAggregateData(String serviceId, AggregateServiceData serviceData) {
         ServiceId id = ServiceId.getId(serviceId);
-        serviceMap.put(id, serviceData);
+        Map<String, IntentRecord> records = serviceData.getIntentRecords();
+        records.forEach((intentId, record) -> intentMap.put(DismiIntentId.getId(intentId), record));
+
+        ServiceHeader previous = serviceMap.put(id, serviceData.getHeader());
+        if (null != previous) {
+            for (String intentId : previous.getIntentIds()) {
+                if (!records.containsKey(intentId)) {
+                    intentMap.remove(DismiIntentId.getId(intentId));
+                }
+            }
+        }
     }
 
     @Override
@@ -468,6 +581,18 @@ public class DismiStoreImpl implements DismiStoreIface {
     @Override
     public void removeAllServices() {
         serviceMap.clear();
+        intentMap.clear();
+    }
+
+    @Override
+    public boolean removeService(String id) {
+        // The header goes first, so that the Service is never listed without its Intents
+        ServiceHeader header = serviceMap.remove(ServiceId.getId(id));
+        if (null == header) {
+            return false;
+        }
+        header.getIntentIds().forEach(intentId -> intentMap.remove(DismiIntentId.getId(intentId)));
+        return true;
     }
 
     @Override
@@ -710,7 +835,11 @@ public class DismiStoreImpl implements DismiStoreIface {
             return false;
         }
 
-        return serviceData.setResolvedService(service, tracker);
+        if (!serviceData.setResolvedService(service, tracker)) {
+            return false;
+        }
+        setAggregateData(serviceId, serviceData);
+        return true;
     }
 
     @Override
@@ -722,14 +851,18 @@ public class DismiStoreImpl implements DismiStoreIface {
         }
 
         AggregateServiceData serviceData = getAggregateServiceData(serviceId);
-        service.setDisplayName(serviceData.getOriginalService().getDisplayName());
         if (null == serviceData) {
             log.debug("Failed to retrieve AggregateServiceData with serviceId \"" + serviceId + "\"");
             return false;
         }
+        service.setDisplayName(serviceData.getOriginalService().getDisplayName());
         // Note: Added by Abdul to make happy setResolvedServiceUpdate functions
         serviceData.setServiceUpdate(service);
-        return serviceData.setResolvedServiceUpdate(service, tracker);
+        if (!serviceData.setResolvedServiceUpdate(service, tracker)) {
+            return false;
+        }
+        setAggregateData(serviceId, serviceData);
+        return true;
     }
 
     @Override
@@ -748,17 +881,73 @@ public class DismiStoreImpl implements DismiStoreIface {
 
     @Override
     public Intent getOriginalIntent(String serviceId, String intentId) {
-        Service service = getOriginalService(serviceId);
-        List<Intent> intentList = service.getIntents();
-        if (null == intentList) {
+        IntentRecord record = getIntentRecord(serviceId, intentId);
+        if ((null == record) || (null == record.getOriginal())) {
             return null;
         }
-        for (Intent intent : intentList) {
-            if (intent.getIntentId().compareTo(intentId) == 0) {
-                return intent;
-            }
+
+        // As in the original Service, the state of the resolved Intent prevails
+        Intent intent = record.getOriginal();
+        if (null != record.getResolved()) {
+            intent.setIntentStatus(record.getResolved().getStateMachine().getState().getUserState());
+        }
+        return intent;
+    }
+
+    @Override
+    public IntentExtended getResolvedIntent(String serviceId, String intentId) {
+        IntentRecord record = getIntentRecord(serviceId, intentId);
+        return (null == record) ? null : record.getResolved();
+    }
+
+    @Override
+    public boolean setResolvedIntent(String serviceId, IntentExtended intent) {
+        if ((null == intent) || (null == intent.getIntentId())) {
+            return false;
+        }
+
+        //  Only the Intents of a resolved Service can be updated this way
+        IntentRecord record = getIntentRecord(serviceId, intent.getIntentId());
+        if ((null == record) || (null == record.getResolved())) {
+            log.debug("No resolved Intent \"" + intent.getIntentId() + "\" in Service \"" + serviceId + "\"");
+            return false;
+        }
+
+        String storedId = record.getResolved().getIntentId();
+        intentMap.computeIfPresent(DismiIntentId.getId(storedId), (id, current) -> current.withResolved(intent));
+
+        // Keep the status held by the header in line; it is not written if unchanged
+        DismiIntentState state = intent.getStateMachine().getState().getUserState();
+        serviceMap.computeIfPresent(ServiceId.getId(record.getServiceId()),
+                                    (id, header) -> header.withIntentState(storedId, state));
+        return true;
+    }
+
+    @Override
+    public DismiStatusFeed getStatusFeed() {
+        return statusFeed;
+    }
+
+    /*
+     * Intent ids are matched regardless of their case, as they were when the intents were looked up
+     * in their Service; the exact id only saves looking the Service up.
+     */
+    private IntentRecord getIntentRecord(String serviceId, String intentId) {
+        if ((null == serviceId) || (null == intentId) || (intentId.length() == 0)) {
+            return null;
+        }
+        IntentRecord record = intentMap.get(DismiIntentId.getId(intentId));
+        if (null == record) {
+            ServiceHeader header = serviceMap.get(ServiceId.getId(serviceId));
+            String storedId = (null == header) ? null : header.getIntentIds().stream()
+                    .filter(id -> id.equalsIgnoreCase(intentId))
+                    .findFirst().orElse(null);
+            record = (null == storedId) ? null : intentMap.get(DismiIntentId.getId(storedId));
         }
-        return null;
+        if ((null == record) || (serviceId.compareTo(record.getServiceId()) != 0)) {
+            return null;
+        }
+        return record;
     }
 
     private class DismiInternalIntentListener implements IntentListener {
@@ -780,4 +969,40 @@ public class DismiStoreImpl implements DismiStoreIface {
             dismiStateHandler.manageStates(intent, key, event.type());
         }
     }
+
+    /*
+     * Publishes the status of the resolved Intents as their records are written, whichever node
+     * or code path (the DismiStateHandler or the compiler) changed their state machine, and their
+     * removal as their records are deleted. The feed drops the internal transitions which leave
+     * the status seen by the clients unchanged.
+     */
+    private class InternalStatusListener implements MapEventListener<DismiIntentId, IntentRecord> {
+
+        @Override
+        public void event(MapEvent<DismiIntentId, IntentRecord> event) {
+            if (event.type() == MapEvent.Type.REMOVE) {
+                IntentRecord removed = Versioned.valueOrNull(event.oldValue());
+                if ((null != removed) && (null != removed.getResolved())) {
+                    statusFeed.remove(removed.getServiceId(), removed.getResolved().getIntentId());
+                }
+                return;
+            }
+            IntentRecord record = Versioned.valueOrNull(event.newValue());
+            if ((null == record) || (null == record.getResolved())) {
+                return;
+            }
+            IntentExtended intent = record.getResolved();
+            statusFeed.publish(record.getServiceId(), intent.getIntentId(),
+                               intent.getStateMachine().getState().getUserState());
+        }
+    }
+
+    // Drops the cached endpoints of a connection point changed on any node
+    private class InternalConnectionPointListener implements MapEventListener<CpId, Set<EndPoint>> {
+
+        @Override
+        public void event(MapEvent<CpId, Set<EndPoint>> event) {
+            endPointCache.remove(event.key().id());
+        }
+    }
 }
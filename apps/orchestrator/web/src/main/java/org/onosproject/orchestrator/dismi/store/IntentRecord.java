@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.orchestrator.dismi.store;
+
+import org.onosproject.orchestrator.dismi.primitives.Intent;
+import org.onosproject.orchestrator.dismi.primitives.extended.IntentExtended;
+
+import java.io.Serializable;
+
+/**
+ * Stored state of one intent of a DISMI service: the intent as requested
+ * and, once the service is resolved, the intent after resolution along with
+ * its state machine. Status changes rewrite this record only.
+ */
+public class IntentRecord implements Serializable {
+
+    private String serviceId;
+    private Intent original;
+    private IntentExtended resolved;
+
+    // Default constructor for serialization
+    protected IntentRecord() {
+    }
+
+    public IntentRecord(String serviceId, Intent original, IntentExtended resolved) {
+        this.serviceId = serviceId;
+        this.original = original;
+        this.resolved = resolved;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    /**
+     * Returns the intent as requested.
+     *
+     * @return original intent, null if the intent only exists after resolution
+     */
+    public Intent getOriginal() {
+        return original;
+    }
+
+    /**
+     * Returns the intent after resolution.
+     *
+     * @return resolved intent, null if the service is not resolved yet
+     */
+    public IntentExtended getResolved() {
+        return resolved;
+    }
+
+    /**
+     * Returns a copy of this record with another resolved intent.
+     *
+     * @param intent resolved intent
+     * @return updated record
+     */
+    public IntentRecord withResolved(IntentExtended intent) {
+        return new IntentRecord(serviceId, original, intent);
+    }
+
+    @Override
+    public String toString() {
+        return "IntentRecord {serviceId: " + serviceId + ", original: " + original + ", resolved: " + resolved + "}";
+    }
+}
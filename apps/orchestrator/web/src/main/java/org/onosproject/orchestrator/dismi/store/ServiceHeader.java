@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.orchestrator.dismi.store;
+
+import org.onosproject.orchestrator.dismi.primitives.DismiIntentState;
+import org.onosproject.orchestrator.dismi.primitives.Tracker;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Stored part of a DISMI service which is not specific to one of its
+ * intents: its name, the ids of its original and resolved intents, in order,
+ * its tracker and its pending update, if any. The intents themselves are
+ * stored as separate {@link IntentRecord}s; only the status of each original
+ * intent is kept here as well, so that the status of the service can be told
+ * without reading them.
+ */
+public class ServiceHeader implements Serializable {
+
+    private String serviceId;
+    private String displayName;
+    private List<String> originalIntentIds;
+    private List<String> resolvedIntentIds;
+    private Tracker tracker;
+    private AggregateServiceData updateRequest;
+    private HashMap<String, DismiIntentState> intentStates;
+
+    // Default constructor for serialization
+    protected ServiceHeader() {
+        originalIntentIds = new ArrayList<>();
+        intentStates = new HashMap<>();
+    }
+
+    public ServiceHeader(String serviceId, String displayName, List<String> originalIntentIds,
+                         List<String> resolvedIntentIds, Tracker tracker,
+                         AggregateServiceData updateRequest, Map<String, DismiIntentState> intentStates) {
+        this.serviceId = serviceId;
+        this.displayName = displayName;
+        this.originalIntentIds = originalIntentIds;
+        this.resolvedIntentIds = resolvedIntentIds;
+        this.tracker = tracker;
+        this.updateRequest = updateRequest;
+        this.intentStates = new HashMap<>(intentStates);
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public List<String> getOriginalIntentIds() {
+        return originalIntentIds;
+    }
+
+    /**
+     * Returns the ids of the resolved intents.
+     *
+     * @return resolved intent ids, null if the service is not resolved yet
+     */
+    public List<String> getResolvedIntentIds() {
+        return resolvedIntentIds;
+    }
+
+    public Tracker getTracker() {
+        return tracker;
+    }
+
+    public AggregateServiceData getUpdateRequest() {
+        return updateRequest;
+    }
+
+    /**
+     * Returns the status of the original intents, that of their resolved
+     * intent once they are resolved.
+     *
+     * @return intent status by original intent id
+     */
+    public Map<String, DismiIntentState> getIntentStates() {
+        return intentStates;
+    }
+
+    /**
+     * Returns this header with the given status for one of its original
+     * intents.
+     *
+     * @param intentId original intent id
+     * @param state    status of the intent
+     * @return updated copy of this header, or this header if the intent is
+     * not one of its original ones or its status did not change
+     */
+    public ServiceHeader withIntentState(String intentId, DismiIntentState state) {
+        if (!originalIntentIds.contains(intentId) || Objects.equals(intentStates.get(intentId), state)) {
+            return this;
+        }
+        Map<String, DismiIntentState> states = new HashMap<>(intentStates);
+        states.put(intentId, state);
+        return new ServiceHeader(serviceId, displayName, originalIntentIds, resolvedIntentIds, tracker,
+                                 updateRequest, states);
+    }
+
+    /**
+     * Returns the ids of all the intents of the service.
+     *
+     * @return original and resolved intent ids
+     */
+    public List<String> getIntentIds() {
+        List<String> ids = new ArrayList<>(originalIntentIds);
+        if (null != resolvedIntentIds) {
+            for (String id : resolvedIntentIds) {
+                if (!ids.contains(id)) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceHeader {serviceId: " + serviceId + ", displayName: " + displayName
+                + ", originalIntentIds: " + originalIntentIds + ", resolvedIntentIds: " + resolvedIntentIds + "}";
+    }
+}
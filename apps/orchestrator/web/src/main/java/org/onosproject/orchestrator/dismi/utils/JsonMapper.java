@@ -16,6 +16,7 @@
 
 package org.onosproject.orchestrator.dismi.utils;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
@@ -28,6 +29,9 @@ import org.onosproject.orchestrator.dismi.primitives.Service;
 import org.onosproject.orchestrator.dismi.primitives.extended.ConnectionPointExtended;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
 
 public class JsonMapper {
     public JsonMapper() {
@@ -52,6 +56,22 @@ public class JsonMapper {
         return service;
     }
 
+    /**
+     * @param json : Accepts an array of Service instances encoded in JSON format.
+     * @return services : returns the Service instances, in the order of the array.
+     * @description : jsonToServices(...) method accepts services serialized as a JSON-encoded array,
+     * and uses Jackson mapper to convert it into a list of Service instances.
+     */
+    public static List<Service> jsonToServices(String json) throws Exception {
+
+        Object o = jsonToObject(json, Service[].class);
+        if (!(o instanceof Service[])) {
+            throw new Exception("JsonMapper::jsonToServices: Input json object is not an array of Service!");
+        }
+
+        return Arrays.asList((Service[]) o);
+    }
+
     /**
      * @param json : Accepts an Intent instance encoded in JSON format.
      * @return Intent: returns an instance of intent.
@@ -159,6 +179,56 @@ public class JsonMapper {
         return jsonObject;
     }
 
+    /**
+     * @param services    : Accepts the services to write.
+     * @param withIntents : false to only write the server info and the display name of each service.
+     * @param limit       : Accepts the size of a page of services, 0 if the list is not paged.
+     * @param out         : Accepts the stream to write to.
+     * @description : writeServices(...) writes the services with the Jackson streaming generator, so that
+     * the JSON document is never held in memory. A list which is not paged is written
+     * as an array. A page is written as an object with the "services" array and, if the page is full, the
+     * "next" cursor to request the following page with.
+     */
+    public static void writeServices(List<Service> services, boolean withIntents, int limit, OutputStream out)
+            throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(SerializationFeature.INDENT_OUTPUT, true);
+
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.useDefaultPrettyPrinter();
+            if (limit > 0) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("services");
+            } else {
+                generator.writeStartArray();
+            }
+
+            int count = 0;
+            String last = null;
+            for (Service service : services) {
+                if (withIntents) {
+                    mapper.writeValue(generator, service);
+                } else {
+                    generator.writeStartObject();
+                    generator.writeObjectField("server_info", service.getServerInfo());
+                    generator.writeStringField("display_name", service.getDisplayName());
+                    generator.writeEndObject();
+                }
+                count++;
+                last = service.getServiceId();
+            }
+
+            generator.writeEndArray();
+            if (limit > 0) {
+                if (count == limit) {
+                    generator.writeStringField("next", last);
+                }
+                generator.writeEndObject();
+            }
+        }
+    }
+
     /**
      * @param json : Accepts a DismiConfiguration instance encoded in JSON format.
      * @return service : returns an instance of DismiConfiguration.
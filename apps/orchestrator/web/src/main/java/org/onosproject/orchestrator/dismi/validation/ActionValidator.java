@@ -24,6 +24,8 @@ import org.slf4j.Logger;
 import static org.slf4j.LoggerFactory.getLogger;
 
 public class ActionValidator extends FieldValidator {
+    // Only read once loaded, so shared by all the validations
+    private static final Vocabulary VOCABULARY = new Vocabulary();
     private final Logger log = getLogger(getClass());
 
     @Override
@@ -55,8 +57,7 @@ public class ActionValidator extends FieldValidator {
         }
         action = (Action) field;
 
-        Vocabulary vocabulary = new Vocabulary();
-        FieldValidator fieldValidator = vocabulary.getValidator(Vocabulary.ACTION, action.getClass());
+        FieldValidator fieldValidator = VOCABULARY.getValidator(Vocabulary.ACTION, action.getClass());
         if (null == fieldValidator) {
             log.error("Problems when finding Action from vocabulary !");
             tracker.addIssue(className,
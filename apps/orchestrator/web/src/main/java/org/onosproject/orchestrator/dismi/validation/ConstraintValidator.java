@@ -29,6 +29,8 @@ import static org.slf4j.LoggerFactory.getLogger;
 public class ConstraintValidator extends FieldValidator {
 
     String className = "constraint";
+    // Only read once loaded, so shared by all the validations
+    private static final Vocabulary VOCABULARY = new Vocabulary();
     private final Logger log = getLogger(getClass());
 
     @Override
@@ -67,7 +69,6 @@ public class ConstraintValidator extends FieldValidator {
 
     private Constraint validateAndResolveConstraint(Constraint constraint, Tracker tracker) {
 
-        Vocabulary vocabulary = new Vocabulary();
         if (null == constraint) {
             log.error("Invalid constraint !");
             tracker.addIssue(className,
@@ -78,7 +79,7 @@ public class ConstraintValidator extends FieldValidator {
         }
 
         FieldValidator fieldValidator
-                = vocabulary.getValidator(Vocabulary.CONSTRAINT, constraint.getClass());
+                = VOCABULARY.getValidator(Vocabulary.CONSTRAINT, constraint.getClass());
         if (null == fieldValidator) {
             log.error("Problems when finding constraint validator !");
             tracker.addIssue(className,
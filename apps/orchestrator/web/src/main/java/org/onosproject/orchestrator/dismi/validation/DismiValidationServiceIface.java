@@ -20,12 +20,16 @@ import org.onosproject.orchestrator.dismi.primitives.Intent;
 import org.onosproject.orchestrator.dismi.primitives.Resource;
 import org.onosproject.orchestrator.dismi.primitives.Service;
 
+import java.util.List;
+
 /**
  * Created by stephane on 10/10/16.
  */
 public interface DismiValidationServiceIface {
     Resource submitNewService(Service s);
 
+    List<Resource> submitNewServices(List<Service> services);
+
     Resource submitServiceUpdate(String serviceId, Service service);
 
     Resource submitIntentUpdate(String serviceId, String intentId, Intent intent);
@@ -16,17 +16,35 @@
 
 package org.onosproject.orchestrator.dismi.validation;
 
+import com.codahale.metrics.Gauge;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.cfg.ComponentConfigService;
+import org.onosproject.core.MetricsHelper;
+import org.onosproject.orchestrator.dismi.compiler.IntentDecomposer;
 import org.onosproject.orchestrator.dismi.primitives.Intent;
 import org.onosproject.orchestrator.dismi.primitives.Resource;
 import org.onosproject.orchestrator.dismi.primitives.Service;
 import org.onosproject.orchestrator.dismi.store.DismiStoreIface;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.util.Tools.get;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -36,34 +54,263 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 @Component(immediate = true)
 @org.apache.felix.scr.annotations.Service
-public class DismiValidationServiceImpl implements DismiValidationServiceIface {
+public class DismiValidationServiceImpl implements DismiValidationServiceIface, MetricsHelper {
+    private static final int DEFAULT_VALIDATION_WORKERS = 8;
+    private static final int DEFAULT_VALIDATION_QUEUE_SIZE = 256;
+    private static final long DRAIN_TIMEOUT_SECONDS = 30;
+    private static final String METRICS_COMPONENT = "Dismi";
+    private static final String METRICS_FEATURE = "validation";
+
     private final Logger log = getLogger(getClass());
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
-    private DismiStoreIface dismiStore;
+    protected DismiStoreIface dismiStore;
+
+    // Tasks hand services over to the decomposer; make sure it is up before accepting any
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected IntentDecomposer intentDecomposer;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService configService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    @Property(name = "validationWorkers", intValue = DEFAULT_VALIDATION_WORKERS,
+            label = "Number of threads validating DISMI service requests")
+    private int validationWorkers = DEFAULT_VALIDATION_WORKERS;
+
+    @Property(name = "validationQueueSize", intValue = DEFAULT_VALIDATION_QUEUE_SIZE,
+            label = "Maximum number of DISMI service requests waiting for validation")
+    private int validationQueueSize = DEFAULT_VALIDATION_QUEUE_SIZE;
+
+    private volatile ValidationQueue validationQueue;
+    // Notified when validationQueue is replaced or the service stops
+    private final Object queueLock = new Object();
+    private volatile boolean active;
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
+        configService.registerProperties(getClass());
+        readComponentConfiguration(context);
+        validationQueue = new ValidationQueue(validationWorkers, validationQueueSize,
+                                              createTimer(METRICS_COMPONENT, METRICS_FEATURE, "latency"));
+        registerQueueDepthGauge();
+        active = true;
         log.info("DismiValidationServiceImpl started.");
     }
 
     @Deactivate
     public void deactivate() {
+        configService.unregisterProperties(getClass(), false);
+        if (metricsService != null) {
+            MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+            metricsService.removeMetric(component, component.registerFeature(METRICS_FEATURE), "queueDepth");
+        }
+        synchronized (queueLock) {
+            active = false;
+            queueLock.notifyAll();
+        }
+        validationQueue.shutdown(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
         log.info("DismiValidationServiceImpl stopped.");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        int workers = validationWorkers;
+        int queueSize = validationQueueSize;
+        readComponentConfiguration(context);
+        if (workers == validationWorkers && queueSize == validationQueueSize) {
+            return;
+        }
+
+        // Drain the old queue before publishing the new one, so that requests of one service are never
+        // reordered; requests arriving meanwhile wait for the new queue
+        ValidationQueue previous = validationQueue;
+        if (!previous.shutdown(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Validation tasks still running after reconfiguration");
+        }
+        synchronized (queueLock) {
+            validationQueue = new ValidationQueue(validationWorkers, validationQueueSize,
+                                                  createTimer(METRICS_COMPONENT, METRICS_FEATURE, "latency"));
+            queueLock.notifyAll();
+        }
+        log.info("Validation reconfigured with {} workers and a queue of {} requests",
+                 validationWorkers, validationQueueSize);
+    }
+
+    private void readComponentConfiguration(ComponentContext context) {
+        Dictionary<?, ?> properties = context != null ? context.getProperties() : new java.util.Properties();
+        try {
+            String s = get(properties, "validationWorkers");
+            int workers = isNullOrEmpty(s) ? validationWorkers : Integer.parseInt(s.trim());
+            s = get(properties, "validationQueueSize");
+            int queueSize = isNullOrEmpty(s) ? validationQueueSize : Integer.parseInt(s.trim());
+            if (workers > 0 && queueSize > 0) {
+                validationWorkers = workers;
+                validationQueueSize = queueSize;
+            } else {
+                log.warn("Ignoring non positive validation workers {} or queue size {}", workers, queueSize);
+            }
+        } catch (NumberFormatException e) {
+            log.warn(e.getMessage());
+        }
+    }
+
+    private void registerQueueDepthGauge() {
+        if (metricsService == null) {
+            return;
+        }
+        MetricsComponent component = metricsService.registerComponent(METRICS_COMPONENT);
+        MetricsFeature feature = component.registerFeature(METRICS_FEATURE);
+        metricsService.registerMetric(component, feature, "queueDepth",
+                                      (Gauge<Integer>) () -> validationQueue.depth());
+    }
+
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
+    }
+
+    /**
+     * Returns the validation queue, waiting for a reconfiguration in progress
+     * to publish the queue replacing the one it shut down.
+     *
+     * @return the queue taking requests
+     * @throws ValidationRejectedException if no queue takes requests in time
+     */
+    private ValidationQueue currentQueue() {
+        ValidationQueue queue = validationQueue;
+        if (!queue.isShutdown()) {
+            return queue;
+        }
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(DRAIN_TIMEOUT_SECONDS);
+        synchronized (queueLock) {
+            long remaining = deadline - System.currentTimeMillis();
+            while (validationQueue == queue && active && remaining > 0) {
+                try {
+                    queueLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
+            if (validationQueue == queue) {
+                log.warn("Validation queue shut down, rejecting request");
+                throw new ValidationRejectedException("Validation is being reconfigured, retry later");
+            }
+            return validationQueue;
+        }
+    }
+
+    /**
+     * Reserves a validation slot for a new request.
+     *
+     * @return the queue the slot was reserved in
+     * @throws ValidationRejectedException if the queue is full
+     */
+    private ValidationQueue admit() {
+        ValidationQueue queue = currentQueue();
+        if (!queue.tryAdmit()) {
+            log.warn("Validation queue full, rejecting request");
+            throw new ValidationRejectedException("Validation queue is full (" + queue.capacity()
+                                                          + " pending requests)");
+        }
+        return queue;
+    }
+
+    /**
+     * Reserves validation slots for a batch of new requests, all of them or none.
+     *
+     * @param count number of requests in the batch
+     * @return the queue the slots were reserved in
+     * @throws IllegalArgumentException    if the batch is larger than the queue
+     * @throws ValidationRejectedException if the queue cannot take the batch now
+     */
+    private ValidationQueue admit(int count) {
+        ValidationQueue queue = currentQueue();
+        if (count > queue.capacity()) {
+            throw new IllegalArgumentException("A batch of " + count + " services exceeds the validation queue ("
+                                                       + queue.capacity() + " requests)");
+        }
+        if (!queue.tryAdmit(count)) {
+            log.warn("Validation queue cannot take a batch of {} requests, rejecting it", count);
+            throw new ValidationRejectedException("Validation queue cannot take " + count + " more requests ("
+                                                          + queue.depth() + " of " + queue.capacity()
+                                                          + " pending)");
+        }
+        return queue;
+    }
+
     @Override
     public Resource submitNewService(Service service) {
         //log.info("Submitting a new service '"+service.getDisplayName()+"' !");
-        Resource resource = dismiStore.addNewService(service);
+        ValidationQueue queue = admit();
+        boolean dispatched = false;
+        try {
+            Resource resource = dismiStore.addNewService(service);
+
+            if (resource.isValid()) {
+                //log.info("Processing newly submitted service !");
+                Service s = dismiStore.getOriginalService(service.getServiceId());
+                processService(queue, s, ValidationTypeEnum.Create);
+                dispatched = true;
+            }
+
+            return resource;
+        } finally {
+            if (!dispatched) {
+                queue.release();
+            }
+        }
+    }
 
-        if (resource.isValid()) {
-            //log.info("Processing newly submitted service !");
-            Service s = dismiStore.getOriginalService(service.getServiceId());
-            processService(s, ValidationTypeEnum.Create);
+    @Override
+    public List<Resource> submitNewServices(List<Service> services) {
+        ValidationQueue queue = admit(services.size());
+        int dispatched = 0;
+        try {
+            // Store the whole batch first, so that every service has its id before any is validated
+            List<Resource> resources = storeServices(services);
+
+            // Services of a batch are validated in parallel, on as many workers as their ids spread to
+            for (Resource resource : resources) {
+                processService(queue, dismiStore.getOriginalService(resource.getResource()),
+                               ValidationTypeEnum.Create);
+                dispatched++;
+            }
+            return resources;
+        } finally {
+            queue.release(services.size() - dispatched);
         }
+    }
 
-        return resource;
+    /**
+     * Stores a batch of new services, all of them or none: if a service is
+     * refused or fails to be stored, those stored before it are removed.
+     *
+     * @param services services of the batch
+     * @return resources of the services, in the order of the batch
+     * @throws IllegalArgumentException if the store refuses a service
+     */
+    private List<Resource> storeServices(List<Service> services) {
+        List<Resource> resources = new ArrayList<>(services.size());
+        try {
+            for (Service service : services) {
+                Resource resource = dismiStore.addNewService(service);
+                if (!resource.isValid()) {
+                    throw new IllegalArgumentException("Service " + resources.size() + " of the batch was refused");
+                }
+                resources.add(resource);
+            }
+            return resources;
+        } catch (RuntimeException e) {
+            log.warn("Batch of {} services refused, removing the {} already stored", services.size(),
+                     resources.size());
+            resources.forEach(resource -> dismiStore.removeService(resource.getResource()));
+            throw e;
+        }
     }
 
     @Override
@@ -71,15 +318,23 @@ public class DismiValidationServiceImpl implements DismiValidationServiceIface {
         // log.info("Updating an existing service '"+service.getDisplayName()+"' !");
         service.setServiceId(serviceId);
 
-        Resource resource = dismiStore.addServiceUpdate(service);
-
-        if (resource.isValid()) {
-            log.info("Processing started to update a service !");
-            Service s = dismiStore.getOriginalServiceUpdate(service.getServiceId());
-            processService(service, ValidationTypeEnum.Update);
+        ValidationQueue queue = admit();
+        boolean dispatched = false;
+        try {
+            Resource resource = dismiStore.addServiceUpdate(service);
+
+            if (resource.isValid()) {
+                log.info("Processing started to update a service !");
+                processService(queue, service, ValidationTypeEnum.Update);
+                dispatched = true;
+            }
+
+            return resource;
+        } finally {
+            if (!dispatched) {
+                queue.release();
+            }
         }
-
-        return resource;
     }
 
     @Override
@@ -101,7 +356,7 @@ public class DismiValidationServiceImpl implements DismiValidationServiceIface {
 
         if (resource.isValid()) {   // This should always be true)
             log.info("Processing started to update an intent of a service '" + serviceId + "' !");
-            processIntent(intent, ValidationTypeEnum.Update);
+            processIntent(admit(), intent, ValidationTypeEnum.Update);
         }
 
         return resource;
@@ -117,7 +372,7 @@ public class DismiValidationServiceImpl implements DismiValidationServiceIface {
         Service service = new Service();
         service.setServiceId(serviceId);
         log.info("Processing started to delete a service !");
-        processService(service, ValidationTypeEnum.Delete);
+        processService(admit(), service, ValidationTypeEnum.Delete);
         return true;
     }
 
@@ -138,26 +393,41 @@ public class DismiValidationServiceImpl implements DismiValidationServiceIface {
         Intent intent = new Intent();
         intent.setIntentId(intentId);
         log.info("Processing started to delete an intent of a service '" + serviceId + "' !");
-        processIntent(intent, ValidationTypeEnum.Delete);
+        processIntent(admit(), intent, ValidationTypeEnum.Delete);
         return true;
     }
 
-    private void processService(Service s, ValidationTypeEnum action) {
+    private void processService(ValidationQueue queue, Service s, ValidationTypeEnum action) {
 
         TaskValidateService task = new TaskValidateService(s, action);
-        Thread thread = new Thread(task);
-        thread.start();
+        dispatch(queue, s.getServiceId(), task);
 
     }
 
-    private void processIntent(Intent intent, ValidationTypeEnum action) {
+    private void processIntent(ValidationQueue queue, Intent intent, ValidationTypeEnum action) {
 
         TaskValidateService task = new TaskValidateService(intent, action);
-        Thread thread = new Thread(task);
-        thread.start();
+        // Intent tasks are ordered together with the tasks of the service they belong to
+        Resource resource = new Resource();
+        resource.setResource(intent.getIntentId());
+        dispatch(queue, resource.getFullyQualifiedServiceId(), task);
 
     }
 
+    /**
+     * Hands a task over in a slot reserved in the given queue. If a reconfiguration
+     * shut the queue down meanwhile, the task goes to the queue replacing it, once
+     * the tasks of the old one are drained.
+     */
+    private void dispatch(ValidationQueue queue, String serviceId, TaskValidateService task) {
+        try {
+            queue.dispatch(serviceId, task);
+        } catch (RejectedExecutionException e) {
+            // The slot reserved in the old queue is dropped with it
+            dispatch(admit(), serviceId, task);
+        }
+    }
+
     public enum ValidationTypeEnum {
         Create("Create Service"),
 
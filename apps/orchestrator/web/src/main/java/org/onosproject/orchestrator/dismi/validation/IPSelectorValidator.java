@@ -42,6 +42,8 @@ public class IPSelectorValidator extends FieldValidator {
 
 
      */
+    // Only read once loaded, so shared by all the validations
+    private static final SelectorVocabulary VOCABULARY = new SelectorVocabulary();
     private final Logger log = getLogger(getClass());
     private static final String DSCP_KEY = "IP_DSCP";
     private static final String SEPARATOR = ",";
@@ -180,12 +182,11 @@ public class IPSelectorValidator extends FieldValidator {
         Integer dscpValue;
         int i;
 
-        SelectorVocabulary vocabulary = new SelectorVocabulary();
         log.info("Resolving IP-DSCP value !");
         for (i = 0; i < list.length; i++) {
             dscpWord = list[i];
             // with DSCP_KEY it was throwing exception
-            dscpValue = vocabulary.get(SelectorVocabulary.IPDSCP).get(dscpWord);
+            dscpValue = VOCABULARY.get(SelectorVocabulary.IPDSCP).get(dscpWord);
             if (null != dscpValue) {
                 dscpList.add(dscpWord);
             } else {
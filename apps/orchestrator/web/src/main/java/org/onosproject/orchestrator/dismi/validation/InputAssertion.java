@@ -27,6 +27,18 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 public class InputAssertion {
 
+    // Compiled once, as every request goes through these checks
+    private static final Pattern ASCII = Pattern.compile("\\A\\p{ASCII}*\\z");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern NUMBER = Pattern.compile("\\d+(\\.\\d+)?");
+    private static final Pattern DECIMAL_PERCENT = Pattern.compile("(\\d+(\\.\\d+%))");
+    private static final Pattern PERCENT = Pattern.compile("((\\d+%))");
+    private static final Pattern IP = Pattern.compile(
+            "^(([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\.){3}([01]?\\d\\d?|2[0-4]\\d|25[0-5])$");
+    private static final Pattern MAC = Pattern.compile("^([0-9A-Fa-f]{2}[:-]){5}([0-9A-Fa-f]{2})$");
+    // Only read once loaded
+    private static final UnitsVocabulary UNITS = new UnitsVocabulary();
+
     private final Logger log = getLogger(getClass());
 
     public enum Type {TIME, BANDWIDTH}
@@ -50,9 +62,7 @@ public class InputAssertion {
      * @return
      */
     private boolean isAscii(String intent) {
-        Pattern p = Pattern.compile("\\A\\p{ASCII}*\\z");
-        Matcher m = p.matcher(intent);
-        return m.matches();
+        return ASCII.matcher(intent).matches();
     }
 
 
@@ -62,17 +72,15 @@ public class InputAssertion {
      */
     private String removeEscapeChars(String intent) {
         // Remove white spaces \n, \t , add more if required
-        intent = intent.replaceAll("\\s+", "").replace("\n", "").replace("\r", "");
+        intent = WHITESPACE.matcher(intent).replaceAll("").replace("\n", "").replace("\r", "");
         return intent;
     }
 
     public double resolveValue(String value, Type type) throws Exception {
-        UnitsVocabulary unitsVocabulary = new UnitsVocabulary();
         Double factor = null;
         double numValue = 0;
-        Pattern pattern = Pattern.compile("\\d+(\\.\\d+)?");
         Matcher m = null;
-        m = pattern.matcher(value);
+        m = NUMBER.matcher(value);
         try {
             if (m.find()) {
                 numValue = Double.parseDouble(m.group(0));
@@ -80,11 +88,11 @@ public class InputAssertion {
                 switch (type) {
                     case TIME:
                         // numValue check the upper limit
-                        factor = unitsVocabulary.get(UnitsVocabulary.TIMEUNITS).get(unit);
+                        factor = UNITS.get(UnitsVocabulary.TIMEUNITS).get(unit);
                         break;
                     case BANDWIDTH:
                         // // numValue check the upper limit of bandwidth
-                        factor = unitsVocabulary.get(UnitsVocabulary.BANDWIDTHUNITS).get(unit);
+                        factor = UNITS.get(UnitsVocabulary.BANDWIDTHUNITS).get(unit);
                         break;
                     default:
                         log.error("Exception: Unknown conversion type requested !");
@@ -100,17 +108,15 @@ public class InputAssertion {
 
     public Double validatePercentage(String value) {
         if (value != null) {
-            Pattern pattern = Pattern.compile("(\\d+(\\.\\d+%))");
             Matcher m = null;
-            m = pattern.matcher(value);
+            m = DECIMAL_PERCENT.matcher(value);
             String temp = null;
             if (m.find()) {
                 temp = m.group(0);
                 return checkPercentLimit(temp, value);
             } else {
-                pattern = Pattern.compile("((\\d+%))");
                 m = null;
-                m = pattern.matcher(value);
+                m = PERCENT.matcher(value);
                 if (m.find()) {
                     temp = m.group(0);
                     return checkPercentLimit(temp, value);
@@ -172,9 +178,7 @@ public class InputAssertion {
 
     public boolean isValidateIP(final String ip) {
         if (null != ip) {
-            Pattern pattern = Pattern.compile(
-                    "^(([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\.){3}([01]?\\d\\d?|2[0-4]\\d|25[0-5])$");
-            return pattern.matcher(ip).matches();
+            return IP.matcher(ip).matches();
         } else {
             return false;
         }
@@ -182,8 +186,7 @@ public class InputAssertion {
 
     public boolean isValidateMac(final String mac) {
         if (null != mac) {
-            Pattern pattern = Pattern.compile("^([0-9A-Fa-f]{2}[:-]){5}([0-9A-Fa-f]{2})$");
-            return pattern.matcher(mac).matches();
+            return MAC.matcher(mac).matches();
         } else {
             return false;
         }
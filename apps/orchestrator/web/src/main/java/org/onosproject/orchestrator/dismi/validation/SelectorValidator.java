@@ -28,6 +28,8 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 public class SelectorValidator extends FieldValidator {
     String className = "Selector";
+    // Only read once loaded, so shared by all the validations
+    private static final Vocabulary VOCABULARY = new Vocabulary();
     private final Logger log = getLogger(getClass());
 
     @Override
@@ -76,7 +78,6 @@ public class SelectorValidator extends FieldValidator {
     private Selector validateAndResolveSelector(Selector selector, Tracker tracker) {
         Selector resolvedSelector;
 
-        Vocabulary vocabulary = new Vocabulary();
         if (null == selector) {
             log.error("Instance of Selector is null !");
             tracker.addIssue(className,
@@ -87,7 +88,7 @@ public class SelectorValidator extends FieldValidator {
         }
 
         FieldValidator fieldValidator
-                = vocabulary.getValidator(Vocabulary.SELECTOR, selector.getClass());
+                = VOCABULARY.getValidator(Vocabulary.SELECTOR, selector.getClass());
         if (null == fieldValidator) {
             log.error(selector.getClass() + " selector is not registered !");
             tracker.addIssue(className,
@@ -42,7 +42,6 @@ public class TaskValidateService extends BaseResource implements Runnable {
     private boolean isService = true;
 
     private Logger log = getLogger(getClass());
-    private long deltaT = 20000;    // Sleeping time if can't reach another service
 
     private TaskValidateService() {
     }
@@ -213,24 +212,13 @@ public class TaskValidateService extends BaseResource implements Runnable {
             .ValidationTypeEnum
             actionType) {
         //log.info("handleService::Converting DISMI Service into ACI Intents !");
-        IntentDecomposer dismi2aci = get(IntentDecomposer.class);
-
         if (null == serviceExtended) {
             return false;
         }
 
-        while (null == dismi2aci) {
-            //log.error("Can't reach service Dismi2Aci - sleeping " + deltaT + "ms");
-            //traceMe("Error: Can't reach service Dismi2Aci - sleeping " + deltaT + "ms");
-            try {
-                Thread.sleep(deltaT);
-            } catch (InterruptedException e) {
-                log.error("Dismi2Aci thread interruption error ");
-                e.printStackTrace();
-            }
-            dismi2aci = get(IntentDecomposer.class);
-        }
-
+        // DismiValidationServiceImpl holds a mandatory reference on the decomposer, so it is
+        // always available while validation tasks are being run
+        IntentDecomposer dismi2aci = get(IntentDecomposer.class);
         dismi2aci.performAction(serviceExtended, tracker, actionType);
 
         return true;
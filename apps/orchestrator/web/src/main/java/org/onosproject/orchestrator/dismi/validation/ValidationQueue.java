@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.dismi.validation;
+
+import com.codahale.metrics.Timer;
+import org.onlab.util.PredictableExecutor;
+import org.slf4j.Logger;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
+import static org.onlab.util.Tools.groupedThreads;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Bounded queue of DISMI validation tasks.
+ * <p>
+ * A slot has to be reserved with {@link #tryAdmit()} before a task is
+ * handed over with {@link #dispatch(String, Runnable)}, so callers can
+ * reject a request before it reaches the store. Tasks carrying the same
+ * service id always run on the same worker, in submission order.
+ */
+public class ValidationQueue {
+
+    private final Logger log = getLogger(getClass());
+
+    private final int capacity;
+    private final Semaphore slots;
+    private final PredictableExecutor workers;
+    private final Timer latencyTimer;
+
+    /**
+     * Creates a validation queue.
+     *
+     * @param workerCount  number of worker threads
+     * @param capacity     maximum number of admitted, not yet completed tasks
+     * @param latencyTimer timer measuring admission to completion, may be null
+     */
+    public ValidationQueue(int workerCount, int capacity, Timer latencyTimer) {
+        checkArgument(workerCount > 0, "Worker count must be positive");
+        checkArgument(capacity > 0, "Queue capacity must be positive");
+        this.capacity = capacity;
+        this.slots = new Semaphore(capacity);
+        this.latencyTimer = latencyTimer;
+        this.workers = new PredictableExecutor(workerCount,
+                                               groupedThreads("onos/dismi", "validation-%d", log));
+    }
+
+    /**
+     * Reserves a slot for a task.
+     *
+     * @return false if the queue is full or shut down
+     */
+    public boolean tryAdmit() {
+        return !workers.isShutdown() && slots.tryAcquire();
+    }
+
+    /**
+     * Reserves slots for a batch of tasks, either all of them or none.
+     *
+     * @param count number of slots
+     * @return false if the queue cannot take the whole batch or is shut down
+     */
+    public boolean tryAdmit(int count) {
+        return !workers.isShutdown() && slots.tryAcquire(count);
+    }
+
+    /**
+     * Gives back a slot reserved by {@link #tryAdmit()} that will not be dispatched.
+     */
+    public void release() {
+        slots.release();
+    }
+
+    /**
+     * Gives back slots reserved by {@link #tryAdmit(int)} that will not be dispatched.
+     *
+     * @param count number of slots
+     */
+    public void release(int count) {
+        slots.release(count);
+    }
+
+    /**
+     * Runs a task in a previously reserved slot.
+     *
+     * @param serviceId service the task belongs to, used to keep tasks ordered
+     * @param task      validation task
+     * @throws java.util.concurrent.RejectedExecutionException if the queue was shut down
+     *                                                         since the slot was reserved
+     */
+    public void dispatch(String serviceId, Runnable task) {
+        Timer.Context context = startTimer(latencyTimer);
+        workers.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Validation of service {} failed", serviceId, e);
+            } finally {
+                stopTimer(context);
+                slots.release();
+            }
+        }, serviceId == null ? 0 : serviceId.hashCode());
+    }
+
+    /**
+     * Returns the number of admitted tasks that have not completed yet.
+     *
+     * @return queue depth
+     */
+    public int depth() {
+        return capacity - slots.availablePermits();
+    }
+
+    /**
+     * Returns the maximum number of admitted tasks.
+     *
+     * @return queue capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns whether the queue was shut down and takes no more tasks.
+     *
+     * @return true if shut down
+     */
+    public boolean isShutdown() {
+        return workers.isShutdown();
+    }
+
+    /**
+     * Stops accepting tasks and waits for the admitted ones to complete.
+     *
+     * @param timeout maximum time to wait
+     * @param unit    time unit of the timeout
+     * @return true if all admitted tasks completed
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        workers.shutdown();
+        try {
+            return workers.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
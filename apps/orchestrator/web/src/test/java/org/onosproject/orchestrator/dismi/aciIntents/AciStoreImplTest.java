@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.dismi.aciIntents;
+
+import com.google.common.collect.Sets;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.intent.IntentEvent;
+import org.onosproject.net.intent.Key;
+import org.onosproject.orchestrator.dismi.store.DismiStateHandler;
+import org.onosproject.store.service.ConsistentMap;
+import org.onosproject.store.service.ConsistentMapBuilder;
+import org.onosproject.store.service.TestConsistentMap;
+import org.onosproject.store.service.TestStorageService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AciStoreImplTest {
+
+    private AciStoreImpl aciStore;
+    private ApplicationId appId;
+
+    @Before
+    public void setUp() {
+        aciStore = new AciStoreImpl();
+        aciStore.storageService = new TestStorageService();
+        aciStore.activate();
+        appId = new DefaultApplicationId(1, "orchestrator");
+    }
+
+    @After
+    public void tearDown() {
+        aciStore.deactivate();
+    }
+
+    private AciIntentKeyStatus keyStatus(Key key) {
+        return new AciIntentKeyStatus(key, IntentEvent.Type.INSTALL_REQ, false);
+    }
+
+    @Test
+    public void updateKeyIsIndexed() {
+        DismiIntentId dismiId = DismiIntentId.getId("Dismi-Service_1-Intent_1");
+        Key key = DismiIntentId.createDismiIntentKey(appId, dismiId, 1);
+
+        assertNull(aciStore.getDismiIntentId(key));
+        aciStore.updateKey(dismiId, keyStatus(key));
+        assertEquals(dismiId, aciStore.getDismiIntentId(key));
+    }
+
+    @Test
+    public void putReplacesIndexedKeys() {
+        DismiIntentId dismiId = DismiIntentId.getId("Dismi-Service_1-Intent_1");
+        Key keyOne = DismiIntentId.createDismiIntentKey(appId, dismiId, 1);
+        Key keyTwo = DismiIntentId.createDismiIntentKey(appId, dismiId, 2);
+
+        aciStore.put(dismiId, Sets.newHashSet(keyStatus(keyOne)));
+        assertEquals(dismiId, aciStore.getDismiIntentId(keyOne));
+
+        aciStore.put(dismiId, Sets.newHashSet(keyStatus(keyTwo)));
+        assertNull(aciStore.getDismiIntentId(keyOne));
+        assertEquals(dismiId, aciStore.getDismiIntentId(keyTwo));
+    }
+
+    @Test
+    public void removeDismiIntentDropsKeys() {
+        DismiIntentId dismiId = DismiIntentId.getId("Dismi-Service_1-Intent_1");
+        Key key = DismiIntentId.createDismiIntentKey(appId, dismiId, 1);
+
+        aciStore.put(dismiId, Sets.newHashSet(keyStatus(key)));
+        aciStore.removeDismiIntent(dismiId);
+        assertNull(aciStore.getDismiIntentId(key));
+    }
+
+    @Test
+    public void reassignedKeyIsNotDropped() {
+        DismiIntentId first = DismiIntentId.getId("Dismi-Service_1-Intent_1");
+        DismiIntentId second = DismiIntentId.getId("Dismi-Service_2-Intent_1");
+        Key key = Key.of("shared", appId);
+
+        aciStore.put(first, Sets.newHashSet(keyStatus(key)));
+        aciStore.put(second, Sets.newHashSet(keyStatus(key)));
+        aciStore.removeDismiIntent(first);
+        assertEquals(second, aciStore.getDismiIntentId(key));
+    }
+
+    @Test
+    public void abstractLinkUpdateKeepsIndex() {
+        DismiIntentId dismiId = DismiIntentId.getId("Dismi-Service_1-Intent_1");
+        Key key = DismiIntentId.createDismiIntentKey(appId, dismiId, 1);
+
+        aciStore.updateAbstractLinkList(dismiId, key, null);
+        aciStore.updateAbstractLinkList(dismiId, key, null);
+        assertEquals(dismiId, aciStore.getDismiIntentId(key));
+    }
+
+    @Test
+    public void keysStoredBeforeTheIndexAreFound() {
+        PersistentStorageService storage = new PersistentStorageService();
+        AciStoreImpl previous = new AciStoreImpl();
+        previous.storageService = storage;
+        previous.activate();
+        DismiIntentId dismiId = DismiIntentId.getId("Dismi-Service_1-Intent_1");
+        Key key = DismiIntentId.createDismiIntentKey(appId, dismiId, 1);
+        previous.put(dismiId, Sets.newHashSet(keyStatus(key)));
+        previous.deactivate();
+
+        // As left by a version without the index
+        storage.<Key, DismiIntentId>map("consistent-map-aci-key-index").remove(key);
+
+        AciStoreImpl upgraded = new AciStoreImpl();
+        upgraded.storageService = storage;
+        upgraded.activate();
+        assertEquals(dismiId, upgraded.getDismiIntentId(key));
+        upgraded.deactivate();
+    }
+
+    @Test
+    public void findDismiIntentIdAmongManyServices() {
+        DismiStateHandler stateHandler = new DismiStateHandler(null, aciStore, null, null);
+        int services = 1000;
+        for (int i = 0; i < services; i++) {
+            DismiIntentId dismiId = DismiIntentId.getId("Dismi-Service_" + i + "-Intent_0");
+            aciStore.put(dismiId, Sets.newHashSet(
+                    keyStatus(DismiIntentId.createDismiIntentKey(appId, dismiId, 0)),
+                    keyStatus(DismiIntentId.createDismiIntentKey(appId, dismiId, 1))));
+        }
+
+        for (int i = 0; i < services; i++) {
+            DismiIntentId dismiId = DismiIntentId.getId("Dismi-Service_" + i + "-Intent_0");
+            assertEquals(dismiId, stateHandler.findDismiIntentId(
+                    DismiIntentId.createDismiIntentKey(appId, dismiId, 0)));
+            assertEquals(dismiId, stateHandler.findDismiIntentId(
+                    DismiIntentId.createDismiIntentKey(appId, dismiId, 1)));
+        }
+        DismiIntentId unknown = DismiIntentId.getId("Dismi-Service_" + services + "-Intent_0");
+        assertNull(stateHandler.findDismiIntentId(DismiIntentId.createDismiIntentKey(appId, unknown, 0)));
+    }
+
+    /**
+     * Storage service keeping its maps across activations, as a cluster does.
+     */
+    private static class PersistentStorageService extends TestStorageService {
+
+        private final Map<String, ConsistentMap<?, ?>> maps = new HashMap<>();
+
+        @Override
+        public <K, V> ConsistentMapBuilder<K, V> consistentMapBuilder() {
+            return new TestConsistentMap.Builder<K, V>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public ConsistentMap<K, V> build() {
+                    return (ConsistentMap<K, V>) maps.computeIfAbsent(name(), name -> super.build());
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        <K, V> ConsistentMap<K, V> map(String name) {
+            return (ConsistentMap<K, V>) maps.get(name);
+        }
+    }
+}
@@ -60,9 +60,11 @@ import org.onosproject.orchestrator.dismi.primitives.extended.EndPointList;
 import org.onosproject.orchestrator.dismi.primitives.extended.IntentExtended;
 import org.onosproject.orchestrator.dismi.primitives.extended.ServiceExtended;
 import org.onosproject.orchestrator.dismi.store.CpId;
+import org.onosproject.orchestrator.dismi.store.DismiStatusFeed;
 import org.onosproject.orchestrator.dismi.store.DismiStoreIface;
 import org.onosproject.orchestrator.dismi.validation.DismiValidationServiceImpl;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -313,6 +315,18 @@ public class IntentDecomposerManagerTest {
             return aciDatabase.keySet();
         }
 
+        @Override
+        public DismiIntentId getDismiIntentId(Key intentKey) {
+            for (Map.Entry<DismiIntentId, Set<AciIntentKeyStatus>> entry : aciDatabase.entrySet()) {
+                for (AciIntentKeyStatus keyStatus : entry.getValue()) {
+                    if (keyStatus.getIntentKey().equals(intentKey)) {
+                        return entry.getKey();
+                    }
+                }
+            }
+            return null;
+        }
+
         @Override
         public void addKeyIntent(Key intentKey, org.onosproject.net.intent.Intent onosIntent) {
 
@@ -453,6 +467,21 @@ public class IntentDecomposerManagerTest {
             return null;
         }
 
+        @Override
+        public List<Service> getServices(String after, int limit, boolean withIntents) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public DismiStatusFeed getStatusFeed() {
+            return null;
+        }
+
+        @Override
+        public boolean removeService(String id) {
+            return false;
+        }
+
         @Override
         public void removeAllServices() {
 
@@ -508,6 +537,16 @@ public class IntentDecomposerManagerTest {
             return null;
         }
 
+        @Override
+        public IntentExtended getResolvedIntent(String serviceId, String intentId) {
+            return null;
+        }
+
+        @Override
+        public boolean setResolvedIntent(String serviceId, IntentExtended intent) {
+            return false;
+        }
+
         @Override
         public boolean deleteService(String id) {
             return false;
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.dismi.rest;
+
+import com.google.common.collect.ImmutableList;
+import org.easymock.Capture;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.osgi.ServiceDirectory;
+import org.onlab.osgi.TestServiceDirectory;
+import org.onlab.rest.BaseResource;
+import org.onosproject.orchestrator.dismi.primitives.Resource;
+import org.onosproject.orchestrator.dismi.primitives.Service;
+import org.onosproject.orchestrator.dismi.validation.DismiValidationServiceIface;
+import org.onosproject.orchestrator.dismi.validation.ValidationRejectedException;
+import org.onosproject.rest.resources.ResourceTest;
+
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.List;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.newCapture;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Tests of the bulk service REST API.
+ */
+public class ServicesApiTest extends ResourceTest {
+
+    private static final String BATCH = "[{\"display_name\": \"one\"}, {\"display_name\": \"two\"}]";
+
+    private final DismiValidationServiceIface validation = createMock(DismiValidationServiceIface.class);
+
+    public ServicesApiTest() {
+        super(new ResourceConfig(ServicesApi.class));
+    }
+
+    @Before
+    public void setUpMocks() {
+        ServiceDirectory testDirectory = new TestServiceDirectory()
+                .add(DismiValidationServiceIface.class, validation);
+        BaseResource.setServiceDirectory(testDirectory);
+    }
+
+    @After
+    public void tearDownMocks() {
+        verify(validation);
+    }
+
+    private Response post(String json) {
+        return target("services").request().post(Entity.entity(json, MediaType.APPLICATION_JSON_TYPE));
+    }
+
+    private static Resource resource(int serviceNr) {
+        Resource resource = new Resource();
+        resource.serviceId(serviceNr);
+        return resource;
+    }
+
+    @Test
+    public void batchIsSubmitted() {
+        Capture<List<Service>> services = newCapture();
+        expect(validation.submitNewServices(capture(services))).andReturn(ImmutableList.of(resource(1), resource(2)));
+        replay(validation);
+
+        Response response = post(BATCH);
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        String body = response.readEntity(String.class);
+        assertThat(body, containsString("Dismi-Service_1"));
+        assertThat(body, containsString("Dismi-Service_2"));
+        assertEquals(2, services.getValue().size());
+        assertEquals("one", services.getValue().get(0).getDisplayName());
+        assertEquals("two", services.getValue().get(1).getDisplayName());
+    }
+
+    @Test
+    public void refusedBatchIsInvalid() {
+        expect(validation.submitNewServices(anyObject())).andThrow(new IllegalArgumentException("refused"));
+        replay(validation);
+
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), post(BATCH).getStatus());
+    }
+
+    @Test
+    public void busyBatchIsToRetry() {
+        expect(validation.submitNewServices(anyObject())).andThrow(new ValidationRejectedException("full"));
+        replay(validation);
+
+        Response response = post(BATCH);
+        assertEquals(Response.Status.SERVICE_UNAVAILABLE.getStatusCode(), response.getStatus());
+        assertEquals("5", response.getHeaderString("Retry-After"));
+    }
+
+    @Test
+    public void batchMustBeAnArray() {
+        replay(validation);
+
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), post("{\"display_name\": \"one\"}").getStatus());
+    }
+}
@@ -160,6 +160,18 @@ public class DismiStateHandlerTest {
             return aciDatabase.keySet();
         }
 
+        @Override
+        public DismiIntentId getDismiIntentId(Key intentKey) {
+            for (Map.Entry<DismiIntentId, Set<AciIntentKeyStatus>> entry : aciDatabase.entrySet()) {
+                for (AciIntentKeyStatus keyStatus : entry.getValue()) {
+                    if (keyStatus.getIntentKey().equals(intentKey)) {
+                        return entry.getKey();
+                    }
+                }
+            }
+            return null;
+        }
+
         @Override
         public void addKeyIntent(Key intentKey, org.onosproject.net.intent.Intent onosIntent) {
 
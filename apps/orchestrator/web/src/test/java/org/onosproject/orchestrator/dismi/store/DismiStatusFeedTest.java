@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.orchestrator.dismi.store;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.orchestrator.dismi.primitives.DismiIntentState.INSTALLED;
+import static org.onosproject.orchestrator.dismi.primitives.DismiIntentState.INSTALLING;
+import static org.onosproject.orchestrator.dismi.primitives.DismiIntentState.PROCESSING;
+
+public class DismiStatusFeedTest {
+
+    private final DismiStatusFeed feed = new DismiStatusFeed("local", 2);
+
+    private static List<String> intents(DismiStatusFeed.StatusChanges changes) {
+        return changes.getChanges().stream()
+                .map(change -> change.getIntentId() + "=" + change.getStatus())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void changesAreCoalesced() {
+        feed.publish("1", "1-0", PROCESSING);
+        feed.publish("1", "1-1", PROCESSING);
+        DismiStatusFeed.StatusChanges first = feed.changes(null, 0);
+        assertEquals(feed.getId(), first.getFeed());
+        assertEquals(2, first.getRevision());
+        assertEquals(2, first.getChanges().size());
+
+        feed.publish("1", "1-0", INSTALLING);
+        feed.publish("1", "1-0", INSTALLING);
+        feed.publish("1", "1-0", INSTALLED);
+        DismiStatusFeed.StatusChanges next = feed.changes(first.getFeed(), first.getRevision());
+        assertFalse(next.isReset());
+        assertEquals(4, next.getRevision());
+        assertEquals(1, next.getChanges().size());
+        assertEquals("1-0=INSTALLED", intents(next).get(0));
+    }
+
+    @Test
+    public void pollWaitsForAChange() {
+        List<DismiStatusFeed.StatusChanges> answers = new ArrayList<>();
+        Consumer<DismiStatusFeed.StatusChanges> callback = answers::add;
+        assertFalse(feed.poll(null, 0, callback));
+        assertTrue(answers.isEmpty());
+
+        feed.publish("1", "1-0", PROCESSING);
+        assertEquals(1, answers.size());
+        assertEquals(1, answers.get(0).getRevision());
+        assertFalse(feed.cancel(callback));
+
+        // Called back once only
+        feed.publish("1", "1-1", PROCESSING);
+        assertEquals(1, answers.size());
+        assertTrue(feed.poll(feed.getId(), 1, answers::add));
+        assertEquals("1-1=PROCESSING", intents(answers.get(1)).get(0));
+    }
+
+    @Test
+    public void cancelledPollIsNotCalledBack() {
+        List<DismiStatusFeed.StatusChanges> answers = new ArrayList<>();
+        Consumer<DismiStatusFeed.StatusChanges> callback = answers::add;
+        assertFalse(feed.poll(null, 0, callback));
+        assertTrue(feed.cancel(callback));
+
+        feed.publish("1", "1-0", PROCESSING);
+        assertTrue(answers.isEmpty());
+    }
+
+    @Test
+    public void removalIsFed() {
+        feed.publish("1", "1-0", PROCESSING);
+        feed.remove("1", "1-0");
+        DismiStatusFeed.StatusChanges changes = feed.changes(null, 0);
+        assertEquals(1, changes.getChanges().size());
+        assertTrue(changes.getChanges().get(0).isRemoved());
+        assertNull(changes.getChanges().get(0).getStatus());
+
+        feed.remove("1", "1-0");
+        assertEquals(changes.getRevision(), feed.changes(null, 0).getRevision());
+    }
+
+    @Test
+    public void lostCursorIsReset() {
+        feed.publish("1", "1-0", PROCESSING);
+        feed.publish("1", "1-1", PROCESSING);
+        feed.publish("1", "1-2", PROCESSING);
+
+        DismiStatusFeed.StatusChanges changes = feed.changes(null, 0);
+        assertTrue(changes.isReset());
+        assertEquals(2, changes.getChanges().size());
+        assertFalse(feed.changes(feed.getId(), 1).isReset());
+
+        // A cursor from a previous run of the feed
+        assertTrue(feed.changes(feed.getId(), 10).isReset());
+        // A cursor from the feed of another node
+        assertTrue(feed.changes("other@0", 2).isReset());
+        assertTrue(feed.changes(null, 2).isReset());
+        assertTrue(feed.poll("other@0", 3, answer -> assertTrue(answer.isReset())));
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.orchestrator.dismi.store;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.cluster.ClusterServiceAdapter;
+import org.onosproject.net.intent.IntentServiceAdapter;
+import org.onosproject.orchestrator.dismi.primitives.ConnectionPoint;
+import org.onosproject.orchestrator.dismi.primitives.EthEndPoint;
+import org.onosproject.orchestrator.dismi.primitives.Intent;
+import org.onosproject.orchestrator.dismi.primitives.Service;
+import org.onosproject.orchestrator.dismi.primitives.Tracker;
+import org.onosproject.orchestrator.dismi.primitives.extended.IntentExtended;
+import org.onosproject.orchestrator.dismi.primitives.extended.ServiceExtended;
+import org.onosproject.store.service.TestStorageService;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.orchestrator.dismi.primitives.DismiIntentState.FAILED;
+import static org.onosproject.orchestrator.dismi.primitives.DismiIntentState.PROCESSING;
+import static org.onosproject.orchestrator.dismi.primitives.DismiIntentState.PROCESSING_FAILED;
+
+public class DismiStoreImplTest {
+
+    private DismiStoreImpl store;
+
+    @Before
+    public void setUp() {
+        store = new DismiStoreImpl();
+        store.storageService = new TestStorageService();
+        store.clusterService = new ClusterServiceAdapter();
+        store.intentService = new IntentServiceAdapter();
+        store.activate();
+    }
+
+    @After
+    public void tearDown() {
+        store.deactivate();
+    }
+
+    private static Service service(int intents) {
+        Service service = new Service();
+        service.setDisplayName("service");
+        for (int i = 0; i < intents; i++) {
+            Intent intent = new Intent();
+            intent.setDisplayName("intent" + i);
+            service.addIntentsItem(intent);
+        }
+        return service;
+    }
+
+    // Adds a service with the given number of intents and resolves it
+    private String resolvedService(int intents) {
+        Service service = service(intents);
+        String serviceId = store.addNewService(service).getResource();
+        ServiceExtended resolved = new ServiceExtended();
+        resolved.setServiceId(serviceId);
+        resolved.setDisplayName(service.getDisplayName());
+        List<IntentExtended> resolvedIntents = Lists.newArrayList();
+        for (Intent intent : service.getIntents()) {
+            IntentExtended intentExtended = new IntentExtended();
+            intentExtended.setIntentId(intent.getIntentId());
+            intentExtended.setDisplayName(intent.getDisplayName());
+            resolvedIntents.add(intentExtended);
+        }
+        resolved.setIntentsExtended(resolvedIntents);
+        assertTrue(store.setResolvedService(serviceId, resolved, new Tracker()));
+        return serviceId;
+    }
+
+    private String intentId(String serviceId, int intent) {
+        return store.getOriginalService(serviceId).getIntents().get(intent).getIntentId();
+    }
+
+    @Test
+    public void serviceIsAssembledFromIntents() {
+        String serviceId = store.addNewService(service(3)).getResource();
+
+        Service service = store.getOriginalService(serviceId);
+        assertEquals(serviceId, service.getServiceId());
+        assertEquals(3, service.getIntents().size());
+        for (int i = 0; i < 3; i++) {
+            Intent intent = service.getIntents().get(i);
+            assertEquals("intent" + i, intent.getDisplayName());
+            assertEquals(PROCESSING, intent.getIntentStatus());
+            assertEquals(intent.getIntentId(), store.getOriginalIntent(serviceId, intent.getIntentId()).getIntentId());
+        }
+        assertEquals(1, store.getServicesAsList().size());
+        assertNull(store.getResolvedIntent(serviceId, intentId(serviceId, 0)));
+    }
+
+    @Test
+    public void resolvedIntentIsUpdatedAlone() {
+        String serviceId = resolvedService(3);
+        String changed = intentId(serviceId, 1);
+
+        IntentExtended intent = store.getResolvedIntent(serviceId, changed);
+        assertEquals(InternalIntentState.Submit, intent.getStateMachine().getState());
+        intent.getStateMachine().changeState(IntentFsmEvent.SubmitForValidation);
+        intent.getStateMachine().changeState(IntentFsmEvent.ValidationFailure);
+        assertTrue(store.setResolvedIntent(serviceId, intent));
+
+        List<IntentExtended> intents = ((ServiceExtended) store.getResolvedService(serviceId)).getIntentsExtended();
+        assertEquals(3, intents.size());
+        for (IntentExtended resolved : intents) {
+            InternalIntentState expected = resolved.getIntentId().equals(changed)
+                    ? InternalIntentState.ValidationFailure : InternalIntentState.Submit;
+            assertEquals(expected, resolved.getStateMachine().getState());
+        }
+        assertEquals(PROCESSING_FAILED, store.getOriginalIntent(serviceId, changed).getIntentStatus());
+        assertEquals(FAILED, store.getOriginalService(serviceId).getServiceStatus());
+    }
+
+    @Test
+    public void resolvedIntentOfAnotherService() {
+        String one = resolvedService(1);
+        String two = resolvedService(1);
+
+        IntentExtended intent = store.getResolvedIntent(one, intentId(one, 0));
+        assertNull(store.getResolvedIntent(two, intent.getIntentId()));
+        assertFalse(store.setResolvedIntent(two, intent));
+    }
+
+    @Test
+    public void intentIdsIgnoreCase() {
+        String serviceId = resolvedService(1);
+        String intentId = intentId(serviceId, 0);
+
+        assertEquals(intentId, store.getResolvedIntent(serviceId, intentId.toUpperCase()).getIntentId());
+        assertEquals(intentId, store.getOriginalIntent(serviceId, intentId.toLowerCase()).getIntentId());
+    }
+
+    @Test
+    public void serviceIsRemovedWithItsIntents() {
+        String removed = store.addNewService(service(2)).getResource();
+        String kept = store.addNewService(service(1)).getResource();
+        String intentId = intentId(removed, 0);
+
+        assertTrue(store.removeService(removed));
+        assertNull(store.getOriginalService(removed));
+        assertNull(store.getOriginalIntent(removed, intentId));
+        assertEquals(1, store.getServicesAsList().size());
+        assertEquals(kept, store.getServicesAsList().get(0).getServiceId());
+        assertFalse(store.removeService(removed));
+    }
+
+    @Test
+    public void unresolvedIntentIsNotUpdated() {
+        String serviceId = store.addNewService(service(1)).getResource();
+        IntentExtended intent = new IntentExtended();
+        intent.setIntentId(intentId(serviceId, 0));
+
+        assertFalse(store.setResolvedIntent(serviceId, intent));
+        assertNull(store.getResolvedIntent(serviceId, intent.getIntentId()));
+    }
+
+    @Test
+    public void statusChangesAreFed() {
+        String serviceId = resolvedService(2);
+        DismiStatusFeed feed = store.getStatusFeed();
+        DismiStatusFeed.StatusChanges resolved = feed.changes(null, 0);
+        assertEquals(2, resolved.getChanges().size());
+
+        // Going from Submit to Validating leaves the intent processing, so it is not fed
+        String changed = intentId(serviceId, 1);
+        IntentExtended intent = store.getResolvedIntent(serviceId, changed);
+        intent.getStateMachine().changeState(IntentFsmEvent.SubmitForValidation);
+        assertTrue(store.setResolvedIntent(serviceId, intent));
+        assertTrue(feed.changes(resolved.getFeed(), resolved.getRevision()).getChanges().isEmpty());
+
+        intent.getStateMachine().changeState(IntentFsmEvent.ValidationFailure);
+        assertTrue(store.setResolvedIntent(serviceId, intent));
+        DismiStatusFeed.StatusChanges failed = feed.changes(resolved.getFeed(), resolved.getRevision());
+        assertEquals(1, failed.getChanges().size());
+        assertEquals(changed, failed.getChanges().get(0).getIntentId());
+        assertEquals(serviceId, failed.getChanges().get(0).getServiceId());
+        assertEquals(PROCESSING_FAILED, failed.getChanges().get(0).getStatus());
+
+        store.removeAllServices();
+        DismiStatusFeed.StatusChanges removed = feed.changes(failed.getFeed(), failed.getRevision());
+        assertEquals(2, removed.getChanges().size());
+        assertTrue(removed.getChanges().stream().allMatch(DismiStatusFeed.StatusChange::isRemoved));
+    }
+
+    @Test
+    public void servicesArePaged() {
+        List<String> serviceIds = Lists.newArrayList();
+        for (int i = 0; i < 12; i++) {
+            serviceIds.add(store.addNewService(service(1)).getResource());
+        }
+
+        List<String> first = ids(store.getServices(null, 5, true));
+        assertEquals(serviceIds.subList(0, 5), first);
+        List<String> second = ids(store.getServices(first.get(4), 5, true));
+        assertEquals(serviceIds.subList(5, 10), second);
+        assertEquals(serviceIds.subList(10, 12), ids(store.getServices(second.get(4), 5, true)));
+        assertEquals(serviceIds, ids(store.getServices(null, 0, true)));
+        assertEquals(1, store.getServices(null, 1, true).get(0).getIntents().size());
+    }
+
+    @Test
+    public void serviceStatusesAreListedWithoutIntents() {
+        String processing = store.addNewService(service(2)).getResource();
+        String failed = resolvedService(2);
+        IntentExtended intent = store.getResolvedIntent(failed, intentId(failed, 1));
+        intent.getStateMachine().changeState(IntentFsmEvent.SubmitForValidation);
+        intent.getStateMachine().changeState(IntentFsmEvent.ValidationFailure);
+        assertTrue(store.setResolvedIntent(failed, intent));
+
+        List<Service> services = store.getServices(null, 0, false);
+        assertEquals(ImmutableList.of(processing, failed), ids(services));
+        for (Service service : services) {
+            assertTrue(service.getIntents().isEmpty());
+            assertEquals("service", service.getDisplayName());
+            assertEquals(store.getOriginalService(service.getServiceId()).getServiceStatus(),
+                         service.getServiceStatus());
+        }
+        assertEquals(FAILED, services.get(1).getServiceStatus());
+    }
+
+    @Test
+    public void headerKeepsIntentStatus() {
+        Service service = service(2);
+        service.setServiceId("service1");
+        service.getIntents().get(0).setIntentId("intent1");
+        service.getIntents().get(1).setIntentId("intent2");
+        AggregateServiceData data = new AggregateServiceData();
+        assertTrue(data.setOriginalService(service));
+        ServiceHeader header = data.getHeader();
+        String first = header.getOriginalIntentIds().get(0);
+        assertEquals(ImmutableMap.of(first, PROCESSING, header.getOriginalIntentIds().get(1), PROCESSING),
+                     header.getIntentStates());
+        assertSame(header, header.withIntentState(first, PROCESSING));
+        assertSame(header, header.withIntentState("unknown", FAILED));
+
+        ServiceHeader changed = header.withIntentState(first, PROCESSING_FAILED);
+        assertEquals(PROCESSING_FAILED, changed.getIntentStates().get(first));
+        assertEquals(PROCESSING, header.getIntentStates().get(first));
+        assertEquals(FAILED, AggregateServiceData.summarize(changed).getServiceStatus());
+    }
+
+    @Test
+    public void cachedEndPointsFollowConnectionPoints() {
+        ConnectionPoint point = new ConnectionPoint().name("cp1");
+        assertTrue(store.getEndPoints(point).isEmpty());
+
+        EthEndPoint first = new EthEndPoint().switchId("of:0000000000000001").portId(1);
+        store.addEndPoint(point, first);
+        assertEquals(ImmutableSet.of(first), store.getEndPoints(point));
+        // Callers get their own copy of the cached endpoints
+        store.getEndPoints(point).clear();
+        assertEquals(ImmutableSet.of(first), store.getEndPoints(point));
+
+        EthEndPoint second = new EthEndPoint().switchId("of:0000000000000002").portId(1);
+        store.addEndPoint(point, second);
+        assertEquals(ImmutableSet.of(first, second), store.getEndPoints(point));
+
+        assertTrue(store.deleteConnectionPoint(point));
+        assertTrue(store.getEndPoints(point).isEmpty());
+    }
+
+    private static List<String> ids(List<Service> services) {
+        return services.stream().map(Service::getServiceId).collect(Collectors.toList());
+    }
+}
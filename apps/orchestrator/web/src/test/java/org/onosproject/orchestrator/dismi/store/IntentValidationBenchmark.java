@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.dismi.store;
+
+import org.onlab.osgi.TestServiceDirectory;
+import org.onlab.rest.BaseResource;
+import org.onosproject.net.intent.IntentServiceAdapter;
+import org.onosproject.orchestrator.dismi.primitives.BandwidthConstraint;
+import org.onosproject.orchestrator.dismi.primitives.Connection;
+import org.onosproject.orchestrator.dismi.primitives.ConnectionPoint;
+import org.onosproject.orchestrator.dismi.primitives.EthEndPoint;
+import org.onosproject.orchestrator.dismi.primitives.IPSelector;
+import org.onosproject.orchestrator.dismi.primitives.Intent;
+import org.onosproject.orchestrator.dismi.primitives.Subject;
+import org.onosproject.orchestrator.dismi.primitives.Tracker;
+import org.onosproject.orchestrator.dismi.validation.IntentValidator;
+import org.onosproject.store.service.TestStorageService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the validation throughput of DISMI intents: a connection between
+ * two connection points, with an IP selector and a bandwidth constraint.
+ * <p>
+ * This is not part of the unit tests; run it from the test classpath with
+ * {@code java -cp ... IntentValidationBenchmark [rounds]}.
+ */
+public final class IntentValidationBenchmark {
+
+    private static final int CONNECTION_POINTS = 100;
+    private static final int INTENTS = 1000;
+    private static final int WARMUP_ROUNDS = 20;
+
+    private IntentValidationBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+
+        DismiStoreImpl store = new DismiStoreImpl();
+        store.storageService = new TestStorageService();
+        store.intentService = new IntentServiceAdapter();
+        store.activate();
+        BaseResource.setServiceDirectory(new TestServiceDirectory().add(DismiStoreIface.class, store));
+
+        for (int i = 0; i < CONNECTION_POINTS; i++) {
+            EthEndPoint endPoint = new EthEndPoint();
+            endPoint.setSwitchId("of:" + String.format("%016x", i + 1));
+            endPoint.setPortId(1);
+            store.addEndPoint(new ConnectionPoint().name("cp" + i), endPoint);
+        }
+
+        List<Intent> intents = new ArrayList<>();
+        for (int i = 0; i < INTENTS; i++) {
+            intents.add(intent(i));
+        }
+        IntentValidator validator = new IntentValidator();
+
+        // A failed validation would make the figures meaningless
+        Tracker check = new Tracker();
+        if (null == validator.validateAndResolve(intents.get(0), check) || !check.isValid()) {
+            System.err.println("Intent does not validate: " + check);
+            return;
+        }
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            validate(validator, intents);
+        }
+
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            validate(validator, intents);
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+
+        System.out.printf("%-10s %12s %12s %14s%n", "intents", "best us", "mean us", "intents/s");
+        System.out.printf("%-10d %12.1f %12.1f %14.0f%n", INTENTS,
+                          best / 1e3, total / 1e3 / rounds, INTENTS / (best / 1e9));
+        System.out.printf("%.2f us per intent%n", best / 1e3 / INTENTS);
+
+        store.deactivate();
+    }
+
+    private static Intent intent(int i) {
+        Connection connection = new Connection()
+                .source(new Subject().connectionPoint(new ConnectionPoint().name("cp" + (i % CONNECTION_POINTS))))
+                .destination(new Subject().connectionPoint(
+                        new ConnectionPoint().name("cp" + ((i + 1) % CONNECTION_POINTS))));
+
+        Intent intent = new Intent().displayName("intent" + i);
+        intent.setIntentId("intent" + i);
+        intent.setAction(connection);
+        intent.addSelectorsItem(new IPSelector()
+                                        .ipSrcAddr("10.0." + (i % 250) + ".0/24")
+                                        .ipDestAddr("10.1." + (i % 250) + ".0/24"));
+        intent.addConstraintsItem(new BandwidthConstraint().bitrate("100 Mbps"));
+        return intent;
+    }
+
+    private static void validate(IntentValidator validator, List<Intent> intents) {
+        for (Intent intent : intents) {
+            validator.validateAndResolve(intent, new Tracker());
+        }
+    }
+}
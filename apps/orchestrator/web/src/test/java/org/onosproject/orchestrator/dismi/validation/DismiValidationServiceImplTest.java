@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.dismi.validation;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.cfg.ComponentConfigAdapter;
+import org.onosproject.orchestrator.dismi.primitives.Resource;
+import org.onosproject.orchestrator.dismi.primitives.Service;
+import org.onosproject.orchestrator.dismi.store.DismiStoreIface;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class DismiValidationServiceImplTest {
+
+    private final DismiStoreIface store = createMock(DismiStoreIface.class);
+    private DismiValidationServiceImpl validation;
+
+    @Before
+    public void setUp() {
+        validation = new DismiValidationServiceImpl();
+        validation.dismiStore = store;
+        validation.configService = new ComponentConfigAdapter();
+        validation.activate(null);
+    }
+
+    @After
+    public void tearDown() {
+        validation.deactivate();
+    }
+
+    private static Resource resource(int serviceNr) {
+        Resource resource = new Resource();
+        if (serviceNr > 0) {
+            resource.serviceId(serviceNr);
+        } else {
+            resource.setInvalid();
+        }
+        return resource;
+    }
+
+    @Test
+    public void batchIsStoredInOrder() {
+        Service one = new Service();
+        Service two = new Service();
+        expect(store.addNewService(one)).andReturn(resource(1));
+        expect(store.addNewService(two)).andReturn(resource(2));
+        expect(store.getOriginalService("Dismi-Service_1")).andReturn(one);
+        expect(store.getOriginalService("Dismi-Service_2")).andReturn(two);
+        replay(store);
+
+        List<Resource> resources = validation.submitNewServices(ImmutableList.of(one, two));
+        assertEquals(ImmutableList.of(resource(1), resource(2)), resources);
+        verify(store);
+    }
+
+    @Test
+    public void refusedServiceRollsTheBatchBack() {
+        Service one = new Service();
+        Service two = new Service();
+        Service refused = new Service();
+        expect(store.addNewService(one)).andReturn(resource(1));
+        expect(store.addNewService(two)).andReturn(resource(2));
+        expect(store.addNewService(refused)).andReturn(resource(0));
+        expect(store.removeService("Dismi-Service_1")).andReturn(true);
+        expect(store.removeService("Dismi-Service_2")).andReturn(true);
+        replay(store);
+
+        try {
+            validation.submitNewServices(ImmutableList.of(one, two, refused));
+            fail("A batch with a refused service must be refused");
+        } catch (IllegalArgumentException e) {
+            verify(store);
+        }
+    }
+
+    @Test
+    public void storeFailureRollsTheBatchBack() {
+        Service one = new Service();
+        Service two = new Service();
+        expect(store.addNewService(one)).andReturn(resource(1));
+        expect(store.addNewService(two)).andThrow(new IllegalStateException("store unavailable"));
+        expect(store.removeService("Dismi-Service_1")).andReturn(true);
+        replay(store);
+
+        try {
+            validation.submitNewServices(ImmutableList.of(one, two));
+            fail("A batch failing to be stored must be refused");
+        } catch (IllegalStateException e) {
+            verify(store);
+        }
+    }
+
+    @Test
+    public void batchLargerThanTheQueueIsRefused() {
+        replay(store);
+        try {
+            // The default queue holds 256 requests
+            validation.submitNewServices(Collections.nCopies(257, new Service()));
+            fail("A batch larger than the queue must be refused");
+        } catch (IllegalArgumentException e) {
+            verify(store);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018 ACINO Consortium
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.orchestrator.dismi.validation;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ValidationQueueTest {
+
+    private ValidationQueue queue;
+
+    @After
+    public void tearDown() {
+        queue.shutdown(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void rejectsWhenFull() throws InterruptedException {
+        queue = new ValidationQueue(2, 2, null);
+        CountDownLatch blocker = new CountDownLatch(1);
+
+        assertTrue(queue.tryAdmit());
+        queue.dispatch("Dismi-Service_1", () -> await(blocker));
+        assertTrue(queue.tryAdmit());
+        queue.dispatch("Dismi-Service_2", () -> await(blocker));
+
+        assertEquals(2, queue.depth());
+        assertFalse(queue.tryAdmit());
+
+        blocker.countDown();
+        assertTrue(queue.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(0, queue.depth());
+    }
+
+    @Test
+    public void releaseFreesSlot() {
+        queue = new ValidationQueue(1, 1, null);
+
+        assertTrue(queue.tryAdmit());
+        assertFalse(queue.tryAdmit());
+        queue.release();
+        assertTrue(queue.tryAdmit());
+    }
+
+    @Test
+    public void admitsWholeBatchOrNothing() {
+        queue = new ValidationQueue(2, 4, null);
+
+        assertTrue(queue.tryAdmit());
+        assertFalse(queue.tryAdmit(4));
+        assertEquals(1, queue.depth());
+        assertTrue(queue.tryAdmit(3));
+        assertEquals(4, queue.depth());
+
+        queue.release(3);
+        assertEquals(1, queue.depth());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void shutDownQueueTakesNoTasks() {
+        queue = new ValidationQueue(2, 4, null);
+
+        assertTrue(queue.tryAdmit());
+        assertTrue(queue.shutdown(5, TimeUnit.SECONDS));
+        assertTrue(queue.isShutdown());
+        assertFalse(queue.tryAdmit());
+        assertFalse(queue.tryAdmit(2));
+        queue.dispatch("Dismi-Service_1", () -> { });
+    }
+
+    @Test
+    public void keepsServiceOrder() {
+        queue = new ValidationQueue(4, 100, null);
+        List<Integer> executed = Collections.synchronizedList(Lists.newArrayList());
+
+        for (int i = 0; i < 100; i++) {
+            int step = i;
+            assertTrue(queue.tryAdmit());
+            queue.dispatch("Dismi-Service_1", () -> executed.add(step));
+        }
+        assertTrue(queue.shutdown(5, TimeUnit.SECONDS));
+
+        assertEquals(100, executed.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) executed.get(i));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -111,6 +111,13 @@ public final class AnnotationKeys {
      */
     public static final String BANDWIDTH = "bandwidth";
 
+    /**
+     * Annotation key for the availability of a link or a device.
+     * The value for this key is interpreted as the fraction of time the
+     * element is up, between 0 and 1.
+     */
+    public static final String AVAILABILITY = "availability";
+
     /**
      * Annotation key for link length.
      * The value for this key is interpreted as KM.
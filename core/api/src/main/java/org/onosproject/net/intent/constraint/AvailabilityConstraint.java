@@ -17,29 +17,41 @@ package org.onosproject.net.intent.constraint;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.MoreObjects;
+import org.onosproject.net.Annotated;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.DisjointPath;
 import org.onosproject.net.Link;
 import org.onosproject.net.Path;
 import org.onosproject.net.intent.Constraint;
 import org.onosproject.net.intent.ResourceContext;
 
-import java.time.Duration;
-import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashSet;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
 
-import static org.onosproject.net.AnnotationKeys.LATENCY;
+import static org.onosproject.net.AnnotationKeys.AVAILABILITY;
 import static org.onosproject.net.AnnotationKeys.getAnnotatedValue;
 
 /**
- * Constraint that evaluates the latency through a path.
+ * Constraint that evaluates the availability of a path.
+ * <p>
+ * Elements fail independently, so the availability of a path is the product
+ * of the availabilities of its links, and a disjoint path pair is down only
+ * when both of its paths are. Devices are deemed always available unless an
+ * availability function for them is given.
+ * </p>
  */
 @Beta
 public class AvailabilityConstraint implements Constraint {
 
+    private static final ToDoubleFunction<DeviceId> ALWAYS_AVAILABLE = device -> 1;
+
     private final Double availabilityInPercentage;
 
     /**
      * Creates a new constraint to keep over the specified availability through a path.
-     * @param availabilityInPercentage latency to be kept
+     * @param availabilityInPercentage availability to be kept, in percent
      */
     public AvailabilityConstraint(Double availabilityInPercentage) {
         this.availabilityInPercentage = availabilityInPercentage;
@@ -54,20 +66,126 @@ public class AvailabilityConstraint implements Constraint {
         return availabilityInPercentage;
     }
 
+    /**
+     * Returns the cost of a link as its log-unavailability, -ln(availability),
+     * so that the cost of a path grows as its availability drops; a link
+     * which is never available has a negative cost.
+     *
+     * @param link    link to be evaluated
+     * @param context resource context
+     * @return link cost
+     */
     @Override
     public double cost(Link link, ResourceContext context) {
-        return 0;
+        double availability = availability(link);
+        return availability > 0 ? -Math.log(availability) : -1;
     }
 
     @Override
     public boolean validate(Path path, ResourceContext context) {
+        // A constraint without a target accepts every path
+        if (availabilityInPercentage == null) {
+            return true;
+        }
         // explicitly call a method not depending on LinkResourceService
-        return true;
+        return availability(path) * 100 >= availabilityInPercentage;
+    }
+
+    /**
+     * Returns the availability annotated on a link or a device. Edge links
+     * and elements without annotation are deemed always available.
+     *
+     * @param element annotated link or device
+     * @return availability between 0 and 1
+     */
+    public static double availability(Annotated element) {
+        if (element instanceof Link && ((Link) element).type() == Link.Type.EDGE
+                || element.annotations().value(AVAILABILITY) == null) {
+            return 1;
+        }
+        return Math.max(0, Math.min(1, getAnnotatedValue(element, AVAILABILITY)));
+    }
+
+    /**
+     * Returns the availability of a path from the annotations of its links,
+     * or the availability of a disjoint path pair if it has a backup.
+     *
+     * @param path path
+     * @return availability between 0 and 1
+     */
+    public static double availability(Path path) {
+        return availability(path, AvailabilityConstraint::availability, ALWAYS_AVAILABLE);
+    }
+
+    /**
+     * Returns the availability of a path, or of a disjoint path pair if it
+     * has a backup, from the availabilities of its links and devices.
+     *
+     * @param path    path
+     * @param links   availability of a link
+     * @param devices availability of a device
+     * @return availability between 0 and 1
+     */
+    public static double availability(Path path, ToDoubleFunction<Link> links,
+                                      ToDoubleFunction<DeviceId> devices) {
+        if (path instanceof DisjointPath && ((DisjointPath) path).backup() != null) {
+            DisjointPath pair = (DisjointPath) path;
+            return availability(pair.primary(), pair.backup(), links, devices);
+        }
+        return product(elements(path), links, devices);
+    }
+
+    /**
+     * Returns the availability of a pair of paths, up as long as one of them
+     * is; the elements they share are only counted once.
+     *
+     * @param primary primary path
+     * @param backup  backup path
+     * @param links   availability of a link
+     * @param devices availability of a device
+     * @return availability between 0 and 1
+     */
+    public static double availability(Path primary, Path backup, ToDoubleFunction<Link> links,
+                                      ToDoubleFunction<DeviceId> devices) {
+        Set<Object> primaryElements = elements(primary);
+        Set<Object> backupElements = elements(backup);
+        Set<Object> shared = new LinkedHashSet<>(primaryElements);
+        shared.retainAll(backupElements);
+        primaryElements.removeAll(shared);
+        backupElements.removeAll(shared);
+        return product(shared, links, devices) *
+                (1 - (1 - product(primaryElements, links, devices)) *
+                        (1 - product(backupElements, links, devices)));
+    }
+
+    // Links and devices traversed by a path
+    private static Set<Object> elements(Path path) {
+        Set<Object> elements = new LinkedHashSet<>();
+        for (Link link : path.links()) {
+            if (link.src().elementId() instanceof DeviceId) {
+                elements.add(link.src().deviceId());
+            }
+            elements.add(link);
+            if (link.dst().elementId() instanceof DeviceId) {
+                elements.add(link.dst().deviceId());
+            }
+        }
+        return elements;
+    }
+
+    private static double product(Set<Object> elements, ToDoubleFunction<Link> links,
+                                  ToDoubleFunction<DeviceId> devices) {
+        double product = 1;
+        for (Object element : elements) {
+            product *= element instanceof Link ? links.applyAsDouble((Link) element)
+                    : devices.applyAsDouble((DeviceId) element);
+        }
+        return product;
     }
 
     @Override
     public int hashCode() {
-        return availabilityInPercentage.hashCode();
+        return Objects.hashCode(availabilityInPercentage);
     }
 
     @Override
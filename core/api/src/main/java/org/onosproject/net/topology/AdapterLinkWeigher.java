@@ -20,9 +20,11 @@ import org.onlab.graph.DefaultEdgeWeigher;
 import org.onlab.graph.ScalarWeight;
 import org.onlab.graph.Weight;
 
+import java.util.Objects;
+
 /**
  * Wrapper which transforms double-based link weigher to {@link Weight}-based
- * link weigher.
+ * link weigher. Wrappers of equal link weights are equal.
  */
 public final class AdapterLinkWeigher
         extends DefaultEdgeWeigher<TopologyVertex, TopologyEdge>
@@ -39,6 +41,17 @@ public final class AdapterLinkWeigher
         return new ScalarWeight(doubleWeigher.weight(edge));
     }
 
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || obj instanceof AdapterLinkWeigher &&
+                Objects.equals(doubleWeigher, ((AdapterLinkWeigher) obj).doubleWeigher);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(doubleWeigher);
+    }
+
     /**
      * Transforms double-based link weigher to {@link Weight}-based weigher.
      *
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.net.topology;
+
+import org.onlab.graph.ScalarWeight;
+import org.onlab.graph.Weight;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.ElementId;
+import org.onosproject.net.Link;
+import org.onosproject.net.intent.constraint.AvailabilityConstraint;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+import static org.onosproject.net.Link.State.ACTIVE;
+
+/**
+ * Link weigher giving each link its log-unavailability, -ln(availability),
+ * counting the device the link leads to, so that the lightest path is the
+ * most available one.
+ * <p>
+ * Availabilities and weights are computed once per link and cached, so a
+ * weigher should be used for a single topology snapshot only.
+ * </p>
+ */
+public class AvailabilityLinkWeigher implements LinkWeigher {
+
+    private static final ScalarWeight ZERO = new ScalarWeight(0.0);
+
+    private final ToDoubleFunction<DeviceId> devices;
+    private final Map<Link, Double> availabilities = new ConcurrentHashMap<>();
+    private final Map<Link, Weight> weights = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a weigher deeming all devices always available.
+     */
+    public AvailabilityLinkWeigher() {
+        this(device -> 1);
+    }
+
+    /**
+     * Creates a weigher with the given device availabilities.
+     *
+     * @param devices availability of a device, between 0 and 1
+     */
+    public AvailabilityLinkWeigher(ToDoubleFunction<DeviceId> devices) {
+        this.devices = devices;
+    }
+
+    /**
+     * Returns the availability of a link alone, as annotated.
+     *
+     * @param link link
+     * @return availability between 0 and 1
+     */
+    public double availability(Link link) {
+        return availabilities.computeIfAbsent(link, AvailabilityConstraint::availability);
+    }
+
+    @Override
+    public Weight weight(TopologyEdge edge) {
+        if (edge.link().state() != ACTIVE) {
+            return getNonViableWeight();
+        }
+        return weights.computeIfAbsent(edge.link(), link -> {
+            // Edge links lead to hosts, which have no device availability
+            ElementId dst = link.dst().elementId();
+            double device = dst instanceof DeviceId ? devices.applyAsDouble((DeviceId) dst) : 1;
+            double availability = availability(link) * device;
+            return availability > 0 ? new ScalarWeight(-Math.log(availability)) : getNonViableWeight();
+        });
+    }
+
+    @Override
+    public Weight getInitialWeight() {
+        return ZERO;
+    }
+
+    @Override
+    public Weight getNonViableWeight() {
+        return ScalarWeight.NON_VIABLE_WEIGHT;
+    }
+}
@@ -21,6 +21,7 @@ import static org.onosproject.net.Link.Type.INDIRECT;
 /**
  * Link weight for measuring link cost as hop count with indirect links
  * being as expensive as traversing the entire graph to assume the worst.
+ * Hop-count weights with the same indirect link cost are equal.
  */
 public class HopCountLinkWeight implements LinkWeight {
     private final int indirectLinkCost;
@@ -49,5 +50,16 @@ public class HopCountLinkWeight implements LinkWeight {
                 ACTIVE ? (edge.link().type() ==
                 INDIRECT ? indirectLinkCost : 1) : -1;
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || obj instanceof HopCountLinkWeight &&
+                indirectLinkCost == ((HopCountLinkWeight) obj).indirectLinkCost;
+    }
+
+    @Override
+    public int hashCode() {
+        return indirectLinkCost;
+    }
 }
 
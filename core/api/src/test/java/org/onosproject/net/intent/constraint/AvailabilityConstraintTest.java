@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.constraint;
+
+import com.google.common.testing.EqualsTester;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.net.DefaultAnnotations;
+import org.onosproject.net.DefaultDisjointPath;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.DefaultPath;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.intent.ResourceContext;
+import org.onosproject.net.provider.ProviderId;
+
+import java.util.Arrays;
+
+import static org.easymock.EasyMock.createMock;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.onosproject.net.AnnotationKeys.AVAILABILITY;
+import static org.onosproject.net.DefaultLinkTest.cp;
+import static org.onosproject.net.DeviceId.deviceId;
+import static org.onosproject.net.Link.Type.DIRECT;
+import static org.onosproject.net.Link.Type.EDGE;
+
+public class AvailabilityConstraintTest {
+
+    private static final DeviceId DID1 = deviceId("of:1");
+    private static final DeviceId DID2 = deviceId("of:2");
+    private static final DeviceId DID3 = deviceId("of:3");
+    private static final DeviceId DID4 = deviceId("of:4");
+    private static final PortNumber PN1 = PortNumber.portNumber(1);
+    private static final PortNumber PN2 = PortNumber.portNumber(2);
+    private static final ProviderId PROVIDER_ID = new ProviderId("of", "foo");
+
+    private AvailabilityConstraint sut;
+    private ResourceContext resourceContext;
+
+    private Link link1;
+    private Link link2;
+    private Link link3;
+    private Link link4;
+    private DefaultPath primary;
+    private DefaultPath backup;
+
+    @Before
+    public void setUp() {
+        resourceContext = createMock(ResourceContext.class);
+
+        link1 = link(DID1, PN1, DID2, PN1, "0.9");
+        link2 = link(DID2, PN2, DID3, PN1, "0.99");
+        link3 = link(DID1, PN2, DID4, PN1, "0.95");
+        link4 = link(DID4, PN2, DID3, PN2, null);
+        primary = new DefaultPath(PROVIDER_ID, Arrays.asList(link1, link2), 2);
+        backup = new DefaultPath(PROVIDER_ID, Arrays.asList(link3, link4), 2);
+    }
+
+    private static Link link(DeviceId src, PortNumber srcPort, DeviceId dst, PortNumber dstPort,
+                             String availability) {
+        DefaultAnnotations.Builder annotations = DefaultAnnotations.builder();
+        if (availability != null) {
+            annotations.set(AVAILABILITY, availability);
+        }
+        return DefaultLink.builder()
+                .providerId(PROVIDER_ID)
+                .src(cp(src, srcPort))
+                .dst(cp(dst, dstPort))
+                .type(DIRECT)
+                .annotations(annotations.build())
+                .build();
+    }
+
+    /**
+     * Tests the availability of a path is the product of its links.
+     */
+    @Test
+    public void testPathAvailability() {
+        assertThat(AvailabilityConstraint.availability(primary), is(closeTo(0.891, 1.0e-9)));
+        assertThat(AvailabilityConstraint.availability(backup), is(closeTo(0.95, 1.0e-9)));
+    }
+
+    /**
+     * Tests the availability of a disjoint path pair.
+     */
+    @Test
+    public void testPairAvailability() {
+        double expected = 1 - (1 - 0.891) * (1 - 0.95);
+        assertThat(AvailabilityConstraint.availability(new DefaultDisjointPath(PROVIDER_ID, primary, backup)),
+                   is(closeTo(expected, 1.0e-9)));
+
+        // The shared source device is counted once
+        assertThat(AvailabilityConstraint.availability(
+                primary, backup, AvailabilityConstraint::availability,
+                device -> device.equals(DID1) ? 0.99 : 1),
+                   is(closeTo(0.99 * expected, 1.0e-9)));
+    }
+
+    /**
+     * Tests the path availability against the supplied constraint.
+     */
+    @Test
+    public void testValidate() {
+        sut = new AvailabilityConstraint(89.0);
+        assertThat(sut.validate(primary, resourceContext), is(true));
+
+        sut = new AvailabilityConstraint(99.0);
+        assertThat(sut.validate(primary, resourceContext), is(false));
+        assertThat(sut.validate(new DefaultDisjointPath(PROVIDER_ID, primary, backup), resourceContext),
+                   is(true));
+    }
+
+    /**
+     * Tests a constraint without a target accepts every path.
+     */
+    @Test
+    public void testValidateWithoutTarget() {
+        sut = new AvailabilityConstraint(null);
+        assertThat(sut.validate(primary, resourceContext), is(true));
+        assertThat(sut.hashCode(), is(0));
+    }
+
+    /**
+     * Tests the link cost is its log-unavailability.
+     */
+    @Test
+    public void testCost() {
+        sut = new AvailabilityConstraint(99.0);
+
+        assertThat(sut.cost(link1, resourceContext), is(closeTo(-Math.log(0.9), 1.0e-9)));
+        assertThat(sut.cost(link4, resourceContext), is(closeTo(0, 1.0e-9)));
+        assertThat(sut.cost(link(DID1, PN1, DID2, PN1, "0"), resourceContext) < 0, is(true));
+    }
+
+    /**
+     * Tests edge links are always available.
+     */
+    @Test
+    public void testEdgeLink() {
+        Link edge = DefaultLink.builder()
+                .providerId(PROVIDER_ID)
+                .src(cp(DID1, PN1))
+                .dst(cp(DID2, PN1))
+                .type(EDGE)
+                .annotations(DefaultAnnotations.builder().set(AVAILABILITY, "0.5").build())
+                .build();
+        assertThat(AvailabilityConstraint.availability(edge), is(1.0));
+    }
+
+    /**
+     * Tests equality of the instances.
+     */
+    @Test
+    public void testEquality() {
+        new EqualsTester()
+                .addEqualityGroup(new AvailabilityConstraint(99.9), new AvailabilityConstraint(99.9))
+                .addEqualityGroup(new AvailabilityConstraint(99.0))
+                .testEquals();
+    }
+}
@@ -32,6 +32,7 @@ import java.util.stream.Collectors;
 import org.onosproject.store.primitives.ConsistentMapBackedJavaMap;
 
 import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * Test implementation of the consistent map.
@@ -184,7 +185,7 @@ public final class TestConsistentMap<K, V> extends ConsistentMapAdapter<K, V> {
 
     @Override
     public void clear() {
-        map.keySet().forEach(this::remove);
+        ImmutableSet.copyOf(map.keySet()).forEach(this::remove);
     }
 
     @Override
@@ -18,10 +18,15 @@ package org.onosproject.common;
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.ImmutableSetMultimap.Builder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.onlab.graph.CompactGraph;
 import org.onlab.graph.DefaultEdgeWeigher;
 import org.onlab.graph.DijkstraGraphSearch;
 import org.onlab.graph.DisjointPathPair;
@@ -62,22 +67,32 @@ import org.slf4j.LoggerFactory;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static org.onlab.graph.GraphPathSearch.ALL_PATHS;
 import static org.onlab.util.Tools.isNullOrEmpty;
 import static org.onosproject.core.CoreService.CORE_PROVIDER_ID;
 import static org.onosproject.net.Link.State.INACTIVE;
 import static org.onosproject.net.Link.Type.INDIRECT;
 import static org.onosproject.net.topology.AdapterLinkWeigher.adapt;
+import static org.onosproject.net.topology.HopCountLinkWeigher.DEFAULT_HOP_COUNT_WEIGHER;
 
 /**
  * Default implementation of the topology descriptor. This carries the backing
  * topology data.
+ * <p>
+ * Since the topology is immutable, the results of path queries weighed by
+ * the default link weigher are remembered in a bounded, least-recently-used
+ * cache for the lifetime of the topology. Queries are told apart by end
+ * points, link weigher, search algorithm and maximum number of paths.
+ * </p>
  */
 public class DefaultTopology extends AbstractModel implements Topology {
 
@@ -95,6 +110,16 @@ public class DefaultTopology extends AbstractModel implements Topology {
             new LazyKShortestPathsSearch<>();
 
 
+    /**
+     * Default maximum number of path query results remembered per topology.
+     */
+    public static final int DEFAULT_PATH_CACHE_SIZE = 1024;
+
+    // Weighers the path and topology services weigh paths with when given
+    // none; their results are remembered like those of the default weigher
+    private static final Set<LinkWeigher> SERVICE_WEIGHERS =
+            ImmutableSet.of(adapt(new HopCountLinkWeight()), DEFAULT_HOP_COUNT_WEIGHER);
+
     private static LinkWeigher defaultLinkWeigher = null;
     private static GraphPathSearch<TopologyVertex, TopologyEdge> defaultGraphPathSearch = null;
 
@@ -102,6 +127,8 @@ public class DefaultTopology extends AbstractModel implements Topology {
     private final long creationTime;
     private final long computeCost;
     private final TopologyGraph graph;
+    private final Supplier<CompactGraph<TopologyVertex, TopologyEdge>> compactGraph;
+    private final Cache<PathQuery, Set<?>> pathCache;
 
     private final LinkWeigher hopCountWeigher;
 
@@ -136,6 +163,15 @@ public class DefaultTopology extends AbstractModel implements Topology {
         defaultGraphPathSearch = graphPathSearch;
     }
 
+    /**
+     * Returns the default path search algorithm used when computing paths.
+     *
+     * @return default algorithm; null if the builtin Dijkstra is used
+     */
+    public static GraphPathSearch<TopologyVertex, TopologyEdge> defaultGraphPathSearch() {
+        return defaultGraphPathSearch;
+    }
+
 
     /**
      * Creates a topology descriptor attributed to the specified provider.
@@ -146,7 +182,25 @@ public class DefaultTopology extends AbstractModel implements Topology {
      */
     public DefaultTopology(ProviderId providerId, GraphDescription description,
                            Function<ConnectPoint, Boolean> broadcastFunction) {
+        this(providerId, description, broadcastFunction, DEFAULT_PATH_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a topology descriptor attributed to the specified provider,
+     * remembering up to the given number of path query results.
+     *
+     * @param providerId        identity of the provider
+     * @param description       data describing the new topology
+     * @param broadcastFunction broadcast point function
+     * @param pathCacheSize     maximum number of cached path query results;
+     *                          zero disables the path cache
+     */
+    public DefaultTopology(ProviderId providerId, GraphDescription description,
+                           Function<ConnectPoint, Boolean> broadcastFunction,
+                           int pathCacheSize) {
         super(providerId);
+        checkArgument(pathCacheSize >= 0, "Path cache size cannot be negative");
+        this.pathCache = pathCache(pathCacheSize);
         this.broadcastFunction = broadcastFunction;
         this.time = description.timestamp();
         this.creationTime = description.creationTime();
@@ -154,6 +208,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
         // Build the graph
         this.graph = new DefaultTopologyGraph(description.vertexes(),
                 description.edges());
+        this.compactGraph = Suppliers.memoize(() -> new CompactGraph<>(graph));
 
         this.clusterResults = Suppliers.memoize(this::searchForClusters);
         this.clusters = Suppliers.memoize(this::buildTopologyClusters);
@@ -377,6 +432,14 @@ public class DefaultTopology extends AbstractModel implements Topology {
      */
     public Set<Path> getPaths(DeviceId src, DeviceId dst, LinkWeigher weigher,
                               int maxPaths) {
+        GraphPathSearch<TopologyVertex, TopologyEdge> search = graphPathSearch();
+        return cachedPaths(new PathQuery(search, src, dst, weigher, maxPaths),
+                           () -> computePaths(search, src, dst, weigher, maxPaths));
+    }
+
+    private Set<Path> computePaths(GraphPathSearch<TopologyVertex, TopologyEdge> search,
+                                   DeviceId src, DeviceId dst, LinkWeigher weigher,
+                                   int maxPaths) {
         DefaultTopologyVertex srcV = new DefaultTopologyVertex(src);
         DefaultTopologyVertex dstV = new DefaultTopologyVertex(dst);
         Set<TopologyVertex> vertices = graph.getVertexes();
@@ -386,7 +449,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
         }
 
         GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
-                graphPathSearch().search(graph, srcV, dstV, weigher, maxPaths);
+                search.search(compactGraph.get(), srcV, dstV, weigher, maxPaths);
         ImmutableSet.Builder<Path> builder = ImmutableSet.builder();
         for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
             builder.add(networkPath(path));
@@ -425,6 +488,12 @@ public class DefaultTopology extends AbstractModel implements Topology {
     public Set<Path> getKShortestPaths(DeviceId src, DeviceId dst,
                                        LinkWeigher weigher,
                                        int maxPaths) {
+        return cachedPaths(new PathQuery(KSHORTEST, src, dst, weigher, maxPaths),
+                           () -> computeKShortestPaths(src, dst, weigher, maxPaths));
+    }
+
+    private Set<Path> computeKShortestPaths(DeviceId src, DeviceId dst,
+                                            LinkWeigher weigher, int maxPaths) {
         DefaultTopologyVertex srcV = new DefaultTopologyVertex(src);
         DefaultTopologyVertex dstV = new DefaultTopologyVertex(dst);
         Set<TopologyVertex> vertices = graph.getVertexes();
@@ -433,7 +502,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
             return ImmutableSet.of();
         }
 
-        return KSHORTEST.search(graph, srcV, dstV, weigher, maxPaths)
+        return KSHORTEST.search(compactGraph.get(), srcV, dstV, weigher, maxPaths)
                 .paths().stream()
                     .map(this::networkPath)
                     .collect(ImmutableSet.toImmutableSet());
@@ -472,7 +541,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
             return Stream.empty();
         }
 
-        return LAZY_KSHORTEST.lazyPathSearch(graph, srcV, dstV, weigher)
+        return LAZY_KSHORTEST.lazyPathSearch(compactGraph.get(), srcV, dstV, weigher)
                     .map(this::networkPath);
     }
 
@@ -499,6 +568,12 @@ public class DefaultTopology extends AbstractModel implements Topology {
      */
     public Set<DisjointPath> getDisjointPaths(DeviceId src, DeviceId dst,
                                               LinkWeigher weigher) {
+        return cachedPaths(new PathQuery(SUURBALLE, src, dst, weigher, ALL_PATHS),
+                           () -> computeDisjointPaths(src, dst, weigher));
+    }
+
+    private Set<DisjointPath> computeDisjointPaths(DeviceId src, DeviceId dst,
+                                                   LinkWeigher weigher) {
         DefaultTopologyVertex srcV = new DefaultTopologyVertex(src);
         DefaultTopologyVertex dstV = new DefaultTopologyVertex(dst);
         Set<TopologyVertex> vertices = graph.getVertexes();
@@ -508,7 +583,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
         }
 
         GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
-                SUURBALLE.search(graph, srcV, dstV, weigher, ALL_PATHS);
+                SUURBALLE.search(compactGraph.get(), srcV, dstV, weigher, ALL_PATHS);
         ImmutableSet.Builder<DisjointPath> builder = ImmutableSet.builder();
         for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
             DisjointPath disjointPath =
@@ -545,7 +620,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
         SrlgGraphSearch<TopologyVertex, TopologyEdge> srlg =
                 new SrlgGraphSearch<>(riskProfile);
         GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
-                srlg.search(graph, srcV, dstV, weigher, ALL_PATHS);
+                srlg.search(compactGraph.get(), srcV, dstV, weigher, ALL_PATHS);
         ImmutableSet.Builder<DisjointPath> builder = ImmutableSet.builder();
         for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
             DisjointPath disjointPath =
@@ -689,7 +764,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
                                         Builder<ClusterId, ConnectPoint> builder) {
         // Use the graph root search results to build the broadcast set.
         Result<TopologyVertex, TopologyEdge> result =
-                DIJKSTRA.search(graph, cluster.root(), null, hopCountWeigher, 1);
+                DIJKSTRA.search(compactGraph.get(), cluster.root(), null, hopCountWeigher, 1);
         for (Map.Entry<TopologyVertex, Set<TopologyEdge>> entry :
                 result.parents().entrySet()) {
             TopologyVertex vertex = entry.getKey();
@@ -761,6 +836,62 @@ public class DefaultTopology extends AbstractModel implements Topology {
                 linksBuilder.build());
     }
 
+    /**
+     * Returns the link weigher used when computing paths with no weigher
+     * given: the default one if set, otherwise the builtin hop-count one.
+     *
+     * @return default link weigher of this topology
+     */
+    public LinkWeigher linkWeigher() {
+        return linkWeight();
+    }
+
+    /**
+     * Indicates whether the given weigher is one paths are weighed with by
+     * default: the default link weigher of this topology, or one the path
+     * and topology services fall back on when given none.
+     *
+     * @param weigher link weigher
+     * @return true if the weigher is a default one
+     */
+    public boolean isDefaultWeigher(LinkWeigher weigher) {
+        return Objects.equals(weigher, linkWeight()) || SERVICE_WEIGHERS.contains(weigher);
+    }
+
+    /**
+     * Returns the statistics of the path query results cached by this
+     * topology.
+     *
+     * @return path cache statistics
+     */
+    public CacheStats pathCacheStats() {
+        return pathCache.stats();
+    }
+
+    private static Cache<PathQuery, Set<?>> pathCache(int size) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(size)
+                .recordStats()
+                .build();
+    }
+
+    // Returns the remembered result of the given path query, computing and
+    // remembering it if needed. Only the queries weighed by the default link
+    // weigher or those of the services are remembered, lest one-off weighers
+    // flush the cache.
+    @SuppressWarnings("unchecked")
+    private <P extends Path> Set<P> cachedPaths(PathQuery query, Supplier<Set<P>> compute) {
+        if (!isDefaultWeigher(query.weigher)) {
+            return compute.get();
+        }
+        try {
+            return (Set<P>) pathCache.get(query, compute::get);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
     private GraphPathSearch<TopologyVertex, TopologyEdge> graphPathSearch() {
         return defaultGraphPathSearch != null ? defaultGraphPathSearch : DIJKSTRA;
     }
@@ -781,6 +912,44 @@ public class DefaultTopology extends AbstractModel implements Topology {
         }
     }
 
+    // Path query, telling apart the search algorithms and link weighers by
+    // equality, which is their identity unless they define it.
+    private static final class PathQuery {
+        private final Object search;
+        private final DeviceId src;
+        private final DeviceId dst;
+        private final LinkWeigher weigher;
+        private final int maxPaths;
+
+        private PathQuery(Object search, DeviceId src, DeviceId dst,
+                          LinkWeigher weigher, int maxPaths) {
+            this.search = search;
+            this.src = src;
+            this.dst = dst;
+            this.weigher = weigher;
+            this.maxPaths = maxPaths;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PathQuery)) {
+                return false;
+            }
+            PathQuery that = (PathQuery) o;
+            return Objects.equals(search, that.search) && Objects.equals(weigher, that.weigher) &&
+                    maxPaths == that.maxPaths &&
+                    Objects.equals(src, that.src) && Objects.equals(dst, that.dst);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(search, src, dst, weigher, maxPaths);
+        }
+    }
+
     static final class ClusterIndexes {
         final ImmutableMap<DeviceId, TopologyCluster> clustersByDevice;
         final ImmutableSetMultimap<TopologyCluster, DeviceId> devicesByCluster;
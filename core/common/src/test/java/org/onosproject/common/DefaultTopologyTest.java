@@ -26,19 +26,26 @@ import org.onosproject.net.DefaultDevice;
 import org.onosproject.net.DefaultLink;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.DisjointPath;
+import org.onosproject.net.ElementId;
 import org.onosproject.net.Link;
 import org.onosproject.net.Path;
 import org.onosproject.net.PortNumber;
 import org.onosproject.net.provider.ProviderId;
+import org.onosproject.net.topology.AbstractPathService;
 import org.onosproject.net.topology.ClusterId;
 import org.onosproject.net.topology.DefaultGraphDescription;
 import org.onosproject.net.topology.DefaultTopologyVertex;
 import org.onosproject.net.topology.GraphDescription;
 import org.onosproject.net.topology.LinkWeigher;
+import org.onosproject.net.topology.PathService;
+import org.onosproject.net.topology.Topology;
 import org.onosproject.net.topology.TopologyCluster;
 import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyServiceAdapter;
 import org.onosproject.net.topology.TopologyVertex;
 
+import java.util.Map;
 import java.util.Set;
 import static com.google.common.collect.ImmutableSet.of;
 import static org.junit.Assert.*;
@@ -79,6 +86,7 @@ public class DefaultTopologyTest {
 
 
     private DefaultTopology dt;
+    private GraphDescription graphDescription;
 
     public static final ClusterId C0 = ClusterId.clusterId(0);
     public static final ClusterId C1 = ClusterId.clusterId(1);
@@ -93,8 +101,7 @@ public class DefaultTopologyTest {
                              link("3", 2, "2", 2), link("2", 2, "3", 2),
                              link("1", 3, "4", 3), link("4", 3, "1", 3),
                              link("3", 4, "4", 4), link("4", 4, "3", 4));
-        GraphDescription graphDescription =
-                new DefaultGraphDescription(now, System.currentTimeMillis(), devices, links);
+        graphDescription = new DefaultGraphDescription(now, System.currentTimeMillis(), devices, links);
 
         dt = new DefaultTopology(PID, graphDescription);
         assertEquals("incorrect supplier", PID, dt.providerId());
@@ -128,6 +135,44 @@ public class DefaultTopologyTest {
 
     }
 
+    @Test
+    public void pathCache() {
+        Set<Path> paths = dt.getPaths(D1, D3);
+        assertSame("paths should be cached", paths, dt.getPaths(D1, D3));
+        assertEquals("incorrect path count", 1, dt.getPaths(D1, D3, WEIGHER).size());
+        assertEquals("incorrect path count", 1, dt.getPaths(D1, D3, new TestLinkWeigher()).size());
+        assertSame("disjoint paths should be cached",
+                   dt.getDisjointPaths(D1, D3), dt.getDisjointPaths(D1, D3));
+        assertEquals("incorrect cache hit count", 2, dt.pathCacheStats().hitCount());
+        assertEquals("incorrect cache miss count", 2, dt.pathCacheStats().missCount());
+    }
+
+    @Test
+    public void pathServiceQueriesAreCached() {
+        PathService pathService = new TestPathService(dt);
+        Set<Path> paths = pathService.getPaths(D1, D3, (LinkWeigher) null);
+        assertEquals("incorrect path count", 2, paths.size());
+        assertEquals("incorrect paths", paths, pathService.getPaths(D1, D3, (LinkWeigher) null));
+        assertEquals("incorrect cache hit count", 1, dt.pathCacheStats().hitCount());
+
+        pathService.getDisjointPaths(D1, D3, (LinkWeigher) null);
+        pathService.getDisjointPaths(D1, D3, (LinkWeigher) null);
+        assertEquals("incorrect cache hit count", 2, dt.pathCacheStats().hitCount());
+    }
+
+    @Test
+    public void pathCacheSize() {
+        dt = new DefaultTopology(PID, graphDescription, null, 0);
+        Set<Path> paths = dt.getPaths(D1, D3);
+        assertNotSame("paths should not be cached", paths, dt.getPaths(D1, D3));
+        assertEquals("incorrect paths", paths, dt.getPaths(D1, D3));
+
+        dt = new DefaultTopology(PID, graphDescription, null, 1);
+        paths = dt.getPaths(D1, D3);
+        assertSame("paths should be cached", paths, dt.getPaths(D1, D3));
+        assertEquals("incorrect cache hit count", 1, dt.pathCacheStats().hitCount());
+    }
+
     @Test
     public void pointRelated() {
         assertTrue("should be infrastructure point",
@@ -148,6 +193,47 @@ public class DefaultTopologyTest {
         assertFalse("cluster should not contain D5", devs.contains(D5));
     }
 
+    // Path service of the core over a single topology
+    private static final class TestPathService extends AbstractPathService {
+
+        private TestPathService(DefaultTopology topology) {
+            topologyService = new TopologyServiceAdapter() {
+                @Override
+                public Topology currentTopology() {
+                    return topology;
+                }
+
+                @Override
+                public Set<Path> getPaths(Topology topology, DeviceId src, DeviceId dst,
+                                          LinkWeigher weigher) {
+                    return ((DefaultTopology) topology).getPaths(src, dst, weigher);
+                }
+
+                @Override
+                public Set<DisjointPath> getDisjointPaths(Topology topology, DeviceId src, DeviceId dst,
+                                                          LinkWeigher weigher) {
+                    return ((DefaultTopology) topology).getDisjointPaths(src, dst, weigher);
+                }
+            };
+        }
+
+        @Override
+        public Set<Path> getPaths(ElementId src, ElementId dst) {
+            return getPaths(src, dst, (LinkWeigher) null);
+        }
+
+        @Override
+        public Set<DisjointPath> getDisjointPaths(ElementId src, ElementId dst) {
+            return getDisjointPaths(src, dst, (LinkWeigher) null);
+        }
+
+        @Override
+        public Set<DisjointPath> getDisjointPaths(ElementId src, ElementId dst,
+                                                  Map<Link, Object> riskProfile) {
+            return getDisjointPaths(src, dst, (LinkWeigher) null, riskProfile);
+        }
+    }
+
     // Short-hand for creating a link.
     public static Link link(String src, int sp, String dst, int dp) {
         return DefaultLink.builder().providerId(PID)
@@ -15,12 +15,21 @@
  */
 package org.onosproject.net.topology.impl;
 
+import com.google.common.collect.ImmutableSet;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.graph.GraphPathSearch;
+import org.onlab.graph.IncrementalShortestPaths;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
+import org.onosproject.common.DefaultTopology;
+import org.onosproject.net.DefaultPath;
 import org.onosproject.net.DisjointPath;
 import org.onosproject.net.provider.AbstractListenerProviderRegistry;
 import org.onosproject.event.Event;
@@ -28,13 +37,18 @@ import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.Link;
 import org.onosproject.net.Path;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.link.LinkEvent;
 import org.onosproject.net.provider.AbstractProviderService;
 import org.onosproject.net.topology.ClusterId;
+import org.onosproject.net.topology.DefaultTopologyEdge;
+import org.onosproject.net.topology.DefaultTopologyVertex;
 import org.onosproject.net.topology.GraphDescription;
 import org.onosproject.net.topology.LinkWeigher;
 import org.onosproject.net.topology.LinkWeight;
 import org.onosproject.net.topology.Topology;
 import org.onosproject.net.topology.TopologyCluster;
+import org.onosproject.net.topology.TopologyEdge;
 import org.onosproject.net.topology.TopologyEvent;
 import org.onosproject.net.topology.TopologyGraph;
 import org.onosproject.net.topology.TopologyListener;
@@ -44,14 +58,22 @@ import org.onosproject.net.topology.TopologyProviderService;
 import org.onosproject.net.topology.TopologyService;
 import org.onosproject.net.topology.TopologyStore;
 import org.onosproject.net.topology.TopologyStoreDelegate;
+import org.onosproject.net.topology.TopologyVertex;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.onlab.graph.GraphPathSearch.ALL_PATHS;
+import static org.onosproject.core.CoreService.CORE_PROVIDER_ID;
 import static org.onosproject.net.topology.AdapterLinkWeigher.adapt;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -75,15 +97,35 @@ public class TopologyManager
     private static final String CONNECTION_POINT_NULL = "Connection point cannot be null";
     private static final String LINK_WEIGHT_NULL = "Link weight cannot be null";
 
+    private static final boolean DEFAULT_INCREMENTAL_PATHS = false;
+    private static final int DEFAULT_MAX_PATH_TREES = 64;
+
     private final Logger log = getLogger(getClass());
 
     private TopologyStoreDelegate delegate = new InternalStoreDelegate();
 
+    @Property(name = "incrementalPaths", boolValue = DEFAULT_INCREMENTAL_PATHS,
+            label = "Serve default shortest paths in the latest topology from " +
+                    "incrementally maintained shortest-path trees")
+    private volatile boolean incrementalPaths = DEFAULT_INCREMENTAL_PATHS;
+
+    @Property(name = "maxPathTrees", intValue = DEFAULT_MAX_PATH_TREES,
+            label = "Maximum number of source trees kept for incremental paths")
+    private volatile int maxPathTrees = DEFAULT_MAX_PATH_TREES;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected TopologyStore store;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService cfgService;
+
+    private final Object pathEngineLock = new Object();
+    private final Map<LinkWeigher, PathEngine> pathEngines = new HashMap<>();
+
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
+        cfgService.registerProperties(getClass());
+        modified(context);
         store.setDelegate(delegate);
         eventDispatcher.addSink(TopologyEvent.class, listenerRegistry);
         log.info("Started");
@@ -91,11 +133,28 @@ public class TopologyManager
 
     @Deactivate
     public void deactivate() {
+        cfgService.unregisterProperties(getClass(), false);
         store.unsetDelegate(delegate);
         eventDispatcher.removeSink(TopologyEvent.class);
+        resetPathEngine();
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+        incrementalPaths = Tools.isPropertyEnabled(properties, "incrementalPaths",
+                                                   DEFAULT_INCREMENTAL_PATHS);
+        maxPathTrees = Math.max(1, Tools.getIntegerProperty(properties, "maxPathTrees",
+                                                            DEFAULT_MAX_PATH_TREES));
+        resetPathEngine();
+        log.info("Configured. Incremental paths are {} with up to {} source trees",
+                 incrementalPaths ? "enabled" : "disabled", maxPathTrees);
+    }
+
     @Override
     public Topology currentTopology() {
         checkPermission(TOPOLOGY_READ);
@@ -153,6 +212,10 @@ public class TopologyManager
         checkNotNull(topology, TOPOLOGY_NULL);
         checkNotNull(src, DEVICE_ID_NULL);
         checkNotNull(dst, DEVICE_ID_NULL);
+        if (usePathEngine(topology)) {
+            DefaultTopology defaultTopology = (DefaultTopology) topology;
+            return incrementalPaths(defaultTopology, src, dst, defaultTopology.linkWeigher());
+        }
         return store.getPaths(topology, src, dst);
     }
 
@@ -171,6 +234,10 @@ public class TopologyManager
         checkNotNull(src, DEVICE_ID_NULL);
         checkNotNull(dst, DEVICE_ID_NULL);
         checkNotNull(weigher, LINK_WEIGHT_NULL);
+        // Only the paths weighed by a default weigher are kept by the engine
+        if (usePathEngine(topology) && ((DefaultTopology) topology).isDefaultWeigher(weigher)) {
+            return incrementalPaths((DefaultTopology) topology, src, dst, weigher);
+        }
         return store.getPaths(topology, src, dst, weigher);
     }
 
@@ -277,6 +344,134 @@ public class TopologyManager
         return store.isBroadcastPoint(topology, connectPoint);
     }
 
+    // Indicates whether paths in the given topology may be served by the
+    // incremental engine, which only stands in for the builtin Dijkstra search.
+    private boolean usePathEngine(Topology topology) {
+        return incrementalPaths && store.isLatest(topology) && topology instanceof DefaultTopology
+                && DefaultTopology.defaultGraphPathSearch() == null;
+    }
+
+    // Serves the shortest paths weighed by one of the default weighers from
+    // the engine kept for that weigher, first bringing the engine in line
+    // with the given topology if needed.
+    private Set<Path> incrementalPaths(DefaultTopology topology, DeviceId src, DeviceId dst,
+                                       LinkWeigher weigher) {
+        TopologyGraph graph = store.getGraph(topology);
+        TopologyVertex srcV = new DefaultTopologyVertex(src);
+        TopologyVertex dstV = new DefaultTopologyVertex(dst);
+        if (!graph.getVertexes().contains(srcV) || !graph.getVertexes().contains(dstV)) {
+            // src or dst not part of the current graph
+            return ImmutableSet.of();
+        }
+
+        GraphPathSearch.Result<TopologyVertex, TopologyEdge> result;
+        synchronized (pathEngineLock) {
+            // Engines of weighers which are no longer default, e.g. the builtin
+            // hop-count one after the number of devices changed, are dropped.
+            pathEngines.keySet().removeIf(w -> !topology.isDefaultWeigher(w));
+            PathEngine engine = pathEngines.computeIfAbsent(weigher, PathEngine::new);
+            result = engine.search(topology, graph, srcV, dstV);
+        }
+
+        ImmutableSet.Builder<Path> builder = ImmutableSet.builder();
+        for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
+            List<Link> links = path.edges().stream().map(TopologyEdge::link)
+                    .collect(Collectors.toList());
+            builder.add(new DefaultPath(CORE_PROVIDER_ID, links, path.cost()));
+        }
+        return builder.build();
+    }
+
+    // Passes the reasons of a topology change on to the engines.
+    private void recordChanges(TopologyEvent event) {
+        synchronized (pathEngineLock) {
+            pathEngines.values().forEach(engine -> engine.record(event));
+        }
+    }
+
+    private void resetPathEngine() {
+        synchronized (pathEngineLock) {
+            pathEngines.clear();
+        }
+    }
+
+    // Incremental shortest paths under one weigher, along with the devices
+    // and links which changed since they were brought in line with a topology.
+    // Only those are revisited when moving on to the topology the changes led
+    // to; the whole graph is walked only when the changes are not all known.
+    private final class PathEngine {
+        private final IncrementalShortestPaths<TopologyVertex, TopologyEdge> paths;
+        private final Set<DeviceId> changedDevices = new HashSet<>();
+        private final Set<Link> changedLinks = new HashSet<>();
+        private Topology topology;
+        private Topology changedTopology;
+        private boolean changesKnown;
+
+        private PathEngine(LinkWeigher weigher) {
+            paths = new IncrementalShortestPaths<>(weigher, maxPathTrees);
+        }
+
+        // Records the devices and links which caused a topology change.
+        private void record(TopologyEvent event) {
+            List<Event> reasons = event.reasons();
+            if (reasons == null || reasons.isEmpty()) {
+                changesKnown = false;
+            } else {
+                for (Event reason : reasons) {
+                    if (reason instanceof DeviceEvent) {
+                        changedDevices.add(((DeviceEvent) reason).subject().id());
+                    } else if (reason instanceof LinkEvent) {
+                        changedLinks.add(((LinkEvent) reason).subject());
+                    } else {
+                        changesKnown = false;
+                    }
+                }
+            }
+            changedTopology = event.subject();
+        }
+
+        private GraphPathSearch.Result<TopologyVertex, TopologyEdge>
+                search(Topology topology, TopologyGraph graph,
+                       TopologyVertex src, TopologyVertex dst) {
+            if (this.topology != topology) {
+                if (!changesKnown || changedTopology != topology || !applyChanges(graph)) {
+                    paths.update(graph);
+                }
+                this.topology = topology;
+                changedDevices.clear();
+                changedLinks.clear();
+                changesKnown = true;
+            }
+            return paths.search(src, dst, ALL_PATHS);
+        }
+
+        // Brings the recorded devices and links in line with the graph;
+        // returns false if the graph holds other changes as well, e.g. the
+        // links of a device which came back.
+        private boolean applyChanges(TopologyGraph graph) {
+            for (DeviceId id : changedDevices) {
+                TopologyVertex vertex = new DefaultTopologyVertex(id);
+                if (graph.getVertexes().contains(vertex)) {
+                    paths.addVertex(vertex);
+                } else {
+                    paths.removeVertex(vertex);
+                }
+            }
+            for (Link link : changedLinks) {
+                TopologyVertex src = new DefaultTopologyVertex(link.src().deviceId());
+                TopologyEdge edge = new DefaultTopologyEdge(
+                        src, new DefaultTopologyVertex(link.dst().deviceId()), link);
+                // The edge is added back as the graph has it, its weight may
+                // have changed along with the link.
+                paths.removeEdge(edge);
+                graph.getEdgesFrom(src).stream().filter(edge::equals)
+                        .findFirst().ifPresent(paths::addEdge);
+            }
+            return paths.vertexCount() == graph.getVertexes().size()
+                    && paths.edgeCount() == graph.getEdges().size();
+        }
+    }
+
     // Personalized host provider service issued to the supplied provider.
     @Override
     protected TopologyProviderService createProviderService(TopologyProvider provider) {
@@ -300,6 +495,7 @@ public class TopologyManager
                                                        topoDescription, reasons);
             if (event != null) {
                 log.info("Topology {} changed", event.subject());
+                recordChanges(event);
                 post(event);
             }
         }
@@ -309,6 +505,7 @@ public class TopologyManager
     private class InternalStoreDelegate implements TopologyStoreDelegate {
         @Override
         public void notify(TopologyEvent event) {
+            recordChanges(event);
             post(event);
         }
     }
@@ -15,19 +15,27 @@
  */
 package org.onosproject.net.topology.impl;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.osgi.ComponentContextAdapter;
+import org.onosproject.cfg.ComponentConfigAdapter;
+import org.onosproject.common.DefaultTopology;
 import org.onosproject.event.Event;
 import org.onosproject.common.event.impl.TestEventDispatcher;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.Device;
 import org.onosproject.net.Link;
 import org.onosproject.net.Path;
+import org.onosproject.net.link.LinkEvent;
 import org.onosproject.net.provider.AbstractProvider;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.topology.DefaultGraphDescription;
 import org.onosproject.net.topology.GraphDescription;
+import org.onosproject.net.topology.HopCountLinkWeight;
+import org.onosproject.net.topology.LinkWeigher;
 import org.onosproject.net.topology.LinkWeight;
 import org.onosproject.net.topology.Topology;
 import org.onosproject.net.topology.TopologyCluster;
@@ -41,10 +49,16 @@ import org.onosproject.net.topology.TopologyService;
 import org.onosproject.store.trivial.SimpleTopologyStore;
 
 import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.Hashtable;
 import java.util.List;
 import java.util.Set;
 
 import static com.google.common.collect.ImmutableSet.of;
+import static org.onosproject.net.link.LinkEvent.Type.LINK_ADDED;
+import static org.onosproject.net.link.LinkEvent.Type.LINK_REMOVED;
+import static org.onosproject.net.topology.AdapterLinkWeigher.adapt;
+import static org.onosproject.net.topology.HopCountLinkWeigher.DEFAULT_HOP_COUNT_WEIGHER;
 import static org.junit.Assert.*;
 import static org.onosproject.net.NetTestTools.*;
 import static org.onosproject.net.PortNumber.portNumber;
@@ -73,8 +87,9 @@ public class TopologyManagerTest {
         registry = mgr;
 
         mgr.store = new SimpleTopologyStore();
+        mgr.cfgService = new ComponentConfigAdapter();
         injectEventDispatcher(mgr, new TestEventDispatcher());
-        mgr.activate();
+        mgr.activate(null);
 
         service.addListener(listener);
 
@@ -106,16 +121,23 @@ public class TopologyManagerTest {
     }
 
     private void submitTopologyGraph() {
+        submitTopologyGraph(of(link("a", 1, "b", 1), link("b", 1, "a", 1),
+                               link("b", 2, "c", 1), link("c", 1, "b", 2),
+                               link("c", 2, "d", 1), link("d", 1, "c", 2),
+                               link("d", 2, "a", 2), link("a", 2, "d", 2),
+                               link("e", 1, "f", 1), link("f", 1, "e", 1)));
+    }
+
+    private void submitTopologyGraph(Set<Link> links) {
+        submitTopologyGraph(links, null);
+    }
+
+    private void submitTopologyGraph(Set<Link> links, List<Event> reasons) {
         Set<Device> devices = of(device("a"), device("b"),
                                  device("c"), device("d"),
                                  device("e"), device("f"));
-        Set<Link> links = of(link("a", 1, "b", 1), link("b", 1, "a", 1),
-                             link("b", 2, "c", 1), link("c", 1, "b", 2),
-                             link("c", 2, "d", 1), link("d", 1, "c", 2),
-                             link("d", 2, "a", 2), link("a", 2, "d", 2),
-                             link("e", 1, "f", 1), link("f", 1, "e", 1));
         GraphDescription data = new DefaultGraphDescription(4321L, System.currentTimeMillis(), devices, links);
-        providerService.topologyChanged(data, null);
+        providerService.topologyChanged(data, reasons);
     }
 
     @Test
@@ -183,6 +205,108 @@ public class TopologyManagerTest {
         assertEquals("wrong path cost", 6.6, path.cost(), 0.01);
     }
 
+    private void enableIncrementalPaths() {
+        mgr.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, Object> properties = new Hashtable<>();
+                properties.put("incrementalPaths", "true");
+                return properties;
+            }
+        });
+    }
+
+    @Test
+    public void incrementalPath() {
+        enableIncrementalPaths();
+
+        submitTopologyGraph();
+        Topology topology = service.currentTopology();
+        Set<Path> paths = service.getPaths(topology, did("a"), did("c"));
+        assertEquals("wrong path count", 2, paths.size());
+        assertEquals("wrong path cost", 2, paths.iterator().next().cost(), 0.01);
+        assertTrue("no path expected", service.getPaths(topology, did("a"), did("e")).isEmpty());
+
+        // Cut the b-c fiber; only the path through d remains.
+        submitTopologyGraph(of(link("a", 1, "b", 1), link("b", 1, "a", 1),
+                               link("c", 2, "d", 1), link("d", 1, "c", 2),
+                               link("d", 2, "a", 2), link("a", 2, "d", 2),
+                               link("e", 1, "f", 1), link("f", 1, "e", 1)));
+        topology = service.currentTopology();
+        paths = service.getPaths(topology, did("a"), did("c"));
+        assertEquals("wrong path count", 1, paths.size());
+        assertEquals("wrong path", did("d"), paths.iterator().next().links().get(0).dst().deviceId());
+        assertEquals("engine should agree with the topology",
+                     ((DefaultTopology) topology).getPaths(did("a"), did("c")), paths);
+        assertEquals("wrong path count", 1, service.getPaths(topology, did("b"), did("c")).size());
+        assertEquals("wrong path cost", 3, service.getPaths(topology, did("b"), did("c"))
+                .iterator().next().cost(), 0.01);
+    }
+
+    @Test
+    public void incrementalPathFromReasons() {
+        enableIncrementalPaths();
+
+        submitTopologyGraph();
+        Topology topology = service.currentTopology();
+        assertEquals("wrong path count", 2, service.getPaths(topology, did("a"), did("c")).size());
+
+        // Cut the b-c fiber, citing the removed links as the reasons.
+        Link bc = link("b", 2, "c", 1);
+        Link cb = link("c", 1, "b", 2);
+        Set<Link> links = of(link("a", 1, "b", 1), link("b", 1, "a", 1),
+                             link("c", 2, "d", 1), link("d", 1, "c", 2),
+                             link("d", 2, "a", 2), link("a", 2, "d", 2),
+                             link("e", 1, "f", 1), link("f", 1, "e", 1));
+        submitTopologyGraph(links, ImmutableList.of(new LinkEvent(LINK_REMOVED, bc),
+                                                    new LinkEvent(LINK_REMOVED, cb)));
+        topology = service.currentTopology();
+        Set<Path> paths = service.getPaths(topology, did("a"), did("c"));
+        assertEquals("engine should agree with the topology",
+                     ((DefaultTopology) topology).getPaths(did("a"), did("c")), paths);
+        assertEquals("wrong path count", 1, paths.size());
+
+        // Bring the fiber back, citing only one of its links; the engine
+        // must notice the other one as well.
+        submitTopologyGraph(ImmutableSet.<Link>builder().addAll(links).add(bc, cb).build(),
+                            ImmutableList.of(new LinkEvent(LINK_ADDED, bc)));
+        topology = service.currentTopology();
+        assertEquals("engine should agree with the topology",
+                     ((DefaultTopology) topology).getPaths(did("c"), did("a")),
+                     service.getPaths(topology, did("c"), did("a")));
+        assertEquals("wrong path count", 2, service.getPaths(topology, did("c"), did("a")).size());
+    }
+
+    @Test
+    public void incrementalPathWithDefaultWeigher() {
+        enableIncrementalPaths();
+
+        submitTopologyGraph();
+        Topology topology = service.currentTopology();
+        LinkWeigher weigher = adapt(new HopCountLinkWeight());
+        Set<Path> paths = service.getPaths(topology, did("a"), did("c"), weigher);
+        assertEquals("wrong path count", 2, paths.size());
+        assertEquals("engine should agree with the topology",
+                     ((DefaultTopology) topology).getPaths(did("a"), did("c"), weigher), paths);
+        assertEquals("engine should agree with the topology",
+                     ((DefaultTopology) topology).getPaths(did("a"), did("c"), DEFAULT_HOP_COUNT_WEIGHER),
+                     service.getPaths(topology, did("a"), did("c"), DEFAULT_HOP_COUNT_WEIGHER));
+
+        submitTopologyGraph(of(link("a", 1, "b", 1), link("b", 1, "a", 1),
+                               link("c", 2, "d", 1), link("d", 1, "c", 2),
+                               link("d", 2, "a", 2), link("a", 2, "d", 2)),
+                            ImmutableList.of(new LinkEvent(LINK_REMOVED, link("b", 2, "c", 1)),
+                                             new LinkEvent(LINK_REMOVED, link("c", 1, "b", 2)),
+                                             new LinkEvent(LINK_REMOVED, link("e", 1, "f", 1)),
+                                             new LinkEvent(LINK_REMOVED, link("f", 1, "e", 1))));
+        topology = service.currentTopology();
+        paths = service.getPaths(topology, did("a"), did("c"), weigher);
+        assertEquals("engine should agree with the topology",
+                     ((DefaultTopology) topology).getPaths(did("a"), did("c"), weigher), paths);
+        assertEquals("wrong path count", 1, paths.size());
+        assertTrue("no path expected", service.getPaths(topology, did("e"), did("f"), weigher).isEmpty());
+    }
+
     protected void validateEvents(Enum... types) {
         int i = 0;
         assertEquals("wrong events received", types.length, listener.events.size());
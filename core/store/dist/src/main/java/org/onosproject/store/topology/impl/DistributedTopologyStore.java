@@ -73,6 +73,7 @@ import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.onlab.util.Tools.get;
+import static org.onlab.util.Tools.getIntegerProperty;
 import static org.onlab.util.Tools.isNullOrEmpty;
 import static org.onosproject.net.topology.AdapterLinkWeigher.adapt;
 import static org.onosproject.net.topology.TopologyEvent.Type.TOPOLOGY_CHANGED;
@@ -93,7 +94,7 @@ public class DistributedTopologyStore
 
     private final Logger log = getLogger(getClass());
 
-    private static final String FORMAT = "Settings: linkWeightFunction={}";
+    private static final String FORMAT = "Settings: linkWeightFunction={}, pathCacheSize={}";
 
     private volatile DefaultTopology current =
             new DefaultTopology(ProviderId.NONE,
@@ -125,6 +126,10 @@ public class DistributedTopologyStore
             label = "Default link-weight function: hopCount, linkMetric, geoDistance")
     private String linkWeightFunction = DEFAULT_LINK_WEIGHT_FUNCTION;
 
+    @Property(name = "pathCacheSize", intValue = DefaultTopology.DEFAULT_PATH_CACHE_SIZE,
+            label = "Maximum number of path query results remembered per topology; 0 disables the cache")
+    private volatile int pathCacheSize = DefaultTopology.DEFAULT_PATH_CACHE_SIZE;
+
     // Cluster root to broadcast points bindings to allow convergence to
     // a shared broadcast tree; node that is the master of the cluster root
     // is the primary.
@@ -171,7 +176,13 @@ public class DistributedTopologyStore
                             new GeoDistanceLinkWeight(deviceService) : null;
             setDefaultLinkWeight(weight);
         }
-        log.info(FORMAT, linkWeightFunction);
+
+        Integer newPathCacheSize = getIntegerProperty(properties, "pathCacheSize");
+        // Topologies are immutable, so the new size applies from the next one
+        if (newPathCacheSize != null && newPathCacheSize >= 0) {
+            pathCacheSize = newPathCacheSize;
+        }
+        log.info(FORMAT, linkWeightFunction, pathCacheSize);
     }
 
     @Override
@@ -311,7 +322,7 @@ public class DistributedTopologyStore
                                         List<Event> reasons) {
         // Have the default topology construct self from the description data.
         DefaultTopology newTopology =
-                new DefaultTopology(providerId, graphDescription, this::isBroadcastPoint);
+                new DefaultTopology(providerId, graphDescription, this::isBroadcastPoint, pathCacheSize);
         updateBroadcastPoints(newTopology);
 
         // Promote the new topology to current and return a ready-to-send event.
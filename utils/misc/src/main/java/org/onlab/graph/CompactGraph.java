@@ -0,0 +1,182 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Immutable graph view which, in addition to the regular graph contract,
+ * numbers the vertexes from {@code 0} to {@code vertexCount() - 1} and keeps
+ * the egress edges of each vertex in a compressed sparse row layout.
+ * <p>
+ * It is meant to be built once per graph and handed to the path searches in
+ * place of the original graph; searches which recognize it, such as
+ * {@link DijkstraGraphSearch}, then run over primitive arrays instead of
+ * hashing vertexes. All {@link Graph} methods are served by the wrapped graph.
+ * </p>
+ *
+ * @param <V> vertex type
+ * @param <E> edge type
+ */
+public final class CompactGraph<V extends Vertex, E extends Edge<V>>
+        implements Graph<V, E> {
+
+    private final Graph<V, E> graph;
+    private final ImmutableMap<V, Integer> ids;
+    private final Object[] vertexes;
+    private final int[] offsets;
+    private final int[] targets;
+    private final Object[] edges;
+
+    /**
+     * Creates a compact view of the specified graph.
+     *
+     * @param graph graph to index; it must not be modified afterwards
+     */
+    public CompactGraph(Graph<V, E> graph) {
+        this.graph = checkNotNull(graph, "Graph cannot be null");
+
+        Set<V> allVertexes = graph.getVertexes();
+        ImmutableMap.Builder<V, Integer> builder = ImmutableMap.builder();
+        vertexes = new Object[allVertexes.size()];
+        int i = 0;
+        for (V v : allVertexes) {
+            builder.put(v, i);
+            vertexes[i++] = v;
+        }
+        ids = builder.build();
+
+        // Lay out the egress edges of each vertex one after another, keeping
+        // the order in which the wrapped graph returns them.
+        offsets = new int[vertexes.length + 1];
+        targets = new int[graph.getEdges().size()];
+        edges = new Object[targets.length];
+        int e = 0;
+        for (i = 0; i < vertexes.length; i++) {
+            offsets[i] = e;
+            for (E edge : graph.getEdgesFrom(vertex(i))) {
+                targets[e] = ids.get(edge.dst());
+                edges[e++] = edge;
+            }
+        }
+        offsets[vertexes.length] = e;
+    }
+
+    /**
+     * Returns the number of vertexes.
+     *
+     * @return vertex count
+     */
+    public int vertexCount() {
+        return vertexes.length;
+    }
+
+    /**
+     * Returns the number of the specified vertex.
+     *
+     * @param vertex graph vertex
+     * @return vertex number or -1 if the vertex is not in the graph
+     */
+    public int id(V vertex) {
+        Integer id = ids.get(vertex);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Returns the vertex with the specified number.
+     *
+     * @param id vertex number
+     * @return graph vertex
+     */
+    @SuppressWarnings("unchecked")
+    public V vertex(int id) {
+        return (V) vertexes[id];
+    }
+
+    /**
+     * Returns the index of the first egress edge of the specified vertex.
+     *
+     * @param id vertex number
+     * @return first edge index
+     */
+    public int firstEdge(int id) {
+        return offsets[id];
+    }
+
+    /**
+     * Returns the index past the last egress edge of the specified vertex.
+     *
+     * @param id vertex number
+     * @return edge index bound
+     */
+    public int endEdge(int id) {
+        return offsets[id + 1];
+    }
+
+    /**
+     * Returns the number of the destination vertex of the specified edge.
+     *
+     * @param edgeIndex edge index
+     * @return destination vertex number
+     */
+    public int target(int edgeIndex) {
+        return targets[edgeIndex];
+    }
+
+    /**
+     * Returns the edge with the specified index.
+     *
+     * @param edgeIndex edge index
+     * @return graph edge
+     */
+    @SuppressWarnings("unchecked")
+    public E edge(int edgeIndex) {
+        return (E) edges[edgeIndex];
+    }
+
+    @Override
+    public Set<V> getVertexes() {
+        return graph.getVertexes();
+    }
+
+    @Override
+    public Set<E> getEdges() {
+        return graph.getEdges();
+    }
+
+    @Override
+    public Set<E> getEdgesFrom(V src) {
+        return graph.getEdgesFrom(src);
+    }
+
+    @Override
+    public Set<E> getEdgesTo(V dst) {
+        return graph.getEdgesTo(dst);
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("vertexes", vertexes.length)
+                .add("edges", edges.length)
+                .toString();
+    }
+}
@@ -15,13 +15,21 @@
  */
 package org.onlab.graph;
 
-import java.util.ArrayList;
+import com.google.common.math.DoubleMath;
+
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Set;
 
 /**
  * Dijkstra shortest-path graph search algorithm capable of finding not just
  * one, but all shortest paths between the source and destinations.
+ * <p>
+ * When given a {@link CompactGraph} and scalar edge weights, the search runs
+ * over the primitive arrays of the compact graph and only materializes the
+ * costs and parent edges once it is done.
+ * </p>
  */
 public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
         extends AbstractGraphPathSearch<V, E> {
@@ -42,30 +50,36 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
             return result;
         }
 
+        if (graph instanceof CompactGraph &&
+                weigher.getInitialWeight() instanceof ScalarWeight &&
+                compactSearch((CompactGraph<V, E>) graph, src, dst, weigher, result)) {
+            result.buildPaths();
+            return result;
+        }
+
         // Use the min priority queue to progressively find each nearest
         // vertex until we reach the desired destination, if one was given,
-        // or until we reach all possible destinations.
-        Heap<V> minQueue = createMinQueue(graph.getVertexes(),
-                                          new PathCostComparator(result));
+        // or until we reach all possible destinations. Only vertices reached
+        // so far are queued and each one is moved up the queue only when its
+        // cost improves, rather than re-prioritizing every vertex each round.
+        IndexedHeap<V> minQueue = new IndexedHeap<>(new PathCostComparator(result));
+        Set<V> settled = new HashSet<>();
+        minQueue.insert(src);
         while (!minQueue.isEmpty()) {
             // Get the nearest vertex
-            V nearest = minQueue.extractExtreme();
+            V nearest = minQueue.extractMin();
             if (nearest.equals(dst)) {
                 break;
             }
+            settled.add(nearest);
 
-            // Find its cost and use it to determine if the vertex is reachable.
-            if (result.hasCost(nearest)) {
-                Weight cost = result.cost(nearest);
-
-                // If the vertex is reachable, relax all its egress edges.
-                for (E e : graph.getEdgesFrom(nearest)) {
-                    result.relaxEdge(e, cost, weigher, true);
+            // Relax all its egress edges, re-queueing the improved vertices.
+            Weight cost = result.cost(nearest);
+            for (E e : graph.getEdgesFrom(nearest)) {
+                if (result.relaxEdge(e, cost, weigher, true) && !settled.contains(e.dst())) {
+                    minQueue.insertOrDecrease(e.dst());
                 }
             }
-
-            // Re-prioritize the min queue.
-            minQueue.heapify();
         }
 
         // Now construct a set of paths from the results.
@@ -73,8 +87,97 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
         return result;
     }
 
+    // Runs the search over the arrays of a compact graph and records the
+    // outcome in the given result. Returns false, leaving the result as it
+    // was, if the source is unknown or any edge weight is not scalar.
+    private boolean compactSearch(CompactGraph<V, E> graph, V src, V dst,
+                                  EdgeWeigher<V, E> weigher, DefaultResult result) {
+        int source = graph.id(src);
+        if (source < 0) {
+            return false;
+        }
+        int target = dst != null ? graph.id(dst) : -1;
+        int n = graph.vertexCount();
+        double threshold = ScalarWeight.samenessThreshold();
+
+        // Unreached vertexes have no cost, marked as NaN.
+        double[] costs = new double[n];
+        Arrays.fill(costs, Double.NaN);
+        boolean[] settled = new boolean[n];
+
+        // Equal-cost parent edges of each vertex, as linked lists of records.
+        int[] head = new int[n];
+        int[] tail = new int[n];
+        Arrays.fill(head, -1);
+        int[] recordEdge = new int[n];
+        int[] recordNext = new int[n];
+        int records = 0;
+
+        IntMinQueue minQueue = new IntMinQueue(costs, threshold);
+        costs[source] = ((ScalarWeight) weigher.getInitialWeight()).value();
+        minQueue.insertOrDecrease(source);
+        while (!minQueue.isEmpty()) {
+            int nearest = minQueue.extractMin();
+            if (nearest == target) {
+                break;
+            }
+            settled[nearest] = true;
+
+            double cost = costs[nearest];
+            for (int e = graph.firstEdge(nearest), end = graph.endEdge(nearest); e < end; e++) {
+                Weight hopCost = weigher.weight(graph.edge(e));
+                if (!(hopCost instanceof ScalarWeight)) {
+                    return false;
+                }
+                if (!hopCost.isViable() || hopCost.isNegative()) {
+                    continue;
+                }
+                double newCost = cost + ((ScalarWeight) hopCost).value();
+                int v = graph.target(e);
+                int compareResult = Double.isNaN(costs[v]) ? -1 :
+                        DoubleMath.fuzzyCompare(newCost, costs[v], threshold);
+                if (compareResult > 0) {
+                    continue;
+                }
+
+                if (records == recordEdge.length) {
+                    recordEdge = Arrays.copyOf(recordEdge, records * 2);
+                    recordNext = Arrays.copyOf(recordNext, records * 2);
+                }
+                recordEdge[records] = e;
+                recordNext[records] = -1;
+                if (compareResult < 0 || head[v] < 0) {
+                    head[v] = records;
+                } else {
+                    recordNext[tail[v]] = records;
+                }
+                tail[v] = records++;
+
+                if (compareResult < 0) {
+                    costs[v] = newCost;
+                    if (!settled[v]) {
+                        minQueue.insertOrDecrease(v);
+                    }
+                }
+            }
+        }
+
+        for (int v = 0; v < n; v++) {
+            if (Double.isNaN(costs[v]) || (v == source && head[v] < 0)) {
+                continue;
+            }
+            Weight cost = new ScalarWeight(costs[v]);
+            boolean replace = true;
+            for (int r = head[v]; r >= 0; r = recordNext[r]) {
+                result.updateVertex(graph.vertex(v), graph.edge(recordEdge[r]), cost, replace);
+                replace = false;
+            }
+        }
+        return true;
+    }
+
     // Compares path weights using their accrued costs; used for sorting the
-    // min priority queue.
+    // min priority queue, which only ever holds vertices with a cost.
     private final class PathCostComparator implements Comparator<V> {
         private final DefaultResult result;
 
@@ -84,22 +187,90 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
 
         @Override
         public int compare(V v1, V v2) {
-            //not accessed vertices should be pushed to the back of the queue
-            if (!result.hasCost(v1) && !result.hasCost(v2)) {
-                return 0;
-            } else if (!result.hasCost(v1)) {
-                return -1;
-            } else if (!result.hasCost(v2)) {
-                return 1;
+            return result.cost(v1).compareTo(result.cost(v2));
+        }
+    }
+
+    // Binary min-heap of vertex numbers ordered by their current cost, with
+    // the position of each vertex kept to allow decreasing its cost.
+    private static final class IntMinQueue {
+        private final double[] costs;
+        private final double threshold;
+        private final int[] heap;
+        private final int[] position;
+        private int size;
+
+        private IntMinQueue(double[] costs, double threshold) {
+            this.costs = costs;
+            this.threshold = threshold;
+            this.heap = new int[costs.length];
+            this.position = new int[costs.length];
+            Arrays.fill(position, -1);
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private int extractMin() {
+            int min = heap[0];
+            position[min] = -1;
+            size--;
+            if (size > 0) {
+                heap[0] = heap[size];
+                position[heap[0]] = 0;
+                siftDown(0);
             }
+            return min;
+        }
 
-            return result.cost(v2).compareTo(result.cost(v1));
+        private void insertOrDecrease(int v) {
+            if (position[v] < 0) {
+                heap[size] = v;
+                position[v] = size;
+                size++;
+            }
+            siftUp(position[v]);
+        }
+
+        private int compare(int v1, int v2) {
+            return DoubleMath.fuzzyCompare(costs[v1], costs[v2], threshold);
+        }
+
+        private void siftUp(int i) {
+            int v = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (compare(v, heap[parent]) >= 0) {
+                    break;
+                }
+                place(heap[parent], i);
+                i = parent;
+            }
+            place(v, i);
         }
-    }
 
-    // Creates a min priority queue from the specified vertexes and comparator.
-    private Heap<V> createMinQueue(Set<V> vertexes, Comparator<V> comparator) {
-        return new Heap<>(new ArrayList<>(vertexes), comparator);
+        private void siftDown(int i) {
+            int v = heap[i];
+            int half = size / 2;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && compare(heap[child + 1], heap[child]) < 0) {
+                    child++;
+                }
+                if (compare(v, heap[child]) <= 0) {
+                    break;
+                }
+                place(heap[child], i);
+                i = child;
+            }
+            place(v, i);
+        }
+
+        private void place(int v, int i) {
+            heap[i] = v;
+            position[v] = i;
+        }
     }
 
 }
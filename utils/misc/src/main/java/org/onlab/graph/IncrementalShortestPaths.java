@@ -0,0 +1,382 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Dynamic single-source shortest paths over a mutable graph.
+ * <p>
+ * The shortest-path trees, holding all equal-cost parent edges, of the most
+ * recently queried sources are kept and repaired as edges come and go rather
+ * than recomputed: an edge which is not a parent edge in a tree leaves it
+ * untouched when removed, a removed parent edge only re-settles the vertexes
+ * which lost all their parents, and an added edge only propagates the cost
+ * decrease it brings. Edge weights are taken from the weigher when an edge is
+ * added and kept until it is removed; an edge whose weight changes must be
+ * updated through {@link #update(Graph)} or removed and added again.
+ * </p>
+ * <p>
+ * Negative and non-viable edge weights are ignored, as in
+ * {@link DijkstraGraphSearch}. This class is thread-safe.
+ * </p>
+ *
+ * @param <V> vertex type
+ * @param <E> edge type
+ */
+public class IncrementalShortestPaths<V extends Vertex, E extends Edge<V>> {
+
+    private final EdgeWeigher<V, E> weigher;
+    private final int maxTrees;
+
+    private final MutableGraph<V, E> graph =
+            new MutableAdjacencyListsGraph<>(new HashSet<>(), new HashSet<>());
+    private final Map<E, Weight> weights = new HashMap<>();
+    private final Map<V, Tree> trees;
+
+    /**
+     * Creates an engine over an initially empty graph.
+     *
+     * @param weigher  edge weigher
+     * @param maxTrees maximum number of source trees kept; the least
+     *                 recently queried ones are dropped first
+     */
+    public IncrementalShortestPaths(EdgeWeigher<V, E> weigher, int maxTrees) {
+        checkArgument(maxTrees > 0, "At least one tree must be kept");
+        this.weigher = checkNotNull(weigher, "Weigher cannot be null");
+        this.maxTrees = maxTrees;
+        this.trees = new LinkedHashMap<V, Tree>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<V, Tree> eldest) {
+                return size() > IncrementalShortestPaths.this.maxTrees;
+            }
+        };
+    }
+
+    /**
+     * Brings the graph in line with the given one, repairing the kept trees
+     * for the vertexes and edges which were removed, added, or whose weight
+     * changed. This walks both graphs in full; when the changes are known,
+     * apply them through the vertex and edge operations instead.
+     *
+     * @param target graph to mirror
+     */
+    public synchronized void update(Graph<V, E> target) {
+        List<E> removed = ImmutableList.copyOf(graph.getEdges().stream()
+                .filter(e -> !target.getEdges().contains(e)).iterator());
+        removed.forEach(this::removeEdge);
+
+        for (V v : ImmutableList.copyOf(graph.getVertexes())) {
+            if (!target.getVertexes().contains(v)) {
+                removeVertex(v);
+            }
+        }
+        target.getVertexes().forEach(this::addVertex);
+
+        for (E edge : target.getEdges()) {
+            Weight weight = weights.get(edge);
+            if (weight == null) {
+                addEdge(edge);
+            } else if (!weight.equals(weigher.weight(edge))) {
+                removeEdge(edge);
+                addEdge(edge);
+            }
+        }
+    }
+
+    /**
+     * Adds a vertex to the graph.
+     *
+     * @param vertex vertex to add
+     */
+    public synchronized void addVertex(V vertex) {
+        graph.addVertex(vertex);
+    }
+
+    /**
+     * Removes a vertex and all its edges from the graph.
+     *
+     * @param vertex vertex to remove
+     */
+    public synchronized void removeVertex(V vertex) {
+        ImmutableList.copyOf(graph.getEdgesFrom(vertex)).forEach(this::removeEdge);
+        ImmutableList.copyOf(graph.getEdgesTo(vertex)).forEach(this::removeEdge);
+        graph.removeVertex(vertex);
+        trees.remove(vertex);
+    }
+
+    /**
+     * Adds an edge, and its end points if needed, to the graph.
+     *
+     * @param edge edge to add
+     */
+    public synchronized void addEdge(E edge) {
+        if (weights.containsKey(edge)) {
+            return;
+        }
+        graph.addVertex(edge.src());
+        graph.addVertex(edge.dst());
+        graph.addEdge(edge);
+        weights.put(edge, weigher.weight(edge));
+        trees.values().forEach(tree -> tree.edgeAdded(edge));
+    }
+
+    /**
+     * Removes an edge from the graph.
+     *
+     * @param edge edge to remove
+     */
+    public synchronized void removeEdge(E edge) {
+        if (weights.remove(edge) == null) {
+            return;
+        }
+        graph.removeEdge(edge);
+        trees.values().forEach(tree -> tree.edgeRemoved(edge));
+    }
+
+    /**
+     * Returns the shortest paths between two vertexes, computing the tree of
+     * the source if it is not kept yet.
+     *
+     * @param src      source vertex
+     * @param dst      destination vertex; null for all reachable ones
+     * @param maxPaths limit on the number of paths per destination;
+     *                 {@link GraphPathSearch#ALL_PATHS} if no limit
+     * @return search result, with no paths if the end points are not connected
+     */
+    public synchronized GraphPathSearch.Result<V, E> search(V src, V dst, int maxPaths) {
+        checkArgument(graph.getVertexes().contains(src), "Source not in the graph");
+        Tree tree = trees.get(src);
+        if (tree == null) {
+            tree = new Tree(src);
+            trees.put(src, tree);
+        }
+        return new TreeSearch(tree).search(graph, src, dst, weigher, maxPaths);
+    }
+
+    /**
+     * Returns the number of source trees currently kept.
+     *
+     * @return number of trees
+     */
+    public synchronized int treeCount() {
+        return trees.size();
+    }
+
+    /**
+     * Returns the number of vertexes in the graph.
+     *
+     * @return number of vertexes
+     */
+    public synchronized int vertexCount() {
+        return graph.getVertexes().size();
+    }
+
+    /**
+     * Returns the number of edges in the graph.
+     *
+     * @return number of edges
+     */
+    public synchronized int edgeCount() {
+        return weights.size();
+    }
+
+    /**
+     * Returns an immutable copy of the current graph.
+     *
+     * @return graph copy
+     */
+    public synchronized Graph<V, E> graph() {
+        return graph.toImmutable();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return toStringHelper(this)
+                .add("vertexes", graph.getVertexes().size())
+                .add("edges", weights.size())
+                .add("trees", trees.size())
+                .toString();
+    }
+
+    // Weight with which the edge was added, or null if it cannot be used.
+    private Weight weight(E edge) {
+        Weight weight = weights.get(edge);
+        return weight == null || !weight.isViable() || weight.isNegative() ? null : weight;
+    }
+
+    // Shortest-path tree rooted at one source, with all equal-cost parents.
+    private final class Tree {
+        private final V src;
+        private final Map<V, Weight> costs = new HashMap<>();
+        private final Map<V, Set<E>> parents = new HashMap<>();
+
+        private Tree(V src) {
+            this.src = src;
+            costs.put(src, weigher.getInitialWeight());
+            IndexedHeap<V> queue = new IndexedHeap<>(this::compare);
+            queue.insert(src);
+            settle(queue, new HashSet<>());
+        }
+
+        // Propagates the decrease in cost brought by a new edge.
+        private void edgeAdded(E edge) {
+            Weight base = costs.get(edge.src());
+            if (base == null || !relax(edge, base)) {
+                return;
+            }
+            IndexedHeap<V> queue = new IndexedHeap<>(this::compare);
+            queue.insert(edge.dst());
+            settle(queue, new HashSet<>());
+        }
+
+        // Re-settles the vertexes which lost all their parent edges.
+        private void edgeRemoved(E edge) {
+            Set<E> edges = parents.get(edge.dst());
+            if (edges == null || !edges.remove(edge) || !edges.isEmpty()) {
+                return;
+            }
+
+            // Find the vertexes left with no parent edge at all.
+            Set<V> affected = new HashSet<>();
+            Queue<V> pending = new ArrayDeque<>();
+            orphan(edge.dst(), affected, pending);
+            while (!pending.isEmpty()) {
+                V v = pending.remove();
+                for (E e : graph.getEdgesFrom(v)) {
+                    Set<E> es = parents.get(e.dst());
+                    if (es != null && es.remove(e) && es.isEmpty()) {
+                        orphan(e.dst(), affected, pending);
+                    }
+                }
+            }
+
+            // Their costs can only grow; reach them again from the vertexes
+            // whose cost did not change.
+            IndexedHeap<V> queue = new IndexedHeap<>(this::compare);
+            for (V v : affected) {
+                for (E e : graph.getEdgesTo(v)) {
+                    Weight base = costs.get(e.src());
+                    if (base != null && relax(e, base)) {
+                        queue.insertOrDecrease(v);
+                    }
+                }
+            }
+            settle(queue, new HashSet<>());
+        }
+
+        private void orphan(V v, Set<V> affected, Queue<V> pending) {
+            if (!v.equals(src) && affected.add(v)) {
+                parents.remove(v);
+                costs.remove(v);
+                pending.add(v);
+            }
+        }
+
+        // Runs Dijkstra from the queued vertexes, relaxing the egress edges
+        // of each vertex as it gets settled.
+        private void settle(IndexedHeap<V> queue, Set<V> settled) {
+            while (!queue.isEmpty()) {
+                V v = queue.extractMin();
+                settled.add(v);
+                Weight cost = costs.get(v);
+                for (E e : graph.getEdgesFrom(v)) {
+                    if (relax(e, cost) && !settled.contains(e.dst())) {
+                        queue.insertOrDecrease(e.dst());
+                    }
+                }
+            }
+        }
+
+        // Relaxes an edge, recording it as a parent edge when it gives the
+        // same cost; returns true if it lowered the cost of its destination.
+        // The source never gets parent edges.
+        private boolean relax(E edge, Weight base) {
+            Weight weight = weight(edge);
+            V v = edge.dst();
+            if (weight == null || v.equals(src)) {
+                return false;
+            }
+            Weight cost = base.merge(weight);
+            Weight current = costs.get(v);
+            int compareResult = current == null ? -1 : cost.compareTo(current);
+            if (compareResult > 0) {
+                return false;
+            }
+            Set<E> edges = parents.computeIfAbsent(v, k -> new HashSet<>());
+            if (compareResult < 0) {
+                costs.put(v, cost);
+                edges.clear();
+            }
+            edges.add(edge);
+            return compareResult < 0;
+        }
+
+        private int compare(V v1, V v2) {
+            return costs.get(v1).compareTo(costs.get(v2));
+        }
+    }
+
+    // Builds the paths of a search result out of a kept tree.
+    private final class TreeSearch extends AbstractGraphPathSearch<V, E> {
+        private final Tree tree;
+
+        private TreeSearch(Tree tree) {
+            this.tree = tree;
+        }
+
+        @Override
+        protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst,
+                                              EdgeWeigher<V, E> weigher, int maxPaths) {
+            DefaultResult result = new DefaultResult(src, dst, maxPaths);
+            result.updateVertex(src, null, tree.costs.get(src), false);
+
+            Set<V> visited = new HashSet<>();
+            Queue<V> pending = new ArrayDeque<>();
+            if (dst == null) {
+                pending.addAll(tree.costs.keySet());
+            } else if (tree.costs.containsKey(dst)) {
+                pending.add(dst);
+            }
+            while (!pending.isEmpty()) {
+                V v = pending.remove();
+                if (!visited.add(v) || v.equals(src)) {
+                    continue;
+                }
+                for (E e : tree.parents.getOrDefault(v, Collections.emptySet())) {
+                    result.updateVertex(v, e, tree.costs.get(v), false);
+                    pending.add(e.src());
+                }
+            }
+            result.buildPaths();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Array-backed binary min-heap which keeps track of the position of each of
+ * its items, so that an item whose priority decreased can be moved up in
+ * logarithmic time rather than re-heapifying the whole structure.
+ * <p>
+ * The order is imposed by the provided comparator, which is expected to
+ * reflect the current priority of the items. After the priority of an item
+ * already on the heap is lowered, {@link #decreaseKey} must be invoked for it.
+ * Items must have consistent {@code equals} and {@code hashCode} and may be
+ * present on the heap at most once.
+ * </p>
+ * <p>
+ * This class is not thread-safe and care must be taken to prevent concurrent
+ * modifications.
+ * </p>
+ *
+ * @param <T> type of the items on the heap
+ */
+public class IndexedHeap<T> {
+
+    private final List<T> data = new ArrayList<>();
+    private final Map<T, Integer> index = new HashMap<>();
+    private final Comparator<? super T> comparator;
+
+    /**
+     * Creates a new empty heap.
+     *
+     * @param comparator comparator for ordering the heap items, smallest first
+     */
+    public IndexedHeap(Comparator<? super T> comparator) {
+        this.comparator = checkNotNull(comparator, "Comparator cannot be null");
+    }
+
+    /**
+     * Returns the current size of the heap.
+     *
+     * @return number of items in the heap
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * Returns true if there are no items in the heap.
+     *
+     * @return true if heap is empty
+     */
+    public boolean isEmpty() {
+        return data.isEmpty();
+    }
+
+    /**
+     * Returns true if the specified item is on the heap.
+     *
+     * @param item item to look for
+     * @return true if the item is on the heap
+     */
+    public boolean contains(T item) {
+        return index.containsKey(item);
+    }
+
+    /**
+     * Returns the smallest item in the heap.
+     *
+     * @return heap minimum or null if the heap is empty
+     */
+    public T min() {
+        return data.isEmpty() ? null : data.get(0);
+    }
+
+    /**
+     * Extracts and returns the smallest item from the heap.
+     *
+     * @return heap minimum or null if the heap is empty
+     */
+    public T extractMin() {
+        if (data.isEmpty()) {
+            return null;
+        }
+        T min = data.get(0);
+        T last = data.remove(data.size() - 1);
+        index.remove(min);
+        if (!data.isEmpty()) {
+            place(last, 0);
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Inserts the specified item into the heap.
+     *
+     * @param item item to be inserted
+     * @return the heap self
+     * @throws IllegalArgumentException if the item is already on the heap
+     */
+    public IndexedHeap<T> insert(T item) {
+        checkNotNull(item, "Item cannot be null");
+        checkArgument(!index.containsKey(item), "Item already on the heap");
+        data.add(item);
+        index.put(item, data.size() - 1);
+        siftUp(data.size() - 1);
+        return this;
+    }
+
+    /**
+     * Restores the position of an item whose priority has been lowered.
+     *
+     * @param item item whose priority decreased
+     * @return the heap self
+     * @throws IllegalArgumentException if the item is not on the heap
+     */
+    public IndexedHeap<T> decreaseKey(T item) {
+        Integer i = index.get(item);
+        checkArgument(i != null, "Item not on the heap");
+        siftUp(i);
+        return this;
+    }
+
+    /**
+     * Inserts the specified item, or restores its position if it is already
+     * on the heap and its priority has been lowered.
+     *
+     * @param item item to be inserted or moved up
+     * @return the heap self
+     */
+    public IndexedHeap<T> insertOrDecrease(T item) {
+        return contains(item) ? decreaseKey(item) : insert(item);
+    }
+
+    // Moves the item at the specified position up until its parent is no
+    // larger than the item.
+    private void siftUp(int i) {
+        T item = data.get(i);
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            T p = data.get(parent);
+            if (comparator.compare(item, p) >= 0) {
+                break;
+            }
+            place(p, i);
+            i = parent;
+        }
+        place(item, i);
+    }
+
+    // Moves the item at the specified position down until none of its
+    // children is smaller than the item.
+    private void siftDown(int i) {
+        T item = data.get(i);
+        int size = data.size();
+        int half = size / 2;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && comparator.compare(data.get(right), data.get(child)) < 0) {
+                child = right;
+            }
+            T c = data.get(child);
+            if (comparator.compare(item, c) <= 0) {
+                break;
+            }
+            place(c, i);
+            i = child;
+        }
+        place(item, i);
+    }
+
+    private void place(T item, int i) {
+        data.set(i, item);
+        index.put(item, i);
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("data", data)
+                .add("comparator", comparator)
+                .toString();
+    }
+}
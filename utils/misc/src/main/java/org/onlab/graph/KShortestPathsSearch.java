@@ -16,11 +16,8 @@
 package org.onlab.graph;
 
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import org.slf4j.Logger;
 
-import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
@@ -39,73 +36,26 @@ public class KShortestPathsSearch<V extends Vertex, E extends Edge<V>> extends A
 
     private final Logger log = getLogger(getClass());
 
+    private final LazyKShortestPathsSearch<V, E> lazySearch = new LazyKShortestPathsSearch<>();
+
     @Override
     protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst, EdgeWeigher<V, E> weigher, int maxPaths) {
-        //The modified edge weigher removes any need to modify the original graph
-        InnerEdgeWeigher modifiedWeighter = new InnerEdgeWeigher(checkNotNull(weigher));
         checkArgument(maxPaths != ALL_PATHS, "KShortestPath search cannot" +
                 "be used with ALL_PATHS.");
         checkArgument(maxPaths > 0, "The max number of paths must be greater" +
                 " than 0");
-        Graph<V, E> originalGraph = checkNotNull(graph);
         //the result contains the set of eventual results
         InnerOrderedResult result = new InnerOrderedResult(src, dst, maxPaths);
-        ArrayList<Path<V, E>> resultPaths = new ArrayList<>(maxPaths);
-        ArrayList<Path<V, E>> potentialPaths = Lists.newArrayList();
-
-        DijkstraGraphSearch<V, E> dijkstraSearch = new DijkstraGraphSearch<>();
-        Set<Path<V, E>> dijkstraResults = dijkstraSearch.search(originalGraph, src, dst, modifiedWeighter, 1).paths();
-        //Checks if the dst was reachable
-        if (dijkstraResults.isEmpty()) {
+        //Paths are searched one at a time, so only the first maxPaths ones are computed
+        lazySearch.lazyPathSearch(checkNotNull(graph), src, dst, checkNotNull(weigher))
+                .limit(maxPaths)
+                .forEach(result.pathSet::add);
+        if (result.pathSet.isEmpty()) {
             log.warn("No path was found.");
-            return result;
         }
-        //If it was reachable adds the first shortest path to the set of results
-        resultPaths.add(dijkstraResults.iterator().next());
-
-        for (int k = 1; k < maxPaths; k++) {
-
-            for (int i = 0; i < resultPaths.get(k - 1).edges().size(); i++) {
-                V spurNode = resultPaths.get(k - 1).edges().get(i).src();
-                List<E> rootPathEdgeList = resultPaths.get(k - 1).edges().subList(0, i);
-
-                for (Path<V, E> path : resultPaths) {
-                    if (path.edges().size() >= i && edgeListsAreEqual(rootPathEdgeList, path.edges().subList(0, i))) {
-                        modifiedWeighter.removedEdges.add(path.edges().get(i));
-                    }
-                }
-
-                //Effectively remove all nodes from the source path
-                for (E edge : rootPathEdgeList) {
-                    originalGraph.getEdgesFrom(edge.src()).forEach(e -> modifiedWeighter.removedEdges.add(e));
-                    originalGraph.getEdgesTo(edge.src()).forEach(e -> modifiedWeighter.removedEdges.add(e));
-                }
-
-                dijkstraResults = dijkstraSearch.search(originalGraph, spurNode, dst, modifiedWeighter, 1).paths();
-                if (!dijkstraResults.isEmpty()) {
-                    Path<V, E> spurPath = dijkstraResults.iterator().next();
-                    List<E> totalPath = new ArrayList<>(rootPathEdgeList);
-                    spurPath.edges().forEach(totalPath::add);
-                    //The following line must use the original weigher not the modified weigher because the modified
-                    //weigher will count -1 values used for modifying the graph and return an inaccurate cost.
-                    potentialPaths.add(new DefaultPath<>(totalPath,
-                            calculatePathCost(weigher, totalPath)));
-                }
-
-                //Restore all removed paths and nodes
-                modifiedWeighter.removedEdges.clear();
-            }
-            if (potentialPaths.isEmpty()) {
-                break;
-            }
-            potentialPaths.sort(new InnerPathComparator());
-            resultPaths.add(potentialPaths.get(0));
-            potentialPaths.remove(0);
-        }
-        result.pathSet.addAll(resultPaths);
-
         return result;
     }
+
     //Edge list equality is judges by shared endpoints, and shared endpoints should be the same
     private boolean edgeListsAreEqual(List<E> edgeListOne, List<E> edgeListTwo) {
         if (edgeListOne.size() != edgeListTwo.size()) {
@@ -123,45 +73,6 @@ public class KShortestPathsSearch<V extends Vertex, E extends Edge<V>> extends A
         return true;
     }
 
-    private Weight calculatePathCost(EdgeWeigher<V, E> weighter, List<E> edges) {
-        Weight totalCost = weighter.getInitialWeight();
-        for (E edge : edges) {
-            totalCost = totalCost.merge(weighter.weight(edge));
-        }
-        return totalCost;
-    }
-
-    /**
-     * Weights edges to make them inaccessible if set, otherwise returns the result of the original EdgeWeight.
-     */
-    private final class InnerEdgeWeigher implements EdgeWeigher<V, E> {
-
-        private Set<E> removedEdges = Sets.newConcurrentHashSet();
-        private EdgeWeigher<V, E> innerEdgeWeigher;
-
-        private InnerEdgeWeigher(EdgeWeigher<V, E> weigher) {
-            this.innerEdgeWeigher = weigher;
-        }
-
-        @Override
-        public Weight weight(E edge) {
-            if (removedEdges.contains(edge)) {
-                return innerEdgeWeigher.getNonViableWeight();
-            }
-            return innerEdgeWeigher.weight(edge);
-        }
-
-        @Override
-        public Weight getInitialWeight() {
-            return innerEdgeWeigher.getInitialWeight();
-        }
-
-        @Override
-        public Weight getNonViableWeight() {
-            return innerEdgeWeigher.getNonViableWeight();
-        }
-    }
-
     /**
      * A result modified to return paths ordered according to the provided comparator.
      */
@@ -20,6 +20,7 @@ import static java.util.Spliterators.spliteratorUnknownSize;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -27,17 +28,20 @@ import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
 import java.util.Spliterator;
-import java.util.function.Supplier;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
-import com.google.common.base.Suppliers;
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Sets;
 
 /**
  * Lazily runs K shortest paths algorithm on a provided directed graph.
+ * <p>
+ * Paths are found one at a time with Yen's algorithm, as the returned stream
+ * is consumed, so a caller looking for the first path meeting its constraints
+ * does not pay for the paths after it.
+ * </p>
  */
 public class LazyKShortestPathsSearch<V extends Vertex, E extends Edge<V>> {
 
@@ -57,8 +61,37 @@ public class LazyKShortestPathsSearch<V extends Vertex, E extends Edge<V>> {
     public Stream<Path<V, E>> lazyPathSearch(Graph<V, E> graph,
                                               V src, V dst,
                                               EdgeWeigher<V, E> weigher) {
+        return lazyPathSearch(graph, src, dst, weigher, edge -> true, edges -> true);
+    }
+
+    /**
+     * Searches the specified graph for paths between vertices meeting the
+     * given constraints.
+     * <p>
+     * Edges rejected by the edge filter are left out of every search. The
+     * prefix filter is given the leading edges of each path found and must
+     * reject every extension of a list it rejects, as a latency budget does;
+     * paths it rejects are not returned, and no alternative path sharing a
+     * rejected prefix is searched for.
+     * </p>
+     *
+     * @param graph        graph to be searched
+     * @param src          source vertex
+     * @param dst          destination vertex
+     * @param weigher      edge-weigher
+     * @param edgeFilter   predicate on the edges which may be used
+     * @param prefixFilter predicate on the leading edges of admissible paths
+     * @return Stream of shortest admissible paths
+     */
+    public Stream<Path<V, E>> lazyPathSearch(Graph<V, E> graph,
+                                              V src, V dst,
+                                              EdgeWeigher<V, E> weigher,
+                                              Predicate<? super E> edgeFilter,
+                                              Predicate<? super List<E>> prefixFilter) {
 
-        Iterator<Path<V, E>> it = new ShortestPathIterator(graph, src, dst, weigher);
+        Iterator<Path<V, E>> it = new ShortestPathIterator(graph, src, dst, weigher,
+                                                           checkNotNull(edgeFilter),
+                                                           checkNotNull(prefixFilter));
 
         return StreamSupport.stream(spliteratorUnknownSize(it,
                                                            Spliterator.ORDERED |
@@ -77,68 +110,98 @@ public class LazyKShortestPathsSearch<V extends Vertex, E extends Edge<V>> {
         final V src;
         final V dst;
         final EdgeWeigher<V, E> weigher;
+        final Predicate<? super List<E>> prefixFilter;
 
         final InnerEdgeWeigher maskingWeigher;
 
         final List<Path<V, E>> resultPaths = new ArrayList<>(); // A
         final Queue<Path<V, E>> potentialPaths = new PriorityQueue<>(pathComparator); // B
+        final Set<List<E>> knownPaths = new HashSet<>(); // edges of A and B
 
-        Supplier<Path<V, E>> next;
+        // last path taken from B, whose deviations are still to be searched
+        Path<V, E> lastPath;
+        int lastAdmissible;
+        Path<V, E> next;
 
         ShortestPathIterator(Graph<V, E> graph,
                              V src, V dst,
-                             EdgeWeigher<V, E> weigher) {
+                             EdgeWeigher<V, E> weigher,
+                             Predicate<? super E> edgeFilter,
+                             Predicate<? super List<E>> prefixFilter) {
             this.graph = checkNotNull(graph);
             this.src = checkNotNull(src);
             this.dst = checkNotNull(dst);
             this.weigher = checkNotNull(weigher);
+            this.prefixFilter = prefixFilter;
 
-            maskingWeigher = new InnerEdgeWeigher(weigher);
-            next = Suppliers.ofInstance(
-                        shortest.search(graph, src, dst, weigher, 1)
-                            .paths().stream().findFirst().orElse(null));
+            maskingWeigher = new InnerEdgeWeigher(weigher, edgeFilter);
+            shortest.search(graph, src, dst, maskingWeigher, 1)
+                    .paths().stream().findFirst().ifPresent(this::addPotentialPath);
         }
 
         @Override
         public boolean hasNext() {
-            return next.get() != null;
+            if (next == null) {
+                next = computeNext();
+            }
+            return next != null;
         }
 
         @Override
         public Path<V, E> next() {
-            if (next.get() == null) {
+            if (!hasNext()) {
                 throw new NoSuchElementException("No more path between " + src + "-" + dst);
             }
+            Path<V, E> path = next;
+            next = null;
+            return path;
+        }
 
-            // lastPath: the path to return at the end of this call
-            Path<V, E> lastPath = next.get();
-            resultPaths.add(lastPath);
-
-            next = Suppliers.memoize(() -> computeNext(lastPath));
+        private Path<V, E> computeNext() {
+            while (true) {
+                if (lastPath != null) {
+                    searchDeviations(lastPath, lastAdmissible);
+                }
+                lastPath = potentialPaths.poll();
+                if (lastPath == null) {
+                    return null;
+                }
+                resultPaths.add(lastPath);
+                lastAdmissible = admissiblePrefix(lastPath.edges());
+                if (lastAdmissible == lastPath.edges().size()) {
+                    return lastPath;
+                }
+            }
+        }
 
-            return lastPath;
+        // Returns the length of the longest prefix whose prefixes all pass the filter
+        private int admissiblePrefix(List<E> edges) {
+            for (int i = 1; i <= edges.size(); i++) {
+                if (!prefixFilter.test(edges.subList(0, i))) {
+                    return i - 1;
+                }
+            }
+            return edges.size();
         }
 
-        private Path<V, E> computeNext(Path<V, E> lastPath) {
+        private void searchDeviations(Path<V, E> lastPath, int admissible) {
             /// following is basically Yen's k-shortest path algorithm
 
-            // start searching for next path
-            for (int i = 0; i < lastPath.edges().size(); i++) {
+            // spur nodes past the admissible prefix only lead to rejected paths
+            int spurs = Math.min(admissible + 1, lastPath.edges().size());
+            for (int i = 0; i < spurs; i++) {
                 V spurNode = lastPath.edges().get(i).src();
                 List<E> rootPathEdgeList = lastPath.edges().subList(0, i);
 
                 for (Path<V, E> path : resultPaths) {
-                    if (path.edges().size() >= i &&
+                    if (path.edges().size() > i &&
                         rootPathEdgeList.equals(path.edges().subList(0, i))) {
-                        maskingWeigher.excluded.add(path.edges().get(i));
+                        maskingWeigher.excludedEdges.add(path.edges().get(i));
                     }
                 }
 
                 // Effectively remove all root path nodes other than spurNode
-                rootPathEdgeList.forEach(edge -> {
-                    maskingWeigher.excluded.addAll(graph.getEdgesFrom(edge.src()));
-                    maskingWeigher.excluded.addAll(graph.getEdgesTo(edge.src()));
-                });
+                rootPathEdgeList.forEach(edge -> maskingWeigher.excludedVertexes.add(edge.src()));
 
                 shortest.search(graph, spurNode, dst, maskingWeigher, 1)
                         .paths().stream().findAny().ifPresent(spurPath -> {
@@ -147,17 +210,19 @@ public class LazyKShortestPathsSearch<V extends Vertex, E extends Edge<V>> {
                                     .addAll(rootPathEdgeList)
                                     .addAll(spurPath.edges())
                                     .build();
-                            potentialPaths.add(path(totalPath));
+                            addPotentialPath(path(totalPath));
                 });
 
                 // Restore all removed paths and nodes
-                maskingWeigher.excluded.clear();
+                maskingWeigher.excludedEdges.clear();
+                maskingWeigher.excludedVertexes.clear();
             }
+        }
 
-            if (potentialPaths.isEmpty()) {
-                return null;
-            } else {
-                return potentialPaths.poll();
+        // Queues a path unless it was already found through another spur node
+        private void addPotentialPath(Path<V, E> path) {
+            if (knownPaths.add(path.edges())) {
+                potentialPaths.add(path);
             }
         }
 
@@ -177,20 +242,25 @@ public class LazyKShortestPathsSearch<V extends Vertex, E extends Edge<V>> {
     }
 
     /**
-     * EdgeWeigher which excludes specified edges from path computation.
+     * EdgeWeigher which excludes specified edges and vertexes from path computation,
+     * as well as the edges rejected by a filter.
      */
     private final class InnerEdgeWeigher implements EdgeWeigher<V, E> {
 
-        private final Set<E> excluded = Sets.newConcurrentHashSet();
+        private final Set<E> excludedEdges = new HashSet<>();
+        private final Set<V> excludedVertexes = new HashSet<>();
         private final EdgeWeigher<V, E> weigher;
+        private final Predicate<? super E> edgeFilter;
 
-        private InnerEdgeWeigher(EdgeWeigher<V, E> weigher) {
+        private InnerEdgeWeigher(EdgeWeigher<V, E> weigher, Predicate<? super E> edgeFilter) {
             this.weigher = weigher;
+            this.edgeFilter = edgeFilter;
         }
 
         @Override
         public Weight weight(E edge) {
-            if (excluded.contains(edge)) {
+            if (excludedEdges.contains(edge) || excludedVertexes.contains(edge.dst()) ||
+                    !edgeFilter.test(edge)) {
                 return weigher.getNonViableWeight();
             }
             return weigher.weight(edge);
@@ -0,0 +1,344 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Multi-criteria graph search computing the Pareto frontier of the paths
+ * between two vertices.
+ * <p>
+ * The search is a label-setting search in the manner of Martins: each label
+ * holds the figures of one path from the source to its vertex, and the label
+ * whose figures come first lexicographically is made permanent at each step.
+ * A new label is dropped when a label of its vertex is at least as good on
+ * every criterion, so a single pass yields one path for each non-dominated
+ * combination of figures. Every criterion must be monotone, that is a path
+ * can never get better by appending an edge; in particular the search never
+ * returns a path with a cycle.
+ * </p>
+ */
+public class ParetoGraphSearch<V extends Vertex, E extends Edge<V>> {
+
+    /**
+     * Default maximum number of labels made permanent during one search.
+     */
+    public static final int DEFAULT_MAX_LABELS = 100000;
+
+    private final List<Criterion<? super E>> criteria;
+    private final int maxLabels;
+
+    /**
+     * Creates a search over the given criteria.
+     *
+     * @param criteria criteria the paths are judged by, in order of priority
+     */
+    public ParetoGraphSearch(List<Criterion<? super E>> criteria) {
+        this(criteria, DEFAULT_MAX_LABELS);
+    }
+
+    /**
+     * Creates a search over the given criteria, giving up once the given
+     * number of labels has been made permanent.
+     *
+     * @param criteria  criteria the paths are judged by, in order of priority
+     * @param maxLabels maximum number of labels made permanent
+     */
+    public ParetoGraphSearch(List<Criterion<? super E>> criteria, int maxLabels) {
+        checkArgument(!criteria.isEmpty(), "At least one criterion is required");
+        checkArgument(maxLabels > 0, "The label limit must be positive");
+        this.criteria = ImmutableList.copyOf(criteria);
+        this.maxLabels = maxLabels;
+    }
+
+    /**
+     * Searches the non-dominated paths between two vertices.
+     * <p>
+     * When the label limit is reached the paths found so far are returned;
+     * they are not dominated by one another but may be by paths not found.
+     * </p>
+     *
+     * @param graph graph to search
+     * @param src   source vertex
+     * @param dst   destination vertex
+     * @return labels of the non-dominated paths, in lexicographic order of
+     * their figures; empty if the destination cannot be reached
+     */
+    public List<Label<V, E>> search(Graph<V, E> graph, V src, V dst) {
+        checkNotNull(graph, "Graph cannot be null");
+        checkNotNull(src, "Source cannot be null");
+        checkNotNull(dst, "Destination cannot be null");
+        checkArgument(graph.getVertexes().contains(src), "Source not in the graph");
+        checkArgument(graph.getVertexes().contains(dst), "Destination not in graph");
+
+        Map<V, List<Label<V, E>>> permanent = new HashMap<>();
+        Map<V, List<Label<V, E>>> temporary = new HashMap<>();
+        PriorityQueue<Label<V, E>> queue = new PriorityQueue<>(ParetoGraphSearch::lexicographic);
+
+        double[] initial = new double[criteria.size()];
+        for (int i = 0; i < initial.length; i++) {
+            initial[i] = criteria.get(i).key(criteria.get(i).initial());
+        }
+        Label<V, E> root = new Label<>(this, src, null, null, initial);
+        temporary.computeIfAbsent(src, v -> new LinkedList<>()).add(root);
+        queue.add(root);
+
+        int settled = 0;
+        while (!queue.isEmpty() && settled < maxLabels) {
+            Label<V, E> label = queue.poll();
+            if (label.discarded) {
+                continue;
+            }
+            temporary.get(label.vertex).remove(label);
+            permanent.computeIfAbsent(label.vertex, v -> new ArrayList<>()).add(label);
+            settled++;
+            if (label.vertex.equals(dst)) {
+                continue;
+            }
+
+            for (E edge : graph.getEdgesFrom(label.vertex)) {
+                double[] keys = extend(label.keys, edge);
+                if (keys == null) {
+                    continue;
+                }
+                V next = edge.dst();
+                if (covered(permanent.get(next), keys) || covered(temporary.get(next), keys)) {
+                    continue;
+                }
+                List<Label<V, E>> pending = temporary.computeIfAbsent(next, v -> new LinkedList<>());
+                for (Iterator<Label<V, E>> it = pending.iterator(); it.hasNext();) {
+                    Label<V, E> other = it.next();
+                    if (covers(keys, other.keys)) {
+                        other.discarded = true;
+                        it.remove();
+                    }
+                }
+                Label<V, E> extended = new Label<>(this, next, edge, label, keys);
+                pending.add(extended);
+                queue.add(extended);
+            }
+        }
+        List<Label<V, E>> frontier = permanent.get(dst);
+        return frontier == null ? ImmutableList.of() : ImmutableList.copyOf(frontier);
+    }
+
+    // Returns the keys of a path extended by an edge, or null if the edge cannot be used
+    private double[] extend(double[] keys, E edge) {
+        double[] extended = new double[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            Criterion<? super E> criterion = criteria.get(i);
+            double value = criterion.extend(criterion.value(keys[i]), edge);
+            if (Double.isNaN(value)) {
+                return null;
+            }
+            extended[i] = criterion.key(value);
+        }
+        return extended;
+    }
+
+    // Returns whether one of the labels is at least as good as the keys on every criterion
+    private static <V extends Vertex, E extends Edge<V>> boolean covered(List<Label<V, E>> labels,
+                                                                      double[] keys) {
+        if (labels != null) {
+            for (Label<V, E> label : labels) {
+                if (covers(label.keys, keys)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean covers(double[] a, double[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] > b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int lexicographic(Label<?, ?> a, Label<?, ?> b) {
+        for (int i = 0; i < a.keys.length; i++) {
+            int comparison = Double.compare(a.keys[i], b.keys[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Criterion a path is judged by, computed edge by edge. An edge whose
+     * value is {@code NaN} cannot be used.
+     *
+     * @param <E> edge type
+     */
+    public static final class Criterion<E> {
+
+        private enum Kind {
+            ADDITIVE, BOTTLENECK, MULTIPLICATIVE
+        }
+
+        private final Kind kind;
+        private final ToDoubleFunction<? super E> value;
+
+        private Criterion(Kind kind, ToDoubleFunction<? super E> value) {
+            this.kind = checkNotNull(kind);
+            this.value = checkNotNull(value);
+        }
+
+        /**
+         * Returns a criterion summing non-negative edge values, such as
+         * latency; lower is better.
+         *
+         * @param value value of an edge
+         * @param <E>   edge type
+         * @return additive criterion
+         */
+        public static <E> Criterion<E> additive(ToDoubleFunction<? super E> value) {
+            return new Criterion<>(Kind.ADDITIVE, value);
+        }
+
+        /**
+         * Returns a criterion taking the smallest edge value, such as
+         * residual bandwidth; higher is better.
+         *
+         * @param value value of an edge
+         * @param <E>   edge type
+         * @return bottleneck criterion
+         */
+        public static <E> Criterion<E> bottleneck(ToDoubleFunction<? super E> value) {
+            return new Criterion<>(Kind.BOTTLENECK, value);
+        }
+
+        /**
+         * Returns a criterion multiplying edge values between 0 and 1, such
+         * as availability; higher is better.
+         *
+         * @param value value of an edge
+         * @param <E>   edge type
+         * @return multiplicative criterion
+         */
+        public static <E> Criterion<E> multiplicative(ToDoubleFunction<? super E> value) {
+            return new Criterion<>(Kind.MULTIPLICATIVE, value);
+        }
+
+        private double initial() {
+            switch (kind) {
+                case ADDITIVE:
+                    return 0;
+                case BOTTLENECK:
+                    return Double.POSITIVE_INFINITY;
+                default:
+                    return 1;
+            }
+        }
+
+        private double extend(double pathValue, E edge) {
+            double edgeValue = value.applyAsDouble(edge);
+            switch (kind) {
+                case ADDITIVE:
+                    return pathValue + edgeValue;
+                case BOTTLENECK:
+                    return Double.isNaN(edgeValue) ? edgeValue : Math.min(pathValue, edgeValue);
+                default:
+                    return pathValue * edgeValue;
+            }
+        }
+
+        // Keys are minimized; the criteria to maximize are negated
+        private double key(double pathValue) {
+            return kind == Kind.ADDITIVE ? pathValue : -pathValue;
+        }
+
+        private double value(double key) {
+            return kind == Kind.ADDITIVE ? key : -key;
+        }
+    }
+
+    /**
+     * Figures of a path from the source of the search to a vertex.
+     *
+     * @param <V> vertex type
+     * @param <E> edge type
+     */
+    public static final class Label<V extends Vertex, E extends Edge<V>> {
+
+        private final ParetoGraphSearch<V, E> search;
+        private final V vertex;
+        private final E edge;
+        private final Label<V, E> parent;
+        private final double[] keys;
+        private boolean discarded;
+
+        private Label(ParetoGraphSearch<V, E> search, V vertex, E edge,
+                      Label<V, E> parent, double[] keys) {
+            this.search = search;
+            this.vertex = vertex;
+            this.edge = edge;
+            this.parent = parent;
+            this.keys = keys;
+        }
+
+        /**
+         * Returns the vertex the path ends at.
+         *
+         * @return last vertex
+         */
+        public V vertex() {
+            return vertex;
+        }
+
+        /**
+         * Returns the edges of the path, from the source.
+         *
+         * @return list of edges
+         */
+        public List<E> edges() {
+            List<E> edges = new ArrayList<>();
+            for (Label<V, E> label = this; label.edge != null; label = label.parent) {
+                edges.add(label.edge);
+            }
+            Collections.reverse(edges);
+            return edges;
+        }
+
+        /**
+         * Returns the figure of the path for one of the criteria.
+         *
+         * @param criterion index of the criterion in the search
+         * @return path figure
+         */
+        public double value(int criterion) {
+            return search.criteria.get(criterion).value(keys[criterion]);
+        }
+    }
+}
@@ -18,36 +18,55 @@
 package org.onlab.graph;
 
 
-import java.util.Map;
-import java.util.List;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
  * SRLG Graph Search finds a pair of paths with disjoint risk groups; i.e
  * if one path goes through an edge in risk group 1, the other path will go
  * through no edges in risk group 1.
+ * <p>
+ * The search is a branch-and-bound over the risk groups shared by the two
+ * paths. Each node of the search tree holds the groups forbidden to the
+ * primary and to the backup path, and the shortest path avoiding each of
+ * them; the sum of both costs bounds every pair found below the node. When
+ * the two paths share a group, the first shared group along the primary is
+ * forbidden to one path in one branch and to the other path in the other.
+ * Branches are explored in parallel on the common fork-join pool. Edges with
+ * no risk group are a risk of their own, so the two paths never share an edge.
+ * </p>
+ * <p>
+ * All pairs of optimal cost reached by the search are returned, in a stable
+ * order, so the result does not depend on thread scheduling unless the search
+ * stops at {@link #MAX_NODES}, in which case the best pairs found so far are
+ * returned.
+ * </p>
  */
 public class SrlgGraphSearch<V extends Vertex, E extends Edge<V>>
         extends AbstractGraphPathSearch<V, E> {
 
-    static final int ITERATIONS = 100;
-    static final int POPSIZE = 50;
+    /**
+     * Maximum number of search tree nodes explored for one search.
+     */
+    static final int MAX_NODES = 10000;
 
     boolean useSuurballe = false;
 
-    static final double INF = 100000000.0;
-
     int numGroups;
     Map<E, Integer> riskGrouping;
 
-    Graph<V, E> orig;
-    V src, dst;
-    EdgeWeigher<V, E> weigher;
-
     /**
      * Creates an SRLG graph search object with the given number
      * of groups and given risk mapping.
@@ -88,166 +107,196 @@ public class SrlgGraphSearch<V extends Vertex, E extends Edge<V>>
     @Override
     protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst,
                                EdgeWeigher<V, E> weigher, int maxPaths) {
-        if (maxPaths == ALL_PATHS) {
-            maxPaths = POPSIZE;
-        }
         if (useSuurballe) {
             return new SuurballeGraphSearch<V, E>().search(graph, src, dst, weigher, ALL_PATHS);
         }
-        orig = graph;
-        this.src = src;
-        this.dst = dst;
-        this.weigher = weigher;
-        List<Subset> best = new GAPopulation<Subset>()
-                .runGA(ITERATIONS, POPSIZE, maxPaths, new Subset(new boolean[numGroups]));
-        Set<DisjointPathPair> dpps = new HashSet<DisjointPathPair>();
-        for (Subset s: best) {
-            dpps.addAll(s.buildPaths());
-        }
         Result<V, E> firstDijkstra = new DijkstraGraphSearch<V, E>()
-                .search(orig, src, dst, weigher, 1);
+                .search(graph, src, dst, weigher, 1);
+        Set<Path<V, E>> pairs = new Search(graph, src, dst, weigher)
+                .run(firstDijkstra, maxPaths);
         return new Result<V, E>() {
-            final DefaultResult search = (DefaultResult) firstDijkstra;
-
             public V src() {
                 return src;
             }
             public V dst() {
                 return dst;
-
             }
             public Set<Path<V, E>> paths() {
-                Set<Path<V, E>> pathsD = new HashSet<>();
-                for (DisjointPathPair<V, E> path: dpps) {
-                    pathsD.add(path);
-                }
-                return pathsD;
+                return pairs;
             }
             public Map<V, Weight> costs() {
-                return search.costs();
-
+                return firstDijkstra.costs();
             }
             public Map<V, Set<E>> parents() {
-                return search.parents();
-
+                return firstDijkstra.parents();
             }
         };
     }
 
-    //finds the shortest path in the graph given a subset of edge types to use
-    private Result<V, E> findShortestPathFromSubset(boolean[] subset) {
-        Graph<V, E> graph = orig;
-        EdgeWeigher<V, E> modified = new EdgeWeigher<V, E>() {
-            final boolean[] subsetF = subset;
+    // Returns the risk of an edge; an edge with no group is a risk of its own
+    private Object risk(E edge) {
+        Integer group = riskGrouping.get(edge);
+        return group != null ? group : edge;
+    }
 
-            @Override
-            public Weight weight(E edge) {
-                if (subsetF[riskGrouping.get(edge)]) {
-                    return weigher.weight(edge);
-                }
-                return weigher.getNonViableWeight();
-            }
+    /**
+     * State of one branch-and-bound search, shared by all its tree nodes.
+     */
+    private final class Search {
 
-            @Override
-            public Weight getInitialWeight() {
-                return weigher.getInitialWeight();
-            }
+        final Graph<V, E> graph;
+        final V src, dst;
+        final EdgeWeigher<V, E> weigher;
+        final AtomicInteger nodes = new AtomicInteger();
 
-            @Override
-            public Weight getNonViableWeight() {
-                return weigher.getNonViableWeight();
-            }
-        };
+        Weight best;
+        final Set<DisjointPathPair<V, E>> incumbents = new HashSet<>();
 
-        Result<V, E> res = new DijkstraGraphSearch<V, E>().search(graph, src, dst, modified, 1);
-        return res;
-    }
-    /**
-     * A subset is a type of GA organism that represents a subset of allowed shortest
-     * paths (and its complement). Its fitness is determined by the sum of the weights
-     * of the first two shortest paths.
-     */
-    class Subset implements GAOrganism {
+        Search(Graph<V, E> graph, V src, V dst, EdgeWeigher<V, E> weigher) {
+            this.graph = graph;
+            this.src = src;
+            this.dst = dst;
+            this.weigher = weigher;
+        }
 
-        boolean[] subset;
-        boolean[] not;
-        Random r = new Random();
+        Set<Path<V, E>> run(Result<V, E> firstDijkstra, int maxPaths) {
+            if (firstDijkstra.paths().isEmpty()) {
+                return ImmutableSet.of();
+            }
+            // Both paths start out as the unconstrained shortest one
+            Path<V, E> shortest = firstDijkstra.paths().iterator().next();
+            ForkJoinPool.commonPool().invoke(
+                    new Node(ImmutableSet.of(), ImmutableSet.of(), shortest, shortest));
 
-        /**
-         * Creates a Subset from the given subset array.
-         *
-         * @param sub   subset array
-         */
-        public Subset(boolean[] sub) {
-            subset = sub.clone();
-            not = new boolean[subset.length];
-            for (int i = 0; i < subset.length; i++) {
-                not[i] = !subset[i];
+            List<DisjointPathPair<V, E>> sorted;
+            synchronized (this) {
+                sorted = new ArrayList<>(incumbents);
+            }
+            sorted.sort(Comparator.comparing(Object::toString));
+            Set<Path<V, E>> pairs = new LinkedHashSet<>();
+            for (DisjointPathPair<V, E> pair : sorted) {
+                if (maxPaths != ALL_PATHS && pairs.size() >= maxPaths) {
+                    break;
+                }
+                pairs.add(pair);
             }
+            return pairs;
         }
 
-        @Override
-        public Comparable fitness() {
-            Set<Path<V, E>> paths1 = findShortestPathFromSubset(subset).paths();
-            Set<Path<V, E>> paths2 = findShortestPathFromSubset(not).paths();
-            if (paths1.isEmpty() || paths2.isEmpty()) {
-                return weigher.getNonViableWeight();
-            }
-            return paths1.iterator().next().cost().merge(paths2.iterator().next().cost());
+        synchronized boolean prunes(Weight bound) {
+            return best != null && bound.compareTo(best) > 0;
         }
 
-        @Override
-        public void mutate() {
-            int turns = r.nextInt((int) Math.sqrt(subset.length));
-            while (turns > 0) {
-                int choose = r.nextInt(subset.length);
-                subset[choose] = !subset[choose];
-                not[choose] = !not[choose];
-                turns--;
+        synchronized void offer(Path<V, E> primary, Path<V, E> backup) {
+            // Orient the pair so that swapped duplicates coincide
+            int order = primary.cost().compareTo(backup.cost());
+            if (order > 0 || order == 0 &&
+                    primary.edges().toString().compareTo(backup.edges().toString()) > 0) {
+                Path<V, E> swap = primary;
+                primary = backup;
+                backup = swap;
+            }
+            Weight cost = primary.cost().merge(backup.cost());
+            int comparison = best == null ? -1 : cost.compareTo(best);
+            if (comparison < 0) {
+                best = cost;
+                incumbents.clear();
+            }
+            if (comparison <= 0) {
+                incumbents.add(new DisjointPathPair<>(primary, backup));
             }
         }
 
-        @Override
-        public GAOrganism crossWith(GAOrganism org) {
-            if (!(org.getClass().equals(getClass()))) {
-                return this;
-            }
-            Subset other = (Subset) (org);
-            boolean[] sub = new boolean[subset.length];
-            for (int i = 0; i < subset.length; i++) {
-                sub[i] = subset[i];
-                if (r.nextBoolean()) {
-                    sub[i] = other.subset[i];
+        // Finds the shortest path avoiding the given risks, or null if none
+        Path<V, E> shortestPath(Set<Object> excluded) {
+            EdgeWeigher<V, E> modified = new EdgeWeigher<V, E>() {
+                @Override
+                public Weight weight(E edge) {
+                    if (excluded.contains(risk(edge))) {
+                        return weigher.getNonViableWeight();
+                    }
+                    return weigher.weight(edge);
                 }
-            }
-            return new Subset(sub);
-        }
 
-        @Override
-        public GAOrganism random() {
-            boolean[] sub = new boolean[subset.length];
-            for (int i = 0; i < sub.length; i++) {
-                sub[i] = r.nextBoolean();
-            }
-            return new Subset(sub);
+                @Override
+                public Weight getInitialWeight() {
+                    return weigher.getInitialWeight();
+                }
+
+                @Override
+                public Weight getNonViableWeight() {
+                    return weigher.getNonViableWeight();
+                }
+            };
+            Set<Path<V, E>> paths = new DijkstraGraphSearch<V, E>()
+                    .search(graph, src, dst, modified, 1).paths();
+            return paths.isEmpty() ? null : paths.iterator().next();
         }
 
         /**
-         * Builds the set of disjoint path pairs for a given subset
-         * using Dijkstra's algorithm on both the subset and complement
-         * and returning all pairs with one from each set.
-         *
-         * @return all shortest disjoint paths given this subset
+         * Node of the search tree. A null path is computed when the node
+         * runs, from the risks forbidden to it.
          */
-        public Set<DisjointPathPair> buildPaths() {
-            Set<DisjointPathPair> dpps = new HashSet<>();
-            for (Path<V, E> path1: findShortestPathFromSubset(subset).paths()) {
-                for (Path<V, E> path2: findShortestPathFromSubset(not).paths()) {
-                    DisjointPathPair<V, E> dpp = new DisjointPathPair<>(path1, path2);
-                    dpps.add(dpp);
+        private final class Node extends RecursiveAction {
+
+            final Set<Object> primaryExcluded;
+            final Set<Object> backupExcluded;
+            Path<V, E> primary;
+            Path<V, E> backup;
+
+            Node(Set<Object> primaryExcluded, Set<Object> backupExcluded,
+                 Path<V, E> primary, Path<V, E> backup) {
+                this.primaryExcluded = primaryExcluded;
+                this.backupExcluded = backupExcluded;
+                this.primary = primary;
+                this.backup = backup;
+            }
+
+            @Override
+            protected void compute() {
+                if (nodes.incrementAndGet() > MAX_NODES) {
+                    return;
                 }
+                if (primary == null) {
+                    primary = shortestPath(primaryExcluded);
+                }
+                if (backup == null) {
+                    backup = shortestPath(backupExcluded);
+                }
+                if (primary == null || backup == null ||
+                        prunes(primary.cost().merge(backup.cost()))) {
+                    return;
+                }
+
+                Object conflict = firstConflict();
+                if (conflict == null) {
+                    offer(primary, backup);
+                    return;
+                }
+                invokeAll(new Node(with(primaryExcluded, conflict), backupExcluded,
+                                   null, backup),
+                          new Node(primaryExcluded, with(backupExcluded, conflict),
+                                   primary, null));
+            }
+
+            // Returns the first risk of the primary shared with the backup
+            private Object firstConflict() {
+                Set<Object> backupRisks = new HashSet<>();
+                for (E edge : backup.edges()) {
+                    backupRisks.add(risk(edge));
+                }
+                for (E edge : primary.edges()) {
+                    Object risk = risk(edge);
+                    if (backupRisks.contains(risk)) {
+                        return risk;
+                    }
+                }
+                return null;
+            }
+
+            private Set<Object> with(Set<Object> risks, Object risk) {
+                return ImmutableSet.builder().addAll(risks).add(risk).build();
             }
-            return dpps;
         }
     }
 }
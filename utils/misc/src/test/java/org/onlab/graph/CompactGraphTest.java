@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableSet.of;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the compact graph and of the searches running over it.
+ */
+public class CompactGraphTest extends GraphTest {
+
+    private static final ScalarWeight S1 = new ScalarWeight(1);
+
+    private final EdgeWeigher<TestVertex, TestEdge> scalarWeigher =
+            new EdgeWeigher<TestVertex, TestEdge>() {
+                @Override
+                public Weight weight(TestEdge edge) {
+                    return edge.weight();
+                }
+
+                @Override
+                public Weight getInitialWeight() {
+                    return new ScalarWeight(0);
+                }
+
+                @Override
+                public Weight getNonViableWeight() {
+                    return ScalarWeight.NON_VIABLE_WEIGHT;
+                }
+            };
+
+    @Test
+    public void layout() {
+        Graph<TestVertex, TestEdge> g = new AdjacencyListsGraph<>(vertexes(), edges());
+        CompactGraph<TestVertex, TestEdge> compact = new CompactGraph<>(g);
+
+        assertEquals("incorrect vertex count", 8, compact.vertexCount());
+        assertEquals("unknown vertex", -1, compact.id(Z));
+        for (TestVertex v : vertexes()) {
+            int id = compact.id(v);
+            assertEquals("incorrect vertex", v, compact.vertex(id));
+            Set<TestEdge> egress = new HashSet<>();
+            for (int e = compact.firstEdge(id); e < compact.endEdge(id); e++) {
+                egress.add(compact.edge(e));
+                assertEquals("incorrect target", compact.edge(e).dst(),
+                             compact.vertex(compact.target(e)));
+            }
+            assertEquals("incorrect egress edges", g.getEdgesFrom(v), egress);
+        }
+        assertEquals("incorrect edges", g.getEdges(), compact.getEdges());
+    }
+
+    @Test
+    public void sameResultsAsAdjacencyLists() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            Graph<TestVertex, TestEdge> g = randomGraph(random, 30, 90);
+            CompactGraph<TestVertex, TestEdge> compact = new CompactGraph<>(g);
+            for (TestVertex src : g.getVertexes()) {
+                assertSameSearch(new DijkstraGraphSearch<>(), g, compact, src, null);
+                assertSameSearch(new DijkstraGraphSearch<>(), g, compact, src, new TestVertex("v0"));
+            }
+        }
+    }
+
+    @Test
+    public void equalCostPaths() {
+        graph = new AdjacencyListsGraph<>(of(A, B, C, D),
+                                          of(new TestEdge(A, B, S1),
+                                             new TestEdge(A, C, S1),
+                                             new TestEdge(B, D, S1),
+                                             new TestEdge(C, D, S1)));
+        GraphPathSearch.Result<TestVertex, TestEdge> result = new DijkstraGraphSearch<TestVertex, TestEdge>()
+                .search(new CompactGraph<>(graph), A, D, scalarWeigher, GraphPathSearch.ALL_PATHS);
+        assertEquals("incorrect paths count", 2, result.paths().size());
+        assertEquals("incorrect path cost", new ScalarWeight(2), result.paths().iterator().next().cost());
+    }
+
+    @Test
+    public void nonScalarWeightsFallBack() {
+        graph = new AdjacencyListsGraph<>(vertexes(), edges());
+        GraphPathSearch<TestVertex, TestEdge> search = new DijkstraGraphSearch<>();
+        assertEquals("incorrect paths",
+                     search.search(graph, A, H, weigher, GraphPathSearch.ALL_PATHS).paths(),
+                     search.search(new CompactGraph<>(graph), A, H, weigher, GraphPathSearch.ALL_PATHS).paths());
+    }
+
+    @Test
+    public void disjointPaths() {
+        Set<TestEdge> edges = new HashSet<>();
+        for (TestEdge edge : edges()) {
+            edges.add(new TestEdge(edge.src(), edge.dst(), S1));
+        }
+        graph = new AdjacencyListsGraph<>(vertexes(), edges);
+        GraphPathSearch<TestVertex, TestEdge> search = new SuurballeGraphSearch<>();
+        Set<Path<TestVertex, TestEdge>> expected =
+                search.search(graph, A, H, scalarWeigher, GraphPathSearch.ALL_PATHS).paths();
+        assertTrue("no disjoint paths", !expected.isEmpty());
+        assertEquals("incorrect disjoint paths", expected,
+                     search.search(new CompactGraph<>(graph), A, H, scalarWeigher,
+                                   GraphPathSearch.ALL_PATHS).paths());
+    }
+
+    private void assertSameSearch(GraphPathSearch<TestVertex, TestEdge> search,
+                                  Graph<TestVertex, TestEdge> g,
+                                  CompactGraph<TestVertex, TestEdge> compact,
+                                  TestVertex src, TestVertex dst) {
+        GraphPathSearch.Result<TestVertex, TestEdge> expected =
+                search.search(g, src, dst, scalarWeigher, GraphPathSearch.ALL_PATHS);
+        GraphPathSearch.Result<TestVertex, TestEdge> actual =
+                search.search(compact, src, dst, scalarWeigher, GraphPathSearch.ALL_PATHS);
+        assertEquals("incorrect costs", expected.costs(), actual.costs());
+        assertEquals("incorrect parents", expected.parents(), actual.parents());
+        assertEquals("incorrect paths", expected.paths(), actual.paths());
+    }
+
+    private Graph<TestVertex, TestEdge> randomGraph(Random random, int vertexCount, int edgeCount) {
+        Set<TestVertex> vertexes = new HashSet<>();
+        for (int i = 0; i < vertexCount; i++) {
+            vertexes.add(new TestVertex("v" + i));
+        }
+        Set<TestEdge> edges = new HashSet<>();
+        for (int i = 0; i < edgeCount; i++) {
+            TestVertex a = new TestVertex("v" + random.nextInt(vertexCount));
+            TestVertex b = new TestVertex("v" + random.nextInt(vertexCount));
+            if (!a.equals(b)) {
+                // Small integer weights make equal-cost paths common.
+                edges.add(new TestEdge(a, b, new ScalarWeight(1 + random.nextInt(3))));
+            }
+        }
+        return new AdjacencyListsGraph<>(vertexes, edges);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Micro-benchmark comparing the Dijkstra search against the former variant
+ * which re-heapified the queue of all vertices after each extraction.
+ * <p>
+ * Searches run from a single source to every destination on grid, fat-tree
+ * and random topologies of growing size. This is not part of the unit tests;
+ * run it from the test classpath with
+ * {@code java -cp ... org.onlab.graph.DijkstraGraphSearchBenchmark [rounds]}.
+ * </p>
+ */
+public final class DijkstraGraphSearchBenchmark {
+
+    private static final TestDoubleWeight ZERO = new TestDoubleWeight(0);
+
+    private static final EdgeWeigher<TestVertex, TestEdge> WEIGHER =
+            new EdgeWeigher<TestVertex, TestEdge>() {
+                @Override
+                public Weight weight(TestEdge edge) {
+                    return edge.weight();
+                }
+
+                @Override
+                public Weight getInitialWeight() {
+                    return ZERO;
+                }
+
+                @Override
+                public Weight getNonViableWeight() {
+                    return TestDoubleWeight.NON_VIABLE_WEIGHT;
+                }
+            };
+
+    private DijkstraGraphSearchBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        Random random = new Random(42);
+
+        System.out.printf("%-24s %8s %8s %12s %12s%n",
+                          "topology", "vertices", "edges", "heapify ms", "indexed ms");
+        for (int side : new int[]{10, 20, 40}) {
+            run("grid " + side + "x" + side, grid(side, random), rounds);
+        }
+        for (int k : new int[]{4, 8, 12}) {
+            run("fat-tree k=" + k, fatTree(k, random), rounds);
+        }
+        for (int n : new int[]{100, 400, 1600}) {
+            run("random n=" + n, random(n, 4, random), rounds);
+        }
+    }
+
+    private static void run(String name, Graph<TestVertex, TestEdge> graph, int rounds) {
+        TestVertex src = graph.getVertexes().iterator().next();
+        GraphPathSearch<TestVertex, TestEdge> heapify = new HeapifyDijkstraGraphSearch<>();
+        GraphPathSearch<TestVertex, TestEdge> indexed = new DijkstraGraphSearch<>();
+
+        // Warm up both searches and check they agree before timing them.
+        for (int i = 0; i < Math.max(1, rounds / 4); i++) {
+            int expected = heapify.search(graph, src, null, WEIGHER, 1).paths().size();
+            int actual = indexed.search(graph, src, null, WEIGHER, 1).paths().size();
+            if (expected != actual) {
+                throw new IllegalStateException(name + ": " + expected + " != " + actual + " paths");
+            }
+        }
+
+        System.out.printf("%-24s %8d %8d %12.3f %12.3f%n", name,
+                          graph.getVertexes().size(), graph.getEdges().size(),
+                          time(heapify, graph, src, rounds), time(indexed, graph, src, rounds));
+    }
+
+    private static double time(GraphPathSearch<TestVertex, TestEdge> search,
+                               Graph<TestVertex, TestEdge> graph, TestVertex src, int rounds) {
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            search.search(graph, src, null, WEIGHER, 1);
+        }
+        return (System.nanoTime() - start) / 1e6 / rounds;
+    }
+
+    private static Graph<TestVertex, TestEdge> grid(int side, Random random) {
+        List<TestVertex> vertexes = vertexes("g", side * side);
+        Set<TestEdge> edges = new HashSet<>();
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                TestVertex v = vertexes.get(r * side + c);
+                if (c + 1 < side) {
+                    connect(edges, v, vertexes.get(r * side + c + 1), random);
+                }
+                if (r + 1 < side) {
+                    connect(edges, v, vertexes.get((r + 1) * side + c), random);
+                }
+            }
+        }
+        return new AdjacencyListsGraph<>(new HashSet<>(vertexes), edges);
+    }
+
+    private static Graph<TestVertex, TestEdge> fatTree(int k, Random random) {
+        int half = k / 2;
+        List<TestVertex> cores = vertexes("core", half * half);
+        List<TestVertex> aggs = vertexes("agg", k * half);
+        List<TestVertex> edgeSwitches = vertexes("edge", k * half);
+        Set<TestEdge> edges = new HashSet<>();
+        for (int pod = 0; pod < k; pod++) {
+            for (int a = 0; a < half; a++) {
+                TestVertex agg = aggs.get(pod * half + a);
+                for (int c = 0; c < half; c++) {
+                    connect(edges, agg, cores.get(a * half + c), random);
+                }
+                for (int e = 0; e < half; e++) {
+                    connect(edges, agg, edgeSwitches.get(pod * half + e), random);
+                }
+            }
+        }
+        Set<TestVertex> vertexes = new HashSet<>(cores);
+        vertexes.addAll(aggs);
+        vertexes.addAll(edgeSwitches);
+        return new AdjacencyListsGraph<>(vertexes, edges);
+    }
+
+    private static Graph<TestVertex, TestEdge> random(int n, int degree, Random random) {
+        List<TestVertex> vertexes = vertexes("r", n);
+        Set<TestEdge> edges = new HashSet<>();
+        // A ring keeps the graph connected; the rest of the edges are random.
+        for (int i = 0; i < n; i++) {
+            connect(edges, vertexes.get(i), vertexes.get((i + 1) % n), random);
+        }
+        for (int i = 0; i < n * (degree - 2) / 2; i++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a != b) {
+                connect(edges, vertexes.get(a), vertexes.get(b), random);
+            }
+        }
+        return new AdjacencyListsGraph<>(new HashSet<>(vertexes), edges);
+    }
+
+    private static List<TestVertex> vertexes(String prefix, int count) {
+        List<TestVertex> vertexes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            vertexes.add(new TestVertex(prefix + i));
+        }
+        return vertexes;
+    }
+
+    private static void connect(Set<TestEdge> edges, TestVertex a, TestVertex b, Random random) {
+        TestDoubleWeight weight = new TestDoubleWeight(1 + random.nextInt(10));
+        edges.add(new TestEdge(a, b, weight));
+        edges.add(new TestEdge(b, a, weight));
+    }
+
+    /**
+     * Former Dijkstra search, queueing every vertex and re-heapifying the
+     * whole queue after each extraction.
+     */
+    static final class HeapifyDijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
+            extends AbstractGraphPathSearch<V, E> {
+
+        @Override
+        protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst,
+                                              EdgeWeigher<V, E> weigher, int maxPaths) {
+            DefaultResult result = new DefaultResult(src, dst, maxPaths);
+            result.updateVertex(src, null, weigher.getInitialWeight(), false);
+            if (graph.getEdges().isEmpty()) {
+                result.buildPaths();
+                return result;
+            }
+
+            Heap<V> minQueue = new Heap<>(new ArrayList<>(graph.getVertexes()), (v1, v2) -> {
+                if (!result.hasCost(v1) && !result.hasCost(v2)) {
+                    return 0;
+                } else if (!result.hasCost(v1)) {
+                    return -1;
+                } else if (!result.hasCost(v2)) {
+                    return 1;
+                }
+                return result.cost(v2).compareTo(result.cost(v1));
+            });
+            while (!minQueue.isEmpty()) {
+                V nearest = minQueue.extractExtreme();
+                if (nearest.equals(dst)) {
+                    break;
+                }
+                if (result.hasCost(nearest)) {
+                    Weight cost = result.cost(nearest);
+                    for (E e : graph.getEdgesFrom(nearest)) {
+                        result.relaxEdge(e, cost, weigher, true);
+                    }
+                }
+                minQueue.heapify();
+            }
+
+            result.buildPaths();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableSet.of;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.onlab.graph.GraphPathSearch.ALL_PATHS;
+
+/**
+ * Tests of the incremental shortest paths engine.
+ */
+public class IncrementalShortestPathsTest extends GraphTest {
+
+    private final IncrementalShortestPaths<TestVertex, TestEdge> engine =
+            new IncrementalShortestPaths<>(weigher, 4);
+
+    @Test
+    public void basics() {
+        engine.update(new AdjacencyListsGraph<>(vertexes(), edges()));
+        assertSame(A, H);
+        assertEquals("incorrect tree count", 1, engine.treeCount());
+
+        TestEdge bd = new TestEdge(B, D, W2);
+        engine.removeEdge(bd);
+        assertSame(A, H);
+
+        engine.addEdge(new TestEdge(A, H, W3));
+        assertSame(A, H);
+        assertEquals("incorrect paths count", 1,
+                     engine.search(A, H, ALL_PATHS).paths().size());
+    }
+
+    @Test
+    public void unreachable() {
+        engine.update(new AdjacencyListsGraph<>(of(A, B, C),
+                                                of(new TestEdge(A, B, W1))));
+        assertTrue("no paths expected", engine.search(A, C, ALL_PATHS).paths().isEmpty());
+        engine.addEdge(new TestEdge(B, C, W1));
+        assertEquals("incorrect paths count", 1, engine.search(A, C, ALL_PATHS).paths().size());
+        engine.removeVertex(B);
+        assertTrue("no paths expected", engine.search(A, C, ALL_PATHS).paths().isEmpty());
+        assertEquals("incorrect vertex count", 2, engine.vertexCount());
+        assertEquals("incorrect edge count", 0, engine.edgeCount());
+    }
+
+    @Test
+    public void randomChanges() {
+        Random random = new Random(11);
+        List<TestVertex> vertexes = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            vertexes.add(new TestVertex("v" + i));
+        }
+        Set<TestEdge> edges = new HashSet<>();
+        for (int i = 0; i < 80; i++) {
+            edges.add(randomEdge(random, vertexes));
+        }
+        engine.update(new AdjacencyListsGraph<>(new HashSet<>(vertexes), edges));
+        List<TestVertex> sources = vertexes.subList(0, 4);
+        sources.forEach(src -> assertSame(src, null));
+
+        for (int round = 0; round < 200; round++) {
+            if (random.nextBoolean() && !edges.isEmpty()) {
+                TestEdge edge = ImmutableList.copyOf(edges).get(random.nextInt(edges.size()));
+                edges.remove(edge);
+                engine.removeEdge(edge);
+            } else {
+                TestEdge edge = randomEdge(random, vertexes);
+                if (edges.add(edge)) {
+                    engine.addEdge(edge);
+                }
+            }
+            sources.forEach(src -> assertSame(src, null));
+        }
+        assertEquals("incorrect tree count", 4, engine.treeCount());
+    }
+
+    private TestEdge randomEdge(Random random, List<TestVertex> vertexes) {
+        TestVertex a = vertexes.get(random.nextInt(vertexes.size()));
+        TestVertex b = vertexes.get(random.nextInt(vertexes.size()));
+        while (b.equals(a)) {
+            b = vertexes.get(random.nextInt(vertexes.size()));
+        }
+        // Small integer weights make equal-cost paths common.
+        return new TestEdge(a, b, new TestDoubleWeight(1 + random.nextInt(3)));
+    }
+
+    // Checks the engine gives the same result as a search from scratch.
+    private void assertSame(TestVertex src, TestVertex dst) {
+        GraphPathSearch.Result<TestVertex, TestEdge> expected = new DijkstraGraphSearch<TestVertex, TestEdge>()
+                .search(engine.graph(), src, dst, weigher, ALL_PATHS);
+        GraphPathSearch.Result<TestVertex, TestEdge> actual = engine.search(src, dst, ALL_PATHS);
+        assertEquals("incorrect paths", expected.paths(), actual.paths());
+        if (dst == null) {
+            assertEquals("incorrect costs", expected.costs(), actual.costs());
+            assertEquals("incorrect parents", expected.parents(), actual.parents());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Indexed heap data structure tests.
+ */
+public class IndexedHeapTest {
+
+    private final Map<String, Integer> keys = new HashMap<>();
+    private final IndexedHeap<String> heap =
+            new IndexedHeap<>((a, b) -> Integer.compare(keys.get(a), keys.get(b)));
+
+    private void add(String item, int key) {
+        keys.put(item, key);
+        heap.insert(item);
+    }
+
+    @Test
+    public void empty() {
+        assertTrue("should be empty", heap.isEmpty());
+        assertEquals("incorrect size", 0, heap.size());
+        assertNull("no item expected", heap.min());
+        assertNull("no item expected", heap.extractMin());
+    }
+
+    @Test
+    public void minQueue() {
+        int[] order = {6, 4, 5, 9, 8, 3, 2, 1, 7, 0};
+        for (int key : order) {
+            add("v" + key, key);
+        }
+        assertEquals("incorrect size", 10, heap.size());
+        assertEquals("incorrect min", "v0", heap.min());
+        for (int i = 0; i < order.length; i++) {
+            assertEquals("incorrect element", "v" + i, heap.extractMin());
+        }
+        assertTrue("should be empty", heap.isEmpty());
+    }
+
+    @Test
+    public void decreaseKey() {
+        add("a", 5);
+        add("b", 7);
+        add("c", 9);
+        add("d", 11);
+
+        keys.put("d", 1);
+        heap.decreaseKey("d");
+        keys.put("c", 6);
+        heap.insertOrDecrease("c");
+        add("e", 8);
+
+        assertTrue("should contain item", heap.contains("c"));
+        assertEquals("incorrect element", "d", heap.extractMin());
+        assertEquals("incorrect element", "a", heap.extractMin());
+        assertEquals("incorrect element", "c", heap.extractMin());
+        assertEquals("incorrect element", "b", heap.extractMin());
+        assertEquals("incorrect element", "e", heap.extractMin());
+        assertFalse("should not contain item", heap.contains("c"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateInsert() {
+        add("a", 1);
+        heap.insert("a");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownDecreaseKey() {
+        heap.decreaseKey("a");
+    }
+}
@@ -20,7 +20,10 @@ import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -94,4 +97,74 @@ public class LazyKShortestPathsSearchTest extends GraphTest {
         assertEquals(W5, rList.get(3).cost());
     }
 
+    @Test
+    public void edgeFilter() {
+        graph = new AdjacencyListsGraph<>(vertexes(), edges());
+        List<Path<TestVertex, TestEdge>> rList = sut.lazyPathSearch(
+                graph, A, E, weigher, edge -> !edge.equals(new TestEdge(B, C)), edges -> true)
+                .collect(Collectors.toList());
+
+        assertEquals("There are an unexpected number of paths.", 3, rList.size());
+        for (Path<TestVertex, TestEdge> path : rList) {
+            assertFalse(path.edges().contains(new TestEdge(B, C)));
+        }
+        assertEquals(W4, rList.get(0).cost());
+        assertEquals(W5, rList.get(2).cost());
+    }
+
+    @Test
+    public void prefixFilter() {
+        graph = new AdjacencyListsGraph<>(vertexes(), edges());
+        List<Path<TestVertex, TestEdge>> rList = sut.lazyPathSearch(
+                graph, A, E, weigher, edge -> true, edges -> edges.size() <= 2)
+                .collect(Collectors.toList());
+
+        assertEquals("There are an unexpected number of paths.", 2, rList.size());
+        assertEquals(ImmutableList.of(new TestEdge(A, C, W3), new TestEdge(C, E, W1)), rList.get(0).edges());
+        assertEquals(ImmutableList.of(new TestEdge(A, B, W1), new TestEdge(B, E, W4)), rList.get(1).edges());
+    }
+
+    @Test
+    public void allSimplePathsOnce() {
+        List<TestVertex> vertexes = ImmutableList.of(A, B, C, D, E, F);
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            Set<TestEdge> edges = new HashSet<>();
+            for (int i = 0; i < 14; i++) {
+                TestVertex src = vertexes.get(random.nextInt(vertexes.size()));
+                TestVertex dst = vertexes.get(random.nextInt(vertexes.size()));
+                if (!src.equals(dst)) {
+                    edges.add(new TestEdge(src, dst, new TestDoubleWeight(1 + random.nextInt(4))));
+                }
+            }
+            graph = new AdjacencyListsGraph<>(new HashSet<>(vertexes), edges);
+
+            List<Path<TestVertex, TestEdge>> rList = sut.lazyPathSearch(graph, A, F, weigher)
+                    .collect(Collectors.toList());
+            Set<List<TestEdge>> distinct = new HashSet<>();
+            for (int i = 0; i < rList.size(); i++) {
+                assertTrue("seed " + seed + ": duplicate path", distinct.add(rList.get(i).edges()));
+                if (i > 0) {
+                    assertTrue("seed " + seed + ": paths out of order",
+                               rList.get(i - 1).cost().compareTo(rList.get(i).cost()) <= 0);
+                }
+            }
+            assertEquals("seed " + seed + ": unexpected number of paths",
+                         simplePaths(A, F, new HashSet<>(ImmutableList.of(A))), rList.size());
+        }
+    }
+
+    private int simplePaths(TestVertex at, TestVertex dst, Set<TestVertex> visited) {
+        if (at.equals(dst)) {
+            return 1;
+        }
+        int count = 0;
+        for (TestEdge edge : graph.getEdgesFrom(at)) {
+            if (visited.add(edge.dst())) {
+                count += simplePaths(edge.dst(), dst, visited);
+                visited.remove(edge.dst());
+            }
+        }
+        return count;
+    }
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.onlab.graph.ParetoGraphSearch.Criterion;
+import org.onlab.graph.ParetoGraphSearch.Label;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test of the Pareto frontier graph search.
+ */
+public class ParetoGraphSearchTest extends GraphTest {
+
+    private static final double[] AVAILABILITIES = {0.9, 0.99, 1};
+
+    private final Map<TestEdge, Double> latency = new HashMap<>();
+    private final Map<TestEdge, Double> bandwidth = new HashMap<>();
+    private final Map<TestEdge, Double> availability = new HashMap<>();
+
+    private TestEdge edge(TestVertex src, TestVertex dst, double lat, double bw, double av) {
+        TestEdge edge = new TestEdge(src, dst);
+        latency.put(edge, lat);
+        bandwidth.put(edge, bw);
+        availability.put(edge, av);
+        return edge;
+    }
+
+    private ParetoGraphSearch<TestVertex, TestEdge> search() {
+        return new ParetoGraphSearch<>(ImmutableList.of(
+                Criterion.additive(latency::get),
+                Criterion.bottleneck(bandwidth::get),
+                Criterion.multiplicative(availability::get)));
+    }
+
+    private void assertLabel(Label<TestVertex, TestEdge> label, List<TestEdge> edges,
+                             double lat, double bw, double av) {
+        assertEquals(edges, label.edges());
+        assertEquals(lat, label.value(0), 0);
+        assertEquals(bw, label.value(1), 0);
+        assertEquals(av, label.value(2), 1e-12);
+    }
+
+    @Test
+    public void dominatedPathIsDropped() {
+        TestEdge ab = edge(A, B, 1, 10, 1);
+        TestEdge bd = edge(B, D, 1, 10, 1);
+        TestEdge ac = edge(A, C, 3, 100, 1);
+        TestEdge cd = edge(C, D, 3, 100, 1);
+        TestEdge ad = edge(A, D, 10, 5, 1);
+        graph = new AdjacencyListsGraph<>(of(A, B, C, D), ImmutableSet.of(ab, bd, ac, cd, ad));
+
+        List<Label<TestVertex, TestEdge>> frontier = search().search(graph, A, D);
+        assertEquals(2, frontier.size());
+        assertLabel(frontier.get(0), ImmutableList.of(ab, bd), 2, 10, 1);
+        assertLabel(frontier.get(1), ImmutableList.of(ac, cd), 6, 100, 1);
+    }
+
+    @Test
+    public void everyCriterionCounts() {
+        TestEdge ab = edge(A, B, 1, 10, 0.9);
+        TestEdge bd = edge(B, D, 1, 10, 0.9);
+        TestEdge ac = edge(A, C, 3, 100, 0.9);
+        TestEdge cd = edge(C, D, 3, 100, 0.9);
+        TestEdge ad = edge(A, D, 10, 5, 0.999);
+        graph = new AdjacencyListsGraph<>(of(A, B, C, D), ImmutableSet.of(ab, bd, ac, cd, ad));
+
+        List<Label<TestVertex, TestEdge>> frontier = search().search(graph, A, D);
+        assertEquals(3, frontier.size());
+        assertLabel(frontier.get(2), ImmutableList.of(ad), 10, 5, 0.999);
+    }
+
+    @Test
+    public void equivalentPathsOnce() {
+        TestEdge ab = edge(A, B, 1, 10, 1);
+        TestEdge bd = edge(B, D, 1, 10, 1);
+        TestEdge ac = edge(A, C, 1, 10, 1);
+        TestEdge cd = edge(C, D, 1, 10, 1);
+        graph = new AdjacencyListsGraph<>(of(A, B, C, D), ImmutableSet.of(ab, bd, ac, cd));
+
+        assertEquals(1, search().search(graph, A, D).size());
+    }
+
+    @Test
+    public void unusableEdges() {
+        TestEdge ab = edge(A, B, 1, 10, 1);
+        TestEdge bd = edge(B, D, Double.NaN, 10, 1);
+        graph = new AdjacencyListsGraph<>(of(A, B, C, D), ImmutableSet.of(ab, bd));
+
+        assertTrue(search().search(graph, A, D).isEmpty());
+    }
+
+    @Test
+    public void unreachable() {
+        TestEdge ab = edge(A, B, 1, 10, 1);
+        graph = new AdjacencyListsGraph<>(of(A, B, C), ImmutableSet.of(ab));
+
+        assertTrue(search().search(graph, A, C).isEmpty());
+    }
+
+    @Test
+    public void frontierOfRandomGraphs() {
+        for (long seed = 0; seed < 50; seed++) {
+            Random random = new Random(seed);
+            latency.clear();
+            bandwidth.clear();
+            availability.clear();
+            List<TestVertex> vertexes = ImmutableList.of(A, B, C, D, E, F, G);
+            Set<TestEdge> edges = new HashSet<>();
+            for (TestVertex src : vertexes) {
+                for (TestVertex dst : vertexes) {
+                    if (!src.equals(dst) && random.nextInt(3) == 0) {
+                        edges.add(edge(src, dst, random.nextInt(5),
+                                       10 * (1 + random.nextInt(3)),
+                                       AVAILABILITIES[random.nextInt(AVAILABILITIES.length)]));
+                    }
+                }
+            }
+            graph = new AdjacencyListsGraph<>(ImmutableSet.copyOf(vertexes), edges);
+
+            Set<List<Double>> expected = new HashSet<>();
+            List<List<Double>> figures = new ArrayList<>();
+            simplePaths(A, G, new HashSet<>(ImmutableSet.of(A)), 0,
+                        Double.POSITIVE_INFINITY, 1, figures);
+            for (List<Double> candidate : figures) {
+                if (figures.stream().noneMatch(other -> dominates(other, candidate))) {
+                    expected.add(candidate);
+                }
+            }
+
+            Set<List<Double>> found = new HashSet<>();
+            for (Label<TestVertex, TestEdge> label : search().search(graph, A, G)) {
+                found.add(ImmutableList.of(label.value(0), label.value(1), label.value(2)));
+            }
+            assertEquals("seed " + seed, expected, found);
+        }
+    }
+
+    private void simplePaths(TestVertex vertex, TestVertex dst, Set<TestVertex> visited,
+                             double lat, double bw, double av, List<List<Double>> figures) {
+        if (vertex.equals(dst)) {
+            figures.add(ImmutableList.of(lat, bw, av));
+            return;
+        }
+        for (TestEdge edge : graph.getEdgesFrom(vertex)) {
+            if (visited.add(edge.dst())) {
+                simplePaths(edge.dst(), dst, visited, lat + latency.get(edge),
+                            Math.min(bw, bandwidth.get(edge)), av * availability.get(edge), figures);
+                visited.remove(edge.dst());
+            }
+        }
+    }
+
+    private static boolean dominates(List<Double> a, List<Double> b) {
+        return !a.equals(b) && a.get(0) <= b.get(0) && a.get(1) >= b.get(1) && a.get(2) >= b.get(2);
+    }
+
+    private static Set<TestVertex> of(TestVertex... vertexes) {
+        return ImmutableSet.copyOf(vertexes);
+    }
+}
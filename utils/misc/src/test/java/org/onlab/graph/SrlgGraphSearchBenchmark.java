@@ -0,0 +1,325 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.onlab.graph.GraphPathSearch.ALL_PATHS;
+
+/**
+ * Micro-benchmark comparing the branch-and-bound SRLG search against the
+ * former genetic algorithm.
+ * <p>
+ * Both searches look for risk disjoint pairs between the corners of grid and
+ * ring-of-rings topologies whose links are annotated with shared risk groups,
+ * a group typically covering both directions of a link and some neighbouring
+ * links in the same duct. The table shows the mean time per search, the best
+ * pair cost found and, for the genetic algorithm, how many distinct results
+ * the repeated searches gave. This is not part of the unit tests; run it from
+ * the test classpath with
+ * {@code java -cp ... org.onlab.graph.SrlgGraphSearchBenchmark [rounds]}.
+ * </p>
+ */
+public final class SrlgGraphSearchBenchmark {
+
+    private static final TestDoubleWeight ZERO = new TestDoubleWeight(0);
+
+    private static final EdgeWeigher<TestVertex, TestEdge> WEIGHER =
+            new EdgeWeigher<TestVertex, TestEdge>() {
+                @Override
+                public Weight weight(TestEdge edge) {
+                    return edge.weight();
+                }
+
+                @Override
+                public Weight getInitialWeight() {
+                    return ZERO;
+                }
+
+                @Override
+                public Weight getNonViableWeight() {
+                    return TestDoubleWeight.NON_VIABLE_WEIGHT;
+                }
+            };
+
+    private SrlgGraphSearchBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Random random = new Random(42);
+
+        System.out.printf("%-20s %8s %8s %10s %10s %8s %10s %10s%n", "topology", "vertices",
+                          "groups", "GA ms", "GA cost", "GA runs", "B&B ms", "B&B cost");
+        for (int side : new int[]{4, 6, 8}) {
+            List<TestVertex> vertexes = new ArrayList<>();
+            Map<TestEdge, Integer> groups = new HashMap<>();
+            Graph<TestVertex, TestEdge> graph = grid(side, vertexes, groups, random);
+            run("grid " + side + "x" + side, graph, groups,
+                vertexes.get(0), vertexes.get(vertexes.size() - 1), rounds);
+        }
+        for (int rings : new int[]{3, 5, 8}) {
+            List<TestVertex> vertexes = new ArrayList<>();
+            Map<TestEdge, Integer> groups = new HashMap<>();
+            Graph<TestVertex, TestEdge> graph = rings(rings, 6, vertexes, groups, random);
+            run("rings " + rings + "x6", graph, groups,
+                vertexes.get(0), vertexes.get(vertexes.size() / 2 + 3), rounds);
+        }
+    }
+
+    private static void run(String name, Graph<TestVertex, TestEdge> graph,
+                            Map<TestEdge, Integer> groups, TestVertex src, TestVertex dst,
+                            int rounds) {
+        int numGroups = groups.values().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
+        GraphPathSearch<TestVertex, TestEdge> ga = new GaSrlgGraphSearch<>(numGroups, groups);
+        GraphPathSearch<TestVertex, TestEdge> bnb = new SrlgGraphSearch<>(numGroups, groups);
+
+        Set<Set<Path<TestVertex, TestEdge>>> gaResults = new HashSet<>();
+        Weight gaCost = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            Set<Path<TestVertex, TestEdge>> paths = ga.search(graph, src, dst, WEIGHER, 1).paths();
+            gaResults.add(paths);
+            gaCost = min(gaCost, paths);
+        }
+        double gaTime = (System.nanoTime() - start) / 1e6 / rounds;
+
+        Weight bnbCost = null;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            bnbCost = min(bnbCost, bnb.search(graph, src, dst, WEIGHER, ALL_PATHS).paths());
+        }
+        double bnbTime = (System.nanoTime() - start) / 1e6 / rounds;
+
+        System.out.printf("%-20s %8d %8d %10.2f %10s %8d %10.2f %10s%n", name,
+                          graph.getVertexes().size(), numGroups, gaTime, gaCost,
+                          gaResults.size(), bnbTime, bnbCost);
+    }
+
+    private static Weight min(Weight best, Set<Path<TestVertex, TestEdge>> paths) {
+        for (Path<TestVertex, TestEdge> path : paths) {
+            if (best == null || path.cost().compareTo(best) < 0) {
+                best = path.cost();
+            }
+        }
+        return best;
+    }
+
+    private static Graph<TestVertex, TestEdge> grid(int side, List<TestVertex> vertexes,
+                                                    Map<TestEdge, Integer> groups,
+                                                    Random random) {
+        for (int i = 0; i < side * side; i++) {
+            vertexes.add(new TestVertex("g" + i));
+        }
+        Set<TestEdge> edges = new HashSet<>();
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                TestVertex v = vertexes.get(r * side + c);
+                if (c + 1 < side) {
+                    connect(edges, groups, v, vertexes.get(r * side + c + 1), random);
+                }
+                if (r + 1 < side) {
+                    connect(edges, groups, v, vertexes.get((r + 1) * side + c), random);
+                }
+            }
+        }
+        return new AdjacencyListsGraph<>(new HashSet<>(vertexes), edges);
+    }
+
+    // Rings of the given size, each one attached to the next by two links
+    private static Graph<TestVertex, TestEdge> rings(int count, int size,
+                                                     List<TestVertex> vertexes,
+                                                     Map<TestEdge, Integer> groups,
+                                                     Random random) {
+        for (int i = 0; i < count * size; i++) {
+            vertexes.add(new TestVertex("r" + i));
+        }
+        Set<TestEdge> edges = new HashSet<>();
+        for (int ring = 0; ring < count; ring++) {
+            for (int i = 0; i < size; i++) {
+                connect(edges, groups, vertexes.get(ring * size + i),
+                        vertexes.get(ring * size + (i + 1) % size), random);
+            }
+            int next = (ring + 1) % count;
+            connect(edges, groups, vertexes.get(ring * size), vertexes.get(next * size + 3), random);
+            connect(edges, groups, vertexes.get(ring * size + 1), vertexes.get(next * size + 4), random);
+        }
+        return new AdjacencyListsGraph<>(new HashSet<>(vertexes), edges);
+    }
+
+    // Adds both directions of a link, sharing a group with the previous link one time in three
+    private static void connect(Set<TestEdge> edges, Map<TestEdge, Integer> groups,
+                                TestVertex a, TestVertex b, Random random) {
+        TestDoubleWeight weight = new TestDoubleWeight(1 + random.nextInt(10));
+        TestEdge ab = new TestEdge(a, b, weight);
+        TestEdge ba = new TestEdge(b, a, weight);
+        edges.add(ab);
+        edges.add(ba);
+        int group = groups.size() / 2;
+        if (group > 0 && random.nextInt(3) == 0) {
+            group--;
+        }
+        groups.put(ab, group);
+        groups.put(ba, group);
+    }
+
+    /**
+     * Former SRLG search, running a genetic algorithm over subsets of risk
+     * groups; the primary path uses the groups of the subset and the backup
+     * path the others.
+     */
+    static final class GaSrlgGraphSearch<V extends Vertex, E extends Edge<V>>
+            extends AbstractGraphPathSearch<V, E> {
+
+        static final int ITERATIONS = 100;
+        static final int POPSIZE = 50;
+
+        final int numGroups;
+        final Map<E, Integer> riskGrouping;
+
+        Graph<V, E> orig;
+        V src, dst;
+        EdgeWeigher<V, E> weigher;
+
+        GaSrlgGraphSearch(int groups, Map<E, Integer> grouping) {
+            numGroups = groups;
+            riskGrouping = grouping;
+        }
+
+        @Override
+        protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst,
+                                              EdgeWeigher<V, E> weigher, int maxPaths) {
+            if (maxPaths == ALL_PATHS) {
+                maxPaths = POPSIZE;
+            }
+            orig = graph;
+            this.src = src;
+            this.dst = dst;
+            this.weigher = weigher;
+            List<Subset> best = new GAPopulation<Subset>()
+                    .runGA(ITERATIONS, POPSIZE, maxPaths, new Subset(new boolean[numGroups]));
+            DefaultResult result = (DefaultResult) new DijkstraGraphSearch<V, E>()
+                    .search(orig, src, dst, weigher, 1);
+            Set<Path<V, E>> pairs = new HashSet<>();
+            for (Subset s : best) {
+                pairs.addAll(s.buildPaths());
+            }
+            result.paths.clear();
+            result.paths.addAll(pairs);
+            return result;
+        }
+
+        private Result<V, E> findShortestPathFromSubset(boolean[] subset) {
+            EdgeWeigher<V, E> modified = new EdgeWeigher<V, E>() {
+                @Override
+                public Weight weight(E edge) {
+                    if (subset[riskGrouping.get(edge)]) {
+                        return weigher.weight(edge);
+                    }
+                    return weigher.getNonViableWeight();
+                }
+
+                @Override
+                public Weight getInitialWeight() {
+                    return weigher.getInitialWeight();
+                }
+
+                @Override
+                public Weight getNonViableWeight() {
+                    return weigher.getNonViableWeight();
+                }
+            };
+            return new DijkstraGraphSearch<V, E>().search(orig, src, dst, modified, 1);
+        }
+
+        class Subset implements GAOrganism {
+
+            boolean[] subset;
+            boolean[] not;
+            Random r = new Random();
+
+            Subset(boolean[] sub) {
+                subset = sub.clone();
+                not = new boolean[subset.length];
+                for (int i = 0; i < subset.length; i++) {
+                    not[i] = !subset[i];
+                }
+            }
+
+            @Override
+            public Comparable fitness() {
+                Set<Path<V, E>> paths1 = findShortestPathFromSubset(subset).paths();
+                Set<Path<V, E>> paths2 = findShortestPathFromSubset(not).paths();
+                if (paths1.isEmpty() || paths2.isEmpty()) {
+                    return weigher.getNonViableWeight();
+                }
+                return paths1.iterator().next().cost().merge(paths2.iterator().next().cost());
+            }
+
+            @Override
+            public void mutate() {
+                int turns = r.nextInt((int) Math.sqrt(subset.length));
+                while (turns > 0) {
+                    int choose = r.nextInt(subset.length);
+                    subset[choose] = !subset[choose];
+                    not[choose] = !not[choose];
+                    turns--;
+                }
+            }
+
+            @Override
+            public GAOrganism crossWith(GAOrganism org) {
+                if (!(org.getClass().equals(getClass()))) {
+                    return this;
+                }
+                Subset other = (Subset) (org);
+                boolean[] sub = new boolean[subset.length];
+                for (int i = 0; i < subset.length; i++) {
+                    sub[i] = subset[i];
+                    if (r.nextBoolean()) {
+                        sub[i] = other.subset[i];
+                    }
+                }
+                return new Subset(sub);
+            }
+
+            @Override
+            public GAOrganism random() {
+                boolean[] sub = new boolean[subset.length];
+                for (int i = 0; i < sub.length; i++) {
+                    sub[i] = r.nextBoolean();
+                }
+                return new Subset(sub);
+            }
+
+            Set<DisjointPathPair<V, E>> buildPaths() {
+                Set<DisjointPathPair<V, E>> pairs = new HashSet<>();
+                for (Path<V, E> path1 : findShortestPathFromSubset(subset).paths()) {
+                    for (Path<V, E> path2 : findShortestPathFromSubset(not).paths()) {
+                        pairs.add(new DisjointPathPair<>(path1, path2));
+                    }
+                }
+                return pairs;
+            }
+        }
+    }
+}
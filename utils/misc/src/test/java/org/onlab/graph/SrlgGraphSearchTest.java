@@ -18,13 +18,17 @@ package org.onlab.graph;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import static com.google.common.collect.ImmutableSet.of;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.onlab.graph.GraphPathSearch.ALL_PATHS;
 
@@ -171,4 +175,118 @@ public class SrlgGraphSearchTest extends BreadthFirstSearchTest {
         Set<Path<TestVertex, TestEdge>> paths = search.search(graph, A, E, weigher, ALL_PATHS).paths();
         assertTrue("no disjoint path pairs found", paths.size() == 0);
     }
+
+    @Test
+    public void ungroupedEdgesAreNotShared() {
+        TestEdge aB = new TestEdge(A, B);
+        TestEdge bC = new TestEdge(B, C);
+        TestEdge aD = new TestEdge(A, D);
+        TestEdge dC = new TestEdge(D, C);
+        TestEdge cE = new TestEdge(C, E);
+        Graph<TestVertex, TestEdge> graph = new AdjacencyListsGraph<>(of(A, B, C, D, E),
+                                                                      of(aB, bC, aD, dC, cE));
+        Map<TestEdge, Integer> riskProfile = new HashMap<>();
+        riskProfile.put(aB, 0);
+        riskProfile.put(aD, 1);
+        SrlgGraphSearch<TestVertex, TestEdge> search = new SrlgGraphSearch<>(2, riskProfile);
+        assertTrue("the pair would share C->E",
+                   search.search(graph, A, E, weigher, ALL_PATHS).paths().isEmpty());
+        assertEquals(1, search.search(graph, A, C, weigher, ALL_PATHS).paths().size());
+    }
+
+    @Test
+    public void optimalAndDeterministicOnRandomGraphs() {
+        List<TestVertex> vertexes = new ArrayList<>(of(A, B, C, D, E, F, G));
+        for (int seed = 0; seed < 50; seed++) {
+            Random random = new Random(seed);
+            Set<TestEdge> edges = new HashSet<>();
+            Map<TestEdge, Integer> riskProfile = new HashMap<>();
+            for (int i = 0; i < 14; i++) {
+                TestVertex src = vertexes.get(random.nextInt(vertexes.size()));
+                TestVertex dst = vertexes.get(random.nextInt(vertexes.size()));
+                if (src.equals(dst)) {
+                    continue;
+                }
+                TestEdge edge = new TestEdge(src, dst, new TestDoubleWeight(1 + random.nextInt(5)));
+                if (edges.add(edge) && random.nextInt(4) > 0) {
+                    riskProfile.put(edge, random.nextInt(5));
+                }
+            }
+            Graph<TestVertex, TestEdge> graph = new AdjacencyListsGraph<>(of(A, B, C, D, E, F, G),
+                                                                          edges);
+
+            Weight expected = bestPairCost(graph, riskProfile, A, G);
+            SrlgGraphSearch<TestVertex, TestEdge> search = new SrlgGraphSearch<>(5, riskProfile);
+            Set<Path<TestVertex, TestEdge>> paths =
+                    search.search(graph, A, G, weigher, ALL_PATHS).paths();
+            if (expected == null) {
+                assertTrue("seed " + seed + ": no pair expected", paths.isEmpty());
+                continue;
+            }
+            assertFalse("seed " + seed + ": pair expected", paths.isEmpty());
+            for (Path<TestVertex, TestEdge> path : paths) {
+                DisjointPathPair<TestVertex, TestEdge> pair = (DisjointPathPair) path;
+                assertTrue("seed " + seed + ": pair not disjoint",
+                           disjoint(pair.primary(), pair.secondary(), riskProfile));
+                assertEquals("seed " + seed + ": pair not optimal",
+                             0, expected.compareTo(pair.cost()));
+            }
+            assertEquals("seed " + seed + ": result not reproducible", new ArrayList<>(paths),
+                         new ArrayList<>(search.search(graph, A, G, weigher, ALL_PATHS).paths()));
+        }
+    }
+
+    // Finds the cost of the cheapest risk disjoint pair by enumerating all simple paths
+    private Weight bestPairCost(Graph<TestVertex, TestEdge> graph, Map<TestEdge, Integer> risks,
+                                TestVertex src, TestVertex dst) {
+        List<Path<TestVertex, TestEdge>> paths = new ArrayList<>();
+        simplePaths(graph, src, dst, new ArrayList<>(), new HashSet<>(of(src)), paths);
+        Weight best = null;
+        for (Path<TestVertex, TestEdge> one : paths) {
+            for (Path<TestVertex, TestEdge> two : paths) {
+                if (disjoint(one, two, risks)) {
+                    Weight cost = one.cost().merge(two.cost());
+                    if (best == null || cost.compareTo(best) < 0) {
+                        best = cost;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private void simplePaths(Graph<TestVertex, TestEdge> graph, TestVertex at, TestVertex dst,
+                             List<TestEdge> edges, Set<TestVertex> visited,
+                             List<Path<TestVertex, TestEdge>> paths) {
+        if (at.equals(dst)) {
+            Weight cost = ZW;
+            for (TestEdge edge : edges) {
+                cost = cost.merge(edge.weight());
+            }
+            paths.add(new DefaultPath<>(new ArrayList<>(edges), cost));
+            return;
+        }
+        for (TestEdge edge : graph.getEdgesFrom(at)) {
+            if (visited.add(edge.dst())) {
+                edges.add(edge);
+                simplePaths(graph, edge.dst(), dst, edges, visited, paths);
+                edges.remove(edges.size() - 1);
+                visited.remove(edge.dst());
+            }
+        }
+    }
+
+    private boolean disjoint(Path<TestVertex, TestEdge> one, Path<TestVertex, TestEdge> two,
+                             Map<TestEdge, Integer> risks) {
+        Set<Object> oneRisks = new HashSet<>();
+        for (TestEdge edge : one.edges()) {
+            oneRisks.add(risks.containsKey(edge) ? risks.get(edge) : edge);
+        }
+        for (TestEdge edge : two.edges()) {
+            if (oneRisks.contains(risks.containsKey(edge) ? risks.get(edge) : edge)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }